@@ -75,16 +75,20 @@ public interface IndexDescriptor
 	/**
 	 * Returns the number of ordered columns.  
      * <p>
-	 * In the future, it will be
-	 * possible to store non-ordered columns in an index.  These will be
-	 * useful for covered queries.  The ordered columns will be at the
-	 * beginning of the index row, and they will be followed by the
-	 * non-ordered columns.
-	 *
-	 * For now, all columns in an index must be ordered.
+	 * The ordered columns are the key of the index.  They are at the
+	 * beginning of the index row, and they are followed by the
+	 * non-ordered columns (the INCLUDE columns of the index), which are
+	 * only stored with each index row so that queries referencing them
+	 * can be covered by the index.
 	 */
 	int				numberOfOrderedColumns();
 
+	/**
+	 * Returns the base table positions of the ordered columns, i.e. the
+	 * first numberOfOrderedColumns() entries of baseColumnPositions().
+	 */
+	int[]	orderedColumnPositions();
+
 	/**
 	 * Returns the type of the index.  For now, we only support B-Trees,
 	 * so the value "BTREE" is returned.
@@ -38,6 +38,7 @@ import com.splicemachine.db.iapi.services.io.FormatableHashtable;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
  *
@@ -89,10 +90,10 @@ public class IndexDescriptorImpl implements IndexDescriptor, Formatable {
      * 								column position in the base table.
      * @param isAscending	An array of booleans telling asc/desc on each
      * 						column.
-     * @param numberOfOrderedColumns	In the future, it will be possible
-     * 									to store non-ordered columns in an
-     * 									index.  These will be useful for
-     * 									covered queries.
+     * @param numberOfOrderedColumns	The number of leading columns the
+     * 									index is ordered on, the remaining
+     * 									columns are only included in the
+     * 									index rows to cover queries.
      */
 	public IndexDescriptorImpl(String indexType,
 								boolean isUnique,
@@ -166,6 +167,14 @@ public class IndexDescriptorImpl implements IndexDescriptor, Formatable {
 		return numberOfOrderedColumns;
 	}
 
+	/** @see IndexDescriptor#orderedColumnPositions */
+	public int[] orderedColumnPositions()
+	{
+		if (numberOfOrderedColumns >= baseColumnPositions.length)
+			return baseColumnPositions;
+		return Arrays.copyOf(baseColumnPositions, numberOfOrderedColumns);
+	}
+
 	/** @see IndexDescriptor#indexType */
 	public String indexType()
 	{
@@ -237,7 +246,7 @@ public class IndexDescriptorImpl implements IndexDescriptor, Formatable {
 		sb.append(" (");
 
 
-		for (int i = 0; i < baseColumnPositions.length; i++)
+		for (int i = 0; i < numberOfOrderedColumns; i++)
 		{
 			if (i > 0)
 				sb.append(", ");
@@ -248,6 +257,17 @@ public class IndexDescriptorImpl implements IndexDescriptor, Formatable {
 
 		sb.append(")");
 
+		if (numberOfOrderedColumns < baseColumnPositions.length) {
+			sb.append(" INCLUDE (");
+			for (int i = numberOfOrderedColumns; i < baseColumnPositions.length; i++)
+			{
+				if (i > numberOfOrderedColumns)
+					sb.append(", ");
+				sb.append(baseColumnPositions[i]);
+			}
+			sb.append(")");
+		}
+
 		if (excludeNulls) {
 			sb.append(" EXCL NULLS");
 		}
@@ -55,6 +55,7 @@ import com.splicemachine.db.iapi.sql.execute.ExecPreparedStatement;
 import com.splicemachine.db.iapi.sql.execute.ExecutionStmtValidator;
 import com.splicemachine.db.iapi.store.access.TransactionController;
 import com.splicemachine.db.iapi.types.DataValueFactory;
+import com.splicemachine.db.impl.sql.ParameterizedStatement;
 import com.splicemachine.db.impl.sql.execute.TriggerExecutionContext;
 import com.splicemachine.db.impl.sql.execute.TriggerExecutionStack;
 
@@ -916,6 +917,30 @@ public interface LanguageConnectionContext extends Context {
 		PreparedStatement prepareInternalStatement(String sqlText)
 	    throws StandardException;
 
+	/**
+	 * Return the literal-free form of a statement issued through a plain JDBC Statement,
+	 * or null if literal auto-parameterization is disabled for this database
+	 * ({@link com.splicemachine.db.iapi.reference.Property#AUTO_PARAMETERIZE_LITERALS})
+	 * or the statement has no literal that can safely be replaced.
+	 *
+	 * @param sqlText sql query string
+	 */
+	ParameterizedStatement autoParameterize(String sqlText) throws StandardException;
+
+	/**
+	 * Return a PreparedStatement object for an auto-parameterized query, looking it up
+	 * in the statement cache first. The literal values are not part of the prepared
+	 * statement; bind them to each activation with
+	 * {@link ParameterizedStatement#bind(ParameterValueSet)}.
+	 *
+	 * @param compilationSchema schema
+	 * @param statement the parameterized query
+	 * @param isForReadOnly read only status for resultset
+	 */
+	PreparedStatement prepareInternalStatement(SchemaDescriptor compilationSchema,
+											   ParameterizedStatement statement, boolean isForReadOnly)
+	    throws StandardException;
+
 	/**
 	 * Control whether or not optimizer trace is on.
 	 *
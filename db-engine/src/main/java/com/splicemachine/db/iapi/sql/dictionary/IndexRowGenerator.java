@@ -72,10 +72,10 @@ public class IndexRowGenerator implements IndexDescriptor, Formatable
      * 								column position in the base table.
      * @param isAscending	An array of booleans telling asc/desc on each
      * 						column.
-     * @param numberOfOrderedColumns	In the future, it will be possible
-     * 									to store non-ordered columns in an
-     * 									index.  These will be useful for
-     * 									covered queries.
+     * @param numberOfOrderedColumns	The number of leading columns the
+     * 									index is ordered on, the remaining
+     * 									columns are only included in the
+     * 									index rows to cover queries.
      */
 	public IndexRowGenerator(String indexType,
 								boolean isUnique,
@@ -361,6 +361,12 @@ public class IndexRowGenerator implements IndexDescriptor, Formatable
 		return id.numberOfOrderedColumns();
 	}
 
+	/** @see IndexDescriptor#orderedColumnPositions */
+	public int[] orderedColumnPositions()
+	{
+		return id.orderedColumnPositions();
+	}
+
 	/** @see IndexDescriptor#indexType */
 	public String indexType()
 	{
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.db.iapi.stats;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.types.DataTypeDescriptor;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.SQLVarchar;
+import com.splicemachine.db.iapi.types.StringDataValue;
+import com.yahoo.sketches.theta.Sketch;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+
+/**
+ *
+ * Statistics for a group of columns taken together, such as the leading columns of an index.
+ *
+ * The values of the columns in a row are combined into a single key, and the usual quantiles,
+ * frequencies and theta sketches are kept over that key. The theta sketch gives the number of
+ * distinct combinations and the frequencies sketch the most common ones, which is what is needed to
+ * estimate equality predicates on all columns of the group without assuming the columns are
+ * independent. A row with a null in any of the columns counts as a null key, since it can never
+ * satisfy equality predicates on all of them.
+ *
+ * Column group statistics are stored alongside column statistics with a negative column id, so they
+ * are merged across partitions exactly like the statistics of a single column.
+ *
+ */
+public class ColumnGroupStatisticsImpl extends ColumnStatisticsImpl {
+    private int[] columns;
+
+    public ColumnGroupStatisticsImpl() {
+
+    }
+
+    /**
+     *
+     * @param columns the positions of the columns in the group (indexed from 1)
+     * @throws StandardException
+     */
+    public ColumnGroupStatisticsImpl(int[] columns) throws StandardException {
+        super(new SQLVarchar());
+        this.columns = columns;
+    }
+
+    public ColumnGroupStatisticsImpl(int[] columns,
+                                     DataValueDescriptor dvd,
+                                     com.yahoo.sketches.quantiles.ItemsSketch quantilesSketch,
+                                     com.yahoo.sketches.frequencies.ItemsSketch frequenciesSketch,
+                                     Sketch thetaSketch, long nullCount) {
+        super(dvd, quantilesSketch, frequenciesSketch, thetaSketch, nullCount);
+        this.columns = columns;
+    }
+
+    /**
+     *
+     * @return the positions of the columns in the group (indexed from 1)
+     */
+    public int[] getColumns() {
+        return columns;
+    }
+
+    /**
+     *
+     * Convert a value compared with a column of a group to the type of the column, so it is rendered into
+     * the key the same way the values of the column were when the statistics were collected: an INTEGER 1
+     * compared with a DECIMAL(5,2) column is keyed as 1.00, and a character literal compared with a
+     * TIMESTAMP column as a timestamp.
+     *
+     * @param value the compared value
+     * @param columnType the type of the column
+     * @return the value in the type of the column, or null if it can't be represented in that type
+     */
+    public static DataValueDescriptor normalize(DataValueDescriptor value, DataTypeDescriptor columnType) {
+        if (value == null || columnType == null || value.isNull())
+            return value;
+        try {
+            DataTypeDescriptor type = columnType.getNullabilityType(true);
+            return type.normalize(value, type.getNull());
+        } catch (StandardException se) {
+            return null;
+        }
+    }
+
+    /**
+     *
+     * Combine the values of the columns of a group into the key the statistics are kept on. Trailing
+     * blanks of character values are ignored, so CHAR columns match the literals they are compared with.
+     * Values compared with the columns must be of the types of the columns, see {@link #normalize}.
+     *
+     * @param values the value of each column of the group
+     * @return the key, or a null value if any of the values is null
+     * @throws StandardException
+     */
+    public static DataValueDescriptor key(DataValueDescriptor[] values) throws StandardException {
+        StringBuilder sb = new StringBuilder();
+        for (DataValueDescriptor value : values) {
+            if (value == null || value.isNull())
+                return new SQLVarchar();
+            String s = value.getString();
+            if (value instanceof StringDataValue) {
+                int end = s.length();
+                while (end > 0 && s.charAt(end - 1) == ' ')
+                    end--;
+                s = s.substring(0, end);
+            }
+            // length prefixed, so ("ab","c") and ("a","bc") don't collide
+            sb.append(s.length()).append(':').append(s);
+        }
+        return new SQLVarchar(sb.toString());
+    }
+
+    /**
+     *
+     * Number of rows matching equality predicates on all columns of the group.
+     *
+     * @param values the compared value of each column, with null entries for values that are not known
+     *               (parameters, join columns)
+     * @return the estimated number of rows
+     * @throws StandardException
+     */
+    public long selectivity(DataValueDescriptor[] values) throws StandardException {
+        for (DataValueDescriptor value : values) {
+            if (value == null || value.isNull())
+                return rowsPerValue();
+        }
+        return selectivity(key(values));
+    }
+
+    /**
+     *
+     * Average number of rows per distinct combination of values.
+     *
+     * @return
+     */
+    public long rowsPerValue() {
+        long cardinality = cardinality();
+        return cardinality <= 0 ? notNullCount() : notNullCount() / cardinality;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        super.writeExternal(out);
+        out.writeInt(columns.length);
+        for (int column : columns)
+            out.writeInt(column);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        super.readExternal(in);
+        columns = new int[in.readInt()];
+        for (int i = 0; i < columns.length; i++)
+            columns[i] = in.readInt();
+    }
+
+    @Override
+    public ItemStatistics<DataValueDescriptor> getClone() {
+        return new ColumnGroupStatisticsImpl(columns,
+                dvd.cloneValue(false),
+                quantilesSketch,
+                frequenciesSketch,
+                thetaSketch,
+                nullCount);
+    }
+
+    /**
+     *
+     * COLUMN_GROUP
+     *
+     * @return
+     */
+    @Override
+    public Type getType() {
+        return Type.COLUMN_GROUP;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ColumnGroupStatistics{columns=%s, %s}", Arrays.toString(columns), super.toString());
+    }
+}
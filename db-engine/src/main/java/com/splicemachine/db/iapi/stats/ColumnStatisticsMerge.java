@@ -62,6 +62,7 @@ public class ColumnStatisticsMerge implements Aggregator<ColumnStatisticsImpl, C
     protected com.yahoo.sketches.frequencies.ItemsSketch<DataValueDescriptor> frequenciesSketch;
     protected long nullCount = 0L;
     protected DataValueDescriptor dvd;
+    protected int[] columnGroup; // the columns of column group statistics, null for a single column
 
     public ColumnStatisticsMerge() {
 
@@ -95,6 +96,8 @@ public class ColumnStatisticsMerge implements Aggregator<ColumnStatisticsImpl, C
             thetaSketchUnion = Sketches.setOperationBuilder().buildUnion();
             quantilesSketchUnion = ItemsUnion.getInstance(value.getQuantilesSketch().getK(), ((ColumnStatisticsImpl)value).getColumnDescriptor());
             frequenciesSketch =  dvd.getFrequenciesSketch();
+            if (value instanceof ColumnGroupStatisticsImpl)
+                columnGroup = ((ColumnGroupStatisticsImpl) value).getColumns();
             initialized = true;
         }
         assert columnStatistics.quantilesSketch !=null && columnStatistics.frequenciesSketch !=null && columnStatistics.thetaSketch !=null && value!=null:"Sketches should not be null";
@@ -116,6 +119,8 @@ public class ColumnStatisticsMerge implements Aggregator<ColumnStatisticsImpl, C
         frequenciesSketch.merge(columnStatisticsMerge.frequenciesSketch);
         thetaSketchUnion.update(columnStatisticsMerge.thetaSketchUnion.getResult());
         nullCount =+ columnStatisticsMerge.nullCount;
+        if (columnGroup == null)
+            columnGroup = columnStatisticsMerge.columnGroup;
     }
 
     /**
@@ -126,6 +131,8 @@ public class ColumnStatisticsMerge implements Aggregator<ColumnStatisticsImpl, C
      */
     @Override
     public ColumnStatisticsImpl terminate() {
+        if (columnGroup != null)
+            return new ColumnGroupStatisticsImpl(columnGroup,dvd,quantilesSketchUnion.getResult(),frequenciesSketch,thetaSketchUnion.getResult(),nullCount);
         return new ColumnStatisticsImpl(dvd,quantilesSketchUnion.getResult(),frequenciesSketch,thetaSketchUnion.getResult(),nullCount);
     }
 
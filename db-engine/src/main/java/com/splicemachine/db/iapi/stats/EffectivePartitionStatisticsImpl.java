@@ -33,6 +33,9 @@ package com.splicemachine.db.iapi.stats;
 
 import com.splicemachine.db.iapi.sql.dictionary.PartitionStatisticsDescriptor;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
@@ -47,6 +50,7 @@ import java.util.List;
  */
 public class EffectivePartitionStatisticsImpl implements PartitionStatistics {
     private ItemStatistics[] itemStatistics;
+    private List<ColumnGroupStatisticsImpl> columnGroupStatistics;
     private long rowCount;
     private long totalSize;
     private int avgRowWidth;
@@ -72,6 +76,26 @@ public class EffectivePartitionStatisticsImpl implements PartitionStatistics {
                                             int avgRowWidth,
                                             double fallbackNullFraction,
                                                     double extraQualifierMultiplier) {
+        this(itemStatisticsBuilder,Collections.<ColumnStatisticsMerge>emptyList(),rowCount,totalSize,
+                avgRowWidth,fallbackNullFraction,extraQualifierMultiplier);
+    }
+
+    /**
+     *
+     * Generating effective partitions from the merges of columns and column groups.
+     *
+     * @param itemStatisticsBuilder
+     * @param columnGroupBuilder
+     * @param rowCount
+     * @param totalSize
+     * @param avgRowWidth
+     */
+    public EffectivePartitionStatisticsImpl(ColumnStatisticsMerge[] itemStatisticsBuilder,
+                                            Collection<ColumnStatisticsMerge> columnGroupBuilder,
+                                            long rowCount, long totalSize,
+                                            int avgRowWidth,
+                                            double fallbackNullFraction,
+                                            double extraQualifierMultiplier) {
         this.rowCount = rowCount;
         this.totalSize = totalSize;
         this.avgRowWidth = avgRowWidth;
@@ -84,6 +108,9 @@ public class EffectivePartitionStatisticsImpl implements PartitionStatistics {
             else
                 itemStatistics[i] = itemStatisticsBuilder[i].terminate();
        }
+        columnGroupStatistics = new ArrayList<>(columnGroupBuilder.size());
+        for (ColumnStatisticsMerge groupBuilder : columnGroupBuilder)
+            columnGroupStatistics.add((ColumnGroupStatisticsImpl) groupBuilder.terminate());
     }
 
     /**
@@ -152,6 +179,11 @@ public class EffectivePartitionStatisticsImpl implements PartitionStatistics {
         return columnId >= itemStatistics.length?null:itemStatistics[columnId];
     }
 
+    @Override
+    public List<ColumnGroupStatisticsImpl> getColumnGroupStatistics() {
+        return columnGroupStatistics;
+    }
+
     @Override
     public PartitionStatisticsDescriptor getPartitionStatistics() {
         return null;
@@ -138,6 +138,11 @@ public class FakePartitionStatisticsImpl implements PartitionStatistics {
         return itemStatistics.get(columnId);
     }
 
+    @Override
+    public List<ColumnGroupStatisticsImpl> getColumnGroupStatistics() {
+        return Collections.emptyList();
+    }
+
     @Override
     public PartitionStatisticsDescriptor getPartitionStatistics() {
         return null;
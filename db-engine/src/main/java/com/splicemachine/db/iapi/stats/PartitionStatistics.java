@@ -109,6 +109,11 @@ public interface PartitionStatistics {
      */
     ItemStatistics getColumnStatistics(int columnId);
 
+    /**
+     * @return statistics for the groups of columns collected together, empty if there are none
+     */
+    List<ColumnGroupStatisticsImpl> getColumnGroupStatistics();
+
     PartitionStatisticsDescriptor getPartitionStatistics();
 
     /**
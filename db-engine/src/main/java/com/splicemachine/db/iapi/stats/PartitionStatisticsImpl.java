@@ -44,6 +44,7 @@ import java.util.List;
 public class PartitionStatisticsImpl implements PartitionStatistics {
     PartitionStatisticsDescriptor partitionStatistics;
     private List<ItemStatistics> itemStatistics = new ArrayList<>();
+    private List<ColumnGroupStatisticsImpl> columnGroupStatistics = new ArrayList<>();
     double fallbackNullFraction;
     double extraQualifierMultiplier;
 
@@ -65,7 +66,11 @@ public class PartitionStatisticsImpl implements PartitionStatistics {
 
         ItemStatistics[] tmpArray = new ItemStatistics[maxColId];
         for (ColumnStatisticsDescriptor columnStatisticsDescriptor : partitionStatistics.getColumnStatsDescriptors()) {
-            tmpArray[columnStatisticsDescriptor.getColumnId()-1] = columnStatisticsDescriptor.getStats();
+            // column groups are stored with negative column ids
+            if (columnStatisticsDescriptor.getColumnId() < 0)
+                columnGroupStatistics.add((ColumnGroupStatisticsImpl) columnStatisticsDescriptor.getStats());
+            else
+                tmpArray[columnStatisticsDescriptor.getColumnId()-1] = columnStatisticsDescriptor.getStats();
         }
         itemStatistics = Arrays.asList(tmpArray);
         this.fallbackNullFraction = fallbackNullFraction;
@@ -109,6 +114,11 @@ public class PartitionStatisticsImpl implements PartitionStatistics {
         return columnId >= itemStatistics.size()?null:itemStatistics.get(columnId);
     }
 
+    @Override
+    public List<ColumnGroupStatisticsImpl> getColumnGroupStatistics() {
+        return columnGroupStatistics;
+    }
+
     @Override
     public PartitionStatisticsDescriptor getPartitionStatistics() {
         return partitionStatistics;
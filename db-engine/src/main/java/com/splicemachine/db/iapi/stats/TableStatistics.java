@@ -74,6 +74,13 @@ public interface TableStatistics {
      * @return
      */
     PartitionStatistics getEffectivePartitionStatistics();
+    /**
+     *
+     * Statistics for groups of columns across the entire table.
+     *
+     * @return the column group statistics, empty if there are none
+     */
+    List<ColumnGroupStatisticsImpl> getColumnGroupStatistics();
 
     /**
      *
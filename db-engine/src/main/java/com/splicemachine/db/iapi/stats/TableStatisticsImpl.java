@@ -31,8 +31,12 @@
 package com.splicemachine.db.iapi.stats;
 import com.splicemachine.db.impl.sql.catalog.SYSTABLESTATISTICSRowFactory;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implementation of Table Level Statistics.  The partition statistics contained within have each partition we know about.
@@ -154,6 +158,7 @@ public class TableStatisticsImpl implements TableStatistics {
 
         try {
             ColumnStatisticsMerge[] itemStatisticsBuilder = null;
+            Map<String,ColumnStatisticsMerge> columnGroupBuilder = new LinkedHashMap<>();
             boolean fake = false;
             if (effectivePartitionStatistics == null) {
                 assert partitionStatistics !=null:"Partition Statistics are null";
@@ -173,6 +178,15 @@ public class TableStatisticsImpl implements TableStatistics {
                             itemStatisticsBuilder[i] = ColumnStatisticsMerge.instance();
                         itemStatisticsBuilder[i].accumulate((ColumnStatisticsImpl)itemStatisticsList.get(i));
                     }
+                    for (ColumnGroupStatisticsImpl groupStats : partStats.getColumnGroupStatistics()) {
+                        String key = Arrays.toString(groupStats.getColumns());
+                        ColumnStatisticsMerge groupBuilder = columnGroupBuilder.get(key);
+                        if (groupBuilder == null) {
+                            groupBuilder = ColumnStatisticsMerge.instance();
+                            columnGroupBuilder.put(key, groupBuilder);
+                        }
+                        groupBuilder.accumulate(groupStats);
+                    }
                 }
                     if (fake) {
                         effectivePartitionStatistics = new FakePartitionStatisticsImpl(tableId, null, rowCount, totalSize,
@@ -180,7 +194,7 @@ public class TableStatisticsImpl implements TableStatistics {
                     }
                     else {
                         effectivePartitionStatistics = new EffectivePartitionStatisticsImpl(itemStatisticsBuilder,
-                                rowCount, totalSize,
+                                columnGroupBuilder.values(), rowCount, totalSize,
                                 avgRowWidth,fallbackNullFraction,extraQualifierMultiplier);
                     }
             }
@@ -191,6 +205,18 @@ public class TableStatisticsImpl implements TableStatistics {
         }
     }
 
+    /**
+     *
+     * Retrieve the column group statistics from the effective partition statistics
+     *
+     * @return
+     */
+    @Override
+    public List<ColumnGroupStatisticsImpl> getColumnGroupStatistics() {
+        PartitionStatistics effective = getEffectivePartitionStatistics();
+        return effective == null ? Collections.<ColumnGroupStatisticsImpl>emptyList() : effective.getColumnGroupStatistics();
+    }
+
     /**
      *
      * Retrieve the minimum typed value
@@ -33,9 +33,11 @@ package com.splicemachine.db.iapi.store.access;
 
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.sql.compile.CostEstimate;
+import com.splicemachine.db.iapi.stats.ColumnGroupStatisticsImpl;
 import com.splicemachine.db.iapi.types.DataValueDescriptor;
 import com.splicemachine.db.iapi.types.RowLocation;
 import java.util.BitSet;
+import java.util.List;
 
 /**
  * The StoreCostController interface provides methods that an access client
@@ -265,4 +267,13 @@ public interface StoreCostController extends RowCountable{
     DataValueDescriptor maxValue(int columnNumber) ;
 
     double getSelectivityExcludingValueIfSkewed(int columnNumber, DataValueDescriptor value);
+
+    /**
+     *
+     * Retrieve the statistics collected over groups of correlated columns. The columns of
+     * each group are indexed from 1.
+     *
+     * @return the column group statistics, empty if none were collected
+     */
+    List<ColumnGroupStatisticsImpl> getColumnGroupStatistics();
 }
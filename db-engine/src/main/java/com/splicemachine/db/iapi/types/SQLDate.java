@@ -985,7 +985,7 @@ public final class SQLDate extends DataType
                                   cal.get(Calendar.DATE));
 	}
 
-    static int computeEncodedDate( int y, int m, int d) throws StandardException
+    public static int computeEncodedDate( int y, int m, int d) throws StandardException
     {
         int maxDay = 31;
         switch( m)
@@ -941,7 +941,7 @@ public final class SQLTime extends DataType
                                   cal.get(Calendar.SECOND));
 	}
 
-    static int computeEncodedTime( int hour, int minute, int second) throws StandardException
+    public static int computeEncodedTime( int hour, int minute, int second) throws StandardException
     {
         if( hour == 24)
         {
@@ -40,6 +40,7 @@ import com.splicemachine.db.iapi.sql.ParameterValueSet;
 import com.splicemachine.db.iapi.sql.conn.LanguageConnectionContext;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.jdbc.EngineStatement;
+import com.splicemachine.db.impl.sql.ParameterizedStatement;
 import java.sql.SQLException;
 import java.sql.SQLWarning;
 import java.sql.Statement;
@@ -615,12 +616,16 @@ public class EmbedStatement extends ConnectionChild implements EngineStatement {
             try {
                 Activation activation;
                 try {
-                    PreparedStatement preparedStatement = lcc.prepareInternalStatement
-                            (lcc.getDefaultSchema(), sql, resultSetConcurrency ==
-                                    java.sql.ResultSet.CONCUR_READ_ONLY, false);
+                    boolean isForReadOnly = resultSetConcurrency == java.sql.ResultSet.CONCUR_READ_ONLY;
+                    ParameterizedStatement parameterized = lcc.autoParameterize(sql);
+                    PreparedStatement preparedStatement = parameterized == null
+                            ? lcc.prepareInternalStatement(lcc.getDefaultSchema(), sql, isForReadOnly, false)
+                            : lcc.prepareInternalStatement(lcc.getDefaultSchema(), parameterized, isForReadOnly);
                     activation =
                             preparedStatement.getActivation(lcc, resultSetType ==
                                     java.sql.ResultSet.TYPE_SCROLL_INSENSITIVE);
+                    if (parameterized != null)
+                        parameterized.bind(activation.getParameterValueSet());
                     checkRequiresCallableStatement(activation);
                     InterruptStatus.restoreIntrFlagIfSeen(lcc);
                 } catch (Throwable t) {
@@ -60,10 +60,12 @@ import com.splicemachine.db.iapi.util.ByteArray;
 import com.splicemachine.db.impl.sql.catalog.DataDictionaryCache;
 import com.splicemachine.db.impl.sql.compile.CursorNode;
 import com.splicemachine.db.impl.sql.compile.StatementNode;
+import com.splicemachine.metrics.LatencyHistograms;
 
 import java.sql.SQLWarning;
 import java.sql.Timestamp;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Basic implementation of prepared statement. Relies on implementation of ResultDescription and Statement that
@@ -160,6 +162,9 @@ public class GenericPreparedStatement implements ExecPreparedStatement {
     private boolean hasXPlainTableOrProcedure;
 
     private CompilerContext.DataSetProcessorType datasetProcessorType;
+
+    /* number of times this plan has been executed; used to pick the plans worth warming up after a restart */
+    private final AtomicLong executionCount = new AtomicLong();
     //
     // constructors
     //
@@ -281,7 +286,20 @@ public class GenericPreparedStatement implements ExecPreparedStatement {
 
     @Override
     public ResultSet execute(Activation activation, long timeoutMillis) throws StandardException {
-        return executeStmt(activation, false, timeoutMillis);
+        executionCount.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            return executeStmt(activation, false, timeoutMillis);
+        } finally {
+            LatencyHistograms.STATEMENT_EXECUTION.update(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @return the number of top-level executions of this plan since it was put in the statement cache
+     */
+    public long getExecutionCount() {
+        return executionCount.get();
     }
 
     /**
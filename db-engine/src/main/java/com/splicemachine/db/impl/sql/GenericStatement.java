@@ -71,6 +71,7 @@ public class GenericStatement implements Statement{
     private final SchemaDescriptor compilationSchema;
     private final String statementText;
     private final boolean isForReadOnly;
+    private final boolean autoParameterized;
     private int prepareIsolationLevel;
     private GenericStorablePreparedStatement preparedStmt;
 
@@ -83,9 +84,20 @@ public class GenericStatement implements Statement{
      */
 
     public GenericStatement(SchemaDescriptor compilationSchema,String statementText,boolean isForReadOnly){
+        this(compilationSchema,statementText,isForReadOnly,false);
+    }
+
+    /**
+     * @param autoParameterized true if {@code statementText} was produced by replacing the literals
+     *                          of a user statement with parameter markers
+     *                          (see {@link ParameterizedStatement})
+     */
+    public GenericStatement(SchemaDescriptor compilationSchema,String statementText,boolean isForReadOnly,
+                            boolean autoParameterized){
         this.compilationSchema=compilationSchema;
         this.statementText=statementText;
         this.isForReadOnly=isForReadOnly;
+        this.autoParameterized=autoParameterized;
     }
 
     public PreparedStatement prepare(LanguageConnectionContext lcc) throws StandardException{
@@ -203,6 +215,12 @@ public class GenericStatement implements Statement{
 
     public String getCompilationSchema(){ return compilationSchema.getDescriptorName(); }
 
+    public boolean isAutoParameterized(){ return autoParameterized; }
+
+    public boolean isForReadOnly(){ return isForReadOnly; }
+
+    public int getPrepareIsolationLevel(){ return prepareIsolationLevel; }
+
     /**
      * Return the {@link PreparedStatement} currently associated with this
      * statement.
@@ -0,0 +1,380 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.splicemachine.db.impl.sql;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.ParameterValueSet;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.reference.Limits;
+import com.splicemachine.db.iapi.types.SQLDecimal;
+import com.splicemachine.db.iapi.types.SQLInteger;
+import com.splicemachine.db.iapi.types.SQLLongint;
+import com.splicemachine.db.iapi.types.SQLVarchar;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The literal-free form of a statement issued through a plain JDBC Statement.
+ *
+ * Literals that are the direct operand of a comparison against a column in a WHERE, ON or SET clause
+ * (<code>col = 42</code>, <code>t.name &lt;&gt; 'x'</code>, <code>SET col = -1.5</code>) are replaced by
+ * parameter markers wrapped in a CAST, so statements that differ only in those literals share one entry in
+ * the statement cache, and binding the value cannot change the result of the comparison. Numbers are cast to
+ * the type the literal itself would have been given (decimals at the widest precision); strings are cast to
+ * the longest VARCHAR, which compares the same way as the CHAR a string literal is given, whatever its length.
+ * Only the value of such a literal is lost to the optimizer.
+ *
+ * Literals in any other position are left in place. Select lists, GROUP BY, HAVING and ORDER BY expressions
+ * are matched against each other by equivalence, which two parameter markers never have. Other literals can
+ * change the shape of the plan: LIKE patterns (a constant prefix becomes a scan range), IN lists (the list
+ * length and values drive multi-probe scans), BETWEEN bounds, FETCH FIRST/OFFSET counts, function arguments
+ * and arithmetic. Statements that already carry parameter markers or JDBC escapes, and statements other than
+ * SELECT/WITH/INSERT/UPDATE/DELETE, are never rewritten.
+ */
+public final class ParameterizedStatement{
+    private static final int MAX_DECIMAL_PRECISION = 31;
+    /* keywords starting a clause, and the clauses whose comparisons are rewritten */
+    private static final Set<String> CLAUSE_KEYWORDS = new HashSet<>(Arrays.asList(
+            "SELECT","FROM","JOIN","ON","WHERE","GROUP","HAVING","ORDER","SET","VALUES",
+            "OFFSET","FETCH","UNION","INTERSECT","EXCEPT"));
+    private static final Set<String> PREDICATE_CLAUSES = new HashSet<>(Arrays.asList("WHERE","ON","SET"));
+
+    private final String text;
+    private final DataValueDescriptor[] values;
+
+    private ParameterizedStatement(String text,DataValueDescriptor[] values){
+        this.text=text;
+        this.values=values;
+    }
+
+    /**
+     * @return the statement text with the extracted literals replaced by parameter markers
+     */
+    public String getText(){
+        return text;
+    }
+
+    public int getParameterCount(){
+        return values.length;
+    }
+
+    /**
+     * Set the extracted literal values as the parameters of an activation of the parameterized statement.
+     */
+    public void bind(ParameterValueSet pvs) throws StandardException{
+        for(int i=0;i<values.length;i++){
+            pvs.getParameterForSet(i).setValue(values[i]);
+        }
+    }
+
+    /**
+     * @param sql the statement text
+     * @return the parameterized form of {@code sql}, or null if it contains no literal that can
+     * safely be replaced
+     */
+    public static ParameterizedStatement parameterize(String sql){
+        if(sql==null || !isEligibleStatement(sql))
+            return null;
+        return new Scanner(sql).scan();
+    }
+
+    private static boolean isEligibleStatement(String sql){
+        int pos=skipSpaceAndComments(sql,0);
+        if(pos<0)
+            return false;
+        int end=pos;
+        while(end<sql.length() && Character.isLetter(sql.charAt(end)))
+            end++;
+        switch(sql.substring(pos,end).toUpperCase(Locale.ENGLISH)){
+            case "SELECT":
+            case "WITH":
+            case "INSERT":
+            case "UPDATE":
+            case "DELETE":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return the position of the next character that is neither white space nor part of a comment,
+     * {@code sql.length()} at the end of the text, or -1 for an unterminated comment
+     */
+    private static int skipSpaceAndComments(String sql,int pos){
+        int len=sql.length();
+        while(pos<len){
+            char c=sql.charAt(pos);
+            if(Character.isWhitespace(c)){
+                pos++;
+            }else if(c=='-' && pos+1<len && sql.charAt(pos+1)=='-'){
+                int eol=sql.indexOf('\n',pos);
+                pos=eol<0?len:eol+1;
+            }else if(c=='/' && pos+1<len && sql.charAt(pos+1)=='*'){
+                int close=sql.indexOf("*/",pos+2);
+                if(close<0)
+                    return -1;
+                pos=close+2;
+            }else
+                break;
+        }
+        return pos;
+    }
+
+    private enum Token{ OPERAND, COMPARISON, OTHER }
+
+    private static class Scanner{
+        private final String sql;
+        private final StringBuilder out;
+        private final List<DataValueDescriptor> values=new ArrayList<>();
+        private int pos;
+        /* the last two significant tokens, most recent first */
+        private Token last=Token.OTHER;
+        private Token beforeLast=Token.OTHER;
+        /* the clause being scanned, and those of the enclosing parentheses */
+        private String clause="";
+        private final Deque<String> outerClauses=new ArrayDeque<>();
+
+        Scanner(String sql){
+            this.sql=sql;
+            this.out=new StringBuilder(sql.length()+32);
+        }
+
+        ParameterizedStatement scan(){
+            int len=sql.length();
+            while(pos<len){
+                int next=skipSpaceAndComments(sql,pos);
+                if(next<0)
+                    return null;
+                if(next>pos){
+                    out.append(sql,pos,next);
+                    pos=next;
+                    continue;
+                }
+                char c=sql.charAt(pos);
+                if(c=='?' || c=='{' || c=='}')
+                    return null;
+                if(c=='\''){
+                    if(!scanString())
+                        return null;
+                }else if(c=='"'){
+                    if(!scanQuotedIdentifier())
+                        return null;
+                }else if(Character.isLetter(c) || c=='_'){
+                    if(!scanWord())
+                        return null;
+                }else if(isNumberAt(pos) || (c=='-' && comparisonOperandExpected() && isNumberAt(pos+1))){
+                    scanNumber();
+                }else{
+                    scanOperator();
+                }
+            }
+            if(values.isEmpty())
+                return null;
+            return new ParameterizedStatement(out.toString(),values.toArray(new DataValueDescriptor[values.size()]));
+        }
+
+        private boolean scanString(){
+            int start=pos;
+            StringBuilder value=new StringBuilder();
+            int p=pos+1;
+            while(true){
+                if(p>=sql.length())
+                    return false;
+                char c=sql.charAt(p++);
+                if(c=='\''){
+                    if(p<sql.length() && sql.charAt(p)=='\''){
+                        value.append('\'');
+                        p++;
+                    }else
+                        break;
+                }else
+                    value.append(c);
+            }
+            pos=p;
+            if(value.length()<=Limits.DB2_VARCHAR_MAXWIDTH && replaceable()){
+                values.add(new SQLVarchar(value.toString()));
+                // not the literal's own length, which would give each length its own statement
+                out.append("CAST(? AS VARCHAR(").append(Limits.DB2_VARCHAR_MAXWIDTH).append("))");
+            }else
+                out.append(sql,start,pos);
+            advance(Token.OTHER);
+            return true;
+        }
+
+        private boolean scanQuotedIdentifier(){
+            int p=pos+1;
+            while(true){
+                int close=sql.indexOf('"',p);
+                if(close<0)
+                    return false;
+                if(close+1<sql.length() && sql.charAt(close+1)=='"'){
+                    p=close+2;
+                    continue;
+                }
+                p=close+1;
+                break;
+            }
+            out.append(sql,pos,p);
+            pos=p;
+            advance(Token.OPERAND);
+            return true;
+        }
+
+        private boolean scanWord(){
+            int start=pos;
+            while(pos<sql.length() && isIdentifierPart(sql.charAt(pos)))
+                pos++;
+            // hex and national string literals are not rewritten; give up rather than mistype them
+            if(pos<sql.length() && sql.charAt(pos)=='\'')
+                return false;
+            out.append(sql,start,pos);
+            String word=sql.substring(start,pos).toUpperCase(Locale.ENGLISH);
+            if(CLAUSE_KEYWORDS.contains(word))
+                clause=word;
+            advance(Token.OPERAND);
+            return true;
+        }
+
+        private void scanNumber(){
+            int start=pos;
+            boolean negative=sql.charAt(pos)=='-';
+            if(negative)
+                pos++;
+            int digitsStart=pos;
+            while(isDigitAt(pos))
+                pos++;
+            int scale=-1;
+            if(pos<sql.length() && sql.charAt(pos)=='.'){
+                pos++;
+                int fractionStart=pos;
+                while(isDigitAt(pos))
+                    pos++;
+                scale=pos-fractionStart;
+            }
+            boolean exact=true;
+            if(pos<sql.length() && (sql.charAt(pos)=='e' || sql.charAt(pos)=='E')){
+                // approximate numerics are typed DOUBLE; leave them alone
+                exact=false;
+                pos++;
+                if(pos<sql.length() && (sql.charAt(pos)=='+' || sql.charAt(pos)=='-'))
+                    pos++;
+                while(isDigitAt(pos))
+                    pos++;
+            }
+            while(pos<sql.length() && isIdentifierPart(sql.charAt(pos))){
+                exact=false;
+                pos++;
+            }
+            String literal=sql.substring(digitsStart,pos);
+            String replacement=exact && replaceable()?numericReplacement(literal,negative,scale):null;
+            if(replacement!=null)
+                out.append(replacement);
+            else
+                out.append(sql,start,pos);
+            advance(Token.OTHER);
+        }
+
+        private String numericReplacement(String literal,boolean negative,int scale){
+            String signed=negative?"-"+literal:literal;
+            if(scale<0){
+                try{
+                    long value=Long.parseLong(signed);
+                    if(value>=Integer.MIN_VALUE && value<=Integer.MAX_VALUE){
+                        values.add(new SQLInteger((int)value));
+                        return "CAST(? AS INTEGER)";
+                    }
+                    values.add(new SQLLongint(value));
+                    return "CAST(? AS BIGINT)";
+                }catch(NumberFormatException nfe){
+                    return null;
+                }
+            }
+            BigDecimal value=new BigDecimal(signed);
+            if(value.precision()>MAX_DECIMAL_PRECISION || scale>MAX_DECIMAL_PRECISION)
+                return null;
+            values.add(new SQLDecimal(value));
+            // every literal with this scale fits DECIMAL(31,scale), so they all share one statement
+            return "CAST(? AS DECIMAL("+MAX_DECIMAL_PRECISION+","+scale+"))";
+        }
+
+        private void scanOperator(){
+            char c=sql.charAt(pos);
+            char n=pos+1<sql.length()?sql.charAt(pos+1):0;
+            Token token=Token.OTHER;
+            int width=1;
+            if((c=='<' && (n=='=' || n=='>')) || (c=='>' && n=='=') || (c=='!' && n=='=')){
+                token=Token.COMPARISON;
+                width=2;
+            }else if(c=='=' || c=='<' || c=='>'){
+                token=Token.COMPARISON;
+            }else if(c=='('){
+                outerClauses.push(clause);
+            }else if(c==')'){
+                token=Token.OPERAND;
+                if(!outerClauses.isEmpty())
+                    clause=outerClauses.pop();
+            }else if(c=='|' && n=='|'){
+                width=2;
+            }
+            out.append(sql,pos,pos+width);
+            pos+=width;
+            advance(token);
+        }
+
+        /*
+         * A literal is replaced only if it is the right hand side of a comparison of a WHERE, ON or SET clause
+         * whose left hand side is a column or a parenthesized expression, and nothing but the end of the
+         * predicate follows it.
+         */
+        private boolean replaceable(){
+            if(!PREDICATE_CLAUSES.contains(clause) || !comparisonOperandExpected())
+                return false;
+            int next=skipSpaceAndComments(sql,pos);
+            if(next<0 || next>=sql.length())
+                return next>=0;
+            char c=sql.charAt(next);
+            return c==')' || c==',' || c==';' || Character.isLetter(c);
+        }
+
+        private boolean comparisonOperandExpected(){
+            return last==Token.COMPARISON && beforeLast==Token.OPERAND;
+        }
+
+        private void advance(Token token){
+            beforeLast=last;
+            last=token;
+        }
+
+        private boolean isNumberAt(int p){
+            return isDigitAt(p) || (p<sql.length() && sql.charAt(p)=='.' && isDigitAt(p+1));
+        }
+
+        private boolean isDigitAt(int p){
+            return p<sql.length() && Character.isDigit(sql.charAt(p));
+        }
+
+        private static boolean isIdentifierPart(char c){
+            return Character.isLetterOrDigit(c) || c=='_';
+        }
+    }
+}
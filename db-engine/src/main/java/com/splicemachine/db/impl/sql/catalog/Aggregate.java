@@ -61,6 +61,10 @@ public class Aggregate {
         this.javaClassName = javaClassName;
     }
 
+    public String getName() {
+        return name;
+    }
+
     public void createSystemAggregate(DataDictionary dataDictionary, TransactionController tc)
 		throws StandardException {
     	// By default, puts aggregate function into SYSCS_UTIL schema
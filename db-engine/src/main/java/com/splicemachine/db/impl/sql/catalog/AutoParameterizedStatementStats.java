@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.splicemachine.db.impl.sql.catalog;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statement cache statistics restricted to auto-parameterized statements. Those statements
+ * live in the statement cache itself, so the reported size is the size of that cache; hits
+ * and misses only count lookups of auto-parameterized statement text.
+ */
+public class AutoParameterizedStatementStats implements ManagedCacheMBean{
+    private final ManagedCache<?,?> statementCache;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public AutoParameterizedStatementStats(ManagedCache<?,?> statementCache){
+        this.statementCache = statementCache;
+    }
+
+    public void recordLookup(boolean hit){
+        if(hit)
+            hitCount.incrementAndGet();
+        else
+            missCount.incrementAndGet();
+    }
+
+    @Override public long getSize(){ return statementCache.getSize(); }
+    @Override public long getHitCount(){ return hitCount.get(); }
+    @Override public long getMissCount(){ return missCount.get(); }
+    @Override public long getRequestCount(){ return getHitCount()+getMissCount(); }
+    @Override public double getHitRate(){
+        long requestCount = getRequestCount();
+        return requestCount>0?((getHitCount()*1.0)/requestCount):0;
+    }
+    @Override public double getMissRate(){
+        long requestCount = getRequestCount();
+        return requestCount>0?((getMissCount()*1.0)/requestCount):0;
+    }
+    @Override public void invalidateAll(){
+        hitCount.set(0);
+        missCount.set(0);
+    }
+}
@@ -58,6 +58,7 @@ import javax.management.MXBean;
 import javax.management.ObjectName;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -77,6 +78,7 @@ public class DataDictionaryCache {
     private ManagedCache<Long,Conglomerate> conglomerateCache;
     private ManagedCache<Long,ConglomerateDescriptor> conglomerateDescriptorCache;
     private ManagedCache<GenericStatement,GenericStorablePreparedStatement> statementCache;
+    private AutoParameterizedStatementStats autoParameterizedStatementStats;
     private ManagedCache<String,SchemaDescriptor> schemaCache;
     private ManagedCache<String,AliasDescriptor> aliasDescriptorCache;
     private ManagedCache<String,Optional<RoleGrantDescriptor>> roleCache;
@@ -87,7 +89,7 @@ public class DataDictionaryCache {
     private DataDictionary dd;
     public static final String [] cacheNames = new String[] {"oidTdCache", "nameTdCache", "spsNameCache", "sequenceGeneratorCache", "permissionsCache", "partitionStatisticsCache",
             "storedPreparedStatementCache", "conglomerateCache", "statementCache", "schemaCache", "aliasDescriptorCache", "roleCache", "defaultRoleCache", "roleGrantCache",
-            "tokenCache", "propertyCache", "conglomerateDescriptorCache"};
+            "tokenCache", "propertyCache", "conglomerateDescriptorCache", "autoParameterizedStatementCache"};
 
     private int getCacheSize(Properties startParams, String propertyName, int defaultValue) throws StandardException {
         String value = startParams.getProperty(propertyName);
@@ -161,6 +163,7 @@ public class DataDictionaryCache {
                 .maximumSize(conglomerateDescriptorCacheSize).build());
         statementCache = new ManagedCache<>(CacheBuilder.newBuilder().recordStats().maximumSize
                 (statementCacheSize).removalListener(dependentInvalidator).build());
+        autoParameterizedStatementStats = new AutoParameterizedStatementStats(statementCache);
         schemaCache = new ManagedCache<>(CacheBuilder.newBuilder().recordStats().maximumSize(
                 schemaCacheSize).build());
         aliasDescriptorCache = new ManagedCache<>(CacheBuilder.newBuilder().recordStats()
@@ -452,6 +455,17 @@ public class DataDictionaryCache {
         statementCache.invalidate(gs);
     }
 
+    /**
+     * @return a live view of the statement cache; iteration is weakly consistent
+     */
+    public Map<GenericStatement,GenericStorablePreparedStatement> statementCacheEntries() {
+        return statementCache.asMap();
+    }
+
+    public void recordAutoParameterizedLookup(boolean hit) {
+        autoParameterizedStatementStats.recordLookup(hit);
+    }
+
     public void clearStatementCache() {
         if (LOG.isDebugEnabled())
             LOG.debug("clearStatementCache ");
@@ -630,6 +644,9 @@ public class DataDictionaryCache {
                 ObjectName cacheName = new ObjectName("com.splicemachine.db.impl.sql.catalog:type="+cacheNames[i]);
                 mbs.registerMBean(mc[i],cacheName);
             }
+            // auto-parameterized statements are a view of the statement cache, so keep them out of the totals
+            mbs.registerMBean(autoParameterizedStatementStats,
+                    new ObjectName("com.splicemachine.db.impl.sql.catalog:type="+cacheNames[mc.length]));
             ObjectName totCache = new ObjectName("com.splicemachine.db.impl.sql.catalog:type=TotalManagedCache");
             TotalManagedCache tm = new TotalManagedCache(Arrays.asList(mc));
             mbs.registerMBean(tm, totCache);
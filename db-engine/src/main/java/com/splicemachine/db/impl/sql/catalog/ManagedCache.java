@@ -19,6 +19,7 @@ import org.spark_project.guava.cache.CacheBuilder;
 import org.spark_project.guava.cache.CacheLoader;
 
 import java.beans.ConstructorProperties;
+import java.util.concurrent.ConcurrentMap;
 
 public class ManagedCache<K, V> implements ManagedCacheMBean, GenericManagedCacheIFace<K, V>{
 
@@ -39,5 +40,6 @@ public class ManagedCache<K, V> implements ManagedCacheMBean, GenericManagedCach
     @Override public void put(K var1, V var2){ managedCache.put(var1, var2); }
     @Override public V getIfPresent(K k) { return managedCache.getIfPresent(k);}
     @Override public void invalidate(K k) { managedCache.invalidate(k);}
+    public ConcurrentMap<K,V> asMap() { return managedCache.asMap();}
 
 }
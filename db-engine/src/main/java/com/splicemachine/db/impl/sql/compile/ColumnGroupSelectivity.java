@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.db.impl.sql.compile;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.stats.ColumnGroupStatisticsImpl;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+
+/**
+ *
+ * Selectivity of equality predicates on all the columns of a column group, estimated from the
+ * statistics of the group rather than as a product of (damped) per column selectivities.
+ *
+ */
+public class ColumnGroupSelectivity extends AbstractSelectivityHolder {
+    private ColumnGroupStatisticsImpl groupStatistics;
+    private DataValueDescriptor[] values;
+
+    /**
+     *
+     * @param groupStatistics the statistics of the group
+     * @param values the compared value of each column of the group, null when not known at compile time
+     * @param phase the phase all the replaced predicates are applied in
+     */
+    public ColumnGroupSelectivity(ColumnGroupStatisticsImpl groupStatistics, DataValueDescriptor[] values, QualifierPhase phase) {
+        super(groupStatistics.getColumns()[0], phase);
+        this.groupStatistics = groupStatistics;
+        this.values = values;
+    }
+
+    public double getSelectivity() throws StandardException {
+        if (selectivity == -1.0d) {
+            long totalCount = groupStatistics.totalCount();
+            if (totalCount <= 0)
+                selectivity = 1.0d;
+            else {
+                selectivity = (double) groupStatistics.selectivity(values) / totalCount;
+                // never estimate an empty result or more than every row
+                selectivity = Math.min(1.0d, Math.max(selectivity, 1.0d / totalCount));
+            }
+        }
+        return selectivity;
+    }
+}
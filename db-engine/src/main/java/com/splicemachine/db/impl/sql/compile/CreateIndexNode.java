@@ -65,8 +65,10 @@ public class CreateIndexNode extends DDLStatementNode
 	TableName			indexName;
 	TableName			tableName;
 	Vector				columnNameList;
+	Vector				includeColumnNameList;
 	String[]			columnNames = null;
 	boolean[]			isAscending;
+	int					numberOfOrderedColumns;
 	int[]				boundColumnIDs;
 	boolean 			excludeNulls;
 	boolean				excludeDefaults;
@@ -178,6 +180,19 @@ public class CreateIndexNode extends DDLStatementNode
 	public	int[]				getKeyColumnIDs() { return boundColumnIDs; }
 	public	boolean[]			getIsAscending() { return isAscending; }
 
+	/**
+	 * Set the columns of the INCLUDE clause. They are stored in the index
+	 * rows after the key columns, so that queries referencing them can be
+	 * answered from the index alone, but they are not part of the key.
+	 *
+	 * @param includeColumnNameList	A list of column names, in the order they
+	 *								appear in the INCLUDE clause.
+	 */
+	public void setIncludeColumnList(Vector includeColumnNameList)
+	{
+		this.includeColumnNameList = includeColumnNameList;
+	}
+
 	// We inherit the generate() method from DDLStatementNode.
 
 	/**
@@ -229,6 +244,9 @@ public class CreateIndexNode extends DDLStatementNode
 			boundColumnIDs[ i ] = columnDescriptor.getPosition();
 			
 			// set this only once -- if just one column does is missing "not null" constraint in schema
+			if (i >= numberOfOrderedColumns)
+				continue; // included columns are not part of the key
+
 			uniqueWithDuplicateNulls = (! uniqueWithDuplicateNulls && (unique && ! columnDescriptor.hasNonNullDefault()));
 
 			// Don't allow a column to be created on a non-orderable type
@@ -338,6 +356,7 @@ public class CreateIndexNode extends DDLStatementNode
                 td.getUUID(),
                 columnNames,
                 isAscending,
+                numberOfOrderedColumns,
                 false,
                 null,
                 excludeNulls,
@@ -363,7 +382,9 @@ public class CreateIndexNode extends DDLStatementNode
 	private void verifyAndGetUniqueNames()
 				throws StandardException
 	{
-		int size = columnNameList.size();
+		numberOfOrderedColumns = columnNameList.size();
+		int size = numberOfOrderedColumns +
+				(includeColumnNameList == null ? 0 : includeColumnNameList.size());
 		Hashtable	ht = new Hashtable(size + 2, (float) .999);
 		columnNames = new String[size];
 		isAscending = new boolean[size];
@@ -373,7 +394,10 @@ public class CreateIndexNode extends DDLStatementNode
 			/* Verify that this column's name is unique within the list
 			 * Having a space at the end meaning descending on the column
 			 */
-			columnNames[index] = (String) columnNameList.get(index);
+			if (index >= numberOfOrderedColumns)
+				columnNames[index] = (String) includeColumnNameList.get(index - numberOfOrderedColumns);
+			else
+				columnNames[index] = (String) columnNameList.get(index);
 			if (columnNames[index].endsWith(" "))
 			{
 				columnNames[index] = columnNames[index].substring(0, columnNames[index].length() - 1);
@@ -420,7 +420,7 @@ public class FromBaseTable extends FromTable {
                     tracer.trace(OptimizerFlag.SCANNING_HEAP_FULL_MATCH_ON_UNIQUE_KEY,0,0,0.0,null);
                 }
             }else{
-                int[] baseColumnPositions=irg.baseColumnPositions();
+                int[] baseColumnPositions=irg.orderedColumnPositions();
                 boolean[] isAscending=irg.isAscending();
 
                 for(int i=0;i<baseColumnPositions.length;i++){
@@ -2696,7 +2696,7 @@ public class FromBaseTable extends FromTable {
                 continue;
             }
 
-            int[] keyColumns=id.baseColumnPositions();
+            int[] keyColumns=id.orderedColumnPositions();
 
             int inner=0;
             for(;inner<keyColumns.length;inner++){
@@ -2740,7 +2740,7 @@ public class FromBaseTable extends FromTable {
                 continue;
             }
 
-            int[] keyColumns=id.baseColumnPositions();
+            int[] keyColumns=id.orderedColumnPositions();
             int numBits=tableColMap[0].size();
             JBitSet keyMap=new JBitSet(numBits);
             JBitSet resMap=new JBitSet(numBits);
@@ -2991,7 +2991,7 @@ public class FromBaseTable extends FromTable {
         boolean[] matchedCRs=new boolean[crs.length];
 
         int nextKeyColumn=0;
-        int[] keyColumns=cd.getIndexDescriptor().baseColumnPositions();
+        int[] keyColumns=cd.getIndexDescriptor().orderedColumnPositions();
 
         // Walk through the key columns
         for(;nextKeyColumn<keyColumns.length;nextKeyColumn++){
@@ -3056,7 +3056,7 @@ public class FromBaseTable extends FromTable {
 		 */
         int nextCR=0;
         int nextKeyColumn=0;
-        int[] keyColumns=cd.getIndexDescriptor().baseColumnPositions();
+        int[] keyColumns=cd.getIndexDescriptor().orderedColumnPositions();
 
         // Walk through the CRs
         for(;nextCR<crs.length;nextCR++){
@@ -3117,7 +3117,7 @@ public class FromBaseTable extends FromTable {
         if(!irg.isUnique())
             return false;
 
-        int[] baseColumnPositions=irg.baseColumnPositions();
+        int[] baseColumnPositions=irg.orderedColumnPositions();
 
         // Do we have an exact match on the full key
 
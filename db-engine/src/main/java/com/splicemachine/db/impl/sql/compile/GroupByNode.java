@@ -550,7 +550,7 @@ public class GroupByNode extends SingleChildResultSetNode{
                                     accessPath.getConglomerateDescriptor().getIndexDescriptor()==null)
                                 return;
                             IndexDescriptor id=accessPath.getConglomerateDescriptor().getIndexDescriptor();
-                            int[] keyColumns=id.baseColumnPositions();
+                            int[] keyColumns=id.orderedColumnPositions();
                             boolean[] isAscending=id.isAscending();
                             for(int i=0;i<keyColumns.length;i++){
 								/* in such a query: select min(c3) from
@@ -381,7 +381,7 @@ public class Level2OptimizerTrace implements OptimizerTrace{
         if(cd.isIndex() && columnNames!=null){
             IndexRowGenerator irg=cd.getIndexDescriptor();
 
-            int[] keyColumns=irg.baseColumnPositions();
+            int[] keyColumns=irg.orderedColumnPositions();
 
             keyString = new StringBuilder(", key columns = {" + columnNames[keyColumns[0] - 1]);
             for(int index=1;index<keyColumns.length;index++){
@@ -698,7 +698,7 @@ public class PredicateList extends QueryTreeNodeVector<Predicate> implements Opt
             return;
         }
         if(!primaryKey && !rowIdScan){
-            baseColumnPositions=cd.getIndexDescriptor().baseColumnPositions();
+            baseColumnPositions=cd.getIndexDescriptor().orderedColumnPositions();
             isAscending=cd.getIndexDescriptor().isAscending();
         }
 		/* If we have a "useful" IN list probe predicate we will generate a
@@ -34,6 +34,7 @@ package com.splicemachine.db.impl.sql.compile;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.sql.compile.CostEstimate;
 import com.splicemachine.db.iapi.sql.compile.Optimizable;
+import com.splicemachine.db.iapi.stats.ColumnGroupStatisticsImpl;
 import com.splicemachine.db.iapi.store.access.StoreCostController;
 import com.splicemachine.db.iapi.types.DataValueDescriptor;
 import org.apache.log4j.Logger;
@@ -65,6 +66,9 @@ public class ScanCostFunction{
     private final int baseColumnCount;
     private final boolean forUpdate; // Will be used shortly
     private boolean basePredicatePossible = true;
+    private final Map<Integer,SelectivityHolder> equalityHolders = new HashMap<>(); // equality predicates by column, candidates for column groups
+    private final Map<Integer,DataValueDescriptor> equalityValues = new HashMap<>(); // compared values, absent when unknown
+    private boolean columnGroupsApplied = false;
 
     /**
      *
@@ -121,7 +125,7 @@ public class ScanCostFunction{
      *
      * @param holder
      */
-    private void addSelectivity(SelectivityHolder holder) {
+    void addSelectivity(SelectivityHolder holder) {
         List<SelectivityHolder> holders = selectivityHolder[holder.getColNum()];
         if (holders == null) {
             holders = new LinkedList<>();
@@ -137,7 +141,7 @@ public class ScanCostFunction{
      * @param colNum
      * @return
      */
-    private List<SelectivityHolder> getSelectivityListForColumn(int colNum) {
+    List<SelectivityHolder> getSelectivityListForColumn(int colNum) {
         List<SelectivityHolder> holders = selectivityHolder[colNum];
         if (holders == null) {
             holders = new LinkedList<>();
@@ -170,7 +174,81 @@ public class ScanCostFunction{
         else if (PredicateList.isQualifier(p,baseTable,false)) // Qualifier on Base Table After Index Lookup (FILTER_PROJECTION)
             performQualifierSelectivity(p, QualifierPhase.FILTER_PROJECTION, defaultSelectivityFactor);
         else // Project Restrict Selectivity Filter
-            addSelectivity(new PredicateSelectivity(p,baseTable,QualifierPhase.FILTER_PROJECTION, defaultSelectivityFactor));
+            addPredicateSelectivity(p, QualifierPhase.FILTER_PROJECTION, defaultSelectivityFactor);
+    }
+
+    /**
+     *
+     * Add the default predicate selectivity, remembering equality predicates against a column of the base table
+     * (join predicates, parameters) whose value is not known at compile time.
+     *
+     * @param p
+     * @param phase
+     * @param selectivityFactor
+     */
+    private void addPredicateSelectivity(Predicate p, QualifierPhase phase, double selectivityFactor) {
+        SelectivityHolder holder = new PredicateSelectivity(p,baseTable,phase, selectivityFactor);
+        addSelectivity(holder);
+        RelationalOperator relop = p.getRelop();
+        if (relop != null && relop.getOperator() == RelationalOperator.EQUALS_RELOP && selectivityFactor <= 0) {
+            ColumnReference column = relop.getColumnOperand(baseTable);
+            if (column != null)
+                addEqualityHolder(column.getColumnNumber(), holder, null);
+        }
+    }
+
+    void addEqualityHolder(int colNum, SelectivityHolder holder, DataValueDescriptor value) {
+        if (equalityHolders.containsKey(colNum))
+            return;
+        equalityHolders.put(colNum, holder);
+        if (value != null)
+            equalityValues.put(colNum, value);
+    }
+
+    /**
+     *
+     * Replace the equality predicates on all the columns of a column group by a single selectivity computed from the
+     * statistics of the group, so correlated columns are not estimated as if they were independent. Wider groups are
+     * used first and a column is only ever covered by one group. The predicates of a group must all be applied in the
+     * same phase, and predicates with a hinted selectivity factor are left alone.
+     *
+     * @throws StandardException
+     */
+    void applyColumnGroupSelectivity() throws StandardException {
+        if (columnGroupsApplied)
+            return;
+        columnGroupsApplied = true;
+        if (equalityHolders.size() < 2)
+            return;
+        List<ColumnGroupStatisticsImpl> groups = new ArrayList<>(scc.getColumnGroupStatistics());
+        Collections.sort(groups, new Comparator<ColumnGroupStatisticsImpl>() {
+            @Override
+            public int compare(ColumnGroupStatisticsImpl o1, ColumnGroupStatisticsImpl o2) {
+                return Integer.compare(o2.getColumns().length, o1.getColumns().length);
+            }
+        });
+        Set<Integer> covered = new HashSet<>();
+        GROUPS: for (ColumnGroupStatisticsImpl group : groups) {
+            int[] columns = group.getColumns();
+            DataValueDescriptor[] values = new DataValueDescriptor[columns.length];
+            QualifierPhase phase = null;
+            for (int i = 0; i < columns.length; i++) {
+                SelectivityHolder holder = equalityHolders.get(columns[i]);
+                if (holder == null || covered.contains(columns[i]))
+                    continue GROUPS;
+                if (phase == null)
+                    phase = holder.getPhase();
+                else if (phase != holder.getPhase())
+                    continue GROUPS;
+                values[i] = equalityValues.get(columns[i]);
+            }
+            for (int column : columns) {
+                SelectivityHolder holder = equalityHolders.get(column);
+                selectivityHolder[holder.getColNum()].remove(holder);
+                covered.add(column);
+            }
+            addSelectivity(new ColumnGroupSelectivity(group, values, phase));
+        }
     }
 
     /**
@@ -185,7 +263,7 @@ public class ScanCostFunction{
         if(p.compareWithKnownConstant(baseTable, true) && p.getRelop().getColumnOperand(baseTable) != null) // Range Qualifier
                 addRangeQualifier(p,phase, selectivityFactor);
         else // Predicate Cannot Be Transformed to Range, use Predicate Selectivity Defaults
-            addSelectivity(new PredicateSelectivity(p,baseTable,phase, selectivityFactor));
+            addPredicateSelectivity(p, phase, selectivityFactor);
     }
 
 
@@ -265,6 +343,7 @@ public class ScanCostFunction{
 
     public void generateCost() throws StandardException {
 
+        applyColumnGroupSelectivity();
         double baseTableSelectivity = computePhaseSelectivity(selectivityHolder,QualifierPhase.BASE);
         double filterBaseTableSelectivity = computePhaseSelectivity(selectivityHolder,QualifierPhase.BASE,QualifierPhase.FILTER_BASE);
         double projectionSelectivity = computePhaseSelectivity(selectivityHolder,QualifierPhase.FILTER_PROJECTION);
@@ -475,12 +554,16 @@ public class ScanCostFunction{
     private boolean addRangeQualifier(Predicate p,QualifierPhase phase, double selectivityFactor) throws StandardException{
         DataValueDescriptor value=p.getCompareValue(baseTable);
         RelationalOperator relop=p.getRelop();
-        int colNum = relop.getColumnOperand(baseTable).getColumnNumber();
+        ColumnReference column = relop.getColumnOperand(baseTable);
+        int colNum = column.getColumnNumber();
         int relationalOperator = relop.getOperator();
         List<SelectivityHolder> columnHolder = getSelectivityListForColumn(colNum);
         OP_SWITCH: switch(relationalOperator){
             case RelationalOperator.EQUALS_RELOP:
-                columnHolder.add(new RangeSelectivity(scc,value,value,true,true,colNum,phase, selectivityFactor));
+                RangeSelectivity equality = new RangeSelectivity(scc,value,value,true,true,colNum,phase, selectivityFactor);
+                columnHolder.add(equality);
+                if (selectivityFactor <= 0)
+                    addEqualityHolder(colNum, equality, ColumnGroupStatisticsImpl.normalize(value, column.getTypeServices()));
                 break;
             case RelationalOperator.NOT_EQUALS_RELOP:
                 columnHolder.add(new NotEqualsSelectivity(scc,colNum,phase,value, selectivityFactor));
@@ -141,7 +141,7 @@ public class SelectivityUtil {
             return false;
         }
 
-        int[] baseColumnPositions=irg.baseColumnPositions();
+        int[] baseColumnPositions=irg.orderedColumnPositions();
 
         // Do we have an exact match on the full key
 
@@ -1293,6 +1293,7 @@ public class TableElementList extends QueryTreeNodeVector {
                     ((td != null) ? td.getUUID() : (UUID) null),
                     columnNames,
                     isAscending,
+                    columnNames.length,
                     isConstraint,
                     cdn.getBackingIndexUUID(),
 					excludeNulls,
@@ -64,6 +64,7 @@ import com.splicemachine.db.iapi.types.DataValueFactory;
 import com.splicemachine.db.iapi.util.IdUtil;
 import com.splicemachine.db.iapi.util.InterruptStatus;
 import com.splicemachine.db.impl.sql.GenericStatement;
+import com.splicemachine.db.impl.sql.ParameterizedStatement;
 import com.splicemachine.db.impl.sql.GenericStorablePreparedStatement;
 import com.splicemachine.db.impl.sql.compile.CompilerContextImpl;
 import com.splicemachine.db.impl.sql.execute.*;
@@ -1160,6 +1161,25 @@ public class GenericLanguageConnectionContext extends ContextImpl implements Lan
     }
 
 
+    @Override
+    public ParameterizedStatement autoParameterize(String sqlText) throws StandardException{
+        String autoParameterize=PropertyUtil.getCachedDatabaseProperty(getTransactionCompile(),
+                Property.AUTO_PARAMETERIZE_LITERALS);
+        if(!Boolean.valueOf(autoParameterize))
+            return null;
+        return ParameterizedStatement.parameterize(sqlText);
+    }
+
+    @Override
+    public PreparedStatement prepareInternalStatement(SchemaDescriptor compilationSchema,
+                                                      ParameterizedStatement statement,
+                                                      boolean isForReadOnly) throws StandardException{
+        if(restoreMode){
+            throw StandardException.newException(SQLState.CONNECTION_RESET_ON_RESTORE_MODE);
+        }
+        return new GenericStatement(compilationSchema,statement.getText(),isForReadOnly,true).prepare(this);
+    }
+
     @Override
     public PreparedStatement prepareInternalStatement(String sqlText) throws StandardException{
         if(restoreMode){
@@ -1277,6 +1297,8 @@ public class GenericLanguageConnectionContext extends ContextImpl implements Lan
      */
     public PreparedStatement lookupStatement(GenericStatement statement) throws StandardException{
         GenericStorablePreparedStatement ps = getDataDictionary().getDataDictionaryCache().statementCacheFind(statement);
+        if (statement.isAutoParameterized())
+            getDataDictionary().getDataDictionaryCache().recordAutoParameterizedLookup(ps!=null);
         if (ps==null) {
             ps = new GenericStorablePreparedStatement(statement);
             getDataDictionary().getDataDictionaryCache().statementCacheAdd(statement,ps);
@@ -204,6 +204,8 @@ public abstract class GenericConstantActionFactory {
      * @param tableId		UUID of table.
      * @param columnNames	Names of the columns in the index, in order
      * @param isAscending	Array of booleans telling asc/desc on each column
+     * @param numberOfOrderedColumns	Number of leading columns that form the index key,
+     *                                 the remaining columns are INCLUDE columns
      * @param isConstraint	TRUE if index is backing up a constraint, else FALSE
      * @param conglomerateUUID	ID of conglomerate
      * @param properties	The optional properties list associated with the index.
@@ -220,6 +222,7 @@ public abstract class GenericConstantActionFactory {
 		UUID			tableId,
 		String[]		columnNames,
 		boolean[]		isAscending,
+		int				numberOfOrderedColumns,
 		boolean			isConstraint,
 		UUID			conglomerateUUID,
 		boolean			excludeNulls,
@@ -33,6 +33,7 @@ package com.splicemachine.db.impl.sql.execute;
 
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.stats.ColumnGroupStatisticsImpl;
 import com.splicemachine.db.iapi.stats.ItemStatistics;
 import com.splicemachine.db.iapi.types.DataValueDescriptor;
 import com.splicemachine.db.iapi.stats.ColumnStatisticsImpl;
@@ -43,8 +44,27 @@ import com.splicemachine.db.iapi.stats.ColumnStatisticsImpl;
  */
 public class StatisticsRow extends ValueRow {
     private ItemStatistics[] statistics;
+    private int[][] groupRowIndexes;
+    private ColumnGroupStatisticsImpl[] groupStatistics;
 
     public StatisticsRow(ExecRow execRow) throws StandardException {
+        this(execRow, new int[0][]);
+    }
+
+    /**
+     *
+     * @param execRow
+     * @param groupRowIndexes for each column group, the positions (indexed from 1) of its columns in the row
+     * @param groupColumns for each column group, the ids of its columns in the base table
+     * @throws StandardException
+     */
+    public StatisticsRow(ExecRow execRow, int[][] groupRowIndexes, int[][] groupColumns) throws StandardException {
+        this(execRow, groupRowIndexes);
+        for (int i = 0; i < groupColumns.length; i++)
+            groupStatistics[i] = new ColumnGroupStatisticsImpl(groupColumns[i]);
+    }
+
+    private StatisticsRow(ExecRow execRow, int[][] groupRowIndexes) throws StandardException {
         assert execRow!=null:"ExecRow passed in is null";
         this.setRowArray(execRow.getRowArray());
         statistics = new ItemStatistics[execRow.nColumns()];
@@ -52,6 +72,8 @@ public class StatisticsRow extends ValueRow {
             DataValueDescriptor dvd = execRow.getColumn(i+1);
             statistics[i] = new ColumnStatisticsImpl(dvd);
         }
+        this.groupRowIndexes = groupRowIndexes;
+        this.groupStatistics = new ColumnGroupStatisticsImpl[groupRowIndexes.length];
     }
 
 
@@ -71,9 +93,19 @@ public class StatisticsRow extends ValueRow {
         for (int i = 1; i<= execRow.nColumns(); i++) {
             setColumn(i,execRow.getColumn(i));
         }
+        for (int i = 0; i < groupRowIndexes.length; i++) {
+            DataValueDescriptor[] values = new DataValueDescriptor[groupRowIndexes[i].length];
+            for (int j = 0; j < values.length; j++)
+                values[j] = execRow.getColumn(groupRowIndexes[i][j]);
+            groupStatistics[i].update(ColumnGroupStatisticsImpl.key(values));
+        }
     }
 
     public ItemStatistics[] getItemStatistics() {
         return statistics;
     }
+
+    public ColumnGroupStatisticsImpl[] getColumnGroupStatistics() {
+        return groupStatistics;
+    }
 }
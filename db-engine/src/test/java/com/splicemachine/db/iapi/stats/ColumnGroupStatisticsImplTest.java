@@ -0,0 +1,140 @@
+/*
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Some parts of this source code are based on Apache Derby, and the following notices apply to
+ * Apache Derby:
+ *
+ * Apache Derby is a subproject of the Apache DB project, and is licensed under
+ * the Apache License, Version 2.0 (the "License"); you may not use these files
+ * except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Splice Machine, Inc. has modified the Apache Derby code in this file.
+ *
+ * All such Splice Machine modifications are Copyright 2012 - 2018 Splice Machine, Inc.,
+ * and are licensed to you under the GNU Affero General Public License.
+ */
+package com.splicemachine.db.iapi.stats;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.types.DataTypeDescriptor;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.SQLChar;
+import com.splicemachine.db.iapi.types.SQLDecimal;
+import com.splicemachine.db.iapi.types.SQLInteger;
+import com.splicemachine.db.iapi.types.SQLTimestamp;
+import com.splicemachine.db.iapi.types.SQLVarchar;
+import com.splicemachine.db.iapi.types.TypeId;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ *
+ * Test Column Group Statistics over two fully correlated columns (the second column is a function of the first).
+ *
+ */
+public class ColumnGroupStatisticsImplTest {
+    private static ColumnGroupStatisticsImpl impl;
+    private static ColumnStatisticsImpl firstColumn;
+
+    @BeforeClass
+    public static void startup() throws StandardException {
+        impl = new ColumnGroupStatisticsImpl(new int[]{1, 2});
+        firstColumn = new ColumnStatisticsImpl(new SQLInteger());
+        for (int i = 0; i < 10000; i++) {
+            int city = i % 10;
+            impl.update(ColumnGroupStatisticsImpl.key(values(city)));
+            firstColumn.update(new SQLInteger(city));
+        }
+    }
+
+    private static DataValueDescriptor[] values(int city) {
+        return new DataValueDescriptor[]{new SQLInteger(city), new SQLVarchar("zip" + city)};
+    }
+
+    @Test
+    public void testCardinality() throws StandardException {
+        Assert.assertEquals(10, impl.cardinality());
+        Assert.assertEquals(firstColumn.cardinality(), impl.cardinality());
+    }
+
+    @Test
+    public void testSelectivity() throws StandardException {
+        Assert.assertEquals(1000, impl.selectivity(values(3)));
+        // unknown values fall back on the rows per distinct combination
+        Assert.assertEquals(1000, impl.selectivity(new DataValueDescriptor[]{new SQLInteger(3), null}));
+    }
+
+    @Test
+    public void testKey() throws StandardException {
+        Assert.assertNotEquals(
+                ColumnGroupStatisticsImpl.key(new DataValueDescriptor[]{new SQLVarchar("ab"), new SQLVarchar("c")}),
+                ColumnGroupStatisticsImpl.key(new DataValueDescriptor[]{new SQLVarchar("a"), new SQLVarchar("bc")}));
+        Assert.assertEquals(
+                ColumnGroupStatisticsImpl.key(new DataValueDescriptor[]{new SQLChar("a    "), new SQLInteger(1)}),
+                ColumnGroupStatisticsImpl.key(new DataValueDescriptor[]{new SQLVarchar("a"), new SQLInteger(1)}));
+        Assert.assertTrue(ColumnGroupStatisticsImpl.key(new DataValueDescriptor[]{new SQLVarchar("a"), new SQLInteger()}).isNull());
+    }
+
+    @Test
+    public void testNormalizedValuesMatchCollectedKeys() throws StandardException {
+        DataTypeDescriptor decimal = new DataTypeDescriptor(TypeId.getBuiltInTypeId(Types.DECIMAL), 5, 2, false, 7);
+        DataTypeDescriptor timestamp = DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.TIMESTAMP, false);
+        DataValueDescriptor collected = ColumnGroupStatisticsImpl.key(new DataValueDescriptor[]{
+                new SQLDecimal("1.00"), new SQLTimestamp(Timestamp.valueOf("2018-01-01 00:00:00"))});
+        DataValueDescriptor[] compared = new DataValueDescriptor[]{new SQLInteger(1), new SQLVarchar("2018-01-01 00:00:00")};
+        Assert.assertNotEquals(collected, ColumnGroupStatisticsImpl.key(compared));
+        Assert.assertEquals(collected, ColumnGroupStatisticsImpl.key(new DataValueDescriptor[]{
+                ColumnGroupStatisticsImpl.normalize(compared[0], decimal),
+                ColumnGroupStatisticsImpl.normalize(compared[1], timestamp)}));
+        // values that can't be represented in the column's type are not known
+        Assert.assertNull(ColumnGroupStatisticsImpl.normalize(new SQLVarchar("not a timestamp"), timestamp));
+        Assert.assertNull(ColumnGroupStatisticsImpl.normalize(null, timestamp));
+    }
+
+    @Test
+    public void testMerge() throws StandardException {
+        ColumnStatisticsMerge merge = ColumnStatisticsMerge.instance();
+        merge.accumulate(impl);
+        merge.accumulate(impl);
+        ColumnStatisticsImpl merged = merge.terminate();
+        Assert.assertTrue(merged instanceof ColumnGroupStatisticsImpl);
+        Assert.assertArrayEquals(new int[]{1, 2}, ((ColumnGroupStatisticsImpl) merged).getColumns());
+        Assert.assertEquals(10, merged.cardinality());
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(impl);
+        oos.close();
+        ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()));
+        ColumnGroupStatisticsImpl read = (ColumnGroupStatisticsImpl) ois.readObject();
+        Assert.assertArrayEquals(new int[]{1, 2}, read.getColumns());
+        Assert.assertEquals(impl.cardinality(), read.cardinality());
+        Assert.assertEquals(impl.selectivity(values(3)), read.selectivity(values(3)));
+    }
+}
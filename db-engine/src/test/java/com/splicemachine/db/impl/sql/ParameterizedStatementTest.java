@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.splicemachine.db.impl.sql;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParameterizedStatementTest {
+
+    private static String text(String sql) {
+        ParameterizedStatement ps = ParameterizedStatement.parameterize(sql);
+        return ps == null ? null : ps.getText();
+    }
+
+    @Test
+    public void replacesComparisonLiterals() {
+        ParameterizedStatement ps = ParameterizedStatement.parameterize(
+                "select * from t where a = 42 and t.b <> 'x''y' and c >= -1.50 and d < 12345678901");
+        Assert.assertNotNull(ps);
+        Assert.assertEquals("select * from t where a = CAST(? AS INTEGER) and t.b <> CAST(? AS VARCHAR(32672))" +
+                " and c >= CAST(? AS DECIMAL(31,2)) and d < CAST(? AS BIGINT)", ps.getText());
+        Assert.assertEquals(4, ps.getParameterCount());
+    }
+
+    @Test
+    public void statementsDifferingInLiteralsShareText() {
+        Assert.assertEquals(text("update t set a = 1 where id = 7"), text("update t set a = 2 where id = 123"));
+        Assert.assertEquals(text("select a from t where b = 'abc'"), text("select a from t where b = 'xyz'"));
+    }
+
+    @Test
+    public void leavesPlanShapingLiteralsAlone() {
+        Assert.assertNull(text("select * from t where a like 'ab%'"));
+        Assert.assertNull(text("select * from t where a in (1, 2, 3)"));
+        Assert.assertNull(text("select * from t where a between 1 and 10"));
+        Assert.assertNull(text("select * from t order by 1 fetch first 10 rows only"));
+        Assert.assertNull(text("select * from t where a = 1 + b"));
+        Assert.assertNull(text("select * from t where a = 1e5"));
+        Assert.assertNull(text("select * from t where 1 = 1"));
+        Assert.assertEquals("select * from t where a like 'ab%' and b = CAST(? AS INTEGER)",
+                text("select * from t where a like 'ab%' and b = 5"));
+    }
+
+    @Test
+    public void stringLiteralsShareTextWhateverTheirLength() {
+        Assert.assertEquals(text("select a from t where b = 'x'"), text("select a from t where b = 'a longer value'"));
+        Assert.assertEquals("select a from t where b = CAST(? AS VARCHAR(32672))", text("select a from t where b = ''"));
+    }
+
+    @Test
+    public void leavesGroupedAndOrderedExpressionsAlone() {
+        Assert.assertNull(text("select case when a = 1 then 'x' end, count(*) from t group by case when a = 1 then 'x' end"));
+        Assert.assertNull(text("select a from t order by case when a = 1 then 0 else 1 end"));
+        Assert.assertNull(text("select a, count(*) from t group by a having a = 1"));
+        Assert.assertEquals("select case when a = 1 then 'x' end, count(*) from t where b = CAST(? AS INTEGER)" +
+                        " group by case when a = 1 then 'x' end",
+                text("select case when a = 1 then 'x' end, count(*) from t where b = 2 group by case when a = 1 then 'x' end"));
+    }
+
+    @Test
+    public void replacesJoinAndSubqueryPredicates() {
+        Assert.assertEquals("select * from t join u on t.a = u.a and u.b = CAST(? AS INTEGER) where (t.c = CAST(? AS INTEGER))",
+                text("select * from t join u on t.a = u.a and u.b = 3 where (t.c = 4)"));
+        Assert.assertEquals("select (select max(b) from u where u.a = CAST(? AS INTEGER)), case when a = 2 then 0 end from t",
+                text("select (select max(b) from u where u.a = 1), case when a = 2 then 0 end from t"));
+    }
+
+    @Test
+    public void skipsIneligibleStatements() {
+        Assert.assertNull(text("create table t (a int default 1)"));
+        Assert.assertNull(text("call syscs_util.foo(1)"));
+        Assert.assertNull(text("select * from t where a = ? and b = 1"));
+        Assert.assertNull(text("select * from t where a = {d '2017-01-01'}"));
+        Assert.assertNull(text("select * from t where a = X'0A'"));
+        Assert.assertNull(text("select * from t where a = 'unterminated"));
+    }
+
+    @Test
+    public void preservesCommentsAndQuotedIdentifiers() {
+        Assert.assertEquals("select * from t --splice-properties index=IDX_1\n where \"a=1\" = CAST(? AS INTEGER)",
+                text("select * from t --splice-properties index=IDX_1\n where \"a=1\" = 1"));
+        Assert.assertEquals("/* a = 1 */ select * from t where (a) = CAST(? AS VARCHAR(32672))",
+                text("/* a = 1 */ select * from t where (a) = 'q'"));
+    }
+}
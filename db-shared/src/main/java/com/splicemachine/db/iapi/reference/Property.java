@@ -1331,4 +1331,13 @@ public interface Property {
 	String CONVERT_OUT_OF_RANGE_TIMESTAMPS =
 	        "derby.database.convertOutOfRangeTimeStamps";
 
+	/**
+	 * If true, literals compared against columns in statements executed through a plain
+	 * JDBC Statement are replaced by typed parameter markers before the statement cache
+	 * lookup, so that statements differing only in those literals share one compiled plan.
+	 * By default it is false or NULL(which is the same as false).
+	 */
+	String AUTO_PARAMETERIZE_LITERALS =
+			"derby.database.autoParameterizeLiterals";
+
 }
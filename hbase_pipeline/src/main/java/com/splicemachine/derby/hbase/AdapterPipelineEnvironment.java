@@ -60,6 +60,7 @@ import com.splicemachine.utils.kryo.KryoPool;
 import javax.sql.DataSource;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.Collection;
 
 /**
  * @author Scott Fines
@@ -267,5 +268,10 @@ public class AdapterPipelineEnvironment implements PipelineEnvironment{
         public void deregisterPipeline(String partitionName){
             delegate.deregisterPipeline(partitionName);
         }
+
+        @Override
+        public Collection<PartitionWritePipeline> getPipelines(){
+            return delegate.getPipelines();
+        }
     }
 }
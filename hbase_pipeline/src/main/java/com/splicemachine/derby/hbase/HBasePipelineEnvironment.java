@@ -16,6 +16,7 @@ package com.splicemachine.derby.hbase;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.Collection;
 
 import com.splicemachine.access.api.DistributedFileSystem;
 import com.splicemachine.access.api.FilesystemAdmin;
@@ -265,5 +266,10 @@ public class HBasePipelineEnvironment implements PipelineEnvironment{
         public void deregisterPipeline(String partitionName){
             delegate.deregisterPipeline(partitionName);
         }
+
+        @Override
+        public Collection<PartitionWritePipeline> getPipelines(){
+            return delegate.getPipelines();
+        }
     }
 }
@@ -20,6 +20,7 @@ import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import com.splicemachine.pipeline.client.*;
 import com.splicemachine.pipeline.constraint.ConstraintContext;
+import com.splicemachine.pipeline.traffic.BackpressureHint;
 import com.splicemachine.utils.kryo.ExternalizableSerializer;
 import com.splicemachine.utils.kryo.KryoPool;
 
@@ -39,12 +40,31 @@ public class PipelineKryoRegistry implements KryoPool.KryoRegistry{
             @Override
             public void write(Kryo kryo,Output output,BulkWritesResult object){
                 kryo.writeClassAndObject(output,object.getBulkWriteResults());
+                BackpressureHint hint=object.getBackpressureHint();
+                output.writeBoolean(hint!=null);
+                if(hint!=null){
+                    output.writeBoolean(hint.isRejected());
+                    output.writeDouble(hint.getUtilization());
+                    output.writeInt(hint.getQueueDepth());
+                    output.writeInt(hint.getActiveWriters());
+                    output.writeLong(hint.getResumeAfterMs());
+                }
             }
 
             @Override
             public BulkWritesResult read(Kryo kryo,Input input,Class type){
                 Collection<BulkWriteResult> results=(Collection<BulkWriteResult>)kryo.readClassAndObject(input);
-                return new BulkWritesResult(results);
+                BackpressureHint hint=null;
+                //older servers don't send a hint at all, so be careful not to read past the end
+                if(!input.eof() && input.readBoolean()){
+                    boolean rejected=input.readBoolean();
+                    double utilization=input.readDouble();
+                    int queueDepth=input.readInt();
+                    int activeWriters=input.readInt();
+                    long resumeAfterMs=input.readLong();
+                    hint=new BackpressureHint(rejected,utilization,queueDepth,activeWriters,resumeAfterMs);
+                }
+                return new BulkWritesResult(results,hint);
             }
         },11);
 
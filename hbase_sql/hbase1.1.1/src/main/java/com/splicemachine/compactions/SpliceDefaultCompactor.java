@@ -29,6 +29,7 @@ import com.splicemachine.si.data.hbase.coprocessor.TableType;
 import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.si.impl.server.CompactionContext;
 import com.splicemachine.si.impl.server.SICompactionState;
+import com.splicemachine.si.impl.server.VersionWatermark;
 import com.splicemachine.storage.Partition;
 import com.splicemachine.stream.SparkCompactionContext;
 import com.splicemachine.utils.SpliceLogUtils;
@@ -280,8 +281,11 @@ public class SpliceDefaultCompactor extends DefaultCompactor {
                     double resolutionShare = HConfiguration.getConfiguration().getOlapCompactionResolutionShare();
                     int bufferSize = HConfiguration.getConfiguration().getOlapCompactionResolutionBufferSize();
                     boolean blocking = HConfiguration.getConfiguration().getOlapCompactionBlocking();
+                    long versionWatermark = VersionWatermark.compute(driver,
+                            ((HStore)store).getHRegion().getTableDesc().getValue(SIConstants.VERSION_GC_ATTR));
                     SICompactionState state = new SICompactionState(driver.getTxnSupplier(),
-                            driver.getConfiguration().getActiveTransactionCacheSize(), context, blocking ? driver.getExecutorService() : driver.getRejectingExecutorService());
+                            driver.getConfiguration().getActiveTransactionCacheSize(), context, blocking ? driver.getExecutorService() : driver.getRejectingExecutorService(),
+                            versionWatermark);
                     boolean purgeDeletedRows = request.isMajor() ? SpliceCompactionUtils.shouldPurge(store) : false;
 
                     SICompactionScanner siScanner = new SICompactionScanner(state, scanner, purgeDeletedRows, resolutionShare, bufferSize, context);
@@ -496,6 +496,12 @@ public class SpliceSparkKryoRegistrator implements KryoRegistrator, KryoPool.Kry
         instance.register(SpliceStddevPop.class,EXTERNALIZABLE_SERIALIZER);
         instance.register(SpliceStddevSamp.class,EXTERNALIZABLE_SERIALIZER);
         instance.register(SpliceUDAVariance.class,EXTERNALIZABLE_SERIALIZER);
+        instance.register(SpliceApproxCountDistinct.class,EXTERNALIZABLE_SERIALIZER);
+        instance.register(SpliceApproxPercentile50.class,EXTERNALIZABLE_SERIALIZER);
+        instance.register(SpliceApproxPercentile90.class,EXTERNALIZABLE_SERIALIZER);
+        instance.register(SpliceApproxPercentile95.class,EXTERNALIZABLE_SERIALIZER);
+        instance.register(SpliceApproxPercentile99.class,EXTERNALIZABLE_SERIALIZER);
+        instance.register(SpliceApproxTopK.class,EXTERNALIZABLE_SERIALIZER);
         instance.register(Properties.class, new MapSerializer());
 
 //        instance.register(com.splicemachine.derby.client.sql.execute.ValueRow.class,EXTERNALIZABLE_SERIALIZER);
@@ -680,6 +686,7 @@ public class SpliceSparkKryoRegistrator implements KryoRegistrator, KryoPool.Kry
         instance.register(HalfMergeSortJoinOperation.class,EXTERNALIZABLE_SERIALIZER);
         instance.register(HalfMergeSortLeftOuterJoinOperation.class,EXTERNALIZABLE_SERIALIZER);
         instance.register(RowToLocatedRowFunction.class,EXTERNALIZABLE_SERIALIZER);
+        instance.register(InternalRowToExecRowFunction.class,EXTERNALIZABLE_SERIALIZER);
         instance.register(LocatedRowToRowFunction.class,EXTERNALIZABLE_SERIALIZER);
         instance.register(CachedOperation.CacheFunction.class,EXTERNALIZABLE_SERIALIZER);
         instance.register(CountJoinedLeftFunction.class,EXTERNALIZABLE_SERIALIZER);
@@ -690,6 +697,8 @@ public class SpliceSparkKryoRegistrator implements KryoRegistrator, KryoPool.Kry
         instance.register(HTableScanTupleFunction.class,EXTERNALIZABLE_SERIALIZER);
         instance.register(IndexToBaseRowFilterPredicateFunction.class,EXTERNALIZABLE_SERIALIZER);
         instance.register(IndexTransformFunction.class,EXTERNALIZABLE_SERIALIZER);
+        instance.register(IndexTransformPartitionFunction.class,EXTERNALIZABLE_SERIALIZER);
+        instance.register(IndexPopulationThrottleFunction.class,EXTERNALIZABLE_SERIALIZER);
         instance.register(InnerJoinNullFilterFunction.class,EXTERNALIZABLE_SERIALIZER);
         instance.register(MapFunction.class,EXTERNALIZABLE_SERIALIZER);
         instance.register(RowTransformFunction.class,EXTERNALIZABLE_SERIALIZER);
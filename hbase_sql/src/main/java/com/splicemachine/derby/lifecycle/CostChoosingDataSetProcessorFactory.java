@@ -34,8 +34,10 @@ import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
 import com.splicemachine.derby.stream.control.ControlDataSetProcessor;
 import com.splicemachine.derby.stream.iapi.DataSetProcessor;
 import com.splicemachine.derby.stream.iapi.DistributedDataSetProcessor;
+import com.splicemachine.derby.stream.iapi.PartialAggregationClient;
 import com.splicemachine.derby.stream.spark.HregionDataSetProcessor;
 import com.splicemachine.derby.stream.spark.SparkDataSetProcessor;
+import com.splicemachine.hbase.RegionAggregationClient;
 import com.splicemachine.hbase.RegionServerLifecycleObserver;
 import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.derby.stream.iapi.RemoteQueryClient;
@@ -142,6 +144,11 @@ public class CostChoosingDataSetProcessorFactory implements DataSetProcessorFact
         return new RemoteQueryClientImpl(operation, hostname);
     }
 
+    @Override
+    public PartialAggregationClient getPartialAggregationClient() {
+        return new RegionAggregationClient();
+    }
+
     @Override
     public ControlExecutionLimiter getControlExecutionLimiter(Activation activation) {
         if (!isHBase())
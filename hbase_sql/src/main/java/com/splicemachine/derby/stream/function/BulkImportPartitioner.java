@@ -16,13 +16,11 @@ package com.splicemachine.derby.stream.function;
 
 import com.google.common.collect.Lists;
 import org.apache.spark.Partitioner;
-import scala.Tuple2;
 
 import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
-import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
@@ -52,11 +50,7 @@ public class BulkImportPartitioner extends Partitioner implements
             initialize();
             initialized = true;
         }
-        Tuple2<Long, byte[]> key =  (Tuple2<Long, byte[]>) o;
-        Long conglomerateId = key._1;
-        byte[] startKey = key._2;
-        BulkImportPartition partitionKey = new BulkImportPartition(conglomerateId, startKey, startKey, null);
-        int num = Collections.binarySearch(partitionList, partitionKey, BulkImportUtils.getSearchComparator());
+        int num = BulkImportUtils.findPartition(partitionList, (byte[]) o);
         return tasksPerRegion > 1 ? num*tasksPerRegion+random.nextInt(tasksPerRegion) : num;
     }
 
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.derby.stream.function;
+
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.spark.api.java.function.PairFunction;
+import scala.Tuple2;
+
+/**
+ * Flattens an encoded (conglomerate, (row key, value)) triple from a RowAndIndexGenerator into a single
+ * binary record key of the form [conglomerate id (8 bytes, big endian)][row key], paired with the value.
+ *
+ * Conglomerate ids are positive, so an unsigned lexicographic comparison of record keys orders records
+ * first by conglomerate and then by row key, which is exactly the order HFiles have to be written in.
+ * This lets the bulk import shuffle and sort plain byte arrays instead of boxed ids, nested tuples and
+ * hex encoded keys.
+ */
+public class BulkImportRecordFunction implements PairFunction<Tuple2<Long, Tuple2<byte[], byte[]>>, byte[], byte[]> {
+
+    public static final int CONGLOMERATE_LENGTH = Bytes.SIZEOF_LONG;
+
+    @Override
+    public Tuple2<byte[], byte[]> call(Tuple2<Long, Tuple2<byte[], byte[]>> t) throws Exception {
+        return new Tuple2<>(encodeKey(t._1, t._2._1), t._2._2);
+    }
+
+    public static byte[] encodeKey(long conglomerateId, byte[] rowKey) {
+        byte[] recordKey = new byte[CONGLOMERATE_LENGTH + rowKey.length];
+        Bytes.putLong(recordKey, 0, conglomerateId);
+        System.arraycopy(rowKey, 0, recordKey, CONGLOMERATE_LENGTH, rowKey.length);
+        return recordKey;
+    }
+
+    public static long getConglomerateId(byte[] recordKey) {
+        return Bytes.toLong(recordKey, 0);
+    }
+}
@@ -19,6 +19,7 @@ import scala.Tuple2;
 
 import java.io.Serializable;
 import java.util.Comparator;
+import java.util.List;
 
 /**
  * Created by jyuan on 3/20/17.
@@ -27,10 +28,6 @@ public class BulkImportUtils implements Serializable{
     public BulkImportUtils() {
 
     }
-    public static Comparator<BulkImportPartition> getSearchComparator() {
-        return new SearchComparator();
-    }
-
     public static Comparator<Tuple2<Long, byte[]>> getSortDataComparator() {
         return new SortDataComparator();
     }
@@ -39,51 +36,46 @@ public class BulkImportUtils implements Serializable{
         return new SortComparator();
     }
 
-    public static class SearchComparator extends SerializableComparator<BulkImportPartition> {
-        public SearchComparator() {}
-
-        @Override
-        public int compare(BulkImportPartition o1, BulkImportPartition o2) {
-            Long conglomerate1 = o1.getConglomerateId();
-            Long conglomerate2 = o2.getConglomerateId();
-
-            if (conglomerate1 > conglomerate2)
-                return 1;
-            else if (conglomerate1 < conglomerate2)
-                return -1;
+    /**
+     * Find the partition a bulk import record key falls into, without materializing the row key.
+     *
+     * @param partitionList partitions sorted by {@link #getSortComparator()}
+     * @param recordKey record key as encoded by {@link BulkImportRecordFunction#encodeKey(long, byte[])}
+     * @return index of the partition in partitionList, or a negative value if no partition contains the key
+     */
+    public static int findPartition(List<BulkImportPartition> partitionList, byte[] recordKey) {
+        long conglomerateId = BulkImportRecordFunction.getConglomerateId(recordKey);
+        int offset = BulkImportRecordFunction.CONGLOMERATE_LENGTH;
+        int length = recordKey.length - offset;
+        int low = 0;
+        int high = partitionList.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            BulkImportPartition partition = partitionList.get(mid);
+            long conglomerate = partition.getConglomerateId();
+            int cmp;
+            if (conglomerate < conglomerateId)
+                cmp = -1;
+            else if (conglomerate > conglomerateId)
+                cmp = 1;
             else {
-                byte[] key = o2.getStartKey();
-                byte[] start = o1.getStartKey();
-                byte[] end = o1.getEndKey();
-
-                // both start key and end key are empty
-                if ((start == null  || start.length == 0) &&
-                        (end == null || end.length == 0)) {
-                    return 0;
-                }
-                if (start == null  || start.length == 0) {
-                    // start key is empty
-                    if (Bytes.compareTo(end, key) < 0)
-                        return -1;
-                    else
-                        return 0;
-                }
-                else if (end == null || end.length == 0) {
-                    // end key is empty
-                    if (Bytes.compareTo(start, key) > 0)
-                        return 1;
-                    else
-                        return 0;
-                }
-                if (Bytes.compareTo(start, key) <= 0 && Bytes.compareTo(end, key)>0)
-                    return 0;
-                else if (Bytes.compareTo(start, key) > 0)
-                    return 1;
+                byte[] start = partition.getStartKey();
+                byte[] end = partition.getEndKey();
+                if (start != null && start.length > 0 &&
+                        Bytes.compareTo(start, 0, start.length, recordKey, offset, length) > 0)
+                    cmp = 1;
+                else if (end != null && end.length > 0 &&
+                        Bytes.compareTo(end, 0, end.length, recordKey, offset, length) <= 0)
+                    cmp = -1;
                 else
-                    return -1;
-
+                    return mid;
             }
+            if (cmp < 0)
+                low = mid + 1;
+            else
+                high = mid - 1;
         }
+        return -(low + 1);
     }
 
     public static class SortComparator extends SerializableComparator<BulkImportPartition> {
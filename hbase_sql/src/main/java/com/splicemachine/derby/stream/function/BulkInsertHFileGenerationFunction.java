@@ -36,9 +36,11 @@ public class BulkInsertHFileGenerationFunction extends HFileGenerationFunction {
     }
 
     @Override
-    protected void writeToHFile (byte[] rowKey, byte[] value) throws Exception {
-        KeyValue kv = new KeyValue(rowKey, SIConstants.DEFAULT_FAMILY_BYTES,
-                SIConstants.PACKED_COLUMN_BYTES, txnId, value);
+    protected void writeToHFile (byte[] recordKey, int keyOffset, int keyLength, byte[] value) throws Exception {
+        KeyValue kv = new KeyValue(recordKey, keyOffset, keyLength,
+                SIConstants.DEFAULT_FAMILY_BYTES, 0, SIConstants.DEFAULT_FAMILY_BYTES.length,
+                SIConstants.PACKED_COLUMN_BYTES, 0, SIConstants.PACKED_COLUMN_BYTES.length,
+                txnId, KeyValue.Type.Put, value, 0, value.length);
         writer.append(kv);
 
     }
@@ -13,7 +13,6 @@
  */
 package com.splicemachine.derby.stream.function;
 
-import com.splicemachine.primitives.Bytes;
 import org.apache.spark.sql.Row;
 import org.apache.spark.sql.RowFactory;
 import org.apache.spark.api.java.function.Function;
@@ -22,15 +21,11 @@ import scala.Tuple2;
 /**
  * Created by jyuan on 3/26/17.
  */
-public class HBaseBulkImportRowToSparkRowFunction implements Function<Tuple2<Long, Tuple2<byte[], byte[]>>, Row> {
+public class HBaseBulkImportRowToSparkRowFunction implements Function<Tuple2<byte[], byte[]>, Row> {
 
     @Override
-    public Row call(
-            Tuple2<Long,Tuple2<byte[], byte[]>> t) throws Exception {
-
-        Long conglomerateId = t._1;
-        byte[] key = t._2._1;
-        byte[] value = t._2._2;
-        return RowFactory.create(conglomerateId, Bytes.toHex(key), value);
+    public Row call(Tuple2<byte[], byte[]> t) throws Exception {
+        // keys stay binary, Spark compares binary columns as unsigned bytes
+        return RowFactory.create(t._1, t._2);
     }
 }
@@ -44,7 +44,6 @@ import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -63,7 +62,7 @@ public abstract class HFileGenerationFunction implements MapPartitionsFunction<R
     private FileSystem fs;
     private Configuration conf;
     private OperationContext operationContext;
-    private Long heapConglom;
+    private long heapConglom;
     private String compressionAlgorithm;
     private List<BulkImportPartition> partitionList;
 
@@ -91,31 +90,32 @@ public abstract class HFileGenerationFunction implements MapPartitionsFunction<R
     public Iterator<String> call(Iterator<Row> mainAndIndexRows) throws Exception {
 
         try {
-            String lastKey = null;
+            byte[] lastKey = null;
             while (mainAndIndexRows.hasNext()) {
                 Row row = mainAndIndexRows.next();
-                Long conglomerateId = row.getAs("conglomerateId");
-                String keyStr = row.getAs("key");
-                if (lastKey != null && lastKey.equals(keyStr)) {
+                byte[] recordKey = row.getAs("key");
+                if (lastKey != null && Bytes.equals(lastKey, recordKey)) {
                     if (operationContext != null) {
                         operationContext.recordBadRecord("Primary key duplicate, row: "
                             + row.toString(), null);
                     }
                     continue;
                 }
-                lastKey = keyStr;
-                byte[] key = Bytes.fromHex(keyStr);
+                lastKey = recordKey;
+                long conglomerateId = BulkImportRecordFunction.getConglomerateId(recordKey);
+                int keyOffset = BulkImportRecordFunction.CONGLOMERATE_LENGTH;
+                int keyLength = recordKey.length - keyOffset;
                 byte[] value = row.getAs("value");
                 if (LOG.isDebugEnabled()) {
-                    SpliceLogUtils.error(LOG, "conglomerateId:%d, key:%s, value:%s",
-                            conglomerateId, Bytes.toHex(key), Bytes.toHex(value));
+                    SpliceLogUtils.debug(LOG, "conglomerateId:%d, key:%s, value:%s",
+                            conglomerateId, Bytes.toHex(recordKey, keyOffset, keyLength), Bytes.toHex(value));
                 }
                 if (!initialized) {
-                    init(conglomerateId, key);
+                    init(recordKey);
                     initialized = true;
                 }
-                writeToHFile(key, value);
-                if (conglomerateId.equals(heapConglom)) {
+                writeToHFile(recordKey, keyOffset, keyLength, value);
+                if (conglomerateId == heapConglom) {
                     if (operationContext != null)
                         operationContext.recordWrite();
                 }
@@ -130,13 +130,15 @@ public abstract class HFileGenerationFunction implements MapPartitionsFunction<R
         }
     }
 
-    protected abstract void writeToHFile (byte[] rowKey, byte[] value) throws Exception;
+    /**
+     * Append a key/value to the current HFile. The row key is the given range of the record key, so that
+     * implementations can build their KeyValue without copying it out first.
+     */
+    protected abstract void writeToHFile (byte[] recordKey, int keyOffset, int keyLength, byte[] value) throws Exception;
 
-    private void init(Long conglomerateId, byte[] key) throws IOException{
+    private void init(byte[] recordKey) throws IOException{
         conf = HConfiguration.unwrapDelegate();
-        int index = Collections.binarySearch(partitionList,
-                new BulkImportPartition(conglomerateId, key, key, null),
-                BulkImportUtils.getSearchComparator());
+        int index = BulkImportUtils.findPartition(partitionList, recordKey);
         BulkImportPartition partition = partitionList.get(index);
         fs = FileSystem.get(URI.create(partition.getFilePath()), conf);
         writer = getNewWriter(conf, new Path(partition.getFilePath()));
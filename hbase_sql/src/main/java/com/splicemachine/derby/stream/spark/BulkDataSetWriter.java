@@ -31,7 +31,6 @@ import com.splicemachine.derby.impl.SpliceSpark;
 import com.splicemachine.derby.stream.function.*;
 import com.splicemachine.derby.stream.iapi.DataSet;
 import com.splicemachine.derby.stream.iapi.OperationContext;
-import com.splicemachine.derby.stream.iapi.PairDataSet;
 import com.splicemachine.primitives.Bytes;
 import com.splicemachine.protobuf.ProtoUtil;
 import com.splicemachine.si.api.txn.TxnView;
@@ -44,6 +43,7 @@ import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.log4j.Logger;
+import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.sql.*;
 import org.apache.spark.sql.types.DataTypes;
@@ -140,25 +140,34 @@ public class BulkDataSetWriter  {
         return new Path(dir, java.util.UUID.randomUUID().toString().replaceAll("-",""));
     }
 
+    /**
+     * Route encoded key/values of the table and its indexes to the region they belong to, sort them within
+     * each partition and hand them to the HFile writers.
+     *
+     * Every key/value is flattened into a binary record key (conglomerate id followed by the row key) and
+     * its value right after it is generated, so the shuffle only carries pairs of byte arrays. The sort
+     * runs on the binary keys through Spark's Tungsten sorter, which keeps the sort buffers in managed
+     * (and, if configured, off-heap) memory and spills to disk instead of holding objects on the heap.
+     */
     protected void partitionUsingRDDSortUsingDataFrame(List<BulkImportPartition> bulkImportPartitions,
                                                        DataSet rowAndIndexes,
                                                        HFileGenerationFunction hfileGenerationFunction) {
 
-        // Create a data frame for main table and index key/values, and sort data
-        PairDataSet pairDataSet = rowAndIndexes.keyBy(new BulkImportKeyerFunction());
+        // Encode main table and index key/values as binary records, and partition them by region
         int taskPerRegion = HConfiguration.getConfiguration().getBulkImportTasksPerRegion();
-        JavaRDD partitionedJavaRDD =
-                ((SparkPairDataSet)pairDataSet).rdd
-                        .partitionBy(new BulkImportPartitioner(bulkImportPartitions, taskPerRegion)).values();
+        JavaPairRDD<byte[], byte[]> records =
+                ((SparkDataSet<Tuple2<Long, Tuple2<byte[], byte[]>>>)rowAndIndexes).rdd
+                        .mapToPair(new BulkImportRecordFunction())
+                        .partitionBy(new BulkImportPartitioner(bulkImportPartitions, taskPerRegion));
 
-        JavaRDD<Row> javaRowRdd = partitionedJavaRDD.map(new HBaseBulkImportRowToSparkRowFunction());
+        JavaRDD<Row> javaRowRdd = records.map(new HBaseBulkImportRowToSparkRowFunction());
 
         SparkSession sparkSession = SpliceSpark.getSession();
         StructType schema = createSchema();
         Dataset<Row> rowAndIndexesDataFrame =
                 sparkSession.createDataFrame(javaRowRdd, schema);
 
-        // Sort with each partition using row key
+        // Sort with each partition using record key
         Dataset partitionAndSorted =  rowAndIndexesDataFrame
                 .sortWithinPartitions(new Column("key"));
 
@@ -169,10 +178,7 @@ public class BulkDataSetWriter  {
 
     private StructType createSchema() {
         List<StructField> fields = new ArrayList<>();
-        StructField field = DataTypes.createStructField("conglomerateId", DataTypes.LongType, true);
-        fields.add(field);
-
-        field = DataTypes.createStructField("key", DataTypes.StringType, true);
+        StructField field = DataTypes.createStructField("key", DataTypes.BinaryType, false);
         fields.add(field);
 
         field = DataTypes.createStructField("value", DataTypes.BinaryType, true);
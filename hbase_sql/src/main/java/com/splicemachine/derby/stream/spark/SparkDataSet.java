@@ -28,7 +28,9 @@ import com.splicemachine.derby.impl.sql.execute.operations.window.WindowAggregat
 import com.splicemachine.derby.impl.sql.execute.operations.window.WindowContext;
 import com.splicemachine.derby.stream.function.AbstractSpliceFunction;
 import com.splicemachine.derby.stream.function.CountWriteFunction;
+import com.splicemachine.derby.stream.function.ExecRowToInternalRowFunction;
 import com.splicemachine.derby.stream.function.ExportFunction;
+import com.splicemachine.derby.stream.function.InternalRowToExecRowFunction;
 import com.splicemachine.derby.stream.function.LocatedRowToRowFunction;
 import com.splicemachine.derby.stream.function.LocatedRowToRowAvroFunction;
 import com.splicemachine.derby.stream.function.RowToLocatedRowFunction;
@@ -70,6 +72,7 @@ import org.apache.spark.sql.Column;
 import org.apache.spark.sql.Dataset;
 import org.apache.spark.sql.Row;
 import org.apache.spark.sql.SaveMode;
+import org.apache.spark.sql.catalyst.InternalRow;
 import org.apache.spark.sql.types.DataType;
 import org.apache.spark.sql.types.StructType;
 import org.apache.spark.storage.StorageLevel;
@@ -411,22 +414,10 @@ public class SparkDataSet<V> implements DataSet<V> {
         pushScopeIfNeeded(context, pushScope, scopeDetail);
         try {
             //Convert this rdd backed iterator to a Spark untyped dataset
-            Dataset<Row> left = SpliceSpark.getSession()
-                    .createDataFrame(
-                        rdd.map(
-                            new LocatedRowToRowFunction()),
-                        context.getOperation()
-                               .getExecRowDefinition()
-                               .schema());
+            Dataset<Row> left = toSparkRow(this,context);
 
             //Convert the left operand to a untyped dataset
-            Dataset<Row> right = SpliceSpark.getSession()
-                    .createDataFrame(
-                            ((SparkDataSet)dataSet).rdd
-                                   .map(new LocatedRowToRowFunction()),
-                            context.getOperation()
-                                   .getExecRowDefinition()
-                                   .schema());
+            Dataset<Row> right = toSparkRow(dataSet,context);
 
             //Do the intesect
             Dataset<Row> result = left.intersect(right);
@@ -669,11 +660,9 @@ public class SparkDataSet<V> implements DataSet<V> {
     public DataSet<V> join(OperationContext context, DataSet<V> rightDataSet, JoinType joinType, boolean isBroadcast) {
         try {
             JoinOperation op = (JoinOperation) context.getOperation();
-            Dataset<Row> leftDF = SpliceSpark.getSession().createDataFrame(
-                    rdd.map(new LocatedRowToRowFunction()),
-                            context.getOperation().getLeftOperation().getExecRowDefinition().schema());
-            Dataset<Row> rightDF = SpliceSpark.getSession().createDataFrame(
-                    ((SparkDataSet)rightDataSet).rdd.map(new LocatedRowToRowFunction()),
+            Dataset<Row> leftDF = toSparkRow(rdd,
+                    context.getOperation().getLeftOperation().getExecRowDefinition().schema());
+            Dataset<Row> rightDF = toSparkRow(((SparkDataSet)rightDataSet).rdd,
                     context.getOperation().getRightOperation().getExecRowDefinition().schema());
                 if (isBroadcast) {
                     rightDF = broadcast(rightDF);
@@ -690,11 +679,9 @@ public class SparkDataSet<V> implements DataSet<V> {
             DataSet joinedSet;
 
             if (op.wasRightOuterJoin)
-                joinedSet =  new SparkDataSet(rightDF.join(leftDF,expr,joinType.RIGHTOUTER.strategy()).rdd().toJavaRDD().map(
-                        new RowToLocatedRowFunction(context)));
+                joinedSet =  toSpliceLocatedRow(rightDF.join(leftDF,expr,joinType.RIGHTOUTER.strategy()),context);
             else
-                joinedSet =  new SparkDataSet(leftDF.join(rightDF,expr,joinType.strategy()).rdd().toJavaRDD().map(
-                    new RowToLocatedRowFunction(context)));
+                joinedSet =  toSpliceLocatedRow(leftDF.join(rightDF,expr,joinType.strategy()),context);
             return joinedSet;
         } catch (Exception e) {
             throw new RuntimeException(e);
@@ -711,17 +698,27 @@ public class SparkDataSet<V> implements DataSet<V> {
      */
     @SuppressWarnings({ "unchecked", "rawtypes" })
     Dataset<Row> toSparkRow(DataSet< V> dataSet, OperationContext context) throws Exception{
-        return SpliceSpark.getSession()
-                .createDataFrame(
-                        ((SparkDataSet)dataSet).rdd
-                                .map(new LocatedRowToRowFunction()),
-                        context.getOperation()
-                                .getExecRowDefinition()
-                                .schema());
+        return toSparkRow(((SparkDataSet)dataSet).rdd,
+                context.getOperation()
+                        .getExecRowDefinition()
+                        .schema());
+    }
+
+    /**
+     * Expose the rows to Spark as Catalyst rows reading straight from their columns,
+     * rather than as Rows that Spark converts to Catalyst rows once more.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static Dataset<Row> toSparkRow(JavaRDD rdd, StructType schema) {
+        JavaRDD<InternalRow> rows = ((JavaRDD<ExecRow>)rdd).map(new ExecRowToInternalRowFunction(schema));
+        return SpliceSpark.getSession().internalCreateDataFrame(rows.rdd(), schema);
     }
 
     /**
      * Take a spark dataset and translate that to Splice format
+     *
+     * The Catalyst rows of the dataset are read directly, skipping the conversion of every
+     * record to an external Row.
      * @param dataSet
      * @param context
      * @return
@@ -729,8 +726,8 @@ public class SparkDataSet<V> implements DataSet<V> {
 
     @SuppressWarnings({ "unchecked", "rawtypes" })
     public static DataSet toSpliceLocatedRow(Dataset<Row> dataSet, OperationContext context) throws StandardException {
-        return new SparkDataSet(dataSet.javaRDD()
-                .map(new RowToLocatedRowFunction(context)));
+        return new SparkDataSet(dataSet.queryExecution().toRdd().toJavaRDD()
+                .map(new InternalRowToExecRowFunction(context, dataSet.schema())));
     }
 
     public static DataSet toSpliceLocatedRow(JavaRDD<Row> rdd, OperationContext context) throws StandardException {
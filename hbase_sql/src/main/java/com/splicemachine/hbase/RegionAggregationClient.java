@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.hbase;
+
+import com.google.protobuf.ZeroCopyLiteralByteString;
+import com.splicemachine.coprocessor.SpliceMessage;
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.derby.impl.sql.execute.operations.GenericAggregateOperation;
+import com.splicemachine.derby.impl.sql.execute.operations.ScanOperation;
+import com.splicemachine.derby.stream.ActivationHolder;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import com.splicemachine.derby.stream.iapi.PartialAggregationClient;
+import com.splicemachine.pipeline.Exceptions;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.impl.driver.SIDriver;
+import com.splicemachine.storage.DataScan;
+import com.splicemachine.storage.Partition;
+import com.splicemachine.storage.SkeletonHBaseClientPartition;
+import com.splicemachine.utils.SpliceLogUtils;
+import org.apache.commons.lang.SerializationUtils;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.NotServingRegionException;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.client.coprocessor.Batch;
+import org.apache.hadoop.hbase.ipc.BlockingRpcCallback;
+import org.apache.hadoop.hbase.ipc.ServerRpcController;
+import org.apache.hadoop.hbase.regionserver.WrongRegionException;
+import org.apache.log4j.Logger;
+import org.spark_project.guava.base.Throwables;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Asks every region read by an aggregation's scan to compute the first phase of the aggregation
+ * (see {@link RegionAggregator}), and collects their partial results.
+ *
+ * The regions answering have to cover the scan exactly once: if a region moved, split or merged while the
+ * requests were sent, or if any region had too many groups to aggregate within its memory, no partial
+ * results are returned and the aggregation reads the rows instead. Any other failure fails the query.
+ */
+public class RegionAggregationClient implements PartialAggregationClient{
+    private static final Logger LOG=Logger.getLogger(RegionAggregationClient.class);
+
+    private static final Comparator<SpliceMessage.SplicePartialAggregateResponse> START_KEY_ORDER=
+            new Comparator<SpliceMessage.SplicePartialAggregateResponse>(){
+                @Override
+                public int compare(SpliceMessage.SplicePartialAggregateResponse o1,SpliceMessage.SplicePartialAggregateResponse o2){
+                    return Bytes.BASE_COMPARATOR.compare(o1.getStartKey().toByteArray(),o2.getStartKey().toByteArray());
+                }
+            };
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<ExecRow> getPartialResults(GenericAggregateOperation operation,
+                                               ScanOperation scanOperation,
+                                               long maxMemory,
+                                               OperationContext<?> operationContext) throws StandardException{
+        DataScan scan=scanOperation.getNonSIScan();
+        byte[] startKey=scan.getStartKey()==null?HConstants.EMPTY_START_ROW:scan.getStartKey();
+        byte[] stopKey=scan.getStopKey()==null?HConstants.EMPTY_END_ROW:scan.getStopKey();
+
+        ActivationHolder activationHolder=new ActivationHolder(operation.getActivation(),operation);
+        final SpliceMessage.SplicePartialAggregateRequest request=SpliceMessage.SplicePartialAggregateRequest.newBuilder()
+                .setActivationHolder(ZeroCopyLiteralByteString.wrap(SerializationUtils.serialize(activationHolder)))
+                .setResultSetNumber(operation.resultSetNumber())
+                .setMaxMemory(maxMemory)
+                .build();
+
+        try(Partition partition=SIDriver.driver().getTableFactory().getTable(scanOperation.getTableName())){
+            Table table=((SkeletonHBaseClientPartition)partition).unwrapDelegate();
+            Map<byte[], SpliceMessage.SplicePartialAggregateResponse> responses=table.coprocessorService(
+                    SpliceMessage.SpliceDerbyCoprocessorService.class,startKey,stopKey,
+                    new Batch.Call<SpliceMessage.SpliceDerbyCoprocessorService, SpliceMessage.SplicePartialAggregateResponse>(){
+                        @Override
+                        public SpliceMessage.SplicePartialAggregateResponse call(SpliceMessage.SpliceDerbyCoprocessorService instance) throws IOException{
+                            ServerRpcController controller=new ServerRpcController();
+                            BlockingRpcCallback<SpliceMessage.SplicePartialAggregateResponse> rpcCallback=new BlockingRpcCallback<>();
+                            instance.computePartialAggregates(controller,request,rpcCallback);
+                            if(controller.failed()){
+                                Throwable t=Throwables.getRootCause(controller.getFailedOn());
+                                if(t instanceof IOException) throw (IOException)t;
+                                else throw new IOException(t);
+                            }
+                            return rpcCallback.get();
+                        }
+                    });
+
+            List<SpliceMessage.SplicePartialAggregateResponse> sorted=new ArrayList<>(responses.values());
+            Collections.sort(sorted,START_KEY_ORDER);
+            if(!coversScan(sorted,startKey,stopKey)){
+                if(LOG.isDebugEnabled())
+                    SpliceLogUtils.debug(LOG,"Regions of %s changed while aggregating",scanOperation.getTableName());
+                return null;
+            }
+            List<ExecRow> partialResults=new ArrayList<>(sorted.size());
+            long rowsRead=0L;
+            for(SpliceMessage.SplicePartialAggregateResponse response : sorted){
+                if(!response.hasPartialResults())
+                    return null; //the region had too many groups
+                partialResults.addAll((List<ExecRow>)SerializationUtils.deserialize(response.getPartialResults().toByteArray()));
+                rowsRead+=response.getRowsRead();
+            }
+            operationContext.recordRead(rowsRead);
+            return partialResults.iterator();
+        }catch(Throwable t){
+            if(isRegionChange(t)){
+                if(LOG.isDebugEnabled())
+                    SpliceLogUtils.debug(LOG,"Regions of %s moved while aggregating",scanOperation.getTableName());
+                return null;
+            }
+            // anything else (interrupts, cancellation, failures of the query itself) fails the query
+            throw Exceptions.parseException(t);
+        }
+    }
+
+    /**
+     * @return true if {@code t} only means that a region the scan covers moved, split or merged, in which
+     * case the aggregation can still read the rows instead.
+     */
+    static boolean isRegionChange(Throwable t){
+        Throwable cause=Throwables.getRootCause(t);
+        return cause instanceof NotServingRegionException || cause instanceof WrongRegionException;
+    }
+
+    /**
+     * @return true if the regions of {@code responses} (sorted by start key) cover the range [startKey,stopKey)
+     * with neither gaps nor overlaps.
+     */
+    static boolean coversScan(List<SpliceMessage.SplicePartialAggregateResponse> responses,byte[] startKey,byte[] stopKey){
+        byte[] covered=null;
+        for(SpliceMessage.SplicePartialAggregateResponse response : responses){
+            byte[] regionStart=response.getStartKey().toByteArray();
+            if(covered==null){
+                if(Bytes.BASE_COMPARATOR.compare(regionStart,startKey)>0)
+                    return false; //the first region starts after the scan does
+            }else if(covered.length==0 || !Bytes.equals(regionStart,covered))
+                return false;
+            covered=response.getEndKey().toByteArray();
+        }
+        if(covered==null)
+            return false;
+        return covered.length==0 || (stopKey.length>0 && Bytes.BASE_COMPARATOR.compare(covered,stopKey)>=0);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.hbase;
+
+import com.google.protobuf.ZeroCopyLiteralByteString;
+import com.splicemachine.coprocessor.SpliceMessage;
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
+import com.splicemachine.derby.impl.sql.execute.operations.GenericAggregateOperation;
+import com.splicemachine.derby.impl.sql.execute.operations.PartialAggregation;
+import com.splicemachine.derby.impl.sql.execute.operations.scanner.TableScannerBuilder;
+import com.splicemachine.derby.stream.ActivationHolder;
+import com.splicemachine.derby.stream.control.ControlDataSet;
+import com.splicemachine.derby.stream.control.ControlDataSetProcessor;
+import com.splicemachine.derby.stream.iapi.DataSet;
+import com.splicemachine.derby.stream.iapi.DataSetProcessor;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import com.splicemachine.derby.stream.iapi.ScanSetBuilder;
+import com.splicemachine.derby.stream.iterator.TableScannerIterator;
+import com.splicemachine.pipeline.Exceptions;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.api.server.TransactionalRegion;
+import com.splicemachine.si.impl.driver.SIDriver;
+import com.splicemachine.storage.DataScan;
+import com.splicemachine.storage.RegionPartition;
+import org.apache.commons.lang.SerializationUtils;
+import org.apache.hadoop.hbase.regionserver.HRegion;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Computes the first phase of an aggregation over the rows of a single region, on behalf of
+ * {@link RegionAggregationClient}.
+ *
+ * The aggregation's operation tree is deserialized and run under the query's transaction, exactly as
+ * it would be on the server running the query, except that its scan only reads the rows of this region.
+ */
+public class RegionAggregator{
+    private final HRegion region;
+
+    public RegionAggregator(HRegion region){
+        this.region=region;
+    }
+
+    public SpliceMessage.SplicePartialAggregateResponse aggregate(SpliceMessage.SplicePartialAggregateRequest request) throws IOException{
+        SpliceMessage.SplicePartialAggregateResponse.Builder response=SpliceMessage.SplicePartialAggregateResponse.newBuilder()
+                .setStartKey(ZeroCopyLiteralByteString.wrap(region.getRegionInfo().getStartKey()))
+                .setEndKey(ZeroCopyLiteralByteString.wrap(region.getRegionInfo().getEndKey()));
+
+        ActivationHolder activationHolder=(ActivationHolder)SerializationUtils.deserialize(request.getActivationHolder().toByteArray());
+        activationHolder.reinitialize(null);
+        try{
+            GenericAggregateOperation operation=(GenericAggregateOperation)activationHolder.getOperationsMap().get(request.getResultSetNumber());
+            DataSetProcessor dsp=new RegionDataSetProcessor(SIDriver.driver(),region);
+            OperationContext operationContext=dsp.createOperationContext(operation);
+            List<ExecRow> partialResults=PartialAggregation.computePartialResults(operation,dsp,operationContext,request.getMaxMemory());
+            if(partialResults!=null)
+                response.setPartialResults(ZeroCopyLiteralByteString.wrap(SerializationUtils.serialize(new ArrayList<>(partialResults))));
+            response.setRowsRead(operationContext.getRecordsRead());
+        }catch(StandardException se){
+            throw Exceptions.getIOException(se);
+        }finally{
+            activationHolder.close();
+        }
+        return response.build();
+    }
+
+    /**
+     * Reads tables from the rows of a single region.
+     */
+    private static class RegionDataSetProcessor extends ControlDataSetProcessor{
+        private final HRegion hregion;
+
+        RegionDataSetProcessor(SIDriver driver,HRegion region){
+            super(driver.getTxnSupplier(),driver.getTransactor(),driver.getOperationFactory());
+            this.hregion=region;
+        }
+
+        @Override
+        public <Op extends SpliceOperation, V> ScanSetBuilder<V> newScanSet(final Op spliceOperation,String tableName) throws StandardException{
+            return new TableScannerBuilder<V>(){
+                @Override
+                public DataSet<V> buildDataSet() throws StandardException{
+                    if(!restrictToRegion(scan))
+                        return new ControlDataSet<>(Collections.<V>emptyIterator());
+                    try{
+                        RegionPartition partition=new RegionPartition(hregion);
+                        long conglomId=Long.parseLong(hregion.getTableDesc().getTableName().getQualifierAsString());
+                        TransactionalRegion txnRegion=SIDriver.driver().transactionalPartition(conglomId,partition);
+                        this.region(txnRegion).scanner(partition.openScanner(scan,metricFactory));
+                        TableScannerIterator tableScannerIterator=new TableScannerIterator(this,spliceOperation);
+                        spliceOperation.registerCloseable(tableScannerIterator);
+                        return new ControlDataSet(tableScannerIterator);
+                    }catch(IOException e){
+                        throw Exceptions.parseException(e);
+                    }
+                }
+            };
+        }
+
+        /**
+         * @return false if the scan doesn't read any row of this region
+         */
+        private boolean restrictToRegion(DataScan scan){
+            byte[] regionStart=hregion.getRegionInfo().getStartKey();
+            byte[] regionEnd=hregion.getRegionInfo().getEndKey();
+            byte[] start=scan.getStartKey();
+            byte[] stop=scan.getStopKey();
+            if(start==null || Bytes.BASE_COMPARATOR.compare(start,regionStart)<0)
+                start=regionStart;
+            if(stop==null || stop.length==0 || (regionEnd.length>0 && Bytes.BASE_COMPARATOR.compare(stop,regionEnd)>0))
+                stop=regionEnd;
+            if(stop.length>0 && Bytes.BASE_COMPARATOR.compare(start,stop)>=0)
+                return false;
+            scan.startKey(start).stopKey(stop);
+            return true;
+        }
+    }
+}
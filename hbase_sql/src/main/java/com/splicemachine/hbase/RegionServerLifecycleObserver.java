@@ -37,6 +37,8 @@ import com.splicemachine.access.hbase.HBaseConnectionFactory;
 import com.splicemachine.concurrent.SystemClock;
 import com.splicemachine.derby.lifecycle.MonitoredLifecycleService;
 import com.splicemachine.derby.lifecycle.NetworkLifecycleService;
+import com.splicemachine.derby.lifecycle.StatementCacheWarmupService;
+import com.splicemachine.derby.lifecycle.StatisticsRefreshService;
 import com.splicemachine.lifecycle.DatabaseLifecycleManager;
 import com.splicemachine.lifecycle.RegionServerLifecycle;
 import com.splicemachine.si.data.hbase.coprocessor.HBaseSIEnvironment;
@@ -115,6 +117,13 @@ public class RegionServerLifecycleObserver extends BaseRegionServerObserver{
             
             env.txnStore().setOldTransactions(ZkUpgrade.getOldTransactions(config));
 
+            //compile the statements cached before the last shutdown
+            manager.registerNetworkService(new StatementCacheWarmupService(config,regionServerServices.getServerName().getHostAndPort()));
+
+            //collect statistics again for tables that changed significantly
+            manager.registerNetworkService(new StatisticsRefreshService(config,
+                    new ZkStatisticsRefreshClaims(ZkUtils.getRecoverableZooKeeper(),config.getSpliceRootPath(),regionServerZNode)));
+
             //register the network boot service
             manager.registerNetworkService(new NetworkLifecycleService(config));
 
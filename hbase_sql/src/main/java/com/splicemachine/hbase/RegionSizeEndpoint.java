@@ -100,6 +100,21 @@ public class RegionSizeEndpoint extends SpliceMessage.SpliceDerbyCoprocessorServ
         callback.run(writeResponse.build());
     }
 
+    @Override
+    public void computePartialAggregates(RpcController controller,
+                                         SpliceMessage.SplicePartialAggregateRequest request,
+                                         RpcCallback<SpliceMessage.SplicePartialAggregateResponse> callback) {
+        if (LOG.isDebugEnabled())
+            SpliceLogUtils.debug(LOG, "computePartialAggregates");
+        SpliceMessage.SplicePartialAggregateResponse response = null;
+        try {
+            response = new RegionAggregator(region).aggregate(request);
+        } catch (Exception e) {
+            org.apache.hadoop.hbase.protobuf.ResponseConverter.setControllerException(controller, e instanceof IOException ? (IOException) e : new IOException(e));
+        }
+        callback.run(response);
+    }
+
     /* ****************************************************************************************************************/
     /*private helper methods*/
     private static List<byte[]> computeSplits(HRegion region, byte[] beginKey, byte[] endKey, int requestedSplits) throws IOException {
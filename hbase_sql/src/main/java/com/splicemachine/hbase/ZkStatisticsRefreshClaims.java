@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.hbase;
+
+import com.splicemachine.access.HConfiguration;
+import com.splicemachine.derby.lifecycle.StatisticsRefreshClaims;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.zookeeper.RecoverableZooKeeper;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.ZooDefs;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+/**
+ * Claims tables through ephemeral nodes under {@link HConfiguration#STATISTICS_REFRESH_PATH}, named after
+ * the conglomerate and holding the name of the server which refreshes its statistics.
+ */
+public class ZkStatisticsRefreshClaims implements StatisticsRefreshClaims{
+    private final RecoverableZooKeeper rzk;
+    private final String claimsPath;
+    private final byte[] serverName;
+
+    public ZkStatisticsRefreshClaims(RecoverableZooKeeper rzk,String rootZkPath,String serverName){
+        this.rzk=rzk;
+        this.claimsPath=rootZkPath+HConfiguration.STATISTICS_REFRESH_PATH;
+        this.serverName=Bytes.toBytes(serverName);
+    }
+
+    @Override
+    public boolean claim(long conglomId) throws IOException{
+        try{
+            if(rzk.exists(claimsPath,false)==null){
+                try{
+                    rzk.create(claimsPath,new byte[]{},ZooDefs.Ids.OPEN_ACL_UNSAFE,CreateMode.PERSISTENT);
+                }catch(KeeperException.NodeExistsException ignored){
+                    //another server got there first
+                }
+            }
+            rzk.create(claimsPath+"/"+conglomId,serverName,ZooDefs.Ids.OPEN_ACL_UNSAFE,CreateMode.EPHEMERAL);
+            return true;
+        }catch(KeeperException.NodeExistsException nee){
+            return false;
+        }catch(KeeperException ke){
+            throw new IOException(ke);
+        }catch(InterruptedException ie){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    @Override
+    public void release(long conglomId) throws IOException{
+        try{
+            rzk.delete(claimsPath+"/"+conglomId,-1);
+        }catch(KeeperException.NoNodeException ignored){
+            //our session expired, which released the claim already
+        }catch(KeeperException ke){
+            throw new IOException(ke);
+        }catch(InterruptedException ie){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+}
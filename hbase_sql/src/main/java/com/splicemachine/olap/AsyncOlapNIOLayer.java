@@ -161,7 +161,7 @@ public class AsyncOlapNIOLayer implements JobExecutor{
                 throw Exceptions.rawIOException((Throwable)OlapSerializationUtils.decode(fr.getErrorBytes()));
             case IN_PROGRESS:
                 OlapMessage.ProgressResponse pr=response.getExtension(OlapMessage.ProgressResponse.response);
-                return new SubmittedResult(pr.getTickTimeMillis());
+                return new SubmittedResult(pr.getTickTimeMillis(),pr.hasProgress()?pr.getProgress():null);
             case CANCELLED:
                 return new CancelledResult();
             case COMPLETED:
@@ -180,6 +180,7 @@ public class AsyncOlapNIOLayer implements JobExecutor{
         private final ChannelHandler submitHandler = new SubmitHandler(this);
         private final ExecutionList executionList = new ExecutionList();
         private long lastStatus = System.currentTimeMillis(); // keeps track of last status received for logging
+        private volatile String progress; // last progress reported by the job
 
         private final GenericFutureListener<Future<Void>> failListener=new GenericFutureListener<Future<Void>>(){
             @Override
@@ -491,8 +492,13 @@ public class AsyncOlapNIOLayer implements JobExecutor{
             }
             //TODO -sf- deal with a OlapServer failover here (i.e. a move to NOT_SUBMITTED from any other state
             if(or instanceof SubmittedResult) {
-                future.tickTimeNanos = TimeUnit.MILLISECONDS.toNanos(((SubmittedResult) or).getTickTime());
+                SubmittedResult sr = (SubmittedResult) or;
+                future.tickTimeNanos = TimeUnit.MILLISECONDS.toNanos(sr.getTickTime());
                 future.lastStatus = System.currentTimeMillis();
+                if (sr.getProgress() != null && !sr.getProgress().equals(future.progress)) {
+                    future.progress = sr.getProgress();
+                    LOG.info("Job " + future.job.getUniqueName() + ": " + future.progress);
+                }
             } else if(future.submitted && !future.isDone() && or instanceof NotSubmittedResult) {
                 // Server says the job is no longer submitted, give it a couple of tries in case messages are out of order
                 long millisSinceLastStatus = System.currentTimeMillis() - future.lastStatus;
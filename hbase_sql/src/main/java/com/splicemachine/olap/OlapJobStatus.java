@@ -19,6 +19,7 @@ import akka.remote.FailureDetector$;
 import akka.remote.PhiAccrualFailureDetector;
 import com.splicemachine.derby.iapi.sql.olap.OlapResult;
 import com.splicemachine.derby.iapi.sql.olap.OlapStatus;
+import com.splicemachine.metrics.LatencyHistograms;
 import org.apache.log4j.Logger;
 import scala.concurrent.duration.FiniteDuration;
 
@@ -40,6 +41,8 @@ public class OlapJobStatus implements OlapStatus{
     private volatile AtomicReference<OlapStatus.State> currentState = new AtomicReference<>(State.NOT_SUBMITTED);
     private ArrayBlockingQueue<OlapResult> results;
     private volatile OlapResult cachedResult;
+    private volatile long submittedNanos;
+    private volatile String progress;
 
     public OlapJobStatus(long tickTime,int numTicks){
         //TODO -sf- remove the constants
@@ -115,6 +118,7 @@ public class OlapJobStatus implements OlapStatus{
             }
             shouldContinue = !currentState.compareAndSet(currState,State.SUBMITTED);
         }while(shouldContinue);
+        submittedNanos = System.nanoTime();
         return true;
     }
 
@@ -149,6 +153,9 @@ public class OlapJobStatus implements OlapStatus{
             }
             shouldContinue = !currentState.compareAndSet(currState,State.RUNNING);
         }while(shouldContinue);
+        long submitted = submittedNanos;
+        if(submitted!=0)
+            LatencyHistograms.OLAP_JOB_QUEUE.update(System.nanoTime()-submitted);
         return true;
     }
 
@@ -169,6 +176,16 @@ public class OlapJobStatus implements OlapStatus{
         return cachedResult != null;
     }
 
+    @Override
+    public void setProgress(String progress){
+        this.progress = progress;
+    }
+
+    @Override
+    public String getProgress(){
+        return progress;
+    }
+
     /*package-private methods*/
     /* ****************************************************************************************************************/
     State currentState(){
@@ -71,8 +71,10 @@ class OlapSerializationUtils{
                 case SUBMITTED:
                 case RUNNING:
                     response.setType(OlapMessage.Response.Type.IN_PROGRESS);
-                    OlapMessage.ProgressResponse build=OlapMessage.ProgressResponse.newBuilder().setTickTimeMillis(tickTime).build();
-                    response.setExtension(OlapMessage.ProgressResponse.response,build);
+                    OlapMessage.ProgressResponse.Builder progress=OlapMessage.ProgressResponse.newBuilder().setTickTimeMillis(tickTime);
+                    if(status.getProgress()!=null)
+                        progress.setProgress(status.getProgress());
+                    response.setExtension(OlapMessage.ProgressResponse.response,progress.build());
                     break;
                 case CANCELED:
                     shouldRemoveAfterWriting[0]=true;
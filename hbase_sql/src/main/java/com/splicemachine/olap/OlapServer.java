@@ -17,6 +17,7 @@ package com.splicemachine.olap;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.splicemachine.access.api.SConfiguration;
 import com.splicemachine.concurrent.Clock;
+import com.splicemachine.metrics.LatencyHistograms;
 import com.splicemachine.utils.SpliceLogUtils;
 import io.netty.bootstrap.ChannelFactory;
 import io.netty.bootstrap.ServerBootstrap;
@@ -30,6 +31,7 @@ import io.netty.channel.socket.nio.NioServerSocketChannel;
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.net.InetSocketAddress;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -85,6 +87,12 @@ public class OlapServer {
 
         SpliceLogUtils.warn(LOG, "Olap Server started at port " + port);
 
+        try {
+            LatencyHistograms.registerJMX(ManagementFactory.getPlatformMBeanServer());
+        } catch (Exception e) {
+            LOG.warn("Unable to register latency histograms with JMX", e);
+        }
+
     }
 
     private int getPortNumber() {
@@ -23,6 +23,7 @@ import com.splicemachine.derby.iapi.sql.olap.OlapResult;
 public class SubmittedResult implements OlapResult{
     private static final long serialVersionUID = 1l;
     private long tickTime;
+    private String progress;
 
     public SubmittedResult(){
     }
@@ -31,10 +32,22 @@ public class SubmittedResult implements OlapResult{
         this.tickTime=tickTime;
     }
 
+    public SubmittedResult(long tickTime,String progress){
+        this.tickTime=tickTime;
+        this.progress=progress;
+    }
+
     public long getTickTime(){
         return tickTime;
     }
 
+    /**
+     * @return the progress reported by the job, or {@code null} if it hasn't reported any
+     */
+    public String getProgress(){
+        return progress;
+    }
+
     @Override public boolean isSuccess(){ return false; }
 
     @Override
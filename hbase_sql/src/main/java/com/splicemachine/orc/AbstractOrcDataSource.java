@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.splicemachine.orc.OrcDataSourceUtils.getDiskRangeSlice;
 import static com.splicemachine.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges;
@@ -38,8 +39,9 @@ public abstract class AbstractOrcDataSource
     private final DataSize maxMergeDistance;
     private final DataSize maxBufferSize;
     private final DataSize streamBufferSize;
-    private long readTimeNanos;
-    private long readBytes;
+    // updated by the stripe prefetch thread as well as the reading thread
+    private final AtomicLong readTimeNanos = new AtomicLong();
+    private final AtomicLong readBytes = new AtomicLong();
 
     public AbstractOrcDataSource(String name, long size, DataSize maxMergeDistance, DataSize maxBufferSize, DataSize streamBufferSize)
     {
@@ -59,13 +61,13 @@ public abstract class AbstractOrcDataSource
     @Override
     public final long getReadBytes()
     {
-        return readBytes;
+        return readBytes.get();
     }
 
     @Override
     public final long getReadTimeNanos()
     {
-        return readTimeNanos;
+        return readTimeNanos.get();
     }
 
     @Override
@@ -89,8 +91,8 @@ public abstract class AbstractOrcDataSource
 
         readInternal(position, buffer, bufferOffset, bufferLength);
 
-        readTimeNanos += System.nanoTime() - start;
-        readBytes += bufferLength;
+        readTimeNanos.addAndGet(System.nanoTime() - start);
+        readBytes.addAndGet(bufferLength);
     }
 
     @Override
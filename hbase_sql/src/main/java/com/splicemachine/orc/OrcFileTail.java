@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.orc;
+
+import com.splicemachine.orc.metadata.CompressionKind;
+import com.splicemachine.orc.metadata.Footer;
+import com.splicemachine.orc.metadata.Metadata;
+import com.splicemachine.orc.metadata.PostScript.HiveWriterVersion;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The parsed tail of an ORC file: what the PostScript says about the file, its Footer and its
+ * stripe statistics. It is immutable, so readers of the same file can share one instance.
+ */
+public class OrcFileTail
+{
+    private final CompressionKind compressionKind;
+    private final HiveWriterVersion hiveWriterVersion;
+    private final int bufferSize;
+    private final Footer footer;
+    private final Metadata metadata;
+    private final int serializedSize;
+
+    public OrcFileTail(CompressionKind compressionKind, HiveWriterVersion hiveWriterVersion, int bufferSize, Footer footer, Metadata metadata, int serializedSize)
+    {
+        this.compressionKind = requireNonNull(compressionKind, "compressionKind is null");
+        this.hiveWriterVersion = requireNonNull(hiveWriterVersion, "hiveWriterVersion is null");
+        this.bufferSize = bufferSize;
+        this.footer = requireNonNull(footer, "footer is null");
+        this.metadata = requireNonNull(metadata, "metadata is null");
+        this.serializedSize = serializedSize;
+    }
+
+    public CompressionKind getCompressionKind()
+    {
+        return compressionKind;
+    }
+
+    public HiveWriterVersion getHiveWriterVersion()
+    {
+        return hiveWriterVersion;
+    }
+
+    public int getBufferSize()
+    {
+        return bufferSize;
+    }
+
+    public Footer getFooter()
+    {
+        return footer;
+    }
+
+    public Metadata getMetadata()
+    {
+        return metadata;
+    }
+
+    /**
+     * @return the number of bytes the tail takes up in the file
+     */
+    public int getSerializedSize()
+    {
+        return serializedSize;
+    }
+}
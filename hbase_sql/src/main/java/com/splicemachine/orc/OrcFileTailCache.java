@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.orc;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.base.Throwables.propagateIfPossible;
+
+/**
+ * A process-wide cache of parsed ORC file tails, so that reading the same file again (another split of
+ * it, or the next query on the same external table) does not read and decode the footer and the
+ * stripe statistics again.
+ *
+ * Entries are keyed by path, length and modification time, so a file that is rewritten in place is
+ * read again. The cache is bounded by the serialized size of the tails it holds; the decoded objects
+ * are larger, by a factor that depends on the number of columns and stripes.
+ */
+public class OrcFileTailCache
+{
+    private static volatile OrcFileTailCache instance;
+
+    private final Cache<FileKey, OrcFileTail> cache;
+
+    OrcFileTailCache(long maxSizeBytes)
+    {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxSizeBytes)
+                .weigher((FileKey key, OrcFileTail tail) -> tail.getSerializedSize())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @param maxSizeBytes the size of the cache, used when the first reader in this process creates it
+     * @return the cache shared by all ORC readers in this process
+     */
+    public static OrcFileTailCache getInstance(long maxSizeBytes)
+    {
+        OrcFileTailCache cache = instance;
+        if (cache == null) {
+            synchronized (OrcFileTailCache.class) {
+                cache = instance;
+                if (cache == null) {
+                    cache = new OrcFileTailCache(maxSizeBytes);
+                    instance = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * @return the cached tail of the file, or the tail read by {@code loader} if it is not cached
+     */
+    public OrcFileTail getFileTail(String path, long length, long modificationTime, Callable<OrcFileTail> loader)
+            throws IOException
+    {
+        try {
+            return cache.get(new FileKey(path, length, modificationTime), loader);
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            propagateIfPossible(e.getCause(), IOException.class);
+            throw new IOException(e.getCause());
+        }
+    }
+
+    public long size()
+    {
+        return cache.size();
+    }
+
+    public CacheStats stats()
+    {
+        return cache.stats();
+    }
+
+    public void invalidateAll()
+    {
+        cache.invalidateAll();
+    }
+
+    private static final class FileKey
+    {
+        private final String path;
+        private final long length;
+        private final long modificationTime;
+
+        FileKey(String path, long length, long modificationTime)
+        {
+            this.path = path;
+            this.length = length;
+            this.modificationTime = modificationTime;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FileKey)) {
+                return false;
+            }
+            FileKey other = (FileKey) o;
+            return length == other.length && modificationTime == other.modificationTime && path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(path, length, modificationTime);
+        }
+    }
+}
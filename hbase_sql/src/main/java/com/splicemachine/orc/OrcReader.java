@@ -55,9 +55,20 @@ public class OrcReader
     private final Footer footer;
     private final Metadata metadata;
 
-    // This is based on the Apache Hive ORC code
     public OrcReader(OrcDataSource orcDataSource, MetadataReader metadataReader, DataSize maxMergeDistance, DataSize maxReadSize)
             throws IOException
+    {
+        this(orcDataSource, metadataReader, maxMergeDistance, maxReadSize, null, 0);
+    }
+
+    /**
+     * @param fileTailCache the cache to look the file tail up in, or null to read it from the file
+     * @param modificationTime the modification time of the file, which identifies the file in the cache
+     * along with its name and size
+     */
+    public OrcReader(OrcDataSource orcDataSource, MetadataReader metadataReader, DataSize maxMergeDistance, DataSize maxReadSize,
+                     OrcFileTailCache fileTailCache, long modificationTime)
+            throws IOException
     {
         orcDataSource = wrapWithCacheIfTiny(requireNonNull(orcDataSource, "orcDataSource is null"), maxMergeDistance);
         this.orcDataSource = orcDataSource;
@@ -65,6 +76,26 @@ public class OrcReader
         this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
         this.maxReadSize = requireNonNull(maxReadSize, "maxReadSize is null");
 
+        OrcFileTail fileTail;
+        if (fileTailCache == null) {
+            fileTail = readFileTail(orcDataSource, metadataReader);
+        }
+        else {
+            OrcDataSource source = orcDataSource;
+            fileTail = fileTailCache.getFileTail(orcDataSource.toString(), orcDataSource.getSize(), modificationTime,
+                    () -> readFileTail(source, metadataReader));
+        }
+        this.compressionKind = fileTail.getCompressionKind();
+        this.hiveWriterVersion = fileTail.getHiveWriterVersion();
+        this.bufferSize = fileTail.getBufferSize();
+        this.footer = fileTail.getFooter();
+        this.metadata = fileTail.getMetadata();
+    }
+
+    // This is based on the Apache Hive ORC code
+    public static OrcFileTail readFileTail(OrcDataSource orcDataSource, MetadataReader metadataReader)
+            throws IOException
+    {
         //
         // Read the file tail:
         //
@@ -98,10 +129,10 @@ public class OrcReader
         checkOrcVersion(orcDataSource, postScript.getVersion());
 
         // check compression codec is supported
-        this.compressionKind = postScript.getCompression();
+        CompressionKind compressionKind = postScript.getCompression();
 
-        this.hiveWriterVersion = postScript.getHiveWriterVersion();
-        this.bufferSize = toIntExact(postScript.getCompressionBlockSize());
+        HiveWriterVersion hiveWriterVersion = postScript.getHiveWriterVersion();
+        int bufferSize = toIntExact(postScript.getCompressionBlockSize());
 
         int footerSize = toIntExact(postScript.getFooterLength());
         int metadataSize = toIntExact(postScript.getMetadataLength());
@@ -126,16 +157,19 @@ public class OrcReader
         }
 
         // read metadata
+        Metadata metadata;
         Slice metadataSlice = completeFooterSlice.slice(0, metadataSize);
         try (InputStream metadataInputStream = new OrcInputStream(orcDataSource.toString(), metadataSlice.getInput(), compressionKind, bufferSize, new AggregatedMemoryContext())) {
-            this.metadata = metadataReader.readMetadata(hiveWriterVersion, metadataInputStream);
+            metadata = metadataReader.readMetadata(hiveWriterVersion, metadataInputStream);
         }
 
         // read footer
+        Footer footer;
         Slice footerSlice = completeFooterSlice.slice(metadataSize, footerSize);
         try (InputStream footerInputStream = new OrcInputStream(orcDataSource.toString(), footerSlice.getInput(), compressionKind, bufferSize, new AggregatedMemoryContext())) {
-            this.footer = metadataReader.readFooter(hiveWriterVersion, footerInputStream);
+            footer = metadataReader.readFooter(hiveWriterVersion, footerInputStream);
         }
+        return new OrcFileTail(compressionKind, hiveWriterVersion, bufferSize, footer, metadata, completeFooterSize);
     }
 
     public List<String> getColumnNames()
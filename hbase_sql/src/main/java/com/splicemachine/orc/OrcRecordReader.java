@@ -27,6 +27,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 import io.airlift.units.DataSize;
@@ -38,12 +39,18 @@ import org.apache.spark.sql.types.StructField;
 import org.apache.spark.sql.types.StructType;
 import org.joda.time.DateTimeZone;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import static com.splicemachine.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges;
 import static com.splicemachine.orc.OrcReader.MAX_BATCH_SIZE;
 import static com.splicemachine.orc.OrcRecordReader.LinearProbeRangeFinder.createTinyStripesRangeFinder;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.propagateIfPossible;
 import static java.lang.Math.toIntExact;
 import static java.util.Comparator.comparingLong;
 import static java.util.Objects.requireNonNull;
@@ -51,6 +58,9 @@ import static java.lang.Math.min;
 
 public class OrcRecordReader
 {
+    private static final ExecutorService STRIPE_PREFETCH_EXECUTOR = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("orc-stripe-prefetch-%d").setDaemon(true).build());
+
     private final OrcDataSource orcDataSource;
 
     private final StreamReader[] streamReaders;
@@ -66,6 +76,9 @@ public class OrcRecordReader
     private final StripeReader stripeReader;
     private int currentStripe = -1;
     private AggregatedMemoryContext currentStripeSystemMemoryContext;
+    private boolean prefetchStripes;
+    private Future<Stripe> nextStripe;
+    private AggregatedMemoryContext nextStripeSystemMemoryContext;
 
     private final long fileRowCount;
     private final List<Long> stripeFilePositions;
@@ -286,9 +299,37 @@ public class OrcRecordReader
         return splitLength;
     }
 
+    /**
+     * Read the next selected stripe in the background while the current one is decoded. Only the
+     * streams the data source reads eagerly are prefetched: streams larger than maxReadSize are still
+     * read in chunks as they are decoded.
+     *
+     * Files whose stripes are all read through a {@link CachingOrcDataSource} are never prefetched, since
+     * that source is not thread safe and already reads several stripes at a time.
+     */
+    public void setPrefetchStripes(boolean prefetchStripes)
+    {
+        this.prefetchStripes = prefetchStripes && !(orcDataSource instanceof CachingOrcDataSource);
+    }
+
     public void close()
             throws IOException
     {
+        if (nextStripe != null) {
+            // let the read finish before the stream is closed under it
+            try {
+                nextStripe.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            catch (ExecutionException ignored) {
+                // the stripe is not needed anymore
+            }
+            nextStripe = null;
+            nextStripeSystemMemoryContext.close();
+            nextStripeSystemMemoryContext = null;
+        }
         orcDataSource.close();
     }
 
@@ -432,9 +473,18 @@ public class OrcRecordReader
             currentStripePosition += stripes.get(currentStripe - 1).getNumberOfRows();
         }
 
-        StripeInformation stripeInformation = stripes.get(currentStripe);
-
-        Stripe stripe = stripeReader.readStripe(stripeInformation, currentStripeSystemMemoryContext);
+        Stripe stripe;
+        if (nextStripe != null) {
+            currentStripeSystemMemoryContext.close();
+            currentStripeSystemMemoryContext = nextStripeSystemMemoryContext;
+            stripe = getPrefetchedStripe();
+        }
+        else {
+            stripe = stripeReader.readStripe(stripes.get(currentStripe), currentStripeSystemMemoryContext);
+        }
+        if (prefetchStripes && currentStripe + 1 < stripes.size()) {
+            prefetchStripe(stripes.get(currentStripe + 1));
+        }
         if (stripe != null) {
             // Give readers access to dictionary streams
             StreamSources dictionaryStreamSources = stripe.getDictionaryStreamSources();
@@ -449,6 +499,34 @@ public class OrcRecordReader
         }
     }
 
+    private void prefetchStripe(StripeInformation stripeInformation)
+    {
+        // The prefetch thread accounts the stripe's memory to this reader while it reads; aggregated memory
+        // contexts synchronize their updates, so this is safe alongside the reader's own updates
+        AggregatedMemoryContext memoryContext = systemMemoryUsage.newAggregatedMemoryContext();
+        nextStripeSystemMemoryContext = memoryContext;
+        nextStripe = STRIPE_PREFETCH_EXECUTOR.submit(() -> stripeReader.readStripe(stripeInformation, memoryContext));
+    }
+
+    private Stripe getPrefetchedStripe()
+            throws IOException
+    {
+        Future<Stripe> future = nextStripe;
+        nextStripe = null;
+        nextStripeSystemMemoryContext = null;
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading stripe of " + orcDataSource);
+        }
+        catch (ExecutionException e) {
+            propagateIfPossible(e.getCause(), IOException.class);
+            throw new IOException(e.getCause());
+        }
+    }
+
     private static StreamReader[] createStreamReaders(OrcDataSource orcDataSource,
             List<OrcType> types,
             DateTimeZone hiveStorageTimeZone,
@@ -20,6 +20,7 @@ import com.splicemachine.orc.predicate.SpliceORCPredicate;
 import io.airlift.units.DataSize;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.metastore.Warehouse;
@@ -54,9 +55,12 @@ public class OrcMapreduceRecordReader extends RecordReader<NullWritable,Row> {
         double maxMergeDistance = configuration.getDouble(MAX_MERGE_DISTANCE,MAX_MERGE_DISTANCE_DEFAULT);
         double maxReadSize = configuration.getDouble(MAX_READ_SIZE,MAX_READ_SIZE_DEFAULT);
         double streamBufferSize = configuration.getDouble(STREAM_BUFFER_SIZE,STREAM_BUFFER_SIZE_DEFAULT);
+        double fileTailCacheSize = configuration.getDouble(FILE_TAIL_CACHE_SIZE,FILE_TAIL_CACHE_SIZE_DEFAULT);
+        boolean prefetchStripes = configuration.getBoolean(PREFETCH_STRIPES,PREFETCH_STRIPES_DEFAULT);
         Path path = orcNewSplit.getPath();
         FileSystem fileSystem = FileSystem.get(path.toUri(),configuration);
-        long size = fileSystem.getFileStatus(path).getLen();
+        FileStatus fileStatus = fileSystem.getFileStatus(path);
+        long size = fileStatus.getLen();
         FSDataInputStream inputStream = fileSystem.open(path);
         rowStruct = getRowStruct(configuration);
         predicate = getSplicePredicate(configuration);
@@ -74,10 +78,13 @@ public class OrcMapreduceRecordReader extends RecordReader<NullWritable,Row> {
         OrcDataSource orcDataSource = new HdfsOrcDataSource(path.toString(), size, new DataSize(maxMergeDistance, DataSize.Unit.MEGABYTE),
                 new DataSize(maxReadSize, DataSize.Unit.MEGABYTE),
                 new DataSize(streamBufferSize, DataSize.Unit.MEGABYTE), inputStream);
+        OrcFileTailCache fileTailCache = fileTailCacheSize > 0 ?
+                OrcFileTailCache.getInstance(new DataSize(fileTailCacheSize, DataSize.Unit.MEGABYTE).toBytes()) : null;
         OrcReader orcReader = new OrcReader(orcDataSource, new OrcMetadataReader(), new DataSize(maxMergeDistance, DataSize.Unit.MEGABYTE),
-                new DataSize(maxReadSize, DataSize.Unit.MEGABYTE));
+                new DataSize(maxReadSize, DataSize.Unit.MEGABYTE), fileTailCache, fileStatus.getModificationTime());
         orcRecordReader = orcReader.createRecordReader(getColumnsAndTypes(columnIds,rowStruct),
                 predicate, HIVE_STORAGE_TIME_ZONE, new AggregatedMemoryContext(),partitions,values);
+        orcRecordReader.setPrefetchStripes(prefetchStripes);
     }
 
     @Override
@@ -20,7 +20,9 @@ import static java.util.Objects.requireNonNull;
 public class AggregatedMemoryContext
         extends AbstractAggregatedMemoryContext
 {
-    // This class should remain exactly the same as AggregatedMemoryContext in com.splicemachine.memory
+    // This class should remain exactly the same as AggregatedMemoryContext in com.splicemachine.memory,
+    // except that it is synchronized: OrcRecordReader prefetches stripes into a child context from another thread.
+    // Updates only ever lock from child to parent.
 
     private final AbstractAggregatedMemoryContext parentMemoryContext;
     private long usedBytes;
@@ -36,14 +38,14 @@ public class AggregatedMemoryContext
         this.parentMemoryContext = requireNonNull(parentMemoryContext, "parentMemoryContext is null");
     }
 
-    public long getBytes()
+    public synchronized long getBytes()
     {
         checkState(!closed);
         return usedBytes;
     }
 
     @Override
-    protected void updateBytes(long bytes)
+    protected synchronized void updateBytes(long bytes)
     {
         checkState(!closed);
         if (parentMemoryContext != null) {
@@ -52,7 +54,7 @@ public class AggregatedMemoryContext
         usedBytes += bytes;
     }
 
-    public void close()
+    public synchronized void close()
     {
         if (closed) {
             return;
@@ -32,6 +32,9 @@ public class SparkCompactionContext implements CompactionContext, Serializable {
     private final LongAccumulator resolutionRejected;
     private final LongAccumulator rpc;
     private final LongAccumulator timeBlocked;
+    private final LongAccumulator prunedVersions;
+    private final LongAccumulator cellsWritten;
+    private final LongAccumulator allocatedBytes;
 
     public SparkCompactionContext() {
         this.rowsRead= SpliceSpark.getContext().sc().longAccumulator("rows read");
@@ -48,6 +51,9 @@ public class SparkCompactionContext implements CompactionContext, Serializable {
 
         this.rpc = SpliceSpark.getContext().sc().longAccumulator("rpcs");
         this.timeBlocked = SpliceSpark.getContext().sc().longAccumulator("time blocked");
+        this.prunedVersions = SpliceSpark.getContext().sc().longAccumulator("versions pruned");
+        this.cellsWritten = SpliceSpark.getContext().sc().longAccumulator("cells written");
+        this.allocatedBytes = SpliceSpark.getContext().sc().longAccumulator("bytes allocated");
     }
 
     @Override
@@ -95,6 +101,21 @@ public class SparkCompactionContext implements CompactionContext, Serializable {
         timeBlocked.add(duration);
     }
 
+    @Override
+    public void recordPrunedVersions(int count) {
+        prunedVersions.add(count);
+    }
+
+    @Override
+    public void recordCellsWritten(int count) {
+        cellsWritten.add(count);
+    }
+
+    @Override
+    public void recordAllocatedBytes(long bytes) {
+        allocatedBytes.add(bytes);
+    }
+
     @Override
     public void recordResolutionScheduled() {
         resolutionScheduled.add(1l);
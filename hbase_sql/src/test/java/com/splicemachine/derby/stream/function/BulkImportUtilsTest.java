@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.derby.stream.function;
+
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class BulkImportUtilsTest{
+    private static final byte[] EMPTY=new byte[0];
+
+    private final List<BulkImportPartition> partitions=sorted(
+            new BulkImportPartition(1600L,EMPTY,key("m"),"a"),
+            new BulkImportPartition(1600L,key("m"),EMPTY,"b"),
+            new BulkImportPartition(1616L,EMPTY,key("d"),"c"),
+            new BulkImportPartition(1616L,key("d"),key("k"),"d"),
+            new BulkImportPartition(1616L,key("k"),EMPTY,"e"));
+
+    @Test
+    public void findsRegionOfRecord() throws Exception{
+        Assert.assertEquals("a",find(1600L,"a"));
+        Assert.assertEquals("b",find(1600L,"m"));
+        Assert.assertEquals("b",find(1600L,"zz"));
+        Assert.assertEquals("c",find(1616L,""));
+        Assert.assertEquals("d",find(1616L,"d"));
+        Assert.assertEquals("d",find(1616L,"j"));
+        Assert.assertEquals("e",find(1616L,"k"));
+    }
+
+    @Test
+    public void missingConglomerateIsNotFound() throws Exception{
+        Assert.assertTrue(BulkImportUtils.findPartition(partitions,BulkImportRecordFunction.encodeKey(1700L,key("a")))<0);
+    }
+
+    @Test
+    public void recordKeysSortByConglomerateThenRowKey() throws Exception{
+        byte[][] records={
+                BulkImportRecordFunction.encodeKey(1616L,key("a")),
+                BulkImportRecordFunction.encodeKey(1600L,new byte[]{(byte)0xFF}),
+                BulkImportRecordFunction.encodeKey(1600L,key("b")),
+                BulkImportRecordFunction.encodeKey(256L,key("z"))};
+        Arrays.sort(records,Bytes.BYTES_COMPARATOR);
+        Assert.assertEquals(256L,BulkImportRecordFunction.getConglomerateId(records[0]));
+        Assert.assertArrayEquals(BulkImportRecordFunction.encodeKey(1600L,key("b")),records[1]);
+        Assert.assertArrayEquals(BulkImportRecordFunction.encodeKey(1600L,new byte[]{(byte)0xFF}),records[2]);
+        Assert.assertEquals(1616L,BulkImportRecordFunction.getConglomerateId(records[3]));
+    }
+
+    private String find(long conglomerateId,String rowKey){
+        int index=BulkImportUtils.findPartition(partitions,BulkImportRecordFunction.encodeKey(conglomerateId,key(rowKey)));
+        Assert.assertTrue(index>=0);
+        return partitions.get(index).getFilePath();
+    }
+
+    private static List<BulkImportPartition> sorted(BulkImportPartition... partitions){
+        List<BulkImportPartition> list=new ArrayList<>(Arrays.asList(partitions));
+        Collections.sort(list,BulkImportUtils.getSortComparator());
+        return list;
+    }
+
+    private static byte[] key(String key){
+        return Bytes.toBytes(key);
+    }
+}
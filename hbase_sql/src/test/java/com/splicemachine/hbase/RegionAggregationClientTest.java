@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.hbase;
+
+import com.google.protobuf.ZeroCopyLiteralByteString;
+import com.splicemachine.coprocessor.SpliceMessage;
+import com.splicemachine.primitives.Bytes;
+import org.apache.hadoop.hbase.NotServingRegionException;
+import org.apache.hadoop.hbase.ServerName;
+import org.apache.hadoop.hbase.exceptions.RegionMovedException;
+import org.apache.hadoop.hbase.regionserver.WrongRegionException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class RegionAggregationClientTest{
+    private static final byte[] EMPTY=new byte[0];
+
+    @Test
+    public void coversWholeTable() throws Exception{
+        List<SpliceMessage.SplicePartialAggregateResponse> regions=Arrays.asList(
+                region(EMPTY,key("b")),region(key("b"),key("d")),region(key("d"),EMPTY));
+        Assert.assertTrue(RegionAggregationClient.coversScan(regions,EMPTY,EMPTY));
+    }
+
+    @Test
+    public void coversPartOfTheTable() throws Exception{
+        List<SpliceMessage.SplicePartialAggregateResponse> regions=Arrays.asList(
+                region(key("b"),key("d")),region(key("d"),key("f")));
+        Assert.assertTrue(RegionAggregationClient.coversScan(regions,key("c"),key("e")));
+        Assert.assertTrue(RegionAggregationClient.coversScan(regions,key("b"),key("f")));
+        Assert.assertFalse("Scan ends after the last region",RegionAggregationClient.coversScan(regions,key("c"),key("g")));
+        Assert.assertFalse("Scan starts before the first region",RegionAggregationClient.coversScan(regions,key("a"),key("e")));
+    }
+
+    @Test
+    public void detectsSplitRegion() throws Exception{
+        //the region [b,d) split into [b,c) and [c,d), and only the first daughter answered
+        List<SpliceMessage.SplicePartialAggregateResponse> regions=Arrays.asList(
+                region(EMPTY,key("b")),region(key("b"),key("c")),region(key("d"),EMPTY));
+        Assert.assertFalse(RegionAggregationClient.coversScan(regions,EMPTY,EMPTY));
+    }
+
+    @Test
+    public void detectsMergedRegion() throws Exception{
+        //the regions [b,d) and [d,f) merged into [b,f), which answered twice
+        List<SpliceMessage.SplicePartialAggregateResponse> regions=Arrays.asList(
+                region(key("b"),key("f")),region(key("b"),key("f")));
+        Assert.assertFalse(RegionAggregationClient.coversScan(regions,key("b"),key("f")));
+    }
+
+    @Test
+    public void noRegionsCoverNothing() throws Exception{
+        Assert.assertFalse(RegionAggregationClient.coversScan(
+                Collections.<SpliceMessage.SplicePartialAggregateResponse>emptyList(),EMPTY,EMPTY));
+    }
+
+    @Test
+    public void onlyRegionChangesFallBack() throws Exception{
+        Assert.assertTrue(RegionAggregationClient.isRegionChange(new IOException(new NotServingRegionException("moved"))));
+        Assert.assertTrue(RegionAggregationClient.isRegionChange(new RegionMovedException(ServerName.valueOf("rs1",16020,1L),12L)));
+        Assert.assertTrue(RegionAggregationClient.isRegionChange(new WrongRegionException("split")));
+        Assert.assertFalse("Interrupts must fail the query",
+                RegionAggregationClient.isRegionChange(new InterruptedIOException("interrupted")));
+        Assert.assertFalse("Failures of the query must fail it",
+                RegionAggregationClient.isRegionChange(new IOException(new IllegalStateException("failed"))));
+    }
+
+    private static byte[] key(String key){
+        return Bytes.toBytes(key);
+    }
+
+    private static SpliceMessage.SplicePartialAggregateResponse region(byte[] startKey,byte[] endKey){
+        return SpliceMessage.SplicePartialAggregateResponse.newBuilder()
+                .setStartKey(ZeroCopyLiteralByteString.wrap(startKey))
+                .setEndKey(ZeroCopyLiteralByteString.wrap(endKey))
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.hbase;
+
+import com.splicemachine.access.HConfiguration;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.zookeeper.RecoverableZooKeeper;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ZkStatisticsRefreshClaimsTest{
+    private static final String ROOT="/splice";
+    private static final String CLAIMS=ROOT+HConfiguration.STATISTICS_REFRESH_PATH;
+
+    private RecoverableZooKeeper rzk;
+    private ZkStatisticsRefreshClaims claims;
+
+    @Before
+    public void setUp() throws Exception{
+        rzk=mock(RecoverableZooKeeper.class);
+        when(rzk.exists(CLAIMS,false)).thenReturn(new Stat());
+        claims=new ZkStatisticsRefreshClaims(rzk,ROOT,"server1");
+    }
+
+    @Test
+    public void claimCreatesAnEphemeralNode() throws Exception{
+        Assert.assertTrue(claims.claim(1568L));
+        verify(rzk).create(eq(CLAIMS+"/1568"),aryEq(Bytes.toBytes("server1")),anyList(),eq(CreateMode.EPHEMERAL));
+
+        claims.release(1568L);
+        verify(rzk).delete(CLAIMS+"/1568",-1);
+    }
+
+    @Test
+    public void tableClaimedByAnotherServerIsNotClaimed() throws Exception{
+        when(rzk.create(eq(CLAIMS+"/1568"),aryEq(Bytes.toBytes("server1")),anyList(),eq(CreateMode.EPHEMERAL)))
+                .thenThrow(new KeeperException.NodeExistsException(CLAIMS+"/1568"));
+        Assert.assertFalse(claims.claim(1568L));
+    }
+
+    @Test
+    public void releasingAnExpiredClaimIsIgnored() throws Exception{
+        doThrow(new KeeperException.NoNodeException(CLAIMS+"/1568")).when(rzk).delete(CLAIMS+"/1568",-1);
+        claims.release(1568L);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.orc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.splicemachine.orc.metadata.CompressionKind;
+import com.splicemachine.orc.metadata.Footer;
+import com.splicemachine.orc.metadata.Metadata;
+import com.splicemachine.orc.metadata.PostScript.HiveWriterVersion;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestOrcFileTailCache
+{
+    private static OrcFileTail fileTail(int serializedSize)
+    {
+        Footer footer = new Footer(0, 10000, ImmutableList.of(), ImmutableList.of(), ImmutableList.of(), ImmutableMap.of());
+        return new OrcFileTail(CompressionKind.ZLIB, HiveWriterVersion.ORC_HIVE_8732, 256 * 1024, footer, new Metadata(ImmutableList.of()), serializedSize);
+    }
+
+    @Test
+    public void testReusesTailOfSameFile()
+            throws Exception
+    {
+        OrcFileTailCache cache = new OrcFileTailCache(1024 * 1024);
+        AtomicInteger loads = new AtomicInteger();
+        OrcFileTail first = cache.getFileTail("/data/t/part-0.orc", 1000, 42, () -> {
+            loads.incrementAndGet();
+            return fileTail(100);
+        });
+        OrcFileTail second = cache.getFileTail("/data/t/part-0.orc", 1000, 42, () -> {
+            loads.incrementAndGet();
+            return fileTail(100);
+        });
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testRewrittenFileIsReadAgain()
+            throws Exception
+    {
+        OrcFileTailCache cache = new OrcFileTailCache(1024 * 1024);
+        OrcFileTail first = cache.getFileTail("/data/t/part-0.orc", 1000, 42, () -> fileTail(100));
+        OrcFileTail modified = cache.getFileTail("/data/t/part-0.orc", 1000, 43, () -> fileTail(100));
+        OrcFileTail resized = cache.getFileTail("/data/t/part-0.orc", 2000, 42, () -> fileTail(100));
+        Assert.assertNotSame(first, modified);
+        Assert.assertNotSame(first, resized);
+        Assert.assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testBoundedBySerializedSize()
+            throws Exception
+    {
+        OrcFileTailCache cache = new OrcFileTailCache(1000);
+        for (int i = 0; i < 10; i++) {
+            cache.getFileTail("/data/t/part-" + i + ".orc", 1000, 42, () -> fileTail(400));
+        }
+        Assert.assertTrue("cache holds " + cache.size() + " tails", cache.size() <= 2);
+    }
+
+    @Test(expected = OrcCorruptionException.class)
+    public void testPropagatesReadErrors()
+            throws Exception
+    {
+        OrcFileTailCache cache = new OrcFileTailCache(1024 * 1024);
+        cache.getFileTail("/data/t/part-0.orc", 1000, 42, () -> {
+            throw new OrcCorruptionException("Malformed ORC file %s. Invalid postscript.", "/data/t/part-0.orc");
+        });
+    }
+}
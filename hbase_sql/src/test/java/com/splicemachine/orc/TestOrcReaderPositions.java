@@ -19,6 +19,8 @@ import com.splicemachine.orc.metadata.IntegerStatistics;
 import com.splicemachine.orc.metadata.OrcMetadataReader;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
+import com.splicemachine.orc.memory.AggregatedMemoryContext;
+import io.airlift.slice.FixedLengthSliceInput;
 import io.airlift.slice.Slice;
 import io.airlift.units.DataSize;
 import org.apache.hadoop.conf.Configuration;
@@ -37,13 +39,17 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import static com.splicemachine.orc.OrcTester.Format.ORC_12;
 import static com.splicemachine.orc.OrcTester.*;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.hadoop.hive.ql.io.orc.CompressionKind.SNAPPY;
 import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaLongObjectInspector;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class TestOrcReaderPositions
 {
@@ -74,6 +80,57 @@ public class TestOrcReaderPositions
         }
     }
 
+    @Test
+    public void testPrefetchStripes()
+            throws Exception
+    {
+        try (TempFile tempFile = new TempFile()) {
+            createMultiStripeFile(tempFile.getFile());
+
+            // keep the merge and read sizes below a stripe so the reader is not backed by a caching data source
+            DataSize tiny = new DataSize(1, DataSize.Unit.BYTE);
+            ThreadRecordingOrcDataSource orcDataSource = new ThreadRecordingOrcDataSource(
+                    new FileOrcDataSource(tempFile.getFile(), tiny, tiny, new DataSize(1, DataSize.Unit.MEGABYTE)));
+            OrcReader orcReader = new OrcReader(orcDataSource, new OrcMetadataReader(), tiny, tiny);
+            OrcRecordReader reader = orcReader.createRecordReader(ImmutableMap.of(0, DataTypes.LongType), OrcPredicate.TRUE, HIVE_STORAGE_TIME_ZONE,
+                    new AggregatedMemoryContext(), Collections.EMPTY_LIST, Collections.EMPTY_LIST);
+            reader.setPrefetchStripes(true);
+
+            for (int i = 0; i < 5; i++) {
+                assertEquals(reader.nextBatch(), 20);
+                assertEquals(reader.getReaderPosition(), i * 20L);
+                assertCurrentBatch(reader, i);
+            }
+            assertEquals(reader.nextBatch(), -1);
+            assertEquals(reader.getReaderPosition(), 100);
+            reader.close();
+
+            assertTrue("no stripe was read by the prefetch thread", orcDataSource.getReadingThreads().stream()
+                    .anyMatch(name -> name.startsWith("orc-stripe-prefetch-")));
+        }
+    }
+
+    @Test
+    public void testCloseWithPrefetchedStripe()
+            throws Exception
+    {
+        try (TempFile tempFile = new TempFile()) {
+            createMultiStripeFile(tempFile.getFile());
+
+            DataSize tiny = new DataSize(1, DataSize.Unit.BYTE);
+            OrcDataSource orcDataSource = new FileOrcDataSource(tempFile.getFile(), tiny, tiny, new DataSize(1, DataSize.Unit.MEGABYTE));
+            OrcReader orcReader = new OrcReader(orcDataSource, new OrcMetadataReader(), tiny, tiny);
+            OrcRecordReader reader = orcReader.createRecordReader(ImmutableMap.of(0, DataTypes.LongType), OrcPredicate.TRUE, HIVE_STORAGE_TIME_ZONE,
+                    new AggregatedMemoryContext(), Collections.EMPTY_LIST, Collections.EMPTY_LIST);
+            reader.setPrefetchStripes(true);
+
+            // the second stripe is being prefetched when the reader is closed
+            assertEquals(reader.nextBatch(), 20);
+            assertCurrentBatch(reader, 0);
+            reader.close();
+        }
+    }
+
     @Test
     public void testStripeSkipping()
             throws Exception
@@ -217,6 +274,72 @@ public class TestOrcReaderPositions
         writer.close(false);
     }
 
+    private static class ThreadRecordingOrcDataSource
+            implements OrcDataSource
+    {
+        private final OrcDataSource delegate;
+        private final Set<String> readingThreads = ConcurrentHashMap.newKeySet();
+
+        ThreadRecordingOrcDataSource(OrcDataSource delegate)
+        {
+            this.delegate = delegate;
+        }
+
+        Set<String> getReadingThreads()
+        {
+            return readingThreads;
+        }
+
+        @Override
+        public long getReadBytes()
+        {
+            return delegate.getReadBytes();
+        }
+
+        @Override
+        public long getReadTimeNanos()
+        {
+            return delegate.getReadTimeNanos();
+        }
+
+        @Override
+        public long getSize()
+        {
+            return delegate.getSize();
+        }
+
+        @Override
+        public void readFully(long position, byte[] buffer)
+                throws IOException
+        {
+            readingThreads.add(Thread.currentThread().getName());
+            delegate.readFully(position, buffer);
+        }
+
+        @Override
+        public void readFully(long position, byte[] buffer, int bufferOffset, int bufferLength)
+                throws IOException
+        {
+            readingThreads.add(Thread.currentThread().getName());
+            delegate.readFully(position, buffer, bufferOffset, bufferLength);
+        }
+
+        @Override
+        public <K> Map<K, FixedLengthSliceInput> readFully(Map<K, DiskRange> diskRanges)
+                throws IOException
+        {
+            readingThreads.add(Thread.currentThread().getName());
+            return delegate.readFully(diskRanges);
+        }
+
+        @Override
+        public void close()
+                throws IOException
+        {
+            delegate.close();
+        }
+    }
+
     private static void createFileWithOnlyUserMetadata(File file, Map<String, String> metadata)
             throws IOException
     {
@@ -306,6 +306,14 @@ public class H10PartitionAdmin implements PartitionAdmin{
         admin.enableTable(TableName.valueOf(tableName));
     }
 
+    @Override
+    public void setTableProperty(String tableName, String key, String value) throws IOException{
+        TableName tn = tableInfoFactory.getTableInfo(tableName);
+        HTableDescriptor descriptor = admin.getTableDescriptor(tn);
+        descriptor.setValue(key, value);
+        admin.modifyTable(tn, descriptor);
+    }
+
     @Override
     public void closeRegion(Partition partition) throws IOException, InterruptedException
     {
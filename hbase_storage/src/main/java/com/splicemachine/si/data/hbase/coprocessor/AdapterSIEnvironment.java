@@ -57,14 +57,17 @@ import com.splicemachine.storage.HFilterFactory;
 import com.splicemachine.storage.HNIOFileSystem;
 import com.splicemachine.storage.PartitionInfoCache;
 import com.splicemachine.timestamp.api.TimestampSource;
+import com.splicemachine.timestamp.hbase.ActiveTransactionPublisher;
 import com.splicemachine.timestamp.hbase.ZkTimestampSource;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.zookeeper.RecoverableZooKeeper;
+import org.apache.zookeeper.KeeperException;
 
 import javax.sql.DataSource;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 
@@ -90,6 +93,7 @@ public class AdapterSIEnvironment implements SIEnvironment{
     private final SnowflakeFactory snowflakeFactory;
     private final HClusterHealthFactory clusterHealthFactory;
     private final HFilesystemAdmin filesystemAdmin;
+    private ActiveTransactionPublisher activeTransactionPublisher;
     private SIDriver siDriver;
 
 
@@ -168,6 +172,16 @@ public class AdapterSIEnvironment implements SIEnvironment{
                 config.getTransactionKeepAliveThreads(),
                 txnStore);
         siDriver = SIDriver.loadDriver(this);
+        this.activeTransactionPublisher = new ActiveTransactionPublisher(rzk,config.getSpliceRootPath(),
+                siDriver.getActiveTransactions(),timestampSource);
+        try{
+            activeTransactionPublisher.start(config.getActiveTransactionPublishInterval());
+        }catch(KeeperException e){
+            throw new IOException(e);
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
     }
 
 
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.si.data.hbase.coprocessor;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HRegionInfo;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.coprocessor.ObserverContext;
+import org.apache.hadoop.hbase.coprocessor.RegionCoprocessorEnvironment;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.regionserver.Region;
+import org.apache.hadoop.hbase.regionserver.RegionScanner;
+import org.apache.hadoop.hbase.regionserver.ScannerContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Serves a single row scan (a scan whose start and stop keys are the same, which is how primary key lookups
+ * are planned) from the cells of the row cached by {@link SIObserver}, instead of reading the stores.
+ */
+class CachedRowScanner implements RegionScanner{
+    private final Region region;
+    private final Scan scan;
+    private List<Cell> cells;
+
+    /**
+     * @param cells the cells of the row, already filtered with {@link #filterRow(Filter, Set, byte[], List)}
+     */
+    CachedRowScanner(Region region,Scan scan,List<Cell> cells){
+        this.region=region;
+        this.scan=scan;
+        this.cells=cells;
+    }
+
+    /**
+     * Open a scanner over the cached cells of the row read by {@code scan}, in place of the one the region would open.
+     *
+     * The coprocessor host only uses the scanner returned by {@code preScannerOpen} when the observer bypasses
+     * the region, so this bypasses it.
+     *
+     * @param cells all the cached cells of the row
+     */
+    static RegionScanner open(ObserverContext<RegionCoprocessorEnvironment> e,Scan scan,List<Cell> cells) throws IOException{
+        byte[] row=scan.getStartRow();
+        List<Cell> filtered=filterRow(scan.getFilter(),scan.getFamilyMap().keySet(),row,cells);
+        e.bypass();
+        return new CachedRowScanner(e.getEnvironment().getRegion(),scan,filtered);
+    }
+
+    /**
+     * Apply {@code filter} to the cells of a row, the way a region scanner does.
+     *
+     * @param families the families to return, or an empty set for all of them
+     * @return the cells of the row which pass the filter
+     */
+    static List<Cell> filterRow(Filter filter,Set<byte[]> families,byte[] row,List<Cell> cells) throws IOException{
+        List<Cell> results=new ArrayList<>();
+        filter.reset();
+        if(filter.filterRowKey(row,0,row.length))
+            return results;
+
+        Cell skipColumn=null;
+        Cell seekHint=null;
+        cells:
+        for(Cell cell:cells){
+            if(!families.isEmpty() && !families.contains(CellUtil.cloneFamily(cell)))
+                continue;
+            if(skipColumn!=null && CellUtil.matchingColumn(cell,skipColumn))
+                continue;
+            if(seekHint!=null && KeyValue.COMPARATOR.compare(cell,seekHint)<0)
+                continue;
+            skipColumn=null;
+            seekHint=null;
+            Filter.ReturnCode code=filter.filterKeyValue(cell);
+            switch(code){
+                case INCLUDE:
+                    results.add(filter.transformCell(cell));
+                    break;
+                case INCLUDE_AND_NEXT_COL:
+                    results.add(filter.transformCell(cell));
+                    skipColumn=cell;
+                    break;
+                case SKIP:
+                    break;
+                case NEXT_COL:
+                    skipColumn=cell;
+                    break;
+                case SEEK_NEXT_USING_HINT:
+                    seekHint=filter.getNextCellHint(cell);
+                    break;
+                case NEXT_ROW:
+                    break cells;
+                default:
+                    throw new IllegalStateException("Unexpected Return code: "+code);
+            }
+        }
+        if(!results.isEmpty() && filter.hasFilterRow())
+            filter.filterRowCells(results);
+        if(filter.filterRow())
+            results.clear();
+        return results;
+    }
+
+    @Override
+    public HRegionInfo getRegionInfo(){
+        return region.getRegionInfo();
+    }
+
+    @Override
+    public boolean isFilterDone() throws IOException{
+        return cells==null;
+    }
+
+    @Override
+    public boolean reseek(byte[] row) throws IOException{
+        throw new UnsupportedOperationException("A cached row can't be reseeked");
+    }
+
+    @Override
+    public long getMaxResultSize(){
+        return scan.getMaxResultSize();
+    }
+
+    @Override
+    public long getMvccReadPoint(){
+        return region.getReadpoint(scan.getIsolationLevel());
+    }
+
+    @Override
+    public int getBatch(){
+        return scan.getBatch();
+    }
+
+    @Override
+    public boolean nextRaw(List<Cell> result) throws IOException{
+        if(cells!=null){
+            result.addAll(cells);
+            cells=null;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean nextRaw(List<Cell> result,ScannerContext scannerContext) throws IOException{
+        return nextRaw(result);
+    }
+
+    @Override
+    public boolean next(List<Cell> results) throws IOException{
+        return nextRaw(results);
+    }
+
+    @Override
+    public boolean next(List<Cell> result,ScannerContext scannerContext) throws IOException{
+        return nextRaw(result);
+    }
+
+    @Override
+    public void close() throws IOException{
+        cells=null;
+    }
+}
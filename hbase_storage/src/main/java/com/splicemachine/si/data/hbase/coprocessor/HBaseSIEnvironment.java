@@ -15,6 +15,7 @@
 package com.splicemachine.si.data.hbase.coprocessor;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 
@@ -34,6 +35,7 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.zookeeper.RecoverableZooKeeper;
+import org.apache.zookeeper.KeeperException;
 import com.splicemachine.access.HConfiguration;
 import com.splicemachine.access.api.DistributedFileSystem;
 import com.splicemachine.access.api.PartitionFactory;
@@ -65,6 +67,7 @@ import com.splicemachine.storage.HFilterFactory;
 import com.splicemachine.storage.HNIOFileSystem;
 import com.splicemachine.storage.PartitionInfoCache;
 import com.splicemachine.timestamp.api.TimestampSource;
+import com.splicemachine.timestamp.hbase.ActiveTransactionPublisher;
 import com.splicemachine.timestamp.hbase.ZkTimestampSource;
 
 /**
@@ -89,6 +92,7 @@ public class HBaseSIEnvironment implements SIEnvironment{
     private final SnowflakeFactory snowflakeFactory;
     private final HClusterHealthFactory clusterHealthFactory;
     private final HFilesystemAdmin filesystemAdmin;
+    private ActiveTransactionPublisher activeTransactionPublisher;
     private SIDriver siDriver;
 
 
@@ -165,6 +169,16 @@ public class HBaseSIEnvironment implements SIEnvironment{
                 config.getTransactionKeepAliveThreads(),
                 txnStore);
         siDriver = SIDriver.loadDriver(this);
+        this.activeTransactionPublisher = new ActiveTransactionPublisher(rzk,config.getSpliceRootPath(),
+                siDriver.getActiveTransactions(),timestampSource);
+        try{
+            activeTransactionPublisher.start(config.getActiveTransactionPublishInterval());
+        }catch(KeeperException e){
+            throw new IOException(e);
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
     }
 
 
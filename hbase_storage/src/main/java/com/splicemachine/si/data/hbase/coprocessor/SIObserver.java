@@ -17,20 +17,27 @@ package com.splicemachine.si.data.hbase.coprocessor;
 import static com.splicemachine.si.constants.SIConstants.ENTRY_PREDICATE_LABEL;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 
 import com.splicemachine.access.api.SConfiguration;
+import com.splicemachine.access.configuration.SIConfigurations;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.sql.conn.Authorizer;
 import com.splicemachine.pipeline.AclCheckerService;
 import com.splicemachine.si.data.hbase.ExtendedOperationStatus;
 import com.splicemachine.si.impl.server.SimpleCompactionContext;
 import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
 import org.apache.hadoop.hbase.CoprocessorEnvironment;
 import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.KeyValueUtil;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Append;
 import org.apache.hadoop.hbase.client.Delete;
@@ -69,6 +76,7 @@ import com.splicemachine.constants.EnvUtils;
 import com.splicemachine.hbase.SICompactionScanner;
 import com.splicemachine.hbase.ZkUtils;
 import com.splicemachine.kvpair.KVPair;
+import com.splicemachine.mrio.MRConstants;
 import com.splicemachine.si.api.data.OperationStatusFactory;
 import com.splicemachine.si.api.data.TxnOperationFactory;
 import com.splicemachine.si.api.filter.TransactionalFilter;
@@ -82,6 +90,7 @@ import com.splicemachine.si.impl.SimpleTxnOperationFactory;
 import com.splicemachine.si.impl.Tracer;
 import com.splicemachine.si.impl.TxnRegion;
 import com.splicemachine.si.impl.driver.SIDriver;
+import com.splicemachine.si.impl.region.RowCache;
 import com.splicemachine.si.impl.server.SICompactionState;
 import com.splicemachine.storage.EntryPredicateFilter;
 import com.splicemachine.storage.HMutationStatus;
@@ -101,6 +110,7 @@ public class SIObserver extends BaseRegionObserver{
     private TxnOperationFactory txnOperationFactory;
     private OperationStatusFactory operationStatusFactory;
     private TransactionalRegion region;
+    private RowCache<Cell> rowCache;
 
     @Override
     public void start(CoprocessorEnvironment e) throws IOException{
@@ -131,6 +141,9 @@ public class SIObserver extends BaseRegionObserver{
                         driver.getOperationFactory()
                 );
                 Tracer.traceRegion(region.getTableName(), rce.getRegion());
+                long rowCacheMaxBytes=getRowCacheMaxBytes(rce.getRegion().getTableDesc(),driver.getConfiguration());
+                if(rowCacheMaxBytes>0)
+                    rowCache=new RowCache<>(rowCacheMaxBytes,driver.getRowCacheStatus());
             }
             super.start(e);
         } catch (Throwable t) {
@@ -142,6 +155,8 @@ public class SIObserver extends BaseRegionObserver{
     public void stop(CoprocessorEnvironment e) throws IOException{
         try {
             SpliceLogUtils.trace(LOG,"stopping %s",SIObserver.class);
+            if(rowCache!=null)
+                rowCache.clear();
             super.stop(e);
         } catch (Throwable t) {
             throw CoprocessorUtils.getIOException(t);
@@ -155,10 +170,18 @@ public class SIObserver extends BaseRegionObserver{
         try {
             SpliceLogUtils.trace(LOG,"preGet %s",get);
             if(tableEnvMatch && shouldUseSI(get)){
+                boolean cacheable=rowCache!=null && isCacheable(get);
                 get.setMaxVersions();
                 get.setTimeRange(0L,Long.MAX_VALUE);
                 assert (get.getMaxVersions()==Integer.MAX_VALUE);
                 addSIFilterToGet(get);
+                if(cacheable){
+                    byte[] row=get.getRow();
+                    results.addAll(CachedRowScanner.filterRow(get.getFilter(),get.familySet(),row,
+                            readCachedRow(e.getEnvironment().getRegion(),row)));
+                    e.bypass();
+                    return;
+                }
             }
             SpliceLogUtils.trace(LOG,"preGet after %s",get);
 
@@ -172,7 +195,9 @@ public class SIObserver extends BaseRegionObserver{
     public RegionScanner preScannerOpen(ObserverContext<RegionCoprocessorEnvironment> e,Scan scan,RegionScanner s) throws IOException{
         try {
             SpliceLogUtils.trace(LOG,"preScannerOpen %s with tableEnvMatch=%s, shouldUseSI=%s",scan,tableEnvMatch,shouldUseSI(scan));
+            boolean cacheable=false;
             if(tableEnvMatch && shouldUseSI(scan)){
+                cacheable=rowCache!=null && isCacheable(scan);
                 scan.setMaxVersions();
                 scan.setTimeRange(0L,Long.MAX_VALUE);
                 assert (scan.getMaxVersions()==Integer.MAX_VALUE);
@@ -183,6 +208,8 @@ public class SIObserver extends BaseRegionObserver{
             } else {
                 checkAccess();
             }
+            if(cacheable)
+                return CachedRowScanner.open(e,scan,readCachedRow(e.getEnvironment().getRegion(),scan.getStartRow()));
             return super.preScannerOpen(e,scan,s);
         } catch (Throwable t) {
             throw CoprocessorUtils.getIOException(t);
@@ -400,6 +427,67 @@ public class SIObserver extends BaseRegionObserver{
         scan.setFilter(newFilter);
     }
 
+    private long getRowCacheMaxBytes(HTableDescriptor tableDesc,SConfiguration config){
+        String tableMaxBytes=tableDesc.getConfigurationValue(SIConfigurations.ROW_CACHE_MAX_BYTES);
+        if(tableMaxBytes!=null)
+            return Long.parseLong(tableMaxBytes);
+        return config.getRowCacheMaxBytes();
+    }
+
+    /*
+     * Only plain row lookups are served from the row cache, which holds all the versions of all the columns
+     * of the row
+     */
+    private boolean isCacheable(Get get){
+        if(get.getFilter()!=null || get.isCheckExistenceOnly()
+                || get.getMaxResultsPerColumnFamily()>=0 || get.getRowOffsetPerColumnFamily()>0)
+            return false;
+        return readsWholeFamilies(get.getFamilyMap());
+    }
+
+    /*
+     * Scans which start and stop at the same key (primary key lookups) read a single row, and can be served
+     * from the row cache as well
+     */
+    private boolean isCacheable(Scan scan){
+        if(!scan.isGetScan() || scan.getFilter()!=null || scan.isRaw() || scan.getBatch()>0
+                || scan.getMaxResultsPerColumnFamily()>=0 || scan.getRowOffsetPerColumnFamily()>0
+                || scan.getAttribute(MRConstants.SPLICE_SCAN_MEMSTORE_ONLY)!=null)
+            return false;
+        return readsWholeFamilies(scan.getFamilyMap());
+    }
+
+    private boolean readsWholeFamilies(Map<byte[],NavigableSet<byte[]>> familyMap){
+        for(Map.Entry<byte[],NavigableSet<byte[]>> family:familyMap.entrySet()){
+            if(family.getValue()!=null && !family.getValue().isEmpty())
+                return false;
+        }
+        return true;
+    }
+
+    /*
+     * The cells read from the region may share buffers with its block cache, so the cache keeps its own copies
+     */
+    private List<Cell> readCachedRow(Region region,byte[] row) throws IOException{
+        List<Cell> cells=rowCache.get(row);
+        if(cells==null){
+            long readToken=rowCache.startRead();
+            Get rowGet=new Get(row);
+            rowGet.setMaxVersions();
+            rowGet.setTimeRange(0L,Long.MAX_VALUE);
+            List<Cell> stored=region.get(rowGet,false);
+            cells=new ArrayList<>(stored.size());
+            long bytes=row.length;
+            for(Cell cell:stored){
+                KeyValue copy=KeyValueUtil.copyToNewKeyValue(cell);
+                cells.add(copy);
+                bytes+=CellUtil.estimatedHeapSizeOf(copy);
+            }
+            rowCache.put(row,cells,bytes,readToken);
+        }
+        return cells;
+    }
+
     private EntryPredicateFilter getPredicateFilter(OperationWithAttributes operation) throws IOException{
         final byte[] serializedPredicateFilter=operation.getAttribute(ENTRY_PREDICATE_LABEL);
         return EntryPredicateFilter.fromBytes(serializedPredicateFilter);
@@ -495,10 +583,28 @@ public class SIObserver extends BaseRegionObserver{
         super.preBatchMutate(c, miniBatchOp);
     }
 
+    @Override
+    public void postBatchMutateIndispensably(ObserverContext<RegionCoprocessorEnvironment> ctx, MiniBatchOperationInProgress<Mutation> miniBatchOp, boolean success) throws IOException {
+        // the writes are visible to region reads by now, so cached rows can no longer miss them
+        if(rowCache!=null){
+            for(int i=0;i<miniBatchOp.size();i++){
+                rowCache.invalidate(miniBatchOp.getOperation(i).getRow());
+            }
+        }
+        super.postBatchMutateIndispensably(ctx, miniBatchOp, success);
+    }
+
     @Override
     public void preBulkLoadHFile(ObserverContext<RegionCoprocessorEnvironment> ctx, List<Pair<byte[], String>> familyPaths) throws IOException {
         checkAccess();
         super.preBulkLoadHFile(ctx, familyPaths);
     }
+
+    @Override
+    public boolean postBulkLoadHFile(ObserverContext<RegionCoprocessorEnvironment> ctx, List<Pair<byte[], String>> familyPaths, boolean hasLoaded) throws IOException {
+        if(rowCache!=null)
+            rowCache.clear();
+        return super.postBulkLoadHFile(ctx, familyPaths, hasLoaded);
+    }
     
 }
@@ -29,6 +29,7 @@ import com.splicemachine.encoding.DecodingIterator;
 import com.splicemachine.encoding.Encoding;
 import com.splicemachine.encoding.MultiFieldDecoder;
 import com.splicemachine.encoding.MultiFieldEncoder;
+import com.splicemachine.metrics.LatencyHistograms;
 import com.splicemachine.si.api.txn.Txn;
 import com.splicemachine.si.api.txn.TxnStore;
 import com.splicemachine.si.api.txn.TxnSupplier;
@@ -258,21 +259,26 @@ public class CoprocessorTxnStore implements TxnStore {
     @Override
     public TxnView getTransaction(long txnId,boolean getDestinationTables) throws IOException{
         lookups.incrementAndGet(); //we are performing a lookup, so increment the counter
-        if (txnId < oldTransactions) {
-            return getOldTransaction(txnId, getDestinationTables);
-        }
+        long start = System.nanoTime();
+        try {
+            if (txnId < oldTransactions) {
+                return getOldTransaction(txnId, getDestinationTables);
+            }
 
-        byte[] rowKey=getTransactionRowKey(txnId );
-        TxnMessage.TxnRequest request=TxnMessage.TxnRequest.newBuilder().setTxnId(txnId).build();
+            byte[] rowKey = getTransactionRowKey(txnId);
+            TxnMessage.TxnRequest request = TxnMessage.TxnRequest.newBuilder().setTxnId(txnId).build();
 
-        try (TxnNetworkLayer table = tableFactory.accessTxnNetwork()) {
+            try (TxnNetworkLayer table = tableFactory.accessTxnNetwork()) {
 
-            TxnMessage.Txn messageTxn = table.getTxn(rowKey, request);
-            return decode(txnId, messageTxn);
-        } catch (IOException e) {
-            throw e;
-        } catch(Throwable throwable){
-            throw new IOException(throwable);
+                TxnMessage.Txn messageTxn = table.getTxn(rowKey, request);
+                return decode(txnId, messageTxn);
+            } catch (IOException e) {
+                throw e;
+            } catch (Throwable throwable) {
+                throw new IOException(throwable);
+            }
+        } finally {
+            LatencyHistograms.TXN_LOOKUP.update(System.nanoTime() - start);
         }
     }
 
@@ -24,6 +24,8 @@ import org.apache.hadoop.hbase.regionserver.ScannerContext;
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Timer;
@@ -44,6 +46,7 @@ import java.util.concurrent.atomic.AtomicReference;
  */
 public abstract class AbstractSICompactionScanner implements InternalScanner {
     private static final Logger LOG = Logger.getLogger(AbstractSICompactionScanner.class);
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
     private final SICompactionState compactionState;
     private final InternalScanner delegate;
     private final BlockingQueue<Entry> queue;
@@ -53,6 +56,8 @@ public abstract class AbstractSICompactionScanner implements InternalScanner {
     private boolean purgeDeletedRows;
     private AtomicReference<IOException> failure = new AtomicReference<>();
     private AtomicLong remainingTime;
+    private long consumerThread = -1;
+    private long consumerAllocatedBytes;
 
     public AbstractSICompactionScanner(SICompactionState compactionState,
                                InternalScanner scanner,
@@ -78,12 +83,17 @@ public abstract class AbstractSICompactionScanner implements InternalScanner {
          */
         Entry entry;
         try {
+            if (consumerThread < 0) {
+                consumerThread = Thread.currentThread().getId();
+                consumerAllocatedBytes = allocatedBytes();
+            }
             entry = queue.take();
             final boolean more = entry.more;
-            List<TxnView> txns = waitFor(entry.txns);
+            List<TxnView> txns = waitFor(entry.txns, entry.pending);
             compactionState.mutate(entry.cells, txns, list, purgeDeletedRows);
             if (!more) {
                 timer.cancel();
+                recordAllocations();
                 context.close();
             }
             return more;
@@ -93,13 +103,13 @@ public abstract class AbstractSICompactionScanner implements InternalScanner {
         }
     }
 
-    private List<TxnView> waitFor(List<Future<TxnView>> txns) throws ExecutionException, InterruptedException {
-        List<TxnView> results = new ArrayList<>(txns.size());
-        for (Future<TxnView> txn : txns) {
-            if (txn == null) {
-                results.add(null);
+    private List<TxnView> waitFor(List<TxnView> results, List<Future<TxnView>> pending) throws ExecutionException, InterruptedException {
+        if (pending == null)
+            return results; // every transaction was already cached
+        for (int i = 0; i < pending.size(); i++) {
+            Future<TxnView> txn = pending.get(i);
+            if (txn == null)
                 continue;
-            }
 
             TxnView result = null;
             long timeout = remainingTime.get();
@@ -119,7 +129,7 @@ public abstract class AbstractSICompactionScanner implements InternalScanner {
             if (result == null) {
                 context.recordUnresolvedTransaction();
             }
-            results.add(result);
+            results.set(i, result);
             if (result != null) {
                 compactionState.remove(result.getTxnId());
             }
@@ -136,13 +146,19 @@ public abstract class AbstractSICompactionScanner implements InternalScanner {
         Thread thread = new Thread( new Runnable() {
             @Override
             public void run() {
+                long startAllocated = allocatedBytes();
                 boolean more = true;
                 try {
                     while (more) {
                         List<Cell> list = new ArrayList<>();
                         more = delegate.next(list);
-                        List<Future<TxnView>> txns = compactionState.resolve(list);
-                        queue.put(new Entry(list, txns, more));
+                        List<TxnView> txns = new ArrayList<>(list.size());
+                        List<Future<TxnView>> pending = compactionState.resolve(list, txns);
+                        if (!more && startAllocated >= 0) {
+                            // record before handing over the last entry, the consumer closes the context
+                            context.recordAllocatedBytes(allocatedBytes() - startAllocated);
+                        }
+                        queue.put(new Entry(list, txns, pending, more));
                     }
                 } catch (IOException e) {
                     LOG.error("Unexpected exception", e);
@@ -168,14 +184,35 @@ public abstract class AbstractSICompactionScanner implements InternalScanner {
         }, 60000, 60000);
     }
 
+    private void recordAllocations() {
+        if (consumerThread != Thread.currentThread().getId())
+            return;
+        if (consumerAllocatedBytes >= 0)
+            context.recordAllocatedBytes(allocatedBytes() - consumerAllocatedBytes);
+    }
+
+    /**
+     * @return the bytes allocated so far by the current thread, or -1 if the JVM doesn't track them
+     */
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled())
+                return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
     private static class Entry {
         List<Cell> cells;
-        List<Future<TxnView>> txns;
+        List<TxnView> txns;
+        List<Future<TxnView>> pending;
         boolean more;
 
-        public Entry(List<Cell> cells, List<Future<TxnView>> txns, boolean more) {
+        public Entry(List<Cell> cells, List<TxnView> txns, List<Future<TxnView>> pending, boolean more) {
             this.cells = cells;
             this.txns = txns;
+            this.pending = pending;
             this.more = more;
         }
     }
@@ -37,4 +37,10 @@ public interface CompactionContext {
     void close();
 
     void timeBlocked(long duration);
+
+    void recordPrunedVersions(int count);
+
+    void recordCellsWritten(int count);
+
+    void recordAllocatedBytes(long bytes);
 }
@@ -14,6 +14,9 @@
 
 package com.splicemachine.si.impl.server;
 
+import com.carrotsearch.hppc.LongLongOpenHashMap;
+import com.carrotsearch.hppc.LongObjectOpenHashMap;
+import com.carrotsearch.hppc.LongOpenHashSet;
 import com.google.common.util.concurrent.Futures;
 import com.splicemachine.hbase.CellUtils;
 import com.splicemachine.primitives.Bytes;
@@ -23,23 +26,29 @@ import com.splicemachine.si.api.txn.Txn;
 import com.splicemachine.si.api.txn.TxnSupplier;
 import com.splicemachine.si.api.txn.TxnView;
 import com.splicemachine.si.constants.SIConstants;
+import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.si.impl.store.ActiveTxnCacheSupplier;
+import com.splicemachine.si.impl.store.IgnoreTxnSupplier;
 import com.splicemachine.si.impl.txn.CommittedTxn;
 import com.splicemachine.si.impl.txn.RolledBackTxn;
 import com.splicemachine.storage.CellType;
+import com.splicemachine.storage.EntryDecoder;
+import com.splicemachine.storage.index.BitIndex;
 import com.splicemachine.utils.ByteSlice;
 import com.splicemachine.utils.SpliceLogUtils;
 import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
 import org.apache.hadoop.hbase.KeyValue;
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.SortedSet;
-import java.util.TreeSet;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
@@ -55,15 +64,66 @@ public class SICompactionState {
     private final TxnSupplier transactionStore;
     private final CompactionContext context;
     private final ExecutorService executorService;
-    private ConcurrentHashMap<Long, Future<TxnView>> futuresCache;
-    private SortedSet<Cell> dataToReturn;
+    /*
+     * In-flight transaction lookups, by transaction id. Written by the thread reading the region and cleared by
+     * the thread consuming the resolved rows, so access is synchronized on the map itself.
+     */
+    private final LongObjectOpenHashMap<Future<TxnView>> futuresCache;
+    /*
+     * Output buffer, reused across rows. Cells are appended in input order, so it only needs
+     * sorting when a new commit timestamp cell was added.
+     */
+    private final ArrayList<Cell> dataToReturn;
+    private boolean needsSort;
+    // timestamps which already have a commit timestamp cell in the current row
+    private final LongOpenHashSet committedInRow;
+    /*
+     * Versions committed strictly before this timestamp are visible to every transaction which is
+     * still active, so older versions they hide can be discarded. 0 disables version collection.
+     */
+    private final long versionWatermark;
+    private final LongLongOpenHashMap commitTimestamps;
+    private final EntryDecoder entryDecoder;
+    private final IgnoreTxnSupplier ignoreTxnSupplier;
+    private final Set<Cell> pruned;
+    private final List<Cell> row;
+    private final BitSet covered;
+    private final LongOpenHashSet prunedVersions;
+    private final LongOpenHashSet remainingVersions;
 
     public SICompactionState(TxnSupplier transactionStore, int activeTransactionCacheSize, CompactionContext context, ExecutorService executorService) {
+        this(transactionStore, activeTransactionCacheSize, context, executorService, 0L);
+    }
+
+    public SICompactionState(TxnSupplier transactionStore, int activeTransactionCacheSize, CompactionContext context,
+                             ExecutorService executorService, long versionWatermark) {
         this.transactionStore = new ActiveTxnCacheSupplier(transactionStore,activeTransactionCacheSize);
-        this.dataToReturn  =new TreeSet<>(KeyValue.COMPARATOR);
+        this.dataToReturn = new ArrayList<>();
+        this.committedInRow = new LongOpenHashSet();
         this.context = context;
-        this.futuresCache = new ConcurrentHashMap<>(1<<19, 0.75f, 64);
+        this.futuresCache = new LongObjectOpenHashMap<>();
         this.executorService = executorService;
+        this.versionWatermark = versionWatermark;
+        if (versionWatermark > 0) {
+            this.commitTimestamps = new LongLongOpenHashMap();
+            this.entryDecoder = new EntryDecoder();
+            SIDriver driver = SIDriver.driver();
+            this.ignoreTxnSupplier = driver != null ? driver.getIgnoreTxnSupplier() : null;
+            this.pruned = Collections.newSetFromMap(new IdentityHashMap<Cell, Boolean>());
+            this.row = new ArrayList<>();
+            this.covered = new BitSet();
+            this.prunedVersions = new LongOpenHashSet();
+            this.remainingVersions = new LongOpenHashSet();
+        } else {
+            this.commitTimestamps = null;
+            this.entryDecoder = null;
+            this.ignoreTxnSupplier = null;
+            this.pruned = null;
+            this.row = null;
+            this.covered = null;
+            this.prunedVersions = null;
+            this.remainingVersions = null;
+        }
     }
 
     /**
@@ -74,29 +134,150 @@ public class SICompactionState {
      */
     public void mutate(List<Cell> rawList, List<TxnView> txns, List<Cell> results, boolean purgeDeletedRows) throws IOException {
         dataToReturn.clear();
+        committedInRow.clear();
+        needsSort = false;
+        if (commitTimestamps != null)
+            commitTimestamps.clear();
         long maxTombstone = 0;
         Iterator<TxnView> it = txns.iterator();
+        Cell previous = null;
         for (Cell aRawList : rawList) {
+            if (previous != null && !CellUtil.matchingRow(previous, aRawList))
+                committedInRow.clear();
+            previous = aRawList;
             TxnView txn = it.next();
             long t = mutate(aRawList, txn);
             if (t > maxTombstone) {
                 maxTombstone = t;
             }
         }
+        if (needsSort)
+            Collections.sort(dataToReturn, KeyValue.COMPARATOR);
         if (purgeDeletedRows && maxTombstone > 0) {
             removeTombStone(maxTombstone);
         }
+        if (versionWatermark > 0 && !dataToReturn.isEmpty()) {
+            int prunedCount = pruneVersions();
+            if (prunedCount > 0)
+                context.recordPrunedVersions(prunedCount);
+        }
         results.addAll(dataToReturn);
+        context.recordCellsWritten(dataToReturn.size());
     }
 
-    private void removeTombStone(long maxTombstone) {
-        SortedSet<Cell> cp = (SortedSet<Cell>)((TreeSet<Cell>)dataToReturn).clone();
-        for (Cell element : cp) {
-            long timestamp = element.getTimestamp();
-            if (timestamp <= maxTombstone) {
-                dataToReturn.remove(element);
+    /**
+     * Discard the committed versions of each row which no active transaction can read any more.
+     *
+     * A reader whose begin timestamp is at or above the watermark sees every version committed below it.
+     * For such readers a version is hidden when a newer tombstone (or anti-tombstone) committed below the
+     * watermark precedes it, or when every column it holds is also written by newer versions committed below
+     * the watermark. Versions whose transaction is unknown, still active, or committed at or after the watermark
+     * are always kept, and they never hide anything.
+     *
+     * @return the number of versions removed
+     */
+    private int pruneVersions() throws IOException {
+        pruned.clear();
+        prunedVersions.clear();
+        row.clear();
+        Cell previous = null;
+        for (Cell cell : dataToReturn) {
+            if (previous != null && !CellUtil.matchingRow(previous, cell)) {
+                pruneRow();
+                row.clear();
             }
+            row.add(cell);
+            previous = cell;
         }
+        pruneRow();
+        row.clear();
+        if (pruned.isEmpty())
+            return 0;
+        dataToReturn.removeIf(pruned::contains);
+        return prunedVersions.size();
+    }
+
+    private void pruneRow() throws IOException {
+        /*
+         * Cells are sorted by qualifier and then by descending timestamp, so the tombstone
+         * markers and the user data are each visited newest first.
+         */
+        long marker = -1;
+        boolean markerIsTombstone = false;
+        for (Cell cell : row) {
+            CellType type = getKeyValueType(cell);
+            if ((type == CellType.TOMBSTONE || type == CellType.ANTI_TOMBSTONE) && visibleToAll(cell.getTimestamp())) {
+                marker = cell.getTimestamp();
+                markerIsTombstone = type == CellType.TOMBSTONE;
+                break;
+            }
+        }
+
+        int prunedBefore = pruned.size();
+        covered.clear();
+        boolean seenData = false;
+        for (Cell cell : row) {
+            CellType type = getKeyValueType(cell);
+            long timestamp = cell.getTimestamp();
+            switch (type) {
+                case TOMBSTONE:
+                case ANTI_TOMBSTONE:
+                    if (timestamp < marker && visibleToAll(timestamp))
+                        pruned.add(cell);
+                    break;
+                case USER_DATA:
+                    if (!visibleToAll(timestamp))
+                        break;
+                    if (timestamp < marker || (markerIsTombstone && timestamp == marker)) {
+                        pruned.add(cell);
+                        break;
+                    }
+                    entryDecoder.set(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+                    BitIndex index = entryDecoder.getCurrentIndex();
+                    boolean hidden = seenData;
+                    for (int i = index.nextSetBit(0); i >= 0; i = index.nextSetBit(i + 1)) {
+                        if (!covered.get(i)) {
+                            hidden = false;
+                            covered.set(i);
+                        }
+                    }
+                    if (hidden)
+                        pruned.add(cell);
+                    seenData = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (pruned.size() == prunedBefore)
+            return;
+
+        // drop the commit timestamp of a version once none of its other cells remain
+        remainingVersions.clear();
+        for (Cell cell : row) {
+            if (pruned.contains(cell))
+                prunedVersions.add(cell.getTimestamp());
+            else if (getKeyValueType(cell) != CellType.COMMIT_TIMESTAMP)
+                remainingVersions.add(cell.getTimestamp());
+        }
+        for (Cell cell : row) {
+            long timestamp = cell.getTimestamp();
+            if (getKeyValueType(cell) == CellType.COMMIT_TIMESTAMP && prunedVersions.contains(timestamp) && !remainingVersions.contains(timestamp))
+                pruned.add(cell);
+        }
+    }
+
+    private boolean visibleToAll(long txnId) throws IOException {
+        if (!commitTimestamps.containsKey(txnId))
+            return false;
+        long commitTimestamp = commitTimestamps.lget();
+        if (commitTimestamp <= 0 || commitTimestamp >= versionWatermark)
+            return false;
+        return ignoreTxnSupplier == null || !ignoreTxnSupplier.shouldIgnore(txnId);
+    }
+
+    private void removeTombStone(long maxTombstone) {
+        dataToReturn.removeIf(cell -> cell.getTimestamp() <= maxTombstone);
     }
     /**
      * Apply SI mutation logic to an individual key-value. Return the "new" key-value.
@@ -107,6 +288,9 @@ public class SICompactionState {
         switch (cellType) {
             case COMMIT_TIMESTAMP:
                 dataToReturn.add(element);
+                committedInRow.add(timestamp);
+                if (commitTimestamps != null && !isFailedCommitTimestamp(element) && element.getValueLength() == Bytes.SIZEOF_LONG)
+                    commitTimestamps.put(timestamp, Bytes.toLong(element.getValueArray(), element.getValueOffset(), element.getValueLength()));
                 return 0;
             default:
                 if(mutateCommitTimestamp(element,txn))
@@ -150,7 +334,12 @@ public class SICompactionState {
              * commit timestamp can be placed on it.
              */
             long globalCommitTimestamp = txn.getEffectiveCommitTimestamp();
-            dataToReturn.add(newTransactionTimeStampKeyValue(element, Bytes.toBytes(globalCommitTimestamp)));
+            if (committedInRow.add(element.getTimestamp())) {
+                dataToReturn.add(newTransactionTimeStampKeyValue(element, Bytes.toBytes(globalCommitTimestamp)));
+                needsSort = true;
+            }
+            if (commitTimestamps != null)
+                commitTimestamps.put(element.getTimestamp(), globalCommitTimestamp);
         }
         // Committed or active, return the original data too
         return true;
@@ -189,9 +378,20 @@ public class SICompactionState {
     }
 
 
-    public List<Future<TxnView>> resolve(List<Cell> list) throws IOException {
+    /**
+     * Resolve the transactions of the given cells.
+     *
+     * Transactions which are already cached are appended to {@code resolved} directly, without any future. Every
+     * other position of {@code resolved} is null: for commit timestamp cells no transaction is needed, otherwise the
+     * returned list holds a future for it at the same position.
+     *
+     * @param list the cells of a row
+     * @param resolved receives one entry per cell
+     * @return the pending resolutions, by position, or null if every transaction was cached
+     */
+    public List<Future<TxnView>> resolve(List<Cell> list, List<TxnView> resolved) throws IOException {
         context.rowRead();
-        List<Future<TxnView>> result = new ArrayList<>(list.size());
+        List<Future<TxnView>> result = null;
         for (Cell element : list) {
             final CellType cellType= getKeyValueType(element);
             long timestamp = element.getTimestamp();
@@ -204,7 +404,9 @@ public class SICompactionState {
                      * be less and less frequent, but you still have to check
                      */
                     ensureTransactionCached(timestamp,element);
-                    result.add(null); // no transaction needed for this entry
+                    resolved.add(null); // no transaction needed for this entry
+                    if (result != null)
+                        result.add(null);
                     context.readCommit();
                     break;
                 case TOMBSTONE:
@@ -216,45 +418,33 @@ public class SICompactionState {
                     if (tentative != null) {
                         if (LOG.isDebugEnabled())
                             LOG.debug("Cached " + tentative);
-                        result.add(Futures.immediateFuture(tentative));
+                        resolved.add(tentative);
+                        if (result != null)
+                            result.add(null);
                         context.recordResolutionCached();
                     } else {
                         Future<TxnView> future;
                         try {
-                            future = futuresCache.computeIfAbsent(timestamp, txnId -> {
-                                context.recordRPC();
-                                return executorService.submit(() -> {
-                                    if (LOG.isDebugEnabled())
-                                        LOG.debug("Resolving " + txnId);
-                                    TxnView txn;
-                                    try {
-                                        txn = transactionStore.getTransaction(txnId);
-
-                                        if (LOG.isTraceEnabled())
-                                            LOG.trace("Txn " + txn);
-                                        while (txn.getState() == Txn.State.COMMITTED && txn.getParentTxnView() != Txn.ROOT_TRANSACTION) {
-                                            txn = txn.getParentTxnView();
-
-                                            if (LOG.isTraceEnabled())
-                                                LOG.trace("Parent " + txn);
-                                        }
-                                    } catch (TransactionMissing ex) {
-                                        txn = null;
-                                    }
-                                    if (txn == null) {
-                                        LOG.warn("We couldn't resolve transaction " + timestamp +". This is only acceptable during a Restore operation");
-                                        return null;
-                                    }
-                                    if (LOG.isDebugEnabled())
-                                        LOG.debug("Returning, parent " + txn.getParentTxnView());
-                                    return txn;
-                                });
-                            });
+                            synchronized (futuresCache) {
+                                future = futuresCache.get(timestamp);
+                                if (future == null) {
+                                    context.recordRPC();
+                                    future = executorService.submit(() -> resolveTransaction(timestamp));
+                                    futuresCache.put(timestamp, future);
+                                }
+                            }
                             context.recordResolutionScheduled();
                         } catch (RejectedExecutionException ex) {
                             context.recordResolutionRejected();
                             future = Futures.immediateFuture(null);
                         }
+                        if (result == null) {
+                            result = new ArrayList<>(list.size());
+                            for (int i = 0; i < resolved.size(); i++) {
+                                result.add(null);
+                            }
+                        }
+                        resolved.add(null);
                         result.add(future);
                     }
             }
@@ -262,8 +452,37 @@ public class SICompactionState {
         return result;
     }
 
+    private TxnView resolveTransaction(long txnId) throws IOException {
+        if (LOG.isDebugEnabled())
+            LOG.debug("Resolving " + txnId);
+        TxnView txn;
+        try {
+            txn = transactionStore.getTransaction(txnId);
+
+            if (LOG.isTraceEnabled())
+                LOG.trace("Txn " + txn);
+            while (txn.getState() == Txn.State.COMMITTED && txn.getParentTxnView() != Txn.ROOT_TRANSACTION) {
+                txn = txn.getParentTxnView();
+
+                if (LOG.isTraceEnabled())
+                    LOG.trace("Parent " + txn);
+            }
+        } catch (TransactionMissing ex) {
+            txn = null;
+        }
+        if (txn == null) {
+            LOG.warn("We couldn't resolve transaction " + txnId +". This is only acceptable during a Restore operation");
+            return null;
+        }
+        if (LOG.isDebugEnabled())
+            LOG.debug("Returning, parent " + txn.getParentTxnView());
+        return txn;
+    }
+
     /** Remove entry from futures cache after it is already available in the transactional cache*/
     public void remove(long txnId) {
-        futuresCache.remove(txnId);
+        synchronized (futuresCache) {
+            futuresCache.remove(txnId);
+        }
     }
 }
@@ -32,6 +32,10 @@ public class SimpleCompactionContext implements CompactionContext {
     private AtomicLong recordResolutionRejected = new AtomicLong();
     private AtomicLong recordRPC = new AtomicLong();
     private AtomicLong timeBlocked = new AtomicLong();
+    private AtomicLong prunedVersions = new AtomicLong();
+    private AtomicLong cellsWritten = new AtomicLong();
+    private AtomicLong allocatedBytes = new AtomicLong();
+    private final long startTime = System.currentTimeMillis();
 
     @Override
     public void readData() {
@@ -88,8 +92,24 @@ public class SimpleCompactionContext implements CompactionContext {
         timeBlocked.addAndGet(duration);
     }
 
+    @Override
+    public void recordPrunedVersions(int count) {
+        prunedVersions.addAndGet(count);
+    }
+
+    @Override
+    public void recordCellsWritten(int count) {
+        cellsWritten.addAndGet(count);
+    }
+
+    @Override
+    public void recordAllocatedBytes(long bytes) {
+        allocatedBytes.addAndGet(bytes);
+    }
+
     @Override
     public String toString() {
+        double seconds = Math.max(1, System.currentTimeMillis() - startTime) / 1000d;
         return "SimpleCompactionContext{" +
                 "readData=" + readData +
                 ", recordResolutionCached=" + recordResolutionCached +
@@ -101,6 +121,11 @@ public class SimpleCompactionContext implements CompactionContext {
                 ", recordResolutionRejected=" + recordResolutionRejected +
                 ", recordRPC=" + recordRPC +
                 ", timeBlocked(ms)=" + timeBlocked +
+                ", prunedVersions=" + prunedVersions +
+                ", cellsWritten=" + cellsWritten +
+                ", cells/sec=" + (long) (cellsWritten.get() / seconds) +
+                ", allocatedBytes=" + allocatedBytes +
+                ", allocatedBytes/sec=" + (long) (allocatedBytes.get() / seconds) +
                 '}';
     }
 }
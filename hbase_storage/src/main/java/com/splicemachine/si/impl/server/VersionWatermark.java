@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.si.impl.server;
+
+import com.splicemachine.si.constants.SIConstants;
+import com.splicemachine.si.impl.driver.SIDriver;
+import org.apache.log4j.Logger;
+
+/**
+ * Determines the low watermark used to garbage collect MVCC versions during compactions.
+ * <p/>
+ * The watermark is the minimum active transaction published under the transactions node
+ * ({@code HConfiguration.MINIMUM_ACTIVE_PATH}) from the oldest transactions of every server, by
+ * {@link com.splicemachine.timestamp.hbase.ActiveTransactionPublisher}. Every transaction which can still read
+ * data began at or after it, so a version committed below it is visible to all of them.
+ */
+public class VersionWatermark {
+    private static final Logger LOG = Logger.getLogger(VersionWatermark.class);
+
+    private VersionWatermark() {
+    }
+
+    /**
+     * @param driver the SI driver of this process
+     * @param tableVersionGC the value of the table's {@link SIConstants#VERSION_GC_ATTR} property, or null if not set
+     * @return the watermark to compact with, or 0 when versions must not be collected
+     */
+    public static long compute(SIDriver driver, String tableVersionGC) {
+        if (driver == null || !driver.getConfiguration().getCompactionVersionGC())
+            return 0L;
+        if ("false".equalsIgnoreCase(tableVersionGC))
+            return 0L;
+        long minimum;
+        try {
+            minimum = driver.getTimestampSource().retrieveTimestamp();
+        } catch (RuntimeException e) {
+            // nothing published yet, or we cannot reach it: keep every version
+            LOG.warn("Unable to retrieve the minimum active transaction, skipping version collection", e);
+            return 0L;
+        }
+        if (LOG.isDebugEnabled())
+            LOG.debug("Compacting with version watermark " + minimum);
+        return minimum > 0 ? minimum : 0L;
+    }
+}
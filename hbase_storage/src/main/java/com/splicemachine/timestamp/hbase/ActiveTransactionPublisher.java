@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.timestamp.hbase;
+
+import com.splicemachine.access.HConfiguration;
+import com.splicemachine.si.impl.ActiveTransactionTracker;
+import com.splicemachine.timestamp.api.TimestampSource;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.zookeeper.RecoverableZooKeeper;
+import org.apache.log4j.Logger;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.ZooDefs;
+import org.apache.zookeeper.data.Stat;
+import org.spark_project.guava.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the oldest transaction active on this server, and advances the cluster-wide minimum active
+ * transaction ({@link HConfiguration#MINIMUM_ACTIVE_PATH}) which compactions use as their version watermark.
+ * <p/>
+ * Each server owns an ephemeral node under {@link HConfiguration#ACTIVE_TRANSACTIONS_PATH}, holding the begin
+ * timestamp of its oldest active top-level transaction (read-only transactions included), or a fresh timestamp
+ * when it has none. The node is created empty before the server begins any transactions, and an empty node
+ * holds the minimum where it is until its server publishes, so a server which has not yet published can
+ * never have the minimum advance past one of its transactions. The minimum is the smallest published value,
+ * and only ever moves forward. Any server may advance it; concurrent updates are serialized through the
+ * node's version.
+ * <p/>
+ * A server whose session expires loses its node, and the minimum may advance past its transactions until it
+ * registers again. Region servers abort when that happens; any other process rolls back all its active
+ * transactions once its new node holds the minimum again.
+ */
+public class ActiveTransactionPublisher implements Runnable{
+    private static final Logger LOG=Logger.getLogger(ActiveTransactionPublisher.class);
+
+    private final RecoverableZooKeeper rzk;
+    private final ActiveTransactionTracker activeTransactions;
+    private final TimestampSource timestampSource;
+    private final String activePath;
+    private final String minimumPath;
+    private volatile String serverNode;
+    private ScheduledExecutorService executor;
+
+    public ActiveTransactionPublisher(RecoverableZooKeeper rzk,
+                                      String rootZkPath,
+                                      ActiveTransactionTracker activeTransactions,
+                                      TimestampSource timestampSource){
+        this.rzk=rzk;
+        this.activeTransactions=activeTransactions;
+        this.timestampSource=timestampSource;
+        this.activePath=rootZkPath+HConfiguration.ACTIVE_TRANSACTIONS_PATH;
+        this.minimumPath=rootZkPath+HConfiguration.MINIMUM_ACTIVE_PATH;
+    }
+
+    /**
+     * Register this server, then publish every {@code interval} milliseconds.
+     */
+    public synchronized void start(long interval) throws KeeperException, InterruptedException{
+        if(executor!=null) return;
+        register();
+        ThreadFactory factory=new ThreadFactoryBuilder().setNameFormat("activeTxnPublisher-%d").setDaemon(true).build();
+        executor=Executors.newSingleThreadScheduledExecutor(factory);
+        executor.scheduleWithFixedDelay(this,0L,interval,TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void shutdown(){
+        if(executor!=null){
+            executor.shutdownNow();
+            executor=null;
+        }
+    }
+
+    @Override
+    public void run(){
+        try{
+            publish();
+            advanceMinimum();
+        }catch(InterruptedException ie){
+            Thread.currentThread().interrupt();
+        }catch(Exception e){
+            LOG.warn("Unable to publish the oldest active transaction",e);
+        }
+    }
+
+    void register() throws KeeperException, InterruptedException{
+        if(rzk.exists(activePath,false)==null){
+            try{
+                rzk.create(activePath,new byte[]{},ZooDefs.Ids.OPEN_ACL_UNSAFE,CreateMode.PERSISTENT);
+            }catch(KeeperException.NodeExistsException ignored){
+                //another server got there first
+            }
+        }
+        serverNode=rzk.create(activePath+"/server-",new byte[]{},ZooDefs.Ids.OPEN_ACL_UNSAFE,CreateMode.EPHEMERAL_SEQUENTIAL);
+    }
+
+    void publish() throws KeeperException, InterruptedException{
+        long oldest=activeTransactions.oldestActive(timestampSource);
+        try{
+            rzk.setData(serverNode,Bytes.toBytes(oldest),-1);
+        }catch(KeeperException.NoNodeException nne){
+            /*
+             * Our session expired. A region server aborts when that happens, but other processes carry on.
+             * Without our node, the minimum could advance past our transactions and compactions could drop
+             * versions they read, so roll them back once our new (empty) node holds the minimum again.
+             */
+            LOG.warn("Active transaction node "+serverNode+" is gone, registering again");
+            register();
+            int rolledBack=activeTransactions.rollbackActive();
+            if(rolledBack>0)
+                LOG.warn("Rolled back "+rolledBack+" transactions begun before "+serverNode+" was registered");
+            oldest=activeTransactions.oldestActive(timestampSource);
+            rzk.setData(serverNode,Bytes.toBytes(oldest),-1);
+        }
+        if(LOG.isDebugEnabled())
+            LOG.debug("Published oldest active transaction "+oldest+" to "+serverNode);
+    }
+
+    void advanceMinimum() throws KeeperException, InterruptedException{
+        long minimum=Long.MAX_VALUE;
+        List<String> servers=rzk.getChildren(activePath,false);
+        for(String server : servers){
+            byte[] data;
+            try{
+                data=rzk.getData(activePath+"/"+server,false,null);
+            }catch(KeeperException.NoNodeException nne){
+                continue; //that server has gone away, and its transactions with it
+            }
+            if(data==null || data.length!=Bytes.SIZEOF_LONG)
+                return; //that server has not published yet
+            minimum=Math.min(minimum,Bytes.toLong(data));
+        }
+        if(minimum==Long.MAX_VALUE) return;
+
+        Stat stat=new Stat();
+        byte[] current;
+        try{
+            current=rzk.getData(minimumPath,false,stat);
+        }catch(KeeperException.NoNodeException nne){
+            //first start of the cluster
+            try{
+                rzk.create(minimumPath,Bytes.toBytes(minimum),ZooDefs.Ids.OPEN_ACL_UNSAFE,CreateMode.PERSISTENT);
+                if(LOG.isDebugEnabled())
+                    LOG.debug("Set minimum active transaction to "+minimum);
+            }catch(KeeperException.NodeExistsException ignored){
+                //another server got there first; we'll try again next time
+            }
+            return;
+        }
+        long currentMinimum=current!=null && current.length==Bytes.SIZEOF_LONG?Bytes.toLong(current):0L;
+        if(minimum<=currentMinimum) return;
+        try{
+            rzk.setData(minimumPath,Bytes.toBytes(minimum),stat.getVersion());
+            if(LOG.isDebugEnabled())
+                LOG.debug("Advanced minimum active transaction from "+currentMinimum+" to "+minimum);
+        }catch(KeeperException.BadVersionException bve){
+            //another server advanced it concurrently; we'll try again next time
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.si.data.hbase.coprocessor;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.HRegionInfo;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.coprocessor.BaseRegionObserver;
+import org.apache.hadoop.hbase.coprocessor.CoprocessorHost;
+import org.apache.hadoop.hbase.coprocessor.ObserverContext;
+import org.apache.hadoop.hbase.coprocessor.RegionCoprocessorEnvironment;
+import org.apache.hadoop.hbase.filter.BinaryComparator;
+import org.apache.hadoop.hbase.filter.CompareFilter;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.QualifierFilter;
+import org.apache.hadoop.hbase.regionserver.Region;
+import org.apache.hadoop.hbase.regionserver.RegionCoprocessorHost;
+import org.apache.hadoop.hbase.regionserver.RegionScanner;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CachedRowScannerTest{
+    private static final byte[] ROW=Bytes.toBytes("row");
+    private static final byte[] FAMILY=Bytes.toBytes("V");
+
+    @Test
+    public void returnsTheRowOnce() throws Exception{
+        List<Cell> cells=Arrays.<Cell>asList(cell("a",2L),cell("a",1L),cell("b",1L));
+        CachedRowScanner scanner=new CachedRowScanner(null,new Scan(ROW,ROW),cells);
+
+        List<Cell> results=new ArrayList<>();
+        Assert.assertFalse("Scanner should only have a single row",scanner.nextRaw(results));
+        Assert.assertEquals("Incorrect cells",cells,results);
+        Assert.assertTrue("Filter should be done once the row is returned",scanner.isFilterDone());
+
+        results.clear();
+        Assert.assertFalse(scanner.nextRaw(results));
+        Assert.assertTrue("Row should not be returned twice",results.isEmpty());
+    }
+
+    @Test
+    public void coprocessorHostUsesTheCachedScanner() throws Exception{
+        Configuration conf=HBaseConfiguration.create();
+        conf.set(CoprocessorHost.REGION_COPROCESSOR_CONF_KEY,CachedRowObserver.class.getName());
+        Region region=mock(Region.class);
+        when(region.getRegionInfo()).thenReturn(new HRegionInfo(TableName.valueOf("1568")));
+        when(region.getTableDesc()).thenReturn(new HTableDescriptor(TableName.valueOf("1568")));
+        RegionCoprocessorHost host=new RegionCoprocessorHost(region,null,conf);
+
+        Scan scan=new Scan(ROW,ROW);
+        scan.setFilter(new FilterList()); // stands in for the SI filter, which every cached scan carries
+        RegionScanner scanner=host.preScannerOpen(scan);
+        Assert.assertTrue("Region should use the cached scanner",scanner instanceof CachedRowScanner);
+        List<Cell> results=new ArrayList<>();
+        scanner.nextRaw(results);
+        Assert.assertEquals("Incorrect cells",CachedRowObserver.CELLS,results);
+    }
+
+    @Test
+    public void filterRowAppliesTheFilter() throws Exception{
+        List<Cell> cells=Arrays.<Cell>asList(cell("a",2L),cell("a",1L),cell("b",1L));
+        QualifierFilter filter=new QualifierFilter(CompareFilter.CompareOp.EQUAL,new BinaryComparator(Bytes.toBytes("b")));
+
+        List<Cell> results=CachedRowScanner.filterRow(filter,Collections.<byte[]>emptySet(),ROW,cells);
+        Assert.assertEquals("Incorrect filtered cells",Collections.singletonList(cells.get(2)),results);
+    }
+
+    @Test
+    public void filterRowOnlyReturnsRequestedFamilies() throws Exception{
+        Cell other=new KeyValue(ROW,Bytes.toBytes("O"),Bytes.toBytes("a"),1L,Bytes.toBytes("o"));
+        List<Cell> cells=Arrays.asList(other,cell("a",1L));
+        Scan scan=new Scan(ROW,ROW);
+        scan.addFamily(FAMILY);
+
+        List<Cell> results=CachedRowScanner.filterRow(new FilterList(),scan.getFamilyMap().keySet(),ROW,cells);
+        Assert.assertEquals("Incorrect cells",Collections.singletonList(cells.get(1)),results);
+    }
+
+    public static class CachedRowObserver extends BaseRegionObserver{
+        static final List<Cell> CELLS=Arrays.asList(cell("a",2L),cell("b",1L));
+
+        @Override
+        public RegionScanner preScannerOpen(ObserverContext<RegionCoprocessorEnvironment> e,Scan scan,RegionScanner s) throws IOException{
+            return CachedRowScanner.open(e,scan,CELLS);
+        }
+    }
+
+    private static Cell cell(String qualifier,long timestamp){
+        return new KeyValue(ROW,FAMILY,Bytes.toBytes(qualifier),timestamp,Bytes.toBytes(qualifier+timestamp));
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.si.impl.server;
+
+import com.carrotsearch.hppc.BitSet;
+import com.splicemachine.si.api.txn.TxnSupplier;
+import com.splicemachine.si.api.txn.TxnView;
+import com.splicemachine.si.constants.SIConstants;
+import com.splicemachine.si.impl.txn.CommittedTxn;
+import com.splicemachine.storage.EntryEncoder;
+import com.splicemachine.utils.kryo.KryoPool;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SICompactionStateTest {
+    private static final byte[] ROW = Bytes.toBytes("row");
+
+    private final List<Cell> cells = new ArrayList<>();
+    private final List<TxnView> txns = new ArrayList<>();
+
+    @Test
+    public void keepsEveryVersionWithoutWatermark() throws IOException {
+        write(10, 11, 0, 1);
+        write(20, 21, 0, 1);
+
+        CompactionContext context = mock(CompactionContext.class);
+        List<Cell> results = compact(0L, context);
+        assertTrue(hasData(results, 10));
+        assertTrue(hasData(results, 20));
+        verify(context, never()).recordPrunedVersions(anyInt());
+    }
+
+    @Test
+    public void prunesVersionsHiddenByNewerColumns() throws IOException {
+        write(10, 11, 0, 1);
+        write(20, 21, 0, 1);
+        write(30, 31, 0);
+
+        CompactionContext context = mock(CompactionContext.class);
+        List<Cell> results = compact(100L, context);
+        assertTrue(hasData(results, 30));
+        assertTrue("column 1 is only written by ts 20", hasData(results, 20));
+        assertFalse(hasData(results, 10));
+        assertFalse("commit timestamp of pruned version must go too", hasCommit(results, 10));
+        verify(context).recordPrunedVersions(1);
+    }
+
+    @Test
+    public void versionsCommittedAfterWatermarkDoNotHide() throws IOException {
+        write(10, 11, 0);
+        write(20, 31, 0);
+
+        List<Cell> results = compact(25L, mock(CompactionContext.class));
+        assertTrue(hasData(results, 10));
+        assertTrue(hasData(results, 20));
+    }
+
+    @Test
+    public void prunesDataBelowVisibleTombstone() throws IOException {
+        write(10, 11, 0, 1);
+        cells.add(new KeyValue(ROW, SIConstants.DEFAULT_FAMILY_BYTES, SIConstants.SNAPSHOT_ISOLATION_TOMBSTONE_COLUMN_BYTES,
+                20, SIConstants.EMPTY_BYTE_ARRAY));
+        txns.add(new CommittedTxn(20, 21));
+
+        List<Cell> results = compact(100L, mock(CompactionContext.class));
+        assertFalse(hasData(results, 10));
+        assertTrue(has(results, 20, SIConstants.SNAPSHOT_ISOLATION_TOMBSTONE_COLUMN_BYTES));
+    }
+
+    @Test
+    public void cachedTransactionsResolveWithoutFutures() throws IOException {
+        TxnSupplier supplier = mock(TxnSupplier.class);
+        when(supplier.transactionCached(10)).thenReturn(true);
+        when(supplier.getTransactionFromCache(10)).thenReturn(new CommittedTxn(10, 11));
+        SICompactionState state = new SICompactionState(supplier, 16, mock(CompactionContext.class), null);
+        List<Cell> row = new ArrayList<>();
+        row.add(commit(10, 11));
+        write(10, 11, 0);
+        row.add(cells.get(0));
+
+        List<TxnView> resolved = new ArrayList<>();
+        assertNull(state.resolve(row, resolved));
+        assertEquals(2, resolved.size());
+        assertNull(resolved.get(0));
+        assertEquals(11, resolved.get(1).getEffectiveCommitTimestamp());
+    }
+
+    @Test
+    public void existingCommitTimestampIsNotDuplicated() throws IOException {
+        cells.add(commit(10, 11));
+        txns.add(null);
+        write(10, 11, 0);
+        write(20, 21, 0);
+
+        List<Cell> results = compact(0L, mock(CompactionContext.class));
+        assertEquals(4, results.size());
+        for (int i = 1; i < results.size(); i++) {
+            assertTrue("results must stay sorted", KeyValue.COMPARATOR.compare(results.get(i - 1), results.get(i)) < 0);
+        }
+    }
+
+    private static Cell commit(long txnId, long commitTs) {
+        return new KeyValue(ROW, SIConstants.DEFAULT_FAMILY_BYTES, SIConstants.SNAPSHOT_ISOLATION_COMMIT_TIMESTAMP_COLUMN_BYTES,
+                txnId, Bytes.toBytes(commitTs));
+    }
+
+    private List<Cell> compact(long watermark, CompactionContext context) throws IOException {
+        SICompactionState state = new SICompactionState(mock(TxnSupplier.class), 16, context, null, watermark);
+        List<Cell> results = new ArrayList<>();
+        state.mutate(cells, txns, results, false);
+        return results;
+    }
+
+    private void write(long txnId, long commitTs, int... columns) throws IOException {
+        BitSet set = new BitSet();
+        for (int c : columns) {
+            set.set(c);
+        }
+        EntryEncoder encoder = EntryEncoder.create((KryoPool) null, columns.length, set, new BitSet(), new BitSet(), new BitSet());
+        for (int c : columns) {
+            encoder.getEntryEncoder().encodeNext(c);
+        }
+        cells.add(new KeyValue(ROW, SIConstants.DEFAULT_FAMILY_BYTES, SIConstants.PACKED_COLUMN_BYTES, txnId, encoder.encode()));
+        txns.add(new CommittedTxn(txnId, commitTs));
+    }
+
+    private static boolean hasData(List<Cell> results, long ts) {
+        return has(results, ts, SIConstants.PACKED_COLUMN_BYTES);
+    }
+
+    private static boolean hasCommit(List<Cell> results, long ts) {
+        return has(results, ts, SIConstants.SNAPSHOT_ISOLATION_COMMIT_TIMESTAMP_COLUMN_BYTES);
+    }
+
+    private static boolean has(List<Cell> results, long ts, byte[] qualifier) {
+        for (Cell c : results) {
+            if (c.getTimestamp() == ts && Bytes.equals(c.getQualifierArray(), c.getQualifierOffset(), c.getQualifierLength(),
+                    qualifier, 0, qualifier.length))
+                return true;
+        }
+        return false;
+    }
+}
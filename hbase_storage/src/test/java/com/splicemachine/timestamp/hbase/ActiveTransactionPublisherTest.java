@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.timestamp.hbase;
+
+import com.splicemachine.access.HConfiguration;
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.si.impl.ActiveTransactionTracker;
+import com.splicemachine.si.impl.store.TestingTimestampSource;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.zookeeper.RecoverableZooKeeper;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.Arrays;
+
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.*;
+
+public class ActiveTransactionPublisherTest{
+    private static final String ROOT="/splice";
+    private static final String ACTIVE=ROOT+HConfiguration.ACTIVE_TRANSACTIONS_PATH;
+    private static final String MINIMUM=ROOT+HConfiguration.MINIMUM_ACTIVE_PATH;
+
+    private RecoverableZooKeeper rzk;
+    private ActiveTransactionTracker tracker;
+    private ActiveTransactionPublisher publisher;
+
+    @Before
+    public void setUp() throws Exception{
+        rzk=mock(RecoverableZooKeeper.class);
+        when(rzk.exists(ACTIVE,false)).thenReturn(new Stat());
+        when(rzk.create(eq(ACTIVE+"/server-"),any(byte[].class),anyList(),eq(CreateMode.EPHEMERAL_SEQUENTIAL)))
+                .thenReturn(ACTIVE+"/server-0000000001",ACTIVE+"/server-0000000002");
+        tracker=new ActiveTransactionTracker();
+        publisher=new ActiveTransactionPublisher(rzk,ROOT,tracker,new TestingTimestampSource());
+    }
+
+    @Test
+    public void registersAnEmptyNodeBeforePublishing() throws Exception{
+        publisher.register();
+        verify(rzk).create(eq(ACTIVE+"/server-"),aryEq(new byte[]{}),anyList(),eq(CreateMode.EPHEMERAL_SEQUENTIAL));
+
+        publisher.publish();
+        verify(rzk).setData(ACTIVE+"/server-0000000001",Bytes.toBytes(0x100L),-1);
+    }
+
+    @Test
+    public void lostNodeRollsBackActiveTransactionsOnceRegisteredAgain() throws Exception{
+        Txn txn=mock(Txn.class);
+        when(txn.getTxnId()).thenReturn(0x10L);
+        when(txn.getBeginTimestamp()).thenReturn(0x10L);
+        when(txn.getState()).thenReturn(Txn.State.ACTIVE);
+        tracker.register(txn);
+        publisher.register();
+        when(rzk.setData(eq(ACTIVE+"/server-0000000001"),any(byte[].class),eq(-1))).thenThrow(new KeeperException.NoNodeException());
+
+        publisher.publish();
+        InOrder order=inOrder(rzk,txn);
+        order.verify(rzk,times(2)).create(eq(ACTIVE+"/server-"),aryEq(new byte[]{}),anyList(),eq(CreateMode.EPHEMERAL_SEQUENTIAL));
+        order.verify(txn).rollback();
+        order.verify(rzk).setData(ACTIVE+"/server-0000000002",Bytes.toBytes(0x200L),-1);
+    }
+
+    @Test
+    public void createsTheMinimumOnFirstStart() throws Exception{
+        servers(Bytes.toBytes(500L),Bytes.toBytes(300L));
+        when(rzk.getData(eq(MINIMUM),eq(false),any(Stat.class))).thenThrow(new KeeperException.NoNodeException());
+
+        publisher.advanceMinimum();
+        verify(rzk).create(eq(MINIMUM),aryEq(Bytes.toBytes(300L)),anyList(),eq(CreateMode.PERSISTENT));
+    }
+
+    @Test
+    public void advancesMinimumToTheOldestPublishedTransaction() throws Exception{
+        servers(Bytes.toBytes(500L),Bytes.toBytes(300L));
+        minimum(Bytes.toBytes(100L),7);
+
+        publisher.advanceMinimum();
+        verify(rzk).setData(MINIMUM,Bytes.toBytes(300L),7);
+    }
+
+    @Test
+    public void serverWhichHasNotPublishedHoldsTheMinimum() throws Exception{
+        servers(Bytes.toBytes(500L),new byte[]{});
+        minimum(Bytes.toBytes(100L),7);
+
+        publisher.advanceMinimum();
+        verify(rzk,never()).setData(eq(MINIMUM),any(byte[].class),anyInt());
+    }
+
+    @Test
+    public void minimumNeverMovesBackwards() throws Exception{
+        servers(Bytes.toBytes(500L),Bytes.toBytes(300L));
+        minimum(Bytes.toBytes(400L),7);
+
+        publisher.advanceMinimum();
+        verify(rzk,never()).setData(eq(MINIMUM),any(byte[].class),anyInt());
+    }
+
+    @Test
+    public void serversWhichWentAwayAreIgnored() throws Exception{
+        servers(Bytes.toBytes(500L),Bytes.toBytes(300L));
+        when(rzk.getData(eq(ACTIVE+"/server-1"),eq(false),(Stat)isNull())).thenThrow(new KeeperException.NoNodeException());
+        minimum(new byte[]{},0);
+
+        publisher.advanceMinimum();
+        verify(rzk).setData(MINIMUM,Bytes.toBytes(500L),0);
+    }
+
+    @Test
+    public void concurrentAdvanceIsTolerated() throws Exception{
+        servers(Bytes.toBytes(500L));
+        minimum(Bytes.toBytes(100L),7);
+        when(rzk.setData(MINIMUM,Bytes.toBytes(500L),7)).thenThrow(new KeeperException.BadVersionException());
+
+        publisher.advanceMinimum();
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private void servers(byte[]... published) throws Exception{
+        String[] children=new String[published.length];
+        for(int i=0;i<published.length;i++){
+            children[i]="server-"+i;
+            when(rzk.getData(eq(ACTIVE+"/"+children[i]),eq(false),(Stat)isNull())).thenReturn(published[i]);
+        }
+        when(rzk.getChildren(ACTIVE,false)).thenReturn(Arrays.asList(children));
+    }
+
+    private void minimum(final byte[] data,final int version) throws Exception{
+        when(rzk.getData(eq(MINIMUM),eq(false),any(Stat.class))).thenAnswer(new Answer<byte[]>(){
+            @Override
+            public byte[] answer(InvocationOnMock invocation) throws Throwable{
+                ((Stat)invocation.getArguments()[2]).setVersion(version);
+                return data;
+            }
+        });
+    }
+}
@@ -24,6 +24,7 @@ import com.splicemachine.derby.impl.sql.execute.operations.SpliceBaseOperation;
 import com.splicemachine.derby.stream.control.ControlDataSetProcessor;
 import com.splicemachine.derby.stream.iapi.DataSetProcessor;
 import com.splicemachine.derby.stream.iapi.DistributedDataSetProcessor;
+import com.splicemachine.derby.stream.iapi.PartialAggregationClient;
 import com.splicemachine.derby.stream.iapi.RemoteQueryClient;
 import com.splicemachine.derby.stream.utils.ForwardingDataSetProcessor;
 import com.splicemachine.si.impl.driver.SIDriver;
@@ -109,6 +110,11 @@ public class ControlOnlyDataSetProcessorFactory implements DataSetProcessorFacto
         };
     }
 
+    @Override
+    public PartialAggregationClient getPartialAggregationClient() {
+        return null; //there are no remote partitions to push aggregations to
+    }
+
     @Override
     public ControlExecutionLimiter getControlExecutionLimiter(Activation activation) {
         return ControlExecutionLimiter.NO_OP;
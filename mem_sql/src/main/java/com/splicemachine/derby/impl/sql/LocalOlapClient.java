@@ -72,6 +72,7 @@ public class LocalOlapClient implements OlapClient{
     /*private helper stuff*/
     private static class Status implements OlapStatus{
         private OlapResult result;
+        private volatile String progress;
 
         @Override
         public State checkState(){
@@ -108,6 +109,16 @@ public class LocalOlapClient implements OlapClient{
             return true;
         }
 
+        @Override
+        public void setProgress(String progress){
+            this.progress = progress;
+        }
+
+        @Override
+        public String getProgress(){
+            return progress;
+        }
+
         @Override
         public boolean isRunning(){
             return result==null;
@@ -14,7 +14,11 @@
 
 package com.splicemachine.storage;
 
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.utils.Pair;
+
 import java.io.IOException;
+import java.util.List;
 
 /**
  * @author Scott Fines
@@ -50,4 +54,37 @@ public class MFilterFactory implements DataFilterFactory{
             }
         };
     }
+
+    @Override
+    public DataFilter multiRowRangeFilter(final List<Pair<byte[],byte[]>> ranges){
+        return new DataFilter(){
+            @Override
+            public ReturnCode filterCell(DataCell keyValue) throws IOException{
+                byte[] key = keyValue.key();
+                int low = 0;
+                int high = ranges.size()-1;
+                while(low<=high){
+                    int mid = (low+high)>>>1;
+                    Pair<byte[],byte[]> range = ranges.get(mid);
+                    if(Bytes.BASE_COMPARATOR.compare(key,range.getFirst())<0)
+                        high = mid-1;
+                    else if(range.getSecond().length>0 && Bytes.BASE_COMPARATOR.compare(key,range.getSecond())>=0)
+                        low = mid+1;
+                    else
+                        return ReturnCode.INCLUDE;
+                }
+                return ReturnCode.NEXT_ROW;
+            }
+
+            @Override
+            public boolean filterRow() throws IOException{
+                return false;
+            }
+
+            @Override
+            public void reset() throws IOException{
+
+            }
+        };
+    }
 }
@@ -199,5 +199,10 @@ public class MPartitionFactory implements PartitionFactory<Object>{
         public List<byte[]> hbaseOperation(String table, String operation, byte[] bytes) throws IOException {
             throw new UnsupportedOperationException("Operation not supported in mem storage engine");
         }
+
+        @Override
+        public void setTableProperty(String tableName, String key, String value) throws IOException {
+            // the memory engine does not compact, so no table properties apply
+        }
     }
 }
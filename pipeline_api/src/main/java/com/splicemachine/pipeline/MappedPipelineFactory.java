@@ -16,6 +16,7 @@ package com.splicemachine.pipeline;
 
 import com.splicemachine.pipeline.api.WritePipelineFactory;
 import org.apache.log4j.Logger;
+import java.util.Collection;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -49,4 +50,9 @@ public class MappedPipelineFactory implements WritePipelineFactory{
             LOG.debug("De-registering region "+ name);
         map.remove(name);
     }
+
+    @Override
+    public Collection<PartitionWritePipeline> getPipelines(){
+        return map.values();
+    }
 }
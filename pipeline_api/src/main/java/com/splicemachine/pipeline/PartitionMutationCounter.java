@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline;
+
+import com.splicemachine.kvpair.KVPair;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the rows inserted, updated and deleted through the write pipeline of a single partition.
+ *
+ * The counts are kept since the partition was opened on this server. Consumers remember the
+ * total at the time statistics were last collected ({@link #markCollected(long)}), so the number of
+ * changes since then is available without ever resetting the counters.
+ */
+public class PartitionMutationCounter{
+    private final LongAdder inserts=new LongAdder();
+    private final LongAdder updates=new LongAdder();
+    private final LongAdder deletes=new LongAdder();
+    private volatile long collectedMutations;
+    private volatile long collectedTime;
+
+    public PartitionMutationCounter(){
+        this.collectedTime=System.currentTimeMillis();
+    }
+
+    public void record(KVPair.Type type){
+        switch(type){
+            case INSERT:
+            case UPSERT:
+                inserts.increment();
+                break;
+            case UPDATE:
+                updates.increment();
+                break;
+            case DELETE:
+                deletes.increment();
+                break;
+            default:
+                // EMPTY_COLUMN and CANCEL don't change the data
+        }
+    }
+
+    public long getInserts(){ return inserts.sum(); }
+
+    public long getUpdates(){ return updates.sum(); }
+
+    public long getDeletes(){ return deletes.sum(); }
+
+    public long getMutations(){
+        return inserts.sum()+updates.sum()+deletes.sum();
+    }
+
+    /**
+     * @return the number of rows changed since statistics were last collected for the partition
+     * (or since the partition was opened on this server)
+     */
+    public long getMutationsSinceCollection(){
+        return getMutations()-collectedMutations;
+    }
+
+    /**
+     * @return the time (in milliseconds) the statistics were last collected, or the partition was opened
+     */
+    public long getCollectedTime(){
+        return collectedTime;
+    }
+
+    /**
+     * Record that statistics were collected at {@code time}; changes up to now are reflected in them.
+     */
+    public void markCollected(long time){
+        collectedMutations=getMutations();
+        collectedTime=time;
+    }
+}
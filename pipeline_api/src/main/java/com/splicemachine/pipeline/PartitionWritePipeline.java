@@ -55,6 +55,7 @@ public class PartitionWritePipeline{
     private final PipelineMeter pipelineMeters;
     private final ServerControl rce;
     private final PipelineExceptionFactory exceptionFactory;
+    private final PartitionMutationCounter mutationCounter=new PartitionMutationCounter();
 
     public PartitionWritePipeline(ServerControl rce,
                                   Partition region,
@@ -107,6 +108,7 @@ public class PartitionWritePipeline{
             return INDEX_NOT_SETUP;
         }
         Collection<KVPair> kvPairs=toWrite.getMutations();
+        context.baseRowSnapshot().setBatch(kvPairs);
         for(KVPair kvPair : kvPairs){
             context.sendUpstream(kvPair);
         }
@@ -147,10 +149,12 @@ public class PartitionWritePipeline{
                     /* in case a kvPair is of CANCEL type, it may be ignored and no result is returned.
                      * Mark the result as SUCCESS
                      * */
-                    result=new WriteResult(Code.SUCCESS);
+                    result=WriteResult.success();
                 }
                 if(!result.isSuccess())
                     failed++;
+                else
+                    mutationCounter.record(kvPair.getType());
                 response.addResult(i,result);
                 i++;
             }
@@ -185,4 +189,15 @@ public class PartitionWritePipeline{
     public WriteContextFactory<TransactionalRegion> getContextFactory(){
         return ctxFactory;
     }
+
+    public Partition getPartition(){
+        return region;
+    }
+
+    /**
+     * @return the number of rows written to this partition through the pipeline, by mutation type
+     */
+    public PartitionMutationCounter getMutationCounter(){
+        return mutationCounter;
+    }
 }
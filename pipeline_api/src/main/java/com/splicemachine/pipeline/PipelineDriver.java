@@ -22,8 +22,16 @@ import javax.management.MalformedObjectNameException;
 import javax.management.NotCompliantMBeanException;
 import javax.management.ObjectName;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.apache.log4j.Logger;
+import org.spark_project.guava.util.concurrent.ThreadFactoryBuilder;
+
 import com.splicemachine.access.api.PartitionFactory;
 import com.splicemachine.access.api.SConfiguration;
 import com.splicemachine.concurrent.Clock;
@@ -44,6 +52,7 @@ import com.splicemachine.pipeline.utils.PipelineCompressor;
  *         Date: 12/23/15
  */
 public class PipelineDriver{
+    private static final Logger LOG=Logger.getLogger(PipelineDriver.class);
     private static final int ipcReserved=10;
     private static volatile PipelineDriver INSTANCE;
 
@@ -51,6 +60,7 @@ public class PipelineDriver{
     private final WritePipelineFactory writePipelineFactory;
     private final PipelineMeter pipelineMeter;
     private final PipelineWriter pipelineWriter;
+    private final ThreadPoolExecutor partitionApplyPool;
     private final PipelineCompressor compressor;
     private final ActiveWriteHandlers handlerMeter = new ActiveWriteHandlers();
     private final WriteCoordinator writeCoordinator;
@@ -93,7 +103,9 @@ public class PipelineDriver{
                 config.getMaxIndependentWriteThreads(),
                 config.getMaxIndependentWrites(),
                 config.getMaxDependentWrites());
-        this.pipelineWriter = new PipelineWriter(pef, writePipelineFactory,writeControl,pipelineMeter);
+        this.partitionApplyPool = createPartitionApplyPool(config);
+        this.pipelineWriter = new PipelineWriter(pef, writePipelineFactory,writeControl,pipelineMeter,partitionApplyPool);
+        this.pipelineWriter.setBackpressureHintThreshold(config.getBackpressureHintThreshold());
         channelFactory.setWriter(pipelineWriter);
         channelFactory.setPipeline(writePipelineFactory);
         try{
@@ -104,6 +116,29 @@ public class PipelineDriver{
         }
     }
 
+    /**
+     * Creates the bounded pool used to apply the per-partition writes of a single BulkWrites request
+     * concurrently. There is no queue: when all threads are busy, the RPC handler thread applies the
+     * write itself, so the pool can never hold more work than the write control has admitted.
+     */
+    static ThreadPoolExecutor createPartitionApplyPool(SConfiguration config){
+        int maxThreads = config.getPartitionApplyThreads();
+        if(maxThreads<=0) return null;
+        ThreadFactory factory = new ThreadFactoryBuilder()
+                .setNameFormat("partitionApply-%d")
+                .setDaemon(true)
+                .setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler(){
+                    @Override
+                    public void uncaughtException(Thread t,Throwable e){
+                        LOG.error("["+t.getName()+"]Unexpected error in partition apply pool: ",e);
+                    }
+                }).build();
+        return new ThreadPoolExecutor(0,maxThreads,
+                config.getThreadKeepaliveTime(),TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(),factory,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
     public PipelineCompressor compressor(){
         return compressor;
     }
@@ -143,6 +178,10 @@ public class PipelineDriver{
         writePipelineFactory.deregisterPipeline(partitionName);
     }
 
+    public Collection<PartitionWritePipeline> getPipelines(){
+        return writePipelineFactory.getPipelines();
+    }
+
     @MXBean
     @SuppressWarnings("UnusedDeclaration")
     public interface ActiveWriteHandlersIface{
@@ -164,6 +203,13 @@ public class PipelineDriver{
         double get5MThroughput();
         double get15MThroughput();
         long getTotalRejected();
+        int getMaxPartitionApplyThreads();
+        void setMaxPartitionApplyThreads(int newMaxPartitionApplyThreads);
+        int getActivePartitionApplyThreads();
+        long getRejectedWriteRequests();
+        long getBackpressureHintsSent();
+        double getBackpressureHintThreshold();
+        void setBackpressureHintThreshold(double newBackpressureHintThreshold);
     }
 
 
@@ -181,6 +227,22 @@ public class PipelineDriver{
         @Override public double get5MThroughput(){ return pipelineMeter.fiveMThroughput(); }
         @Override public double get15MThroughput(){ return pipelineMeter.fifteenMThroughput(); }
         @Override public long getTotalRejected(){ return pipelineMeter.rejectedCount(); }
+        @Override public int getMaxPartitionApplyThreads(){ return partitionApplyPool==null?0:partitionApplyPool.getMaximumPoolSize(); }
+        @Override public int getActivePartitionApplyThreads(){ return partitionApplyPool==null?0:partitionApplyPool.getActiveCount(); }
+        @Override public long getRejectedWriteRequests(){ return pipelineWriter.getRejectedCount(); }
+        @Override public long getBackpressureHintsSent(){ return pipelineWriter.getBackpressureHintCount(); }
+        @Override public double getBackpressureHintThreshold(){ return pipelineWriter.getBackpressureHintThreshold(); }
+
+        @Override
+        public void setBackpressureHintThreshold(double newBackpressureHintThreshold){
+            pipelineWriter.setBackpressureHintThreshold(newBackpressureHintThreshold);
+        }
+
+        @Override
+        public void setMaxPartitionApplyThreads(int newMaxPartitionApplyThreads){
+            if(partitionApplyPool!=null && newMaxPartitionApplyThreads>0)
+                partitionApplyPool.setMaximumPoolSize(newMaxPartitionApplyThreads);
+        }
 
         @Override
         public void setMaxIndependentWriteThreads(int newMaxIndependentWriteThreads){
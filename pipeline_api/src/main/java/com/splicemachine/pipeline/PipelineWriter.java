@@ -23,6 +23,7 @@ import com.splicemachine.pipeline.api.PipelineMeter;
 import com.splicemachine.pipeline.api.WritePipelineFactory;
 import com.splicemachine.pipeline.client.*;
 import com.splicemachine.pipeline.exception.IndexNotSetUpException;
+import com.splicemachine.pipeline.traffic.BackpressureHint;
 import com.splicemachine.pipeline.traffic.SpliceWriteControl;
 import com.splicemachine.pipeline.writehandler.SharedCallBufferFactory;
 import com.splicemachine.utils.Pair;
@@ -33,6 +34,12 @@ import javax.annotation.Nonnull;
 import javax.annotation.concurrent.ThreadSafe;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -44,20 +51,40 @@ public class PipelineWriter{
     private static final Logger LOG =Logger.getLogger(PipelineWriter.class);
     private final SpliceWriteControl writeControl;
     private final AtomicLong rejectedCount = new AtomicLong(0l);
+    private final AtomicLong backpressureHintCount = new AtomicLong(0l);
+    /*
+     * The write control utilization above which successful writes carry a BackpressureHint back to the client.
+     * Rejected writes always carry one.
+     */
+    private volatile double backpressureHintThreshold = Double.MAX_VALUE;
 
     private volatile WriteCoordinator writeCoordinator;
     private final PipelineExceptionFactory exceptionFactory;
     private final WritePipelineFactory writePipelineFactory;
     private final PipelineMeter pipelineMeter;
+    /*
+     * Pool used to apply the BulkWrites for different partitions concurrently. May be null, in which case
+     * all writes are applied serially on the calling (RPC handler) thread.
+     */
+    private final ExecutorService partitionApplyPool;
 
     public PipelineWriter(PipelineExceptionFactory pipelineExceptionFactory,
                           WritePipelineFactory writePipelineFactory,
                           SpliceWriteControl writeControl,
                           PipelineMeter pipelineMeter){
+        this(pipelineExceptionFactory,writePipelineFactory,writeControl,pipelineMeter,null);
+    }
+
+    public PipelineWriter(PipelineExceptionFactory pipelineExceptionFactory,
+                          WritePipelineFactory writePipelineFactory,
+                          SpliceWriteControl writeControl,
+                          PipelineMeter pipelineMeter,
+                          ExecutorService partitionApplyPool){
         this.writeControl = writeControl;
         this.exceptionFactory = pipelineExceptionFactory;
         this.writePipelineFactory = writePipelineFactory;
         this.pipelineMeter = pipelineMeter;
+        this.partitionApplyPool = partitionApplyPool;
     }
 
 
@@ -113,7 +140,8 @@ public class PipelineWriter{
                 LOG.trace("Rejecting "+numBulkWrites+" rows in "+ bws.size()+"writes because the pipeline is too busy");
             rejectAll(bws,result, Code.PIPELINE_TOO_BUSY,null);
             rejectedCount.addAndGet(numBulkWrites);
-            return new BulkWritesResult(result);
+            backpressureHintCount.incrementAndGet();
+            return new BulkWritesResult(result,BackpressureHint.compute(writeControl,dependent,true,pipelineMeter.oneMThroughput()));
         }
         try {
             if (conglomId != -1) {
@@ -121,7 +149,20 @@ public class PipelineWriter{
                 int[] privileges = typesToPrivileges(bulkWrites.getTypes());
                 AclCheckerService.getService().checkPermission(bulkWrites.getToken(), conglomId, privileges);
             }
-            return performWrite(bulkWrites,bws,result,indexWriteBufferFactory);
+            BulkWritesResult writesResult = performWrite(bulkWrites,bws,result,indexWriteBufferFactory);
+            /*
+             * Compute the hint while we still hold our permit, so that the client sees the load
+             * including its own write.
+             */
+            double threshold = backpressureHintThreshold;
+            if(threshold<=1d){
+                BackpressureHint hint=BackpressureHint.compute(writeControl,dependent,false,pipelineMeter.oneMThroughput());
+                if(hint.getUtilization()>=threshold){
+                    writesResult.setBackpressureHint(hint);
+                    backpressureHintCount.incrementAndGet();
+                }
+            }
+            return writesResult;
         } catch (StandardException e) {
             throw new IOException(e);
         } finally {
@@ -142,6 +183,31 @@ public class PipelineWriter{
         // Add the writes to the writePairMap, which helps link the BulkWrites to their result and write pipeline objects.
         Map<BulkWrite, Pair<BulkWriteResult, PartitionWritePipeline>> writePairMap = getBulkWritePairMap(bws);
 
+        if(partitionApplyPool!=null && countWritable(writePairMap)>1){
+            applyConcurrently(bulkWrites,writePairMap);
+        }else{
+            applySerially(bulkWrites,writePairMap,indexWriteBufferFactory);
+        }
+
+            /*
+             * Collect the overall results.
+             *
+             * It is IMPERATIVE that we collect results in the *same iteration order*
+             * as we received the writes, otherwise we won't be interpreting the correct
+             * results on the other side; the end result will be extraneous errors, but only at scale,
+             * so you won't necessarily see the errors in the ITs and you'll think everything is fine,
+             * but it's not. I assure you.
+             */
+        for(BulkWrite bw:bws){
+            Pair<BulkWriteResult,PartitionWritePipeline> results = writePairMap.get(bw);
+            result.add(results.getFirst());
+        }
+        return new BulkWritesResult(result);
+    }
+
+    private void applySerially(BulkWrites bulkWrites,
+                               Map<BulkWrite, Pair<BulkWriteResult, PartitionWritePipeline>> writePairMap,
+                               SharedCallBufferFactory indexWriteBufferFactory) throws IOException{
         //
         // Submit the bulk writes for which we found a PartitionWritePipeline.
         //
@@ -187,27 +253,124 @@ public class PipelineWriter{
                 pipelineMeter.mark(bulkWrite.getSize()-finishResult.getFailedRows().size(),finishResult.getFailedRows().size());
             }
         }
+    }
 
-            /*
-             * Collect the overall results.
-             *
-             * It is IMPERATIVE that we collect results in the *same iteration order*
-             * as we received the writes, otherwise we won't be interpreting the correct
-             * results on the other side; the end result will be extraneous errors, but only at scale,
-             * so you won't necessarily see the errors in the ITs and you'll think everything is fine,
-             * but it's not. I assure you.
-             */
-        for(BulkWrite bw:bws){
-            Pair<BulkWriteResult,PartitionWritePipeline> results = writePairMap.get(bw);
-            result.add(results.getFirst());
+    /**
+     * Apply each partition's BulkWrite on the partition apply pool, and wait for all of them to complete before
+     * returning.
+     *
+     * As when applying serially, every partition is submitted before any of them is finished, and all of them share
+     * one SharedCallBufferFactory. The index writes of every partition are therefore buffered together, and sent
+     * by the first partition to finish rather than one partition at a time. The shared factory is used by several
+     * partitions at once, so it is created thread safe. We always wait for every task to finish (even when one fails
+     * or we are interrupted), because the caller releases the write control permits as soon as we return.
+     */
+    private void applyConcurrently(final BulkWrites bulkWrites,
+                                   Map<BulkWrite, Pair<BulkWriteResult, PartitionWritePipeline>> writePairMap) throws IOException{
+        SharedCallBufferFactory indexWriteBufferFactory = new SharedCallBufferFactory(writeCoordinator,true);
+        List<PartitionApplyTask> tasks = new ArrayList<>(writePairMap.size());
+        for (Map.Entry<BulkWrite, Pair<BulkWriteResult, PartitionWritePipeline>> entry : writePairMap.entrySet()) {
+            Pair<BulkWriteResult, PartitionWritePipeline> pair = entry.getValue();
+            if(pair.getSecond()!=null)
+                tasks.add(new PartitionApplyTask(bulkWrites,entry.getKey(),pair,indexWriteBufferFactory));
         }
-        return new BulkWritesResult(result);
+
+        Throwable error = applyOnPool(tasks,false);
+        List<PartitionApplyTask> submitted = new ArrayList<>(tasks.size());
+        for(PartitionApplyTask task:tasks){
+            if(task.isSubmitted())
+                submitted.add(task);
+        }
+        Throwable finishError = applyOnPool(submitted,true);
+        if(error==null)
+            error=finishError;
+        if(error!=null){
+            if(error instanceof IOException) throw (IOException)error;
+            if(error instanceof RuntimeException) throw (RuntimeException)error;
+            if(error instanceof Error) throw (Error)error;
+            throw new IOException(error);
+        }
+    }
+
+    /**
+     * Run one phase (submit or finish) of each task on the partition apply pool, and wait for all of them.
+     *
+     * @return the first error thrown by a task, or null if all of them succeeded
+     */
+    private Throwable applyOnPool(List<PartitionApplyTask> tasks,final boolean finish){
+        CompletionService<Void> completionService = new ExecutorCompletionService<>(partitionApplyPool);
+        for(final PartitionApplyTask task:tasks){
+            completionService.submit(new Callable<Void>(){
+                @Override
+                public Void call() throws Exception{
+                    if(finish)
+                        task.finish();
+                    else
+                        task.submit();
+                    return null;
+                }
+            });
+        }
+
+        Throwable error = null;
+        boolean interrupted = false;
+        try{
+            for(int i=0;i<tasks.size();i++){
+                Future<Void> completed;
+                while(true){
+                    try{
+                        completed=completionService.take();
+                        break;
+                    }catch(InterruptedException ie){
+                        interrupted=true;
+                    }
+                }
+                try{
+                    completed.get();
+                }catch(ExecutionException ee){
+                    if(error==null)
+                        error=ee.getCause();
+                }catch(InterruptedException ie){
+                    //can't happen, the future is already complete
+                    interrupted=true;
+                }
+            }
+        }finally{
+            if(interrupted)
+                Thread.currentThread().interrupt();
+        }
+        return error;
+    }
+
+    private static int countWritable(Map<BulkWrite, Pair<BulkWriteResult, PartitionWritePipeline>> writePairMap){
+        int count = 0;
+        for(Pair<BulkWriteResult, PartitionWritePipeline> pair:writePairMap.values()){
+            if(pair.getSecond()!=null)
+                count++;
+        }
+        return count;
     }
 
     public void setWriteCoordinator(WriteCoordinator writeCoordinator){
         this.writeCoordinator = writeCoordinator;
     }
 
+    public void setBackpressureHintThreshold(double backpressureHintThreshold){
+        this.backpressureHintThreshold = backpressureHintThreshold;
+    }
+
+    public double getBackpressureHintThreshold(){
+        return backpressureHintThreshold;
+    }
+
+    public long getBackpressureHintCount(){
+        return backpressureHintCount.get();
+    }
+
+    public long getRejectedCount(){
+        return rejectedCount.get();
+    }
+
     public WriteCoordinator getWriteCoordinator(){
         return writeCoordinator;
     }
@@ -292,4 +455,39 @@ public class PipelineWriter{
         return Ints.toArray(privileges);
     }
 
+    private class PartitionApplyTask{
+        private final BulkWrites bulkWrites;
+        private final BulkWrite bulkWrite;
+        private final Pair<BulkWriteResult, PartitionWritePipeline> pair;
+        private final SharedCallBufferFactory indexWriteBufferFactory;
+        private BulkWriteResult submitResult;
+
+        PartitionApplyTask(BulkWrites bulkWrites,BulkWrite bulkWrite,Pair<BulkWriteResult, PartitionWritePipeline> pair,
+                           SharedCallBufferFactory indexWriteBufferFactory){
+            this.bulkWrites=bulkWrites;
+            this.bulkWrite=bulkWrite;
+            this.pair=pair;
+            this.indexWriteBufferFactory=indexWriteBufferFactory;
+        }
+
+        void submit() throws IOException{
+            PartitionWritePipeline writePipeline = pair.getSecond();
+            submitResult = writePipeline.submitBulkWrite(bulkWrites.getTxn(),bulkWrites.getToken(),bulkWrite,indexWriteBufferFactory,writePipeline.getRegionCoprocessorEnvironment());
+            if(LOG.isTraceEnabled())
+                LOG.trace("Submission of "+bulkWrite.getSize()+" rows to region "+ bulkWrite.getEncodedStringName()+" has submission result "+ submitResult.getGlobalResult());
+        }
+
+        boolean isSubmitted(){
+            return submitResult!=null;
+        }
+
+        void finish() throws IOException{
+            BulkWriteResult finishResult = pair.getSecond().finishWrite(submitResult,bulkWrite);
+            if(LOG.isTraceEnabled())
+                LOG.trace("Finish of "+bulkWrite.getSize()+" rows to region "+ bulkWrite.getEncodedStringName()+" has finish result "+ finishResult.getGlobalResult());
+            pair.setFirst(finishResult);
+            pipelineMeter.mark(bulkWrite.getSize()-finishResult.getFailedRows().size(),finishResult.getFailedRows().size());
+        }
+    }
+
 }
@@ -44,4 +44,26 @@ public interface WriteCoordinatorStatus {
     void setMaxFlushesPerRegion(int newMaxFlushesPerRegion);
 
     long getSynchronousFlushCount();
+
+    boolean isAdaptiveBuffering();
+
+    /**
+     * @return the average number of entries buffered per region before flushing, across all regions
+     * which adaptive buffers are currently tracking.
+     */
+    int getAverageEffectiveBufferEntries();
+
+    long getAdaptiveTrackedRegions();
+
+    long getAdaptiveBufferIncreases();
+
+    long getAdaptiveBufferDecreases();
+
+    int getMinBufferEntries();
+
+    void setMinBufferEntries(int newMinBufferEntries);
+
+    long getBufferTargetLatency();
+
+    void setBufferTargetLatency(long newTargetLatencyMs);
 }
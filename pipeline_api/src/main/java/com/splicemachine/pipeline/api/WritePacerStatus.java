@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.pipeline.api;
+
+import javax.management.MXBean;
+
+/**
+ * JMX view of how writers are pacing themselves against the backpressure hints sent by region servers.
+ */
+@MXBean
+public interface WritePacerStatus{
+
+    boolean isPacingEnabled();
+
+    void setPacingEnabled(boolean enabled);
+
+    /**
+     * @return the number of servers which writers are currently holding off from
+     */
+    int getPacedServers();
+
+    /**
+     * @return the total number of backpressure hints received from servers
+     */
+    long getHintsReceived();
+
+    /**
+     * @return the number of hints received which indicated that a write was rejected
+     */
+    long getRejectionHintsReceived();
+
+    /**
+     * @return the total number of writes which were delayed because of a hint
+     */
+    long getPacedWrites();
+
+    /**
+     * @return the total time (in milliseconds) writes have been delayed because of hints
+     */
+    long getTotalPacedTimeMs();
+}
@@ -16,6 +16,8 @@ package com.splicemachine.pipeline.api;
 
 import com.splicemachine.pipeline.PartitionWritePipeline;
 
+import java.util.Collection;
+
 /**
  * @author Scott Fines
  *         Date: 12/23/15
@@ -27,4 +29,9 @@ public interface WritePipelineFactory{
     void registerPipeline(String name,PartitionWritePipeline writePipeline);
 
     void deregisterPipeline(String partitionName);
+
+    /**
+     * @return the pipelines of all partitions currently registered on this server
+     */
+    Collection<PartitionWritePipeline> getPipelines();
 }
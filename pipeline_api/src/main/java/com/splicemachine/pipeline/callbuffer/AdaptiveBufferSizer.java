@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline.callbuffer;
+
+import org.spark_project.guava.cache.Cache;
+import org.spark_project.guava.cache.CacheBuilder;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks an adaptive batch size for each destination partition, shared by all the write buffers in this JVM.
+ *
+ * The batch size follows an AIMD policy: every flush which completes within the target latency grows the
+ * partition's batch size by a fixed step, while a slow flush or a rejection (the partition or its pipeline
+ * was too busy) halves it. Batch sizes are bounded below by the configured minimum and above by the
+ * (JMX-tunable) maximum number of buffer entries.
+ *
+ * Flush latency is measured per BulkWrites RPC, which may carry the writes of several partitions; each partition
+ * is charged the share of that latency which corresponds to its share of the rows in the RPC.
+ */
+@ThreadSafe
+public class AdaptiveBufferSizer{
+    private static final int MAX_TRACKED_PARTITIONS = 10000;
+    private static final int INCREASE_DIVISOR = 10;
+
+    private final Cache<String,PartitionSize> partitionSizes;
+    private final AtomicLong increases = new AtomicLong(0l);
+    private final AtomicLong decreases = new AtomicLong(0l);
+    private volatile int maxEntries;
+    private volatile int minEntries;
+    private volatile long targetLatencyMs;
+
+    public AdaptiveBufferSizer(int minEntries,int maxEntries,long targetLatencyMs){
+        this.minEntries = Math.max(1,Math.min(minEntries,maxEntries));
+        this.maxEntries = maxEntries;
+        this.targetLatencyMs = targetLatencyMs;
+        this.partitionSizes = CacheBuilder.newBuilder()
+                .maximumSize(MAX_TRACKED_PARTITIONS)
+                .expireAfterAccess(10,TimeUnit.MINUTES)
+                .build();
+    }
+
+    /**
+     * @param partitionName the encoded name of the destination partition
+     * @return the number of entries which should be buffered for the partition before flushing
+     */
+    public int targetEntries(String partitionName){
+        PartitionSize size = partitionSizes.getIfPresent(partitionName);
+        if(size==null) return maxEntries;
+        return Math.min(size.entries.get(),maxEntries);
+    }
+
+    /**
+     * @param partitionName the encoded name of the destination partition
+     * @param bufferedEntries the number of entries currently buffered for the partition
+     * @return true if the partition's buffer should be flushed now
+     */
+    public boolean shouldFlush(String partitionName,int bufferedEntries){
+        return bufferedEntries>0 && bufferedEntries>=targetEntries(partitionName);
+    }
+
+    /**
+     * @param partitionName the encoded name of the destination partition
+     * @param latencyMs the share of the flush latency attributable to this partition
+     */
+    public void flushSucceeded(String partitionName,long latencyMs){
+        if(partitionName==null) return;
+        PartitionSize size = sizeFor(partitionName);
+        if(latencyMs<=targetLatencyMs)
+            increase(size);
+        else
+            decrease(size);
+    }
+
+    public void flushRejected(String partitionName){
+        if(partitionName==null) return;
+        decrease(sizeFor(partitionName));
+    }
+
+    /**
+     * A single RPC carries the writes of every partition on the server, so its latency is shared by all of
+     * them; a partition is charged the share corresponding to its rows rather than the whole RPC.
+     *
+     * @param rpcLatencyMs the latency of the whole RPC
+     * @param partitionRows the number of rows the RPC wrote to the partition
+     * @param totalRows the number of rows in the RPC
+     * @return the latency attributable to the partition
+     */
+    public static long latencyShare(long rpcLatencyMs,int partitionRows,int totalRows){
+        if(totalRows<=0) return rpcLatencyMs;
+        return rpcLatencyMs*partitionRows/totalRows;
+    }
+
+    public long getIncreaseCount(){ return increases.get(); }
+    public long getDecreaseCount(){ return decreases.get(); }
+    public long getTrackedPartitionCount(){ return partitionSizes.size(); }
+    public int getMinEntries(){ return minEntries; }
+    public void setMinEntries(int minEntries){ this.minEntries = Math.max(1,minEntries); }
+    public void setMaxEntries(int maxEntries){ this.maxEntries = maxEntries; }
+    public long getTargetLatency(){ return targetLatencyMs; }
+    public void setTargetLatency(long targetLatencyMs){ this.targetLatencyMs = targetLatencyMs; }
+
+    /**
+     * @return the average batch size currently in effect across all tracked partitions, or the maximum
+     * number of entries if no partition has been written to yet.
+     */
+    public int getAverageTargetEntries(){
+        long total = 0;
+        int count = 0;
+        int max = maxEntries;
+        for(PartitionSize size:partitionSizes.asMap().values()){
+            total+=Math.min(size.entries.get(),max);
+            count++;
+        }
+        return count==0? max : (int)(total/count);
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private PartitionSize sizeFor(String partitionName){
+        try{
+            return partitionSizes.get(partitionName,new Callable<PartitionSize>(){
+                @Override
+                public PartitionSize call() throws Exception{
+                    return new PartitionSize(maxEntries);
+                }
+            });
+        }catch(ExecutionException e){
+            //can't happen, the loader doesn't throw
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void increase(PartitionSize size){
+        int max = maxEntries;
+        int step = Math.max(1,max/INCREASE_DIVISOR);
+        while(true){
+            int current = size.entries.get();
+            if(current>=max) return;
+            if(size.entries.compareAndSet(current,Math.min(max,current+step))){
+                increases.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private void decrease(PartitionSize size){
+        int min = minEntries;
+        while(true){
+            int raw = size.entries.get();
+            int current = Math.min(raw,maxEntries);
+            if(current<=min) return;
+            if(size.entries.compareAndSet(raw,Math.max(min,current/2))){
+                decreases.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private static class PartitionSize{
+        private final AtomicInteger entries;
+
+        PartitionSize(int initialEntries){
+            this.entries = new AtomicInteger(initialEntries);
+        }
+    }
+}
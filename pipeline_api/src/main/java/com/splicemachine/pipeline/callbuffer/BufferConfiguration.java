@@ -39,4 +39,10 @@ public interface BufferConfiguration {
     int getMaxFlushesPerRegion();
 
     void writeRejected();
+
+    /**
+     * @return the sizer to use to adapt the batch size per destination partition, or {@code null} if
+     * the buffer should only flush at the fixed limits above.
+     */
+    AdaptiveBufferSizer getAdaptiveSizer();
 }
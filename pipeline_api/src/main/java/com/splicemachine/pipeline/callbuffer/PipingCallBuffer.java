@@ -114,6 +114,7 @@ public class PipingCallBuffer implements RecordingCallBuffer<KVPair>, Rebuildabl
         if(entry==null) entry = startKeyToRegionCBMap.firstEntry();
         assert entry!=null;
         PartitionBuffer regionCB = entry.getValue().getFirst();
+        PartitionServer regionServer = entry.getValue().getSecond();
         if (LOG.isTraceEnabled())
         	SpliceLogUtils.trace(LOG, "Adding KVPair object (Splice mutation) %s to the call buffer for the region %s",
         			element, regionCB.partition().getName());
@@ -125,12 +126,34 @@ public class PipingCallBuffer implements RecordingCallBuffer<KVPair>, Rebuildabl
             totalElementsAdded++;
             totalBytesAdded +=size;
         }
-        if(writer!=null && (currentHeapSize>=bufferConfiguration.getMaxHeapSize()
-                || currentKVPairSize >= bufferConfiguration.getMaxEntries())) {
-            flushLargestBuffer();
+        if(writer!=null){
+            if(currentHeapSize>=bufferConfiguration.getMaxHeapSize()
+                    || currentKVPairSize >= bufferConfiguration.getMaxEntries()) {
+                flushLargestBuffer();
+            }else{
+                AdaptiveBufferSizer adaptiveSizer = bufferConfiguration.getAdaptiveSizer();
+                if(adaptiveSizer!=null && adaptiveSizer.shouldFlush(regionCB.partition().getName(),
+                        regionCB.getBufferSize())){
+                    flushServerBuffer(serverNameToRegionServerCBMap.get(regionServer));
+                }
+            }
         }
     }
 
+    /**
+     * Flush the buffer for a single server, because one of its regions has reached the batch size
+     * chosen by the adaptive sizer.
+     */
+    private void flushServerBuffer(ServerCallBuffer bufferToFlush) throws Exception {
+        if(bufferToFlush==null) return;
+        currentHeapSize-=bufferToFlush.getHeapSize();
+        currentKVPairSize-=bufferToFlush.getKVPairSize();
+        if (LOG.isDebugEnabled())
+            SpliceLogUtils.debug(LOG, "flushServerBuffer {table=%s, size=%d, rows=%d}",table.getTableName(),bufferToFlush.getHeapSize(),bufferToFlush.getKVPairSize());
+        bufferToFlush.flushBuffer();
+        totalFlushes++;
+    }
+
     private void flushLargestBuffer() throws Exception {
         int maxSize = 0;
         ServerCallBuffer bufferToFlush = null;
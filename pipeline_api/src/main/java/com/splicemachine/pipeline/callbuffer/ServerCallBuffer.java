@@ -162,8 +162,10 @@ class ServerCallBuffer implements CallBuffer<Pair<byte[], PartitionBuffer>> {
             value.clear(); // zero out
         }
         if(bws.isEmpty()) return null;
-        else
-            return new BulkWrites(bws, this.txn, this.buffers.lastKey(),token);
+        BulkWrites writes = new BulkWrites(bws, this.txn, this.buffers.lastKey(),token);
+        if(server!=null)
+            writes.setDestinationServer(server.getHostAndPort());
+        return writes;
     }
 
     public int getHeapSize() {
@@ -20,13 +20,16 @@ import com.splicemachine.access.api.PartitionFactory;
 import com.splicemachine.concurrent.Clock;
 import com.splicemachine.kvpair.KVPair;
 import com.splicemachine.metrics.Counter;
+import com.splicemachine.metrics.LatencyHistograms;
 import com.splicemachine.metrics.MetricFactory;
 import com.splicemachine.metrics.Metrics;
 import com.splicemachine.metrics.Timer;
 import com.splicemachine.pipeline.api.*;
+import com.splicemachine.pipeline.callbuffer.AdaptiveBufferSizer;
 import com.splicemachine.pipeline.callbuffer.PipingCallBuffer;
 import com.splicemachine.pipeline.utils.PipelineUtils;
 import com.splicemachine.pipeline.config.WriteConfiguration;
+import com.splicemachine.pipeline.traffic.BackpressureHint;
 import com.splicemachine.primitives.Bytes;
 import com.splicemachine.si.api.txn.TxnView;
 import com.splicemachine.si.api.txn.WriteConflict;
@@ -76,6 +79,8 @@ public class BulkWriteAction implements Callable<WriteStats>{
     private final Counter partialFailureCounter;
     private final Counter regionTooBusy;
     private final PartitionFactory partitionFactory;
+    private final AdaptiveBufferSizer adaptiveSizer;
+    private final WritePacer pacer;
     private PipingCallBuffer retryPipingCallBuffer=null; // retryCallBuffer
 
 
@@ -88,7 +93,23 @@ public class BulkWriteAction implements Callable<WriteStats>{
                            PipelineExceptionFactory pipelineExceptionFactory,
                            PartitionFactory partitionFactory,
                            Clock clock){
+        this(tableName,writes,writeConfiguration,statusReporter,writerFactory,pipelineExceptionFactory,partitionFactory,clock,null,null);
+    }
+
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP2",justification = "Intentional")
+    public BulkWriteAction(byte[] tableName,
+                           BulkWrites writes,
+                           WriteConfiguration writeConfiguration,
+                           ActionStatusReporter statusReporter,
+                           BulkWriterFactory writerFactory,
+                           PipelineExceptionFactory pipelineExceptionFactory,
+                           PartitionFactory partitionFactory,
+                           Clock clock,
+                           AdaptiveBufferSizer adaptiveSizer,
+                           WritePacer pacer){
         assert writes!=null:"writes passed into BWA are null";
+        this.adaptiveSizer=adaptiveSizer;
+        this.pacer=pacer;
         this.tableName=tableName;
         this.bulkWrites=writes;
         this.writeConfiguration=writeConfiguration;
@@ -123,6 +144,7 @@ public class BulkWriteAction implements Callable<WriteStats>{
         statusReporter.numExecutingFlushes.incrementAndGet();
         reportSize();
         long start=System.currentTimeMillis();
+        long startNanos=System.nanoTime();
         try{
             Timer totalTimer=metricFactory.newTimer();
             totalTimer.startTiming();
@@ -148,6 +170,7 @@ public class BulkWriteAction implements Callable<WriteStats>{
             else
                 return WriteStats.NOOP_WRITE_STATS;
         }finally{
+            LatencyHistograms.PIPELINE_FLUSH.update(System.nanoTime()-startNanos);
             long timeTakenMs=System.currentTimeMillis()-start;
             long numRecords=bulkWrites.numEntries();
             writeConfiguration.writeComplete(timeTakenMs,numRecords);
@@ -223,9 +246,10 @@ public class BulkWriteAction implements Callable<WriteStats>{
 
             /*
              * We need to do an exponential backoff to ensure that our cache has a chance to invalidate, or
-             * simply because we were told to wait a bit by the write pipeline (i.e. we were rejected).
+             * simply because we were told to wait a bit by the write pipeline (i.e. we were rejected). If the
+             * server told us how long to wait, the pacer will hold off the next write for that long instead.
              */
-            if(ctx.shouldSleep()){
+            if(ctx.shouldSleep() && !(ctx.paced && !ctx.refreshCache)){
                 clock.sleep(PipelineUtils.getPauseTime(ctx.attemptCount,10),TimeUnit.MILLISECONDS);
             }if(ctx.directRetry)
                 writesToPerform.add(nextWrite);
@@ -249,13 +273,29 @@ public class BulkWriteAction implements Callable<WriteStats>{
         if(LOG.isTraceEnabled())
             SpliceLogUtils.trace(LOG,"Getting next BulkWrites in loop: id=%d, nextBulkWrites=%s",id,nextWrite);
 
+        String destination=nextWrite.getDestinationServer();
+        if(pacer!=null){
+            long pause=pacer.pauseFor(destination);
+            if(pause>0){
+                if(RETRY_LOG.isTraceEnabled())
+                    SpliceLogUtils.trace(RETRY_LOG,"Pausing %d ms before writing to busy server %s: id=%d",pause,destination,id);
+                clock.sleep(pause,TimeUnit.MILLISECONDS);
+            }
+        }
+
         //used to indicate that the exception was thrown inside the try{} block explicitly, and should just be re-thrown
         boolean thrown = false;
         try{
             BulkWriter writer=writerFactory.newWriter(tableName);
             writeTimer.startTiming();
+            long writeStart=System.currentTimeMillis();
             BulkWritesResult bulkWritesResult=writer.write(nextWrite,ctx.refreshCache);
+            long writeLatency=System.currentTimeMillis()-writeStart;
             writeTimer.stopTiming();
+            if(pacer!=null){
+                BackpressureHint hint=bulkWritesResult.getBackpressureHint();
+                ctx.paced=pacer.hintReceived(destination,hint) && hint.isRejected();
+            }
             Iterator<BulkWrite> bws=nextWrite.getBulkWrites().iterator();
             Collection<BulkWriteResult> results=bulkWritesResult.getBulkWriteResults();
             for(BulkWriteResult bulkWriteResult : results){
@@ -264,6 +304,9 @@ public class BulkWriteAction implements Callable<WriteStats>{
                 switch(globalResponse){
                     case SUCCESS:
                         writtenCounter.add(currentBulkWrite.getSize());
+                        if(adaptiveSizer!=null)
+                            adaptiveSizer.flushSucceeded(currentBulkWrite.getEncodedStringName(),
+                                    AdaptiveBufferSizer.latencyShare(writeLatency,currentBulkWrite.getSize(),nextWrite.numEntries()));
                         break; //success can be ignored
                     case THROW_ERROR:
                         thrown=true;
@@ -287,6 +330,8 @@ public class BulkWriteAction implements Callable<WriteStats>{
                                     id,bulkWriteResult,currentBulkWrite);
                         }
 
+                        if(adaptiveSizer!=null && isBusy(bulkWriteResult))
+                            adaptiveSizer.flushRejected(currentBulkWrite.getEncodedStringName());
                         ctx.addBulkWrites(currentBulkWrite.getMutations());
                         ctx.refreshCache = ctx.refreshCache || bulkWriteResult.getGlobalResult().refreshCache();
                         ctx.sleep=true; //always sleep due to rejection, even if we don't need to refresh the cache
@@ -294,6 +339,9 @@ public class BulkWriteAction implements Callable<WriteStats>{
                     case PARTIAL:
                         partialRows.add(currentBulkWrite.getSize());
                         partialFailureCounter.increment();
+                        if(adaptiveSizer!=null)
+                            adaptiveSizer.flushSucceeded(currentBulkWrite.getEncodedStringName(),
+                                    AdaptiveBufferSizer.latencyShare(writeLatency,currentBulkWrite.getSize(),nextWrite.numEntries()));
                         WriteResponse writeResponse=writeConfiguration.partialFailure(bulkWriteResult,currentBulkWrite);
                         switch(writeResponse){
                             case THROW_ERROR:
@@ -366,6 +414,10 @@ public class BulkWriteAction implements Callable<WriteStats>{
                     SpliceLogUtils.debug(RETRY_LOG,"Retrying write after receiving RegionTooBusyException: id=%d",id);
 
                 regionTooBusy.increment();
+                if(adaptiveSizer!=null){
+                    for(BulkWrite bw : nextWrite.getBulkWrites())
+                        adaptiveSizer.flushRejected(bw.getEncodedStringName());
+                }
                 ctx.sleep = true;
                 ctx.directRetry();
                 return;
@@ -403,6 +455,13 @@ public class BulkWriteAction implements Callable<WriteStats>{
         }
     }
 
+    private static boolean isBusy(BulkWriteResult bulkWriteResult){
+        WriteResult globalResult=bulkWriteResult.getGlobalResult();
+        if(globalResult==null) return false;
+        Code code=globalResult.getCode();
+        return code==Code.REGION_TOO_BUSY || code==Code.PIPELINE_TOO_BUSY;
+    }
+
     /**
      * Return an error message describing the types and number of failures in the BatchWrite.
      *
@@ -483,6 +542,10 @@ public class BulkWriteAction implements Callable<WriteStats>{
         boolean refreshCache = false;
         boolean sleep = false;
         boolean rejected= false;
+        /*
+         * Whether the server rejected the write and told the pacer how long to wait before retrying
+         */
+        boolean paced= false;
         /*
          * Either directRetrySet !=null or nextWriteSet !=null. Otherwise, it's an error (since nextWriteSet is
          * necessarily a subset of the rows contained in directWriteSet).
@@ -506,6 +569,7 @@ public class BulkWriteAction implements Callable<WriteStats>{
             nextWriteSet = null;
             directRetry = false;
             rejected=false;
+            paced=false;
         }
 
         void addBulkWrites(Collection<KVPair> writes){
@@ -38,6 +38,11 @@ public class BulkWrites{
      * any region which is present on the destination region server
      */
     private transient byte[] regionKey;
+    /*
+     * The host and port of the server this write is destined for. Used only by the client to pace
+     * writes against backpressure hints from that server, so it is not sent over the wire.
+     */
+    private transient String destinationServer;
     private byte[] token;
 
     public BulkWrites(){
@@ -61,6 +66,14 @@ public class BulkWrites{
         return regionKey;
     }
 
+    public String getDestinationServer(){
+        return destinationServer;
+    }
+
+    public void setDestinationServer(String destinationServer){
+        this.destinationServer=destinationServer;
+    }
+
     public Collection<BulkWrite> getBulkWrites(){
         return bulkWrites;
     }
@@ -14,6 +14,8 @@
 
 package com.splicemachine.pipeline.client;
 
+import com.splicemachine.pipeline.traffic.BackpressureHint;
+
 import java.util.Collection;
 
 /**
@@ -22,9 +24,26 @@ import java.util.Collection;
  */
 public class BulkWritesResult {
 		private Collection<BulkWriteResult> bulkWriteResults;
+		/*
+		 * Load information from the server, or null if the server had nothing to report (or is too old to report it)
+		 */
+		private BackpressureHint backpressureHint;
 
 		public BulkWritesResult(Collection<BulkWriteResult> bulkWriteResults){
+				this(bulkWriteResults,null);
+		}
+
+		public BulkWritesResult(Collection<BulkWriteResult> bulkWriteResults,BackpressureHint backpressureHint){
 				this.bulkWriteResults = bulkWriteResults;
+				this.backpressureHint = backpressureHint;
+		}
+
+		public BackpressureHint getBackpressureHint(){
+				return backpressureHint;
+		}
+
+		public void setBackpressureHint(BackpressureHint backpressureHint){
+				this.backpressureHint = backpressureHint;
 		}
 
 		public Collection<BulkWriteResult> getBulkWriteResults() {
@@ -17,6 +17,7 @@ package com.splicemachine.pipeline.client;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
+import com.splicemachine.pipeline.callbuffer.AdaptiveBufferSizer;
 import com.splicemachine.pipeline.callbuffer.BufferConfiguration;
 import com.splicemachine.pipeline.api.WriteCoordinatorStatus;
 
@@ -28,8 +29,14 @@ public class Monitor implements WriteCoordinatorStatus,BufferConfiguration{
     public AtomicInteger outstandingBuffers = new AtomicInteger(0);
     public volatile long pauseTime;
     public AtomicLong writesRejected = new AtomicLong(0l);
+    private final AdaptiveBufferSizer adaptiveSizer;
 
     public Monitor(long maxHeapSize, int maxEntries, int maxRetries,long pauseTime,int maxFlushesPerRegion) {
+        this(maxHeapSize,maxEntries,maxRetries,pauseTime,maxFlushesPerRegion,null);
+    }
+
+    public Monitor(long maxHeapSize, int maxEntries, int maxRetries,long pauseTime,int maxFlushesPerRegion,AdaptiveBufferSizer adaptiveSizer) {
+        this.adaptiveSizer = adaptiveSizer;
         this.maxHeapSize = maxHeapSize;
         this.maxEntries = maxEntries;
         this.maxRetries = maxRetries;
@@ -40,7 +47,11 @@ public class Monitor implements WriteCoordinatorStatus,BufferConfiguration{
     @Override public long getMaxBufferHeapSize() { return maxHeapSize; }
     @Override public void setMaxBufferHeapSize(long newMaxHeapSize) { this.maxHeapSize = newMaxHeapSize; }
     @Override public int getMaxBufferEntries() { return maxEntries; }
-    @Override public void setMaxBufferEntries(int newMaxBufferEntries) { this.maxEntries = newMaxBufferEntries; }
+    @Override public void setMaxBufferEntries(int newMaxBufferEntries) {
+        this.maxEntries = newMaxBufferEntries;
+        if(adaptiveSizer!=null)
+            adaptiveSizer.setMaxEntries(newMaxBufferEntries);
+    }
     @Override public int getOutstandingCallBuffers() { return outstandingBuffers.get(); }
     @Override public int getMaximumRetries() { return maxRetries; }
     @Override public void setMaximumRetries(int newMaxRetries) { this.maxRetries = newMaxRetries; }
@@ -60,5 +71,27 @@ public class Monitor implements WriteCoordinatorStatus,BufferConfiguration{
     public void writeRejected() {
         this.writesRejected.incrementAndGet();
     }
+
+    @Override public AdaptiveBufferSizer getAdaptiveSizer() { return adaptiveSizer; }
+    @Override public boolean isAdaptiveBuffering() { return adaptiveSizer!=null; }
+    @Override public int getAverageEffectiveBufferEntries() { return adaptiveSizer==null? maxEntries : adaptiveSizer.getAverageTargetEntries(); }
+    @Override public long getAdaptiveTrackedRegions() { return adaptiveSizer==null? 0l : adaptiveSizer.getTrackedPartitionCount(); }
+    @Override public long getAdaptiveBufferIncreases() { return adaptiveSizer==null? 0l : adaptiveSizer.getIncreaseCount(); }
+    @Override public long getAdaptiveBufferDecreases() { return adaptiveSizer==null? 0l : adaptiveSizer.getDecreaseCount(); }
+    @Override public int getMinBufferEntries() { return adaptiveSizer==null? maxEntries : adaptiveSizer.getMinEntries(); }
+
+    @Override
+    public void setMinBufferEntries(int newMinBufferEntries) {
+        if(adaptiveSizer!=null)
+            adaptiveSizer.setMinEntries(newMinBufferEntries);
+    }
+
+    @Override public long getBufferTargetLatency() { return adaptiveSizer==null? 0l : adaptiveSizer.getTargetLatency(); }
+
+    @Override
+    public void setBufferTargetLatency(long newTargetLatencyMs) {
+        if(adaptiveSizer!=null)
+            adaptiveSizer.setTargetLatency(newTargetLatencyMs);
+    }
 }
 
@@ -32,6 +32,7 @@ import com.splicemachine.metrics.Metrics;
 import com.splicemachine.pipeline.api.BulkWriterFactory;
 import com.splicemachine.pipeline.api.PipelineExceptionFactory;
 import com.splicemachine.pipeline.api.Writer;
+import com.splicemachine.pipeline.callbuffer.AdaptiveBufferSizer;
 import com.splicemachine.pipeline.callbuffer.BufferConfiguration;
 import com.splicemachine.pipeline.callbuffer.PipingCallBuffer;
 import com.splicemachine.pipeline.callbuffer.PreFlushHook;
@@ -61,6 +62,7 @@ public class WriteCoordinator {
     private final WriteConfiguration defaultWriteConfiguration;
     private final PartitionFactory partitionFactory;
     private final MonitoredThreadPool writerPool;
+    private final WritePacer pacer;
 
     public static WriteCoordinator create(SConfiguration config,
                                           BulkWriterFactory writerFactory,
@@ -70,18 +72,23 @@ public class WriteCoordinator {
         assert config != null;
         MonitoredThreadPool writerPool = MonitoredThreadPool.create(config);
         int maxEntries = config.getMaxBufferEntries();//SpliceConstants.maxBufferEntries;
+        AdaptiveBufferSizer adaptiveSizer = null;
+        if(config.getAdaptiveWriteBuffer())
+            adaptiveSizer = new AdaptiveBufferSizer(config.getMinBufferEntries(),maxEntries,
+                    config.getWriteBufferTargetLatency());
+        WritePacer pacer = new WritePacer(clock,config.getClientWritePacing());
         Writer writer = new AsyncBucketingWriter(writerPool,
                 writerFactory,
                 exceptionFactory,
-                partitionFactory,clock);
-        Writer syncWriter = new SynchronousBucketingWriter(writerFactory,exceptionFactory,partitionFactory,clock);
+                partitionFactory,clock,adaptiveSizer,pacer);
+        Writer syncWriter = new SynchronousBucketingWriter(writerFactory,exceptionFactory,partitionFactory,clock,adaptiveSizer,pacer);
         long maxBufferHeapSize = config.getMaxBufferHeapSize();
         int numRetries = config.getMaxRetries();
         long pause = config.getClientPause();
         int maxFlushesPerRegion = config.getWriteMaxFlushesPerRegion();
-        Monitor monitor = new Monitor(maxBufferHeapSize, maxEntries, numRetries, pause, maxFlushesPerRegion);
+        Monitor monitor = new Monitor(maxBufferHeapSize, maxEntries, numRetries, pause, maxFlushesPerRegion,adaptiveSizer);
 
-        return new WriteCoordinator(writer, syncWriter, monitor,partitionFactory,exceptionFactory,writerPool);
+        return new WriteCoordinator(writer, syncWriter, monitor,partitionFactory,exceptionFactory,writerPool,pacer);
     }
 
     public WriteCoordinator(Writer asynchronousWriter,
@@ -90,7 +97,18 @@ public class WriteCoordinator {
                              PartitionFactory partitionFactory,
                              PipelineExceptionFactory pipelineExceptionFactory,
                             MonitoredThreadPool writerPool) {
+        this(asynchronousWriter,synchronousWriter,monitor,partitionFactory,pipelineExceptionFactory,writerPool,null);
+    }
+
+    public WriteCoordinator(Writer asynchronousWriter,
+                            Writer synchronousWriter,
+                            Monitor monitor,
+                            PartitionFactory partitionFactory,
+                            PipelineExceptionFactory pipelineExceptionFactory,
+                            MonitoredThreadPool writerPool,
+                            WritePacer pacer) {
         this.asynchronousWriter = asynchronousWriter;
+        this.pacer = pacer;
         this.synchronousWriter = synchronousWriter;
         this.monitor = monitor;
         this.defaultWriteConfiguration = new DefaultWriteConfiguration(monitor,pipelineExceptionFactory);
@@ -104,6 +122,8 @@ public class WriteCoordinator {
     public void registerJMX(MBeanServer mbs) throws MalformedObjectNameException, NotCompliantMBeanException, InstanceAlreadyExistsException, MBeanRegistrationException {
         ObjectName coordinatorName = new ObjectName(PipelineConfiguration.WRITE_COORDINATOR_OBJECT_LOCATION);
         mbs.registerMBean(monitor, coordinatorName);
+        if(pacer!=null)
+            mbs.registerMBean(pacer, new ObjectName(PipelineConfiguration.WRITE_PACER_OBJECT_LOCATION));
         asynchronousWriter.registerJMX(mbs);
         synchronousWriter.registerJMX(mbs);
     }
@@ -199,6 +219,7 @@ public class WriteCoordinator {
             @Override public int getMaxEntries() { return maxEntries; }
             @Override public int getMaxFlushesPerRegion() { return monitor.getMaxFlushesPerRegion(); }
             @Override public void writeRejected() { monitor.writeRejected(); }
+            @Override public AdaptiveBufferSizer getAdaptiveSizer() { return null; }
         };
         monitor.outstandingBuffers.incrementAndGet();
         return new MonitoredPipingCallBuffer(partition, txn, token, asynchronousWriter, PipelineUtils.noOpFlushHook, defaultWriteConfiguration, config, false);
@@ -221,6 +242,7 @@ public class WriteCoordinator {
             @Override public int getMaxEntries() { return maxEntries; }
             @Override public int getMaxFlushesPerRegion() { return monitor.getMaxFlushesPerRegion(); }
             @Override public void writeRejected() { monitor.writeRejected(); }
+            @Override public AdaptiveBufferSizer getAdaptiveSizer() { return null; }
         };
         monitor.outstandingBuffers.incrementAndGet();
         return new MonitoredPipingCallBuffer(partition, txn, token, synchronousWriter, flushHook, writeConfiguration, config, false);
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.pipeline.client;
+
+import com.splicemachine.concurrent.Clock;
+import com.splicemachine.pipeline.api.WritePacerStatus;
+import com.splicemachine.pipeline.traffic.BackpressureHint;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Paces writes against the {@link BackpressureHint}s returned by region servers.
+ *
+ * Each hint sets the earliest time at which the next write may be sent to the server which issued it. A
+ * rejected write holds off the server for the full time the server suggested; a write which succeeded
+ * against a busy server holds it off for a fraction of that time which grows with the square of the
+ * server's utilization, so that pacing ramps up smoothly as the server fills rather than waiting for the
+ * first rejection. One instance is shared by all writers of a WriteCoordinator, so every writer on this
+ * JVM backs off from a loaded server together.
+ */
+@ThreadSafe
+public class WritePacer implements WritePacerStatus{
+    private final ConcurrentMap<String, AtomicLong> resumeTimes=new ConcurrentHashMap<>();
+    private final Clock clock;
+    private volatile boolean enabled;
+
+    private final AtomicLong hintsReceived=new AtomicLong(0L);
+    private final AtomicLong rejectionHintsReceived=new AtomicLong(0L);
+    private final AtomicLong pacedWrites=new AtomicLong(0L);
+    private final AtomicLong totalPacedTimeMs=new AtomicLong(0L);
+
+    public WritePacer(Clock clock,boolean enabled){
+        this.clock=clock;
+        this.enabled=enabled;
+    }
+
+    /**
+     * @param server the host and port of the destination server (may be null)
+     * @return the number of milliseconds to wait before writing to {@code server}, or 0 if the write
+     * may proceed immediately
+     */
+    public long pauseFor(String server){
+        if(!enabled || server==null) return 0L;
+        AtomicLong resumeAt=resumeTimes.get(server);
+        if(resumeAt==null) return 0L;
+        long pause=resumeAt.get()-clock.currentTimeMillis();
+        if(pause<=0){
+            //the server has had its time to drain, so stop tracking it until it tells us otherwise
+            resumeTimes.remove(server,resumeAt);
+            return 0L;
+        }
+        pacedWrites.incrementAndGet();
+        totalPacedTimeMs.addAndGet(pause);
+        return pause;
+    }
+
+    /**
+     * Record the hint returned by {@code server}.
+     *
+     * @param server the host and port of the server which returned the hint (may be null)
+     * @param hint the hint, or null if the server did not send one
+     * @return true if the hint will cause the next write to {@code server} to be delayed
+     */
+    public boolean hintReceived(String server,BackpressureHint hint){
+        if(hint==null) return false;
+        hintsReceived.incrementAndGet();
+        if(hint.isRejected())
+            rejectionHintsReceived.incrementAndGet();
+        if(!enabled || server==null) return false;
+
+        long pause=hint.isRejected()?hint.getResumeAfterMs():(long)(hint.getResumeAfterMs()*hint.getUtilization()*hint.getUtilization());
+        if(pause<=0) return false;
+        long resumeTime=clock.currentTimeMillis()+pause;
+        AtomicLong resumeAt=resumeTimes.get(server);
+        if(resumeAt==null){
+            AtomicLong other=resumeTimes.putIfAbsent(server,resumeAt=new AtomicLong(resumeTime));
+            if(other==null) return true;
+            resumeAt=other;
+        }
+        //only ever push the resume time out, so that a stale hint can't cut short a newer one
+        long curr;
+        do{
+            curr=resumeAt.get();
+        }while(curr<resumeTime && !resumeAt.compareAndSet(curr,resumeTime));
+        return true;
+    }
+
+    @Override
+    public boolean isPacingEnabled(){
+        return enabled;
+    }
+
+    @Override
+    public void setPacingEnabled(boolean enabled){
+        this.enabled=enabled;
+        if(!enabled)
+            resumeTimes.clear();
+    }
+
+    @Override
+    public int getPacedServers(){
+        long now=clock.currentTimeMillis();
+        int count=0;
+        for(Map.Entry<String, AtomicLong> entry : resumeTimes.entrySet()){
+            if(entry.getValue().get()>now)
+                count++;
+        }
+        return count;
+    }
+
+    @Override
+    public long getHintsReceived(){
+        return hintsReceived.get();
+    }
+
+    @Override
+    public long getRejectionHintsReceived(){
+        return rejectionHintsReceived.get();
+    }
+
+    @Override
+    public long getPacedWrites(){
+        return pacedWrites.get();
+    }
+
+    @Override
+    public long getTotalPacedTimeMs(){
+        return totalPacedTimeMs.get();
+    }
+}
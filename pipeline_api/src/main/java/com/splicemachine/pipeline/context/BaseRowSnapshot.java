@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.pipeline.context;
+
+import com.splicemachine.kvpair.KVPair;
+import com.splicemachine.si.api.data.TxnOperationFactory;
+import com.splicemachine.si.api.filter.TxnFilter;
+import com.splicemachine.si.api.server.TransactionalRegion;
+import com.splicemachine.si.api.txn.TxnView;
+import com.splicemachine.si.impl.driver.SIDriver;
+import com.splicemachine.storage.DataGet;
+import com.splicemachine.storage.DataResult;
+import com.splicemachine.storage.EntryPredicateFilter;
+import com.splicemachine.storage.Partition;
+import org.apache.log4j.Logger;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rows currently stored in a region for the mutations of a single write, read once for the whole
+ * batch and shared by every handler in the write context which needs the prior version of a row (such as
+ * the index handlers, which must delete the index entry for the old row of every UPDATE, UPSERT and DELETE).
+ *
+ * Nothing is read until the first handler asks for a row. At that point, the rows for every mutation in
+ * the batch which could replace an existing row are read from the local region in row key order, so an
+ * update of N rows on a table with M indexes costs N reads instead of N*M. Rows are read in their entirety
+ * (rather than just the indexed columns), so that the same snapshot serves every index on the table.
+ *
+ * The snapshot must be taken before the batch is written to the region, which is guaranteed because
+ * handlers see each mutation before the region write happens during flush.
+ */
+@NotThreadSafe
+public class BaseRowSnapshot{
+    private static final Logger LOG=Logger.getLogger(BaseRowSnapshot.class);
+    private final TxnOperationFactory opFactory;
+    private Collection<KVPair> batch;
+    private Map<KVPair, DataResult> rows;
+
+    public BaseRowSnapshot(){
+        this(null);
+    }
+
+    /**
+     * @param opFactory the factory to build reads with, or {@code null} to use the one from the {@link SIDriver}
+     */
+    BaseRowSnapshot(TxnOperationFactory opFactory){
+        this.opFactory=opFactory;
+    }
+
+    /**
+     * @param batch the mutations which are about to be written through the owning context
+     */
+    public void setBatch(Collection<KVPair> batch){
+        this.batch=batch;
+        this.rows=null;
+    }
+
+    /**
+     * @param mutation a mutation from this context's batch
+     * @param ctx the write context (used for its transaction and region)
+     * @return the current version of the row which {@code mutation} will replace, as visible to the context's
+     * transaction (the result will be empty if there is no such row), or {@code null} if the snapshot does not
+     * cover this mutation, in which case the caller must read the row itself.
+     * @throws IOException if the region cannot be read
+     */
+    public DataResult get(KVPair mutation,WriteContext ctx) throws IOException{
+        if(batch==null || batch.size()<2) return null; //nothing to gain over a direct read
+        if(rows==null){
+            try{
+                rows=fetch(ctx);
+            }catch(IOException e){
+                /*
+                 * Don't fail the whole batch because of one bad read; fall back to reading row by row, so that
+                 * any failure is reported against the individual rows which hit it.
+                 */
+                LOG.warn("Unable to read base rows for batch, falling back to single row reads",e);
+                batch=null;
+                return null;
+            }
+        }
+        return rows.get(mutation);
+    }
+
+    private Map<KVPair, DataResult> fetch(WriteContext ctx) throws IOException{
+        TransactionalRegion txnRegion=ctx.txnRegion();
+        List<KVPair> toRead=new ArrayList<>(batch.size());
+        for(KVPair kvPair : batch){
+            if(replacesRow(kvPair.getType()) && txnRegion.rowInRange(kvPair.rowKeySlice()))
+                toRead.add(kvPair);
+        }
+        Map<KVPair, DataResult> results=new IdentityHashMap<>(toRead.size());
+        if(toRead.isEmpty()) return results;
+
+        //read in row key order to make the best use of the block cache
+        Collections.sort(toRead);
+        TxnView txn=ctx.getTxn();
+        Partition region=ctx.getRegion();
+        TxnOperationFactory opFactory=this.opFactory!=null?this.opFactory:SIDriver.driver().getOperationFactory();
+        EntryPredicateFilter allColumns=EntryPredicateFilter.emptyPredicate();
+        DataGet get=null;
+        for(KVPair kvPair : toRead){
+            get=opFactory.newDataGet(txn,kvPair.getRowKey(),get);
+            TxnFilter txnFilter=txnRegion.packedFilter(txn,allColumns,false);
+            get.setFilter(txnFilter);
+            results.put(kvPair,region.get(get,null));
+        }
+        return results;
+    }
+
+    private static boolean replacesRow(KVPair.Type type){
+        return type==KVPair.Type.UPDATE || type==KVPair.Type.UPSERT || type==KVPair.Type.DELETE;
+    }
+}
@@ -58,6 +58,7 @@ public class PipelineWriteContext implements WriteContext, Comparable<PipelineWr
     private final PipelineExceptionFactory pef;
     private final boolean skipConflictDetection;
     private final boolean skipWAL;
+    private final BaseRowSnapshot baseRowSnapshot = new BaseRowSnapshot();
 
     private WriteNode tail;
 
@@ -179,6 +180,11 @@ public class PipelineWriteContext implements WriteContext, Comparable<PipelineWr
         }
     }
 
+    @Override
+    public BaseRowSnapshot baseRowSnapshot() {
+        return baseRowSnapshot;
+    }
+
     @Override
     public boolean canRun(KVPair input) {
         WriteResult result = resultsMap.get(input);
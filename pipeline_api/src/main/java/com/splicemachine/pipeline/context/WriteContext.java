@@ -119,4 +119,10 @@ public interface WriteContext {
 
     PipelineExceptionFactory exceptionFactory();
 
+    /**
+     * @return the rows which the mutations of this write will replace, read once for the whole batch and
+     * shared between all handlers
+     */
+    BaseRowSnapshot baseRowSnapshot();
+
 }
@@ -132,6 +132,11 @@ public class WriteNode implements WriteContext {
         return pipelineWriteContext.getRegion();
     }
 
+    @Override
+    public BaseRowSnapshot baseRowSnapshot() {
+        return pipelineWriteContext.baseRowSnapshot();
+    }
+
     // - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -
     // getter/setter
     // - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.pipeline.traffic;
+
+/**
+ * A hint which a region server returns to a writer to indicate how loaded its write pipeline is,
+ * and how long the writer should wait before sending more data to that server.
+ *
+ * Hints are computed from the current {@link WriteStatus} when a write is rejected, or when the write
+ * control is close enough to its limits that the writer should slow down before it starts getting rejections.
+ * This allows the client to pace itself against the actual state of the server instead of blindly
+ * retrying with an exponential backoff.
+ */
+public class BackpressureHint{
+    public static final long MIN_RESUME_AFTER_MS = 10L;
+    public static final long MAX_RESUME_AFTER_MS = 10000L;
+    /*
+     * The wait to suggest when we have no throughput measurements to estimate a drain time from
+     */
+    public static final long DEFAULT_RESUME_AFTER_MS = 100L;
+
+    private final boolean rejected;
+    private final double utilization;
+    private final int queueDepth;
+    private final int activeWriters;
+    private final long resumeAfterMs;
+
+    public BackpressureHint(boolean rejected,double utilization,int queueDepth,int activeWriters,long resumeAfterMs){
+        this.rejected=rejected;
+        this.utilization=utilization;
+        this.queueDepth=queueDepth;
+        this.activeWriters=activeWriters;
+        this.resumeAfterMs=resumeAfterMs;
+    }
+
+    /**
+     * @return true if the write which carried this hint was rejected by the server
+     */
+    public boolean isRejected(){
+        return rejected;
+    }
+
+    /**
+     * @return the fraction (0 to 1) of the server's write capacity which is in use
+     */
+    public double getUtilization(){
+        return utilization;
+    }
+
+    /**
+     * @return the number of rows which are currently in flight on the server
+     */
+    public int getQueueDepth(){
+        return queueDepth;
+    }
+
+    /**
+     * @return the number of writer threads currently active on the server
+     */
+    public int getActiveWriters(){
+        return activeWriters;
+    }
+
+    /**
+     * @return the number of milliseconds the server suggests waiting before writing to it again
+     */
+    public long getResumeAfterMs(){
+        return resumeAfterMs;
+    }
+
+    /**
+     * Compute a hint from the current state of a write control.
+     *
+     * @param control the write control to inspect
+     * @param dependent whether the write being hinted is dependent (i.e. has index maintenance) or not
+     * @param rejected whether the write was rejected
+     * @param rowsPerSecond the recent write throughput of the server, used to estimate how long it will take to
+     *                      drain the rows which are currently in flight
+     * @return a hint describing the load on the write control
+     */
+    public static BackpressureHint compute(SpliceWriteControl control,boolean dependent,boolean rejected,double rowsPerSecond){
+        WriteStatus status=control.getWriteStatus();
+        double dependentUtilization=Math.max(
+                ratio(status.dependentWriteThreads,control.maxDependendentWriteThreads()),
+                ratio(status.dependentWriteCount,control.maxDependentWriteCount()));
+        double utilization;
+        if(dependent)
+            utilization=dependentUtilization;
+        else{
+            /*
+             * Independent writes steal dependent capacity when their own limits are exhausted, so
+             * they are only truly blocked when both pools are full.
+             */
+            double independentUtilization=Math.max(
+                    ratio(status.independentWriteThreads,control.maxIndependentWriteThreads()),
+                    ratio(status.independentWriteCount,control.maxIndependentWriteCount()));
+            utilization=Math.min(independentUtilization,dependentUtilization);
+        }
+        if(rejected) utilization=Math.max(utilization,1d);
+        int queueDepth=status.dependentWriteCount+status.independentWriteCount;
+        int activeWriters=status.dependentWriteThreads+status.independentWriteThreads;
+        return new BackpressureHint(rejected,Math.min(utilization,1d),queueDepth,activeWriters,estimateResumeAfter(queueDepth,rowsPerSecond));
+    }
+
+    static long estimateResumeAfter(int queueDepth,double rowsPerSecond){
+        if(rowsPerSecond<=0d || Double.isNaN(rowsPerSecond)) return DEFAULT_RESUME_AFTER_MS;
+        long drainMs=(long)(queueDepth*1000d/rowsPerSecond);
+        return Math.max(MIN_RESUME_AFTER_MS,Math.min(MAX_RESUME_AFTER_MS,drainMs));
+    }
+
+    private static double ratio(int current,int max){
+        if(max<=0) return current>0?1d:0d;
+        return Math.min(1d,((double)current)/max);
+    }
+
+    @Override
+    public String toString(){
+        return "BackpressureHint{rejected="+rejected+
+                ", utilization="+utilization+
+                ", queueDepth="+queueDepth+
+                ", activeWriters="+activeWriters+
+                ", resumeAfterMs="+resumeAfterMs+"}";
+    }
+}
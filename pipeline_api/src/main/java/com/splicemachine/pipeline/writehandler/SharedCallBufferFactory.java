@@ -18,6 +18,7 @@ import com.carrotsearch.hppc.ObjectObjectOpenHashMap;
 import com.splicemachine.access.api.PartitionFactory;
 import com.splicemachine.kvpair.KVPair;
 import com.splicemachine.pipeline.callbuffer.CallBuffer;
+import com.splicemachine.pipeline.callbuffer.ForwardingCallBuffer;
 import com.splicemachine.pipeline.config.UnsafeWriteConfiguration;
 import com.splicemachine.pipeline.config.WriteConfiguration;
 import com.splicemachine.pipeline.context.WriteContext;
@@ -33,7 +34,8 @@ import java.io.IOException;
  * there will be N WriteContexts and N IndexWriteHandlers. We don't want N CallBuffers for remotely sending the index
  * writes. Thus this class.
  *
- * This class is NOT thread safe.
+ * This class is NOT thread safe, unless it is created as concurrent. A concurrent factory is shared by the partitions
+ * of a BulkWrites which are applied at the same time, and hands out synchronized buffers.
  */
 @NotThreadSafe
 public class SharedCallBufferFactory{
@@ -42,10 +44,16 @@ public class SharedCallBufferFactory{
     private ObjectObjectOpenHashMap<byte[], CallBuffer<KVPair>> sharedCallBufferMap = new ObjectObjectOpenHashMap<>();
     private final WriteCoordinator writerPool;
     private final PartitionFactory partitionFactory;
+    private final boolean concurrent;
 
     public SharedCallBufferFactory(WriteCoordinator writerPool){
+        this(writerPool,false);
+    }
+
+    public SharedCallBufferFactory(WriteCoordinator writerPool,boolean concurrent){
         this.writerPool=writerPool;
         this.partitionFactory = writerPool.getPartitionFactory();
+        this.concurrent=concurrent;
     }
 
     public CallBuffer<KVPair> getWriteBuffer(byte[] conglomBytes,
@@ -54,6 +62,19 @@ public class SharedCallBufferFactory{
                                              int maxSize,
                                              boolean useAsyncWriteBuffers,
                                              TxnView txn, byte[] token) throws Exception {
+        if (!concurrent)
+            return getSharedWriteBuffer(conglomBytes, context, indexToMainMutationMap, maxSize, useAsyncWriteBuffers, txn, token);
+        synchronized (this) {
+            return getSharedWriteBuffer(conglomBytes, context, indexToMainMutationMap, maxSize, useAsyncWriteBuffers, txn, token);
+        }
+    }
+
+    private CallBuffer<KVPair> getSharedWriteBuffer(byte[] conglomBytes,
+                                                    WriteContext context,
+                                                    ObjectObjectOpenHashMap<KVPair, KVPair> indexToMainMutationMap,
+                                                    int maxSize,
+                                                    boolean useAsyncWriteBuffers,
+                                                    TxnView txn, byte[] token) throws Exception {
 
         CallBuffer<KVPair> writeBuffer = sharedCallBufferMap.get(conglomBytes);
         if (writeBuffer == null) {
@@ -87,7 +108,26 @@ public class SharedCallBufferFactory{
         } else {
             writeBuffer = writerPool.synchronousWriteBuffer(partitionFactory.getTable(conglomBytes), txn, token, hook, wc, maxSize);
         }
+        if (concurrent)
+            writeBuffer = new SynchronizedCallBuffer<>(writeBuffer);
         sharedCallBufferMap.put(conglomBytes, writeBuffer);
         return writeBuffer;
     }
+
+    /**
+     * A buffer which the handlers of several partitions add to, flush and close at the same time.
+     */
+    private static class SynchronizedCallBuffer<E> extends ForwardingCallBuffer<E>{
+        SynchronizedCallBuffer(CallBuffer<E> delegate){
+            super(delegate);
+        }
+
+        @Override public synchronized void add(E element) throws Exception { delegate.add(element); }
+        @Override public synchronized void addAll(E[] elements) throws Exception { delegate.addAll(elements); }
+        @Override public synchronized void addAll(Iterable<E> elements) throws Exception { delegate.addAll(elements); }
+        @Override public synchronized void flushBuffer() throws Exception { delegate.flushBuffer(); }
+        @Override public synchronized void flushBufferAndWait() throws Exception { delegate.flushBufferAndWait(); }
+        @Override public synchronized void close() throws Exception { delegate.close(); }
+        @Override public synchronized E lastElement() { return delegate.lastElement(); }
+    }
 }
@@ -30,9 +30,11 @@ import com.splicemachine.pipeline.api.BulkWriterFactory;
 import com.splicemachine.pipeline.api.PipelineExceptionFactory;
 import com.splicemachine.pipeline.api.WriteStats;
 import com.splicemachine.pipeline.api.Writer;
+import com.splicemachine.pipeline.callbuffer.AdaptiveBufferSizer;
 import com.splicemachine.pipeline.client.ActionStatusReporter;
 import com.splicemachine.pipeline.client.BulkWriteAction;
 import com.splicemachine.pipeline.client.BulkWrites;
+import com.splicemachine.pipeline.client.WritePacer;
 import com.splicemachine.pipeline.config.CountingWriteConfiguration;
 import com.splicemachine.pipeline.config.WriteConfiguration;
 import com.splicemachine.pipeline.threadpool.MonitoredThreadPool;
@@ -51,12 +53,26 @@ public class AsyncBucketingWriter implements Writer {
     private final BulkWriterFactory writerFactory;
     private final PartitionFactory partitionFactory;
     private final Clock clock;
+    private final AdaptiveBufferSizer adaptiveSizer;
+    private final WritePacer pacer;
 
     public AsyncBucketingWriter(MonitoredThreadPool writerPool,
                                 BulkWriterFactory writerFactory,
                                 PipelineExceptionFactory exceptionFactory,
                                 PartitionFactory partitionFactory,
                                 Clock clock) {
+        this(writerPool,writerFactory,exceptionFactory,partitionFactory,clock,null,null);
+    }
+
+    public AsyncBucketingWriter(MonitoredThreadPool writerPool,
+                                BulkWriterFactory writerFactory,
+                                PipelineExceptionFactory exceptionFactory,
+                                PartitionFactory partitionFactory,
+                                Clock clock,
+                                AdaptiveBufferSizer adaptiveSizer,
+                                WritePacer pacer) {
+        this.adaptiveSizer = adaptiveSizer;
+        this.pacer = pacer;
         this.writerPool = writerPool;
         this.statusMonitor = new ActionStatusReporter();
         this.monitor = new ActionStatusMonitor(statusMonitor);
@@ -77,7 +93,9 @@ public class AsyncBucketingWriter implements Writer {
                 writerFactory,
                 exceptionFactory,
                 partitionFactory,
-                clock);
+                clock,
+                adaptiveSizer,
+                pacer);
         statusMonitor.totalFlushesSubmitted.incrementAndGet();
         return writerPool.submit(action);
     }
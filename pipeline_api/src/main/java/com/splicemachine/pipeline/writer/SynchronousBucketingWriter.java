@@ -20,9 +20,11 @@ import com.splicemachine.pipeline.api.BulkWriterFactory;
 import com.splicemachine.pipeline.api.PipelineExceptionFactory;
 import com.splicemachine.pipeline.api.WriteStats;
 import com.splicemachine.pipeline.api.Writer;
+import com.splicemachine.pipeline.callbuffer.AdaptiveBufferSizer;
 import com.splicemachine.pipeline.client.ActionStatusReporter;
 import com.splicemachine.pipeline.client.BulkWriteAction;
 import com.splicemachine.pipeline.client.BulkWrites;
+import com.splicemachine.pipeline.client.WritePacer;
 import com.splicemachine.pipeline.config.CountingWriteConfiguration;
 import com.splicemachine.pipeline.config.WriteConfiguration;
 import com.splicemachine.pipeline.writerstatus.ActionStatusMonitor;
@@ -45,11 +47,24 @@ public class SynchronousBucketingWriter implements Writer{
     private final PipelineExceptionFactory exceptionFactory;
     private final PartitionFactory partitionFactory;
     private final Clock clock;
+    private final AdaptiveBufferSizer adaptiveSizer;
+    private final WritePacer pacer;
 
     public SynchronousBucketingWriter(BulkWriterFactory writerFactory,
                                       PipelineExceptionFactory exceptionFactory,
                                       PartitionFactory partitionFactory,
                                       Clock clock){
+        this(writerFactory,exceptionFactory,partitionFactory,clock,null,null);
+    }
+
+    public SynchronousBucketingWriter(BulkWriterFactory writerFactory,
+                                      PipelineExceptionFactory exceptionFactory,
+                                      PartitionFactory partitionFactory,
+                                      Clock clock,
+                                      AdaptiveBufferSizer adaptiveSizer,
+                                      WritePacer pacer){
+        this.adaptiveSizer=adaptiveSizer;
+        this.pacer=pacer;
         this.writerFactory=writerFactory;
         this.exceptionFactory=exceptionFactory;
         this.partitionFactory=partitionFactory;
@@ -72,7 +87,9 @@ public class SynchronousBucketingWriter implements Writer{
                 writerFactory,
                 exceptionFactory,
                 partitionFactory,
-                clock);
+                clock,
+                adaptiveSizer,
+                pacer);
         statusMonitor.totalFlushesSubmitted.incrementAndGet();
         Exception e=null;
         WriteStats stats=null;
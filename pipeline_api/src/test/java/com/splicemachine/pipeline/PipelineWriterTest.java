@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline;
+
+import com.carrotsearch.hppc.ObjectObjectOpenHashMap;
+import com.splicemachine.access.api.PartitionFactory;
+import com.splicemachine.access.api.SConfiguration;
+import com.splicemachine.access.api.ServerControl;
+import com.splicemachine.kvpair.KVPair;
+import com.splicemachine.pipeline.api.Code;
+import com.splicemachine.pipeline.api.PipelineExceptionFactory;
+import com.splicemachine.pipeline.api.PipelineMeter;
+import com.splicemachine.pipeline.api.WritePipelineFactory;
+import com.splicemachine.pipeline.callbuffer.CallBuffer;
+import com.splicemachine.pipeline.callbuffer.PreFlushHook;
+import com.splicemachine.pipeline.callbuffer.RecordingCallBuffer;
+import com.splicemachine.pipeline.client.BulkWrite;
+import com.splicemachine.pipeline.client.BulkWriteResult;
+import com.splicemachine.pipeline.client.BulkWrites;
+import com.splicemachine.pipeline.client.BulkWritesResult;
+import com.splicemachine.pipeline.client.WriteCoordinator;
+import com.splicemachine.pipeline.client.WriteResult;
+import com.splicemachine.pipeline.config.WriteConfiguration;
+import com.splicemachine.pipeline.context.WriteContext;
+import com.splicemachine.pipeline.traffic.AtomicSpliceWriteControl;
+import com.splicemachine.pipeline.traffic.SpliceWriteControl;
+import com.splicemachine.pipeline.traffic.WriteStatus;
+import com.splicemachine.pipeline.writehandler.SharedCallBufferFactory;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.api.txn.TxnView;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import com.splicemachine.storage.Partition;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for applying the per-partition writes of a single BulkWrites request on the partition apply pool.
+ */
+@Category(ArchitectureIndependent.class)
+public class PipelineWriterTest{
+    private static final byte[] INDEX_CONGLOMERATE = Bytes.toBytes("1568");
+    private final TxnView txn = mock(TxnView.class);
+    private final PipelineMeter meter = mock(PipelineMeter.class);
+    private final Map<String,PartitionWritePipeline> pipelines = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor pool;
+
+    @After
+    public void tearDown() throws Exception{
+        if(pool!=null){
+            pool.shutdownNow();
+            pool.awaitTermination(10,TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void appliesPartitionsConcurrentlyAndReturnsResultsInRequestOrder() throws Exception{
+        final int numPartitions = 4;
+        pool = newPool(numPartitions);
+        /*
+         * Every partition waits in its submit phase until all of them have arrived, which can
+         * only happen if they are applied at the same time.
+         */
+        final CyclicBarrier allApplying = new CyclicBarrier(numPartitions);
+        final Map<String,List<String>> events = new ConcurrentHashMap<>();
+        List<BulkWrite> writes = new ArrayList<>();
+        List<BulkWriteResult> expected = new ArrayList<>();
+        for(int i=numPartitions-1;i>=0;i--){
+            String name = "region"+i;
+            BulkWriteResult finished = new BulkWriteResult(WriteResult.success());
+            register(name,new RecordingPipeline(name,events,allApplying,null),finished);
+            writes.add(bulkWrite(name,i+1));
+            expected.add(finished);
+        }
+
+        BulkWritesResult result = newWriter(new AtomicSpliceWriteControl(10,10,1000,1000)).bulkWrite(new BulkWrites(writes,txn),-1);
+
+        Assert.assertEquals("Results must be returned in request order",expected,new ArrayList<>(result.getBulkWriteResults()));
+        for(int i=0;i<numPartitions;i++){
+            List<String> partitionEvents = events.get("region"+i);
+            Assert.assertEquals("Incorrect events for region"+i,2,partitionEvents.size());
+            Assert.assertTrue("Submit must precede finish",partitionEvents.get(0).startsWith("submit:"));
+            Assert.assertTrue("Submit must precede finish",partitionEvents.get(1).startsWith("finish:"));
+        }
+    }
+
+    @Test
+    public void flushesIndexWritesOfAllPartitionsTogether() throws Exception{
+        final int numPartitions = 4;
+        pool = newPool(numPartitions);
+        final CyclicBarrier allApplying = new CyclicBarrier(numPartitions);
+        final AtomicInteger buffersCreated = new AtomicInteger();
+        final AtomicInteger pendingRows = new AtomicInteger();
+        final AtomicInteger writtenRows = new AtomicInteger();
+        final AtomicInteger flushes = new AtomicInteger();
+        WriteCoordinator writeCoordinator = indexWriteCoordinator(buffersCreated,pendingRows,writtenRows,flushes);
+
+        List<BulkWrite> writes = new ArrayList<>();
+        for(int i=0;i<numPartitions;i++){
+            String name = "region"+i;
+            registerIndexed(name,allApplying);
+            writes.add(bulkWrite(name,i+1));
+        }
+
+        BulkWritesResult result = newWriter(new AtomicSpliceWriteControl(10,10,1000,1000),writeCoordinator).bulkWrite(new BulkWrites(writes,txn),-1);
+
+        Assert.assertEquals("Incorrect number of results",numPartitions,result.getBulkWriteResults().size());
+        Assert.assertEquals("All partitions must share one index buffer",1,buffersCreated.get());
+        Assert.assertEquals("Index rows of all partitions must be flushed together",1,flushes.get());
+        Assert.assertEquals("Incorrect number of index rows written",numPartitions,writtenRows.get());
+    }
+
+    @Test
+    public void saturatedPoolAppliesOnTheCallingThread() throws Exception{
+        pool = newPool(1);
+        final CountDownLatch callerApplied = new CountDownLatch(1);
+        final Map<String,List<String>> events = new ConcurrentHashMap<>();
+        /*
+         * Whichever partition gets the only pool thread holds it until the other one has been applied,
+         * which can then only happen on the calling thread.
+         */
+        Runnable holdPoolThread = new Runnable(){
+            @Override
+            public void run(){
+                if(!Thread.currentThread().getName().startsWith("partitionApply")){
+                    callerApplied.countDown();
+                    return;
+                }
+                try{
+                    Assert.assertTrue("The other partition was never applied",callerApplied.await(10,TimeUnit.SECONDS));
+                }catch(InterruptedException e){
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        register("region0",new RecordingPipeline("region0",events,null,holdPoolThread),new BulkWriteResult(WriteResult.success()));
+        register("region1",new RecordingPipeline("region1",events,null,holdPoolThread),new BulkWriteResult(WriteResult.success()));
+        List<BulkWrite> writes = new ArrayList<>();
+        writes.add(bulkWrite("region0",1));
+        writes.add(bulkWrite("region1",2));
+
+        BulkWritesResult result = newWriter(new AtomicSpliceWriteControl(10,10,1000,1000)).bulkWrite(new BulkWrites(writes,txn),-1);
+
+        Assert.assertEquals("Incorrect number of results",2,result.getBulkWriteResults().size());
+        String callerSubmit = "submit:"+Thread.currentThread().getName();
+        int onCaller = 0;
+        for(String region:new String[]{"region0","region1"}){
+            List<String> partitionEvents = events.get(region);
+            Assert.assertEquals("Incorrect events for "+region,2,partitionEvents.size());
+            if(callerSubmit.equals(partitionEvents.get(0)))
+                onCaller++;
+        }
+        Assert.assertEquals("Exactly one partition should have been applied by the caller",1,onCaller);
+    }
+
+    @Test
+    public void rejectsEveryPartitionWhenWriteControlIsSaturated() throws Exception{
+        pool = newPool(4);
+        SpliceWriteControl writeControl = new AtomicSpliceWriteControl(1,1,5,5);
+        writeControl.performDependentWrite(10);
+        writeControl.performIndependentWrite(10);
+        WriteStatus before = writeControl.getWriteStatus();
+        PartitionWritePipeline region0 = register("region0",null,new BulkWriteResult(WriteResult.success()));
+        PartitionWritePipeline region1 = register("region1",null,new BulkWriteResult(WriteResult.success()));
+        List<BulkWrite> writes = new ArrayList<>();
+        writes.add(bulkWrite("region0",1));
+        writes.add(bulkWrite("region1",2));
+
+        BulkWritesResult result = newWriter(writeControl).bulkWrite(new BulkWrites(writes,txn),-1);
+
+        for(BulkWriteResult bwr:result.getBulkWriteResults()){
+            Assert.assertEquals("Incorrect result code",Code.PIPELINE_TOO_BUSY,bwr.getGlobalResult().getCode());
+        }
+        Assert.assertNotNull("Rejected writes should carry a backpressure hint",result.getBackpressureHint());
+        verify(region0,never()).submitBulkWrite(any(TxnView.class),any(byte[].class),any(BulkWrite.class),any(SharedCallBufferFactory.class),any(ServerControl.class));
+        verify(region1,never()).submitBulkWrite(any(TxnView.class),any(byte[].class),any(BulkWrite.class),any(SharedCallBufferFactory.class),any(ServerControl.class));
+        Assert.assertEquals("Rejected writes must not hold write permits",before,writeControl.getWriteStatus());
+    }
+
+    @Test
+    public void releasesWritePermitsAfterAFailedPartition() throws Exception{
+        pool = newPool(4);
+        SpliceWriteControl writeControl = new AtomicSpliceWriteControl(10,10,1000,1000);
+        final Map<String,List<String>> events = new ConcurrentHashMap<>();
+        register("region0",new RecordingPipeline("region0",events,null,null),new BulkWriteResult(WriteResult.success()));
+        register("region1",new RecordingPipeline("region1",events,null,new Runnable(){
+            @Override
+            public void run(){
+                throw new IllegalStateException("region1 failed");
+            }
+        }),new BulkWriteResult(WriteResult.success()));
+        List<BulkWrite> writes = new ArrayList<>();
+        writes.add(bulkWrite("region0",1));
+        writes.add(bulkWrite("region1",2));
+
+        try{
+            newWriter(writeControl).bulkWrite(new BulkWrites(writes,txn),-1);
+            Assert.fail("Expected the partition failure to propagate");
+        }catch(IllegalStateException expected){
+            Assert.assertEquals("region1 failed",expected.getMessage());
+        }
+        Assert.assertEquals("The other partition should still have been applied",2,events.get("region0").size());
+        Assert.assertEquals("Write permits were not released",new WriteStatus(0,0,0,0),writeControl.getWriteStatus());
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private ThreadPoolExecutor newPool(int threads){
+        SConfiguration config = mock(SConfiguration.class);
+        when(config.getPartitionApplyThreads()).thenReturn(threads);
+        when(config.getThreadKeepaliveTime()).thenReturn(60L);
+        return PipelineDriver.createPartitionApplyPool(config);
+    }
+
+    private PipelineWriter newWriter(SpliceWriteControl writeControl){
+        return newWriter(writeControl,mock(WriteCoordinator.class));
+    }
+
+    private PipelineWriter newWriter(SpliceWriteControl writeControl,WriteCoordinator writeCoordinator){
+        WritePipelineFactory factory = mock(WritePipelineFactory.class);
+        when(factory.getPipeline(any(String.class))).thenAnswer(new Answer<PartitionWritePipeline>(){
+            @Override
+            public PartitionWritePipeline answer(InvocationOnMock invocation) throws Throwable{
+                return pipelines.get((String)invocation.getArguments()[0]);
+            }
+        });
+        PipelineWriter writer = new PipelineWriter(mock(PipelineExceptionFactory.class),factory,writeControl,meter,pool);
+        writer.setWriteCoordinator(writeCoordinator);
+        return writer;
+    }
+
+    private PartitionWritePipeline register(String name,RecordingPipeline behavior,final BulkWriteResult finished) throws Exception{
+        PartitionWritePipeline pipeline = mock(PartitionWritePipeline.class);
+        when(pipeline.isDependent(any(TxnView.class))).thenReturn(false);
+        final RecordingPipeline recorder = behavior==null?new RecordingPipeline(name,new ConcurrentHashMap<String,List<String>>(),null,null):behavior;
+        when(pipeline.submitBulkWrite(any(TxnView.class),any(byte[].class),any(BulkWrite.class),any(SharedCallBufferFactory.class),any(ServerControl.class)))
+                .thenAnswer(new Answer<BulkWriteResult>(){
+                    @Override
+                    public BulkWriteResult answer(InvocationOnMock invocation) throws Throwable{
+                        recorder.submit();
+                        return new BulkWriteResult(WriteResult.success());
+                    }
+                });
+        when(pipeline.finishWrite(any(BulkWriteResult.class),any(BulkWrite.class))).thenAnswer(new Answer<BulkWriteResult>(){
+            @Override
+            public BulkWriteResult answer(InvocationOnMock invocation) throws Throwable{
+                recorder.finish();
+                return finished;
+            }
+        });
+        pipelines.put(name,pipeline);
+        return pipeline;
+    }
+
+    /**
+     * A pipeline which routes each of its rows to the index buffer of the shared factory when submitted, and flushes
+     * and closes its index buffer when finished, like the index write handler does.
+     */
+    private void registerIndexed(String name,final CyclicBarrier barrier) throws Exception{
+        PartitionWritePipeline pipeline = mock(PartitionWritePipeline.class);
+        when(pipeline.isDependent(any(TxnView.class))).thenReturn(true);
+        final AtomicReference<CallBuffer<KVPair>> indexBuffer = new AtomicReference<>();
+        when(pipeline.submitBulkWrite(any(TxnView.class),any(byte[].class),any(BulkWrite.class),any(SharedCallBufferFactory.class),any(ServerControl.class)))
+                .thenAnswer(new Answer<BulkWriteResult>(){
+                    @Override
+                    public BulkWriteResult answer(InvocationOnMock invocation) throws Throwable{
+                        BulkWrite write = (BulkWrite)invocation.getArguments()[2];
+                        SharedCallBufferFactory factory = (SharedCallBufferFactory)invocation.getArguments()[3];
+                        CallBuffer<KVPair> buffer = factory.getWriteBuffer(INDEX_CONGLOMERATE,mock(WriteContext.class),
+                                ObjectObjectOpenHashMap.<KVPair,KVPair>newInstance(),10,true,txn,null);
+                        indexBuffer.set(buffer);
+                        barrier.await(10,TimeUnit.SECONDS);
+                        for(KVPair mutation:write.getMutations()){
+                            buffer.add(mutation);
+                        }
+                        return new BulkWriteResult(WriteResult.success());
+                    }
+                });
+        when(pipeline.finishWrite(any(BulkWriteResult.class),any(BulkWrite.class))).thenAnswer(new Answer<BulkWriteResult>(){
+            @Override
+            public BulkWriteResult answer(InvocationOnMock invocation) throws Throwable{
+                indexBuffer.get().flushBuffer();
+                indexBuffer.get().close();
+                return new BulkWriteResult(WriteResult.success());
+            }
+        });
+        pipelines.put(name,pipeline);
+    }
+
+    /**
+     * A WriteCoordinator whose index buffers count the buffers created, and the flushes which write rows.
+     */
+    @SuppressWarnings("unchecked")
+    private static WriteCoordinator indexWriteCoordinator(final AtomicInteger buffersCreated,
+                                                          final AtomicInteger pendingRows,
+                                                          final AtomicInteger writtenRows,
+                                                          final AtomicInteger flushes) throws Exception{
+        WriteCoordinator writeCoordinator = mock(WriteCoordinator.class);
+        PartitionFactory partitionFactory = mock(PartitionFactory.class);
+        when(partitionFactory.getTable(any(byte[].class))).thenReturn(mock(Partition.class));
+        when(writeCoordinator.getPartitionFactory()).thenReturn(partitionFactory);
+        when(writeCoordinator.defaultWriteConfiguration()).thenReturn(mock(WriteConfiguration.class));
+        when(writeCoordinator.writeBuffer(any(Partition.class),any(TxnView.class),any(byte[].class),any(PreFlushHook.class),any(WriteConfiguration.class)))
+                .thenAnswer(new Answer<RecordingCallBuffer<KVPair>>(){
+                    @Override
+                    public RecordingCallBuffer<KVPair> answer(InvocationOnMock invocation) throws Throwable{
+                        buffersCreated.incrementAndGet();
+                        RecordingCallBuffer<KVPair> buffer = mock(RecordingCallBuffer.class);
+                        when(buffer.getPreFlushHook()).thenReturn((PreFlushHook)invocation.getArguments()[3]);
+                        when(buffer.getWriteConfiguration()).thenReturn((WriteConfiguration)invocation.getArguments()[4]);
+                        doAnswer(new Answer<Void>(){
+                            @Override
+                            public Void answer(InvocationOnMock invocation) throws Throwable{
+                                pendingRows.incrementAndGet();
+                                return null;
+                            }
+                        }).when(buffer).add(any(KVPair.class));
+                        Answer<Void> flush = new Answer<Void>(){
+                            @Override
+                            public Void answer(InvocationOnMock invocation) throws Throwable{
+                                int rows = pendingRows.getAndSet(0);
+                                if(rows>0){
+                                    flushes.incrementAndGet();
+                                    writtenRows.addAndGet(rows);
+                                }
+                                return null;
+                            }
+                        };
+                        doAnswer(flush).when(buffer).flushBuffer();
+                        doAnswer(flush).when(buffer).close();
+                        return buffer;
+                    }
+                });
+        return writeCoordinator;
+    }
+
+    private static BulkWrite bulkWrite(String name,int row){
+        List<KVPair> mutations = Collections.singletonList(new KVPair(new byte[]{(byte)row},new byte[]{(byte)row}));
+        return new BulkWrite(mutations,name);
+    }
+
+    /**
+     * Records the thread on which each phase of a partition's write runs, optionally meeting the other
+     * partitions at a barrier or running some extra action while submitting.
+     */
+    private static class RecordingPipeline{
+        private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        private final CyclicBarrier barrier;
+        private final Runnable onSubmit;
+
+        RecordingPipeline(String name,Map<String,List<String>> allEvents,CyclicBarrier barrier,Runnable onSubmit){
+            this.barrier=barrier;
+            this.onSubmit=onSubmit;
+            allEvents.put(name,events);
+        }
+
+        void submit() throws Exception{
+            events.add("submit:"+Thread.currentThread().getName());
+            if(barrier!=null)
+                barrier.await(10,TimeUnit.SECONDS);
+            if(onSubmit!=null)
+                onSubmit.run();
+        }
+
+        void finish(){
+            events.add("finish:"+Thread.currentThread().getName());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.pipeline.callbuffer;
+
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@Category(ArchitectureIndependent.class)
+public class AdaptiveBufferSizerTest{
+
+    @Test
+    public void unknownPartitionUsesMaxEntries(){
+        AdaptiveBufferSizer sizer = new AdaptiveBufferSizer(10,1000,100);
+        assertEquals(1000,sizer.targetEntries("region"));
+        assertEquals(1000,sizer.getAverageTargetEntries());
+    }
+
+    @Test
+    public void rejectionHalvesDownToMinimum(){
+        AdaptiveBufferSizer sizer = new AdaptiveBufferSizer(100,1000,100);
+        sizer.flushRejected("region");
+        assertEquals(500,sizer.targetEntries("region"));
+        sizer.flushRejected("region");
+        sizer.flushRejected("region");
+        assertEquals(125,sizer.targetEntries("region"));
+        sizer.flushRejected("region");
+        assertEquals(100,sizer.targetEntries("region"));
+        sizer.flushRejected("region");
+        assertEquals(100,sizer.targetEntries("region"));
+        assertEquals(4,sizer.getDecreaseCount());
+    }
+
+    @Test
+    public void fastFlushGrowsAdditivelyUpToMaximum(){
+        AdaptiveBufferSizer sizer = new AdaptiveBufferSizer(100,1000,100);
+        sizer.flushRejected("region");
+        sizer.flushSucceeded("region",10);
+        assertEquals(600,sizer.targetEntries("region"));
+        for(int i=0;i<10;i++){
+            sizer.flushSucceeded("region",10);
+        }
+        assertEquals(1000,sizer.targetEntries("region"));
+        assertEquals(5,sizer.getIncreaseCount());
+    }
+
+    @Test
+    public void slowFlushShrinks(){
+        AdaptiveBufferSizer sizer = new AdaptiveBufferSizer(100,1000,100);
+        sizer.flushSucceeded("region",500);
+        assertEquals(500,sizer.targetEntries("region"));
+        assertEquals(1000,sizer.targetEntries("otherRegion"));
+    }
+
+    @Test
+    public void shouldFlushOnSize(){
+        AdaptiveBufferSizer sizer = new AdaptiveBufferSizer(10,100,100);
+        assertFalse(sizer.shouldFlush("region",0));
+        assertFalse(sizer.shouldFlush("region",99));
+        assertTrue(sizer.shouldFlush("region",100));
+
+        sizer.flushSucceeded("region",500);
+        assertTrue(sizer.shouldFlush("region",50));
+        assertFalse(sizer.shouldFlush("otherRegion",50));
+    }
+
+    @Test
+    public void multiRegionLatencyIsSharedByRows(){
+        assertEquals(250,AdaptiveBufferSizer.latencyShare(1000,25,100));
+        assertEquals(750,AdaptiveBufferSizer.latencyShare(1000,75,100));
+        assertEquals(1000,AdaptiveBufferSizer.latencyShare(1000,100,100));
+
+        // a region with a small share of a slow RPC is not penalised for the other regions' rows
+        AdaptiveBufferSizer sizer = new AdaptiveBufferSizer(100,1000,100);
+        sizer.flushSucceeded("small",AdaptiveBufferSizer.latencyShare(400,10,100));
+        sizer.flushSucceeded("large",AdaptiveBufferSizer.latencyShare(400,90,100));
+        assertEquals(1000,sizer.targetEntries("small"));
+        assertEquals(500,sizer.targetEntries("large"));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline.client;
+
+import com.splicemachine.concurrent.IncrementingClock;
+import com.splicemachine.pipeline.traffic.BackpressureHint;
+import com.splicemachine.pipeline.traffic.SynchronousWriteControl;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@Category(ArchitectureIndependent.class)
+public class WritePacerTest{
+
+    @Test
+    public void rejectionHoldsOffServerForSuggestedTime() throws Exception{
+        IncrementingClock clock = new IncrementingClock();
+        WritePacer pacer = new WritePacer(clock,true);
+        assertEquals(0L,pacer.pauseFor("server:1"));
+
+        assertTrue(pacer.hintReceived("server:1",new BackpressureHint(true,1d,100,10,200L)));
+        assertEquals(200L,pacer.pauseFor("server:1"));
+        assertEquals(0L,pacer.pauseFor("server:2"));
+
+        clock.sleep(150L,TimeUnit.MILLISECONDS);
+        assertEquals(50L,pacer.pauseFor("server:1"));
+        clock.sleep(50L,TimeUnit.MILLISECONDS);
+        assertEquals(0L,pacer.pauseFor("server:1"));
+        assertEquals(0,pacer.getPacedServers());
+        assertEquals(1L,pacer.getRejectionHintsReceived());
+    }
+
+    @Test
+    public void loadHintPacesLessThanRejection() throws Exception{
+        IncrementingClock clock = new IncrementingClock();
+        WritePacer pacer = new WritePacer(clock,true);
+        pacer.hintReceived("server:1",new BackpressureHint(false,0.5d,100,10,200L));
+        assertEquals(50L,pacer.pauseFor("server:1"));
+    }
+
+    @Test
+    public void staleHintDoesNotShortenPause() throws Exception{
+        IncrementingClock clock = new IncrementingClock();
+        WritePacer pacer = new WritePacer(clock,true);
+        pacer.hintReceived("server:1",new BackpressureHint(true,1d,100,10,500L));
+        pacer.hintReceived("server:1",new BackpressureHint(false,0.8d,100,10,100L));
+        assertEquals(500L,pacer.pauseFor("server:1"));
+    }
+
+    @Test
+    public void disabledPacerIgnoresHints() throws Exception{
+        WritePacer pacer = new WritePacer(new IncrementingClock(),false);
+        assertFalse(pacer.hintReceived("server:1",new BackpressureHint(true,1d,100,10,500L)));
+        assertEquals(0L,pacer.pauseFor("server:1"));
+        assertEquals(1L,pacer.getHintsReceived());
+    }
+
+    @Test
+    public void hintReflectsWriteControlLoad() throws Exception{
+        SynchronousWriteControl control = new SynchronousWriteControl(10,10,100,100);
+        control.performDependentWrite(80);
+        BackpressureHint dependent = BackpressureHint.compute(control,true,false,1000d);
+        assertEquals(0.8d,dependent.getUtilization(),1e-9);
+        assertEquals(80,dependent.getQueueDepth());
+        assertEquals(80L,dependent.getResumeAfterMs());
+
+        //independent writes can still use their own capacity, so they are not loaded
+        BackpressureHint independent = BackpressureHint.compute(control,false,false,1000d);
+        assertEquals(0d,independent.getUtilization(),1e-9);
+
+        BackpressureHint rejected = BackpressureHint.compute(control,true,true,0d);
+        assertTrue(rejected.isRejected());
+        assertEquals(1d,rejected.getUtilization(),1e-9);
+        assertEquals(BackpressureHint.DEFAULT_RESUME_AFTER_MS,rejected.getResumeAfterMs());
+    }
+}
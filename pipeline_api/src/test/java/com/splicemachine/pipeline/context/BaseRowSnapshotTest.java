@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline.context;
+
+import com.splicemachine.kvpair.KVPair;
+import com.splicemachine.si.api.data.TxnOperationFactory;
+import com.splicemachine.si.api.server.TransactionalRegion;
+import com.splicemachine.si.api.txn.TxnView;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import com.splicemachine.storage.DataGet;
+import com.splicemachine.storage.DataResult;
+import com.splicemachine.storage.Partition;
+import com.splicemachine.utils.ByteSlice;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Arrays;
+
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+@Category(ArchitectureIndependent.class)
+public class BaseRowSnapshotTest{
+    private static final byte[] ROW_A=new byte[]{0x01};
+    private static final byte[] ROW_B=new byte[]{0x02};
+    private static final byte[] ROW_C=new byte[]{0x03};
+
+    private TxnOperationFactory opFactory;
+    private Partition region;
+    private WriteContext ctx;
+    private DataGet getA;
+    private DataGet getB;
+
+    @Before
+    public void setUp() throws Exception{
+        TxnView txn=mock(TxnView.class);
+        TransactionalRegion txnRegion=mock(TransactionalRegion.class);
+        when(txnRegion.rowInRange(any(ByteSlice.class))).thenReturn(true);
+        region=mock(Partition.class);
+        ctx=mock(WriteContext.class);
+        when(ctx.getTxn()).thenReturn(txn);
+        when(ctx.txnRegion()).thenReturn(txnRegion);
+        when(ctx.getRegion()).thenReturn(region);
+
+        opFactory=mock(TxnOperationFactory.class);
+        getA=mock(DataGet.class);
+        getB=mock(DataGet.class);
+        when(opFactory.newDataGet(eq(txn),aryEq(ROW_A),any(DataGet.class))).thenReturn(getA);
+        when(opFactory.newDataGet(eq(txn),aryEq(ROW_B),any(DataGet.class))).thenReturn(getB);
+    }
+
+    @Test
+    public void readsTheWholeBatchOnceAndServesLaterRowsFromTheSnapshot() throws Exception{
+        DataResult rowA=mock(DataResult.class);
+        DataResult rowB=mock(DataResult.class);
+        when(region.get(getA,null)).thenReturn(rowA);
+        when(region.get(getB,null)).thenReturn(rowB);
+        KVPair updateA=new KVPair(ROW_A,new byte[]{0x10},KVPair.Type.UPDATE);
+        KVPair deleteB=new KVPair(ROW_B,new byte[]{},KVPair.Type.DELETE);
+
+        BaseRowSnapshot snapshot=new BaseRowSnapshot(opFactory);
+        snapshot.setBatch(Arrays.asList(updateA,deleteB));
+
+        Assert.assertSame("Incorrect row for first mutation",rowA,snapshot.get(updateA,ctx));
+        verify(region,times(2)).get(any(DataGet.class),any(DataResult.class));
+        Assert.assertSame("Incorrect row for second mutation",rowB,snapshot.get(deleteB,ctx));
+        verify(region,times(2)).get(any(DataGet.class),any(DataResult.class));
+    }
+
+    @Test
+    public void mutationsWhichCannotReplaceARowAreNotCovered() throws Exception{
+        when(region.get(getA,null)).thenReturn(mock(DataResult.class));
+        KVPair updateA=new KVPair(ROW_A,new byte[]{0x10},KVPair.Type.UPDATE);
+        KVPair insertC=new KVPair(ROW_C,new byte[]{0x10},KVPair.Type.INSERT);
+        KVPair notInBatch=new KVPair(ROW_B,new byte[]{0x10},KVPair.Type.UPDATE);
+
+        BaseRowSnapshot snapshot=new BaseRowSnapshot(opFactory);
+        snapshot.setBatch(Arrays.asList(updateA,insertC));
+
+        Assert.assertNull("Inserts should not be covered by the snapshot",snapshot.get(insertC,ctx));
+        Assert.assertNull("Rows from outside the batch should not be covered by the snapshot",snapshot.get(notInBatch,ctx));
+        verify(region,times(1)).get(any(DataGet.class),any(DataResult.class));
+        verify(opFactory,never()).newDataGet(any(TxnView.class),aryEq(ROW_C),any(DataGet.class));
+    }
+
+    @Test
+    public void rowAbsentAtSnapshotIsAnEmptyResult() throws Exception{
+        DataResult absent=mock(DataResult.class);
+        when(absent.size()).thenReturn(0);
+        when(region.get(getA,null)).thenReturn(absent);
+        when(region.get(getB,null)).thenReturn(mock(DataResult.class));
+        KVPair upsertA=new KVPair(ROW_A,new byte[]{0x10},KVPair.Type.UPSERT);
+        KVPair updateB=new KVPair(ROW_B,new byte[]{0x10},KVPair.Type.UPDATE);
+
+        BaseRowSnapshot snapshot=new BaseRowSnapshot(opFactory);
+        snapshot.setBatch(Arrays.asList(upsertA,updateB));
+
+        DataResult result=snapshot.get(upsertA,ctx);
+        Assert.assertNotNull("A row absent at the snapshot is still covered by it",result);
+        Assert.assertEquals("A row absent at the snapshot should be empty",0,result.size());
+    }
+
+    @Test
+    public void singleRowBatchesAreNotSnapshotted() throws Exception{
+        KVPair updateA=new KVPair(ROW_A,new byte[]{0x10},KVPair.Type.UPDATE);
+
+        BaseRowSnapshot snapshot=new BaseRowSnapshot(opFactory);
+        snapshot.setBatch(Arrays.asList(updateA));
+
+        Assert.assertNull("Single row batches should be read directly",snapshot.get(updateA,ctx));
+        verifyZeroInteractions(region);
+    }
+}
@@ -70,4 +70,10 @@ public interface PartitionAdmin extends AutoCloseable{
 
     List<byte[]> hbaseOperation(String table, String operation, byte[] bytes) throws IOException;
 
+    /**
+     * Set a property on the table's descriptor, where the storage engine keeps per-table settings
+     * that are read on the server side (e.g. by compactions).
+     */
+    void setTableProperty(String tableName, String key, String value) throws IOException;
+
 }
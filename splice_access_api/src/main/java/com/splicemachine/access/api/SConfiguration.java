@@ -157,6 +157,18 @@ public interface SConfiguration {
 
     int getRegionToLoadPerTask();
 
+    int getPartitionApplyThreads();
+
+    boolean getAdaptiveWriteBuffer();
+
+    long getWriteBufferTargetLatency();
+
+    int getMinBufferEntries();
+
+    double getBackpressureHintThreshold();
+
+    boolean getClientWritePacing();
+
     // SIConfigurations
     int getActiveTransactionCacheSize();
 
@@ -257,6 +269,8 @@ public interface SConfiguration {
 
     int getNestedLoopJoinBatchSize();
 
+    int getNestedLoopJoinKeyedBatchSize();
+
     // StatsConfiguration
     double getFallbackNullFraction();
 
@@ -316,11 +330,41 @@ public interface SConfiguration {
 
     boolean getResolutionOnFlushes();
 
+    boolean getCompactionVersionGC();
+
+    long getActiveTransactionPublishInterval();
+
+    long getRowCacheMaxBytes();
+
     int getReservedSlotsTimeout();
 
     int getOlapServerTickLimit();
 
     long getControlExecutionRowLimit();
 
+    String getStatementCachePersistDirectory();
+
+    int getStatementCacheWarmupSize();
+
+    long getStatementCachePersistInterval();
+
+    int getStatementStatisticsMaxEntries();
+
+    double getStatisticsRefreshRatio();
+
+    long getStatisticsRefreshInterval();
+
+    int getStatisticsMaxColumnGroups();
+
+    long getRegionAggregationMaxMemory();
+
+    long getIndexPopulationRowsPerSecond();
+
+    int getIndexPopulationRegionsPerJob();
+
+    int getIndexPopulationParallelJobs();
+
+    int getIndexPopulationMaxRetries();
+
     String getOlapLog4jConfig();
 }
@@ -136,6 +136,7 @@ public class ConfigurationBuilder {
     public String upgradeForcedFrom;
     public String storageFactoryHome;
     public int nestedLoopJoinBatchSize;
+    public int nestedLoopJoinKeyedBatchSize;
 
     // PipelineConfiguration
     public int coreWriterThreads;
@@ -164,11 +165,32 @@ public class ConfigurationBuilder {
     public int olapCompactionResolutionBufferSize;
     public boolean olapCompactionBlocking;
     public boolean resolutionOnFlushes;
+    public boolean compactionVersionGC;
+    public long activeTransactionPublishInterval;
+    public long rowCacheMaxBytes;
     public int olapClientRetries;
     public double bulkImportSampleFraction;
     public int bulkImportTasksPerRegion;
     public int regionToLoadPerTask;
+    public int partitionApplyThreads;
+    public boolean adaptiveWriteBuffer;
+    public long writeBufferTargetLatency;
+    public int minBufferEntries;
+    public double backpressureHintThreshold;
+    public boolean clientWritePacing;
     public long controlExecutionRowLimit;
+    public String statementCachePersistDirectory;
+    public int statementCacheWarmupSize;
+    public long statementCachePersistInterval;
+    public int statementStatisticsMaxEntries;
+    public double statisticsRefreshRatio;
+    public long statisticsRefreshInterval;
+    public int statisticsMaxColumnGroups;
+    public long regionAggregationMaxMemory;
+    public long indexPopulationRowsPerSecond;
+    public int indexPopulationRegionsPerJob;
+    public int indexPopulationParallelJobs;
+    public int indexPopulationMaxRetries;
     public int olapShufflePartitions;
     public String olapLog4jConfig;
 
@@ -51,12 +51,51 @@ public class DDLConfiguration implements ConfigurationDefault {
     public static final String DDL_DRAINING_MAXIMUM_WAIT = "splice.ddl.drainingWait.maximum";
     private static final long DEFAULT_DDL_DRAINING_MAXIMUM_WAIT = 100000;
 
+    /**
+     * The maximum number of base table rows per second each index population task reads, where each
+     * task populates the index from one region of the base table. The limit is lowered automatically
+     * while index writes slow down, which happens when the region servers are busy with foreground writes.
+     *
+     * Defaults to 0, meaning no limit.
+     */
+    public static final String INDEX_POPULATION_ROWS_PER_SECOND = "splice.ddl.indexPopulation.rowsPerSecond";
+    private static final long DEFAULT_INDEX_POPULATION_ROWS_PER_SECOND = 0L;
+
+    /**
+     * The number of base table regions an index population job covers. A large index is populated by
+     * several such jobs; a job that fails is retried on its own instead of restarting the whole population.
+     *
+     * Defaults to 64
+     */
+    public static final String INDEX_POPULATION_REGIONS_PER_JOB = "splice.ddl.indexPopulation.regionsPerJob";
+    private static final int DEFAULT_INDEX_POPULATION_REGIONS_PER_JOB = 64;
+
+    /**
+     * The number of index population jobs of the same index that may run at the same time.
+     *
+     * Defaults to 4
+     */
+    public static final String INDEX_POPULATION_PARALLEL_JOBS = "splice.ddl.indexPopulation.parallelJobs";
+    private static final int DEFAULT_INDEX_POPULATION_PARALLEL_JOBS = 4;
+
+    /**
+     * The number of times a failed index population job is retried before the index creation fails.
+     *
+     * Defaults to 3
+     */
+    public static final String INDEX_POPULATION_MAX_RETRIES = "splice.ddl.indexPopulation.maxRetries";
+    private static final int DEFAULT_INDEX_POPULATION_MAX_RETRIES = 3;
+
     @Override
     public void setDefaults(ConfigurationBuilder builder, ConfigurationSource configurationSource) {
         builder.maxDdlWait = configurationSource.getLong(MAX_DDL_WAIT, DEFAULT_MAX_DDL_WAIT);
         builder.ddlRefreshInterval = configurationSource.getLong(DDL_REFRESH_INTERVAL, DEFAULT_DDL_REFRESH_INTERVAL);
         builder.ddlDrainingInitialWait = configurationSource.getLong(DDL_DRAINING_INITIAL_WAIT, DEFAULT_DDL_DRAINING_INITIAL_WAIT);
         builder.ddlDrainingMaximumWait = configurationSource.getLong(DDL_DRAINING_MAXIMUM_WAIT, DEFAULT_DDL_DRAINING_MAXIMUM_WAIT);
+        builder.indexPopulationRowsPerSecond = configurationSource.getLong(INDEX_POPULATION_ROWS_PER_SECOND, DEFAULT_INDEX_POPULATION_ROWS_PER_SECOND);
+        builder.indexPopulationRegionsPerJob = configurationSource.getInt(INDEX_POPULATION_REGIONS_PER_JOB, DEFAULT_INDEX_POPULATION_REGIONS_PER_JOB);
+        builder.indexPopulationParallelJobs = configurationSource.getInt(INDEX_POPULATION_PARALLEL_JOBS, DEFAULT_INDEX_POPULATION_PARALLEL_JOBS);
+        builder.indexPopulationMaxRetries = configurationSource.getInt(INDEX_POPULATION_MAX_RETRIES, DEFAULT_INDEX_POPULATION_MAX_RETRIES);
     }
 
 }
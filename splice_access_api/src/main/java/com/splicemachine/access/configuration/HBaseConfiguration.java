@@ -81,6 +81,12 @@ public class HBaseConfiguration implements ConfigurationDefault {
      */
     public static final String MINIMUM_ACTIVE_PATH = TRANSACTION_PATH+"/minimum";
 
+    /**
+     * The Path in zookeeper under which each server publishes its oldest active transaction,
+     * in an ephemeral child node. Defaults to [TRANSACTION_PATH]/active
+     */
+    public static final String ACTIVE_TRANSACTIONS_PATH = TRANSACTION_PATH+"/active";
+
     /**
      * Path in ZooKeeper for manipulating Conglomerate information.
      * Defaults to /conglomerates
@@ -98,6 +104,12 @@ public class HBaseConfiguration implements ConfigurationDefault {
      */
     public static final String SERVERS_PATH = "/servers";
 
+    /**
+     * Path in ZooKeeper under which a server claims a table, in an ephemeral child node,
+     * while it refreshes the table's statistics. Defaults to /statisticsRefresh
+     */
+    public static final String STATISTICS_REFRESH_PATH = "/statisticsRefresh";
+
     public static final String DDL_PATH="/ddl";
     public static final String DDL_CHANGE_PATH="/ddlChange";
 
@@ -157,10 +169,12 @@ public class HBaseConfiguration implements ConfigurationDefault {
         CONGLOMERATE_SCHEMA_PATH,
         CONGLOMERATE_SCHEMA_PATH,
         MINIMUM_ACTIVE_PATH,
+        ACTIVE_TRANSACTIONS_PATH,
         TRANSACTION_PATH,
         MAX_RESERVED_TIMESTAMP_PATH,
         DDL_CHANGE_PATH,
         DDL_PATH,
+        STATISTICS_REFRESH_PATH,
         SNOWFLAKE_PATH,
         BOOKINGS_PATH
     ));
@@ -22,6 +22,7 @@ public class PipelineConfiguration implements ConfigurationDefault {
     public static final String WRITE_COORDINATOR_OBJECT_LOCATION = "com.splicemachine.writer:type=WriteCoordinatorStatus";
     public static final String WRITER_STATUS_OBJECT_LOCATION = "com.splicemachine.writer.async:type=WriterStatus";
     public static final String THREAD_POOL_STATUS_LOCATION = "com.splicemachine.writer.async:type=ThreadPoolStatus";
+    public static final String WRITE_PACER_OBJECT_LOCATION = "com.splicemachine.writer:type=WritePacerStatus";
 
     public static final String MAX_BUFFER_ENTRIES= "splice.client.write.buffer.maxentries";
     public static final int DEFAULT_MAX_BUFFER_ENTRIES = 1000;
@@ -165,6 +166,66 @@ public class PipelineConfiguration implements ConfigurationDefault {
     private static final int DEFAULT_REGION_TOLOAD_PER_TASK = 10;
 
 
+    /**
+     * The maximum number of threads which may be used on a region server to concurrently apply the
+     * per-region BulkWrites carried by a single write RPC. When an RPC contains writes for more than one
+     * region hosted on this server, each region's writes are applied on this pool rather than one after
+     * another on the RPC handler thread. When the pool is saturated, the handler thread applies the write
+     * itself. Set to 0 to apply all writes serially on the handler thread.
+     *
+     * Defaults to 16
+     */
+    public static final String PARTITION_APPLY_THREADS = "splice.writer.partitionApplyThreads";
+    public static final int DEFAULT_PARTITION_APPLY_THREADS = 16;
+
+    /**
+     * Whether client write buffers should adapt the number of buffered entries per destination region
+     * based on observed flush latency and rejections (additive increase, multiplicative decrease). When
+     * disabled, every buffer flushes only when splice.client.write.buffer.maxentries or
+     * splice.client.write.buffer is reached.
+     *
+     * Defaults to false
+     */
+    public static final String ADAPTIVE_WRITE_BUFFER = "splice.client.write.buffer.adaptive";
+    public static final boolean DEFAULT_ADAPTIVE_WRITE_BUFFER = false;
+
+    /**
+     * The flush latency (in milliseconds) that adaptive write buffers aim for. Flushes to a region that
+     * complete faster than this grow that region's batch size; slower flushes (or rejections) shrink it.
+     *
+     * Defaults to 250 ms
+     */
+    public static final String WRITE_BUFFER_TARGET_LATENCY = "splice.client.write.buffer.targetLatency";
+    public static final long DEFAULT_WRITE_BUFFER_TARGET_LATENCY = 250L;
+
+    /**
+     * The smallest number of entries an adaptive write buffer will shrink a region's batch size to.
+     *
+     * Defaults to 100
+     */
+    public static final String MIN_BUFFER_ENTRIES = "splice.client.write.buffer.minentries";
+    public static final int DEFAULT_MIN_BUFFER_ENTRIES = 100;
+
+    /**
+     * The utilization (as a fraction of the configured write thread and write count limits) of a region
+     * server's write control above which successful writes carry a backpressure hint back to the client.
+     * Rejected writes always carry a hint. Set to a value greater than 1 to only send hints on rejection.
+     *
+     * Defaults to 0.75
+     */
+    public static final String BACKPRESSURE_HINT_THRESHOLD = "splice.writer.backpressureHintThreshold";
+    public static final double DEFAULT_BACKPRESSURE_HINT_THRESHOLD = 0.75d;
+
+    /**
+     * Whether writers should pace themselves against the backpressure hints returned by region servers,
+     * delaying writes to a loaded server for the time the server suggests instead of retrying on a blind
+     * exponential backoff. When disabled, hints are ignored.
+     *
+     * Defaults to true
+     */
+    public static final String CLIENT_WRITE_PACING = "splice.client.write.pacing";
+    public static final boolean DEFAULT_CLIENT_WRITE_PACING = true;
+
     @Override
     public void setDefaults(ConfigurationBuilder builder, ConfigurationSource configurationSource) {
         builder.maxIndependentWriteThreads = configurationSource.getInt(MAX_INDEPENDENT_WRITE_THREADS, DEFAULT_MAX_INDEPENDENT_WRITE_THREADS);
@@ -193,5 +254,11 @@ public class PipelineConfiguration implements ConfigurationDefault {
         builder.bulkImportSampleFraction = configurationSource.getDouble(BULK_IMPORT_SAMPLE_FRACTION, DEFAULT_BULK_IMPORT_SAMPLE_FRACTION);
         builder.bulkImportTasksPerRegion = configurationSource.getInt(BULK_IMPORT_TASKS_PER_REGION, DEFAULT_BULK_IMPORT_TASKS_PER_REGION);
         builder.regionToLoadPerTask = configurationSource.getInt(REGION_TOLOAD_PER_TASK, DEFAULT_REGION_TOLOAD_PER_TASK);
+        builder.partitionApplyThreads = configurationSource.getInt(PARTITION_APPLY_THREADS, DEFAULT_PARTITION_APPLY_THREADS);
+        builder.adaptiveWriteBuffer = configurationSource.getBoolean(ADAPTIVE_WRITE_BUFFER, DEFAULT_ADAPTIVE_WRITE_BUFFER);
+        builder.writeBufferTargetLatency = configurationSource.getLong(WRITE_BUFFER_TARGET_LATENCY, DEFAULT_WRITE_BUFFER_TARGET_LATENCY);
+        builder.minBufferEntries = configurationSource.getInt(MIN_BUFFER_ENTRIES, DEFAULT_MIN_BUFFER_ENTRIES);
+        builder.backpressureHintThreshold = configurationSource.getDouble(BACKPRESSURE_HINT_THRESHOLD, DEFAULT_BACKPRESSURE_HINT_THRESHOLD);
+        builder.clientWritePacing = configurationSource.getBoolean(CLIENT_WRITE_PACING, DEFAULT_CLIENT_WRITE_PACING);
     }
 }
@@ -114,10 +114,19 @@ public final class SConfigurationImpl implements SConfiguration {
     private final int olapCompactionResolutionBufferSize;
     private final boolean olapCompactionBlocking;
     private final boolean resolutionOnFlushes;
+    private final boolean compactionVersionGC;
+    private final long activeTransactionPublishInterval;
+    private final long rowCacheMaxBytes;
     private final int reservedSlotsTimeout;
     private final double bulkImportSampleFraction;
     private final int bulkImportTasksPerRegion;
     private final int regionToLoadPerTask;
+    private final int partitionApplyThreads;
+    private final boolean adaptiveWriteBuffer;
+    private final long writeBufferTargetLatency;
+    private final int minBufferEntries;
+    private final double backpressureHintThreshold;
+    private final boolean clientWritePacing;
 
     // OLAP client/server configurations
     private final int olapClientWaitTime;
@@ -174,7 +183,20 @@ public final class SConfigurationImpl implements SConfiguration {
     private final  String upgradeForcedFrom;
     private final String storageFactoryHome;
     private final int nestedLoopJoinBatchSize;
+    private final int nestedLoopJoinKeyedBatchSize;
     private final long controlExecutionRowLimit;
+    private final String statementCachePersistDirectory;
+    private final int statementCacheWarmupSize;
+    private final long statementCachePersistInterval;
+    private final int statementStatisticsMaxEntries;
+    private final double statisticsRefreshRatio;
+    private final long statisticsRefreshInterval;
+    private final int statisticsMaxColumnGroups;
+    private final long regionAggregationMaxMemory;
+    private final long indexPopulationRowsPerSecond;
+    private final int indexPopulationRegionsPerJob;
+    private final int indexPopulationParallelJobs;
+    private final int indexPopulationMaxRetries;
 
     // StatsConfiguration
     private final  double fallbackNullFraction;
@@ -439,6 +461,36 @@ public final class SConfigurationImpl implements SConfiguration {
         return regionToLoadPerTask;
     }
 
+    @Override
+    public int getPartitionApplyThreads() {
+        return partitionApplyThreads;
+    }
+
+    @Override
+    public boolean getAdaptiveWriteBuffer() {
+        return adaptiveWriteBuffer;
+    }
+
+    @Override
+    public long getWriteBufferTargetLatency() {
+        return writeBufferTargetLatency;
+    }
+
+    @Override
+    public int getMinBufferEntries() {
+        return minBufferEntries;
+    }
+
+    @Override
+    public double getBackpressureHintThreshold() {
+        return backpressureHintThreshold;
+    }
+
+    @Override
+    public boolean getClientWritePacing() {
+        return clientWritePacing;
+    }
+
     @Override
     public int getSparkResultStreamingBatches() {
         return sparkResultStreamingBatches;
@@ -639,6 +691,11 @@ public final class SConfigurationImpl implements SConfiguration {
         return nestedLoopJoinBatchSize;
     }
 
+    @Override
+    public int getNestedLoopJoinKeyedBatchSize() {
+        return nestedLoopJoinKeyedBatchSize;
+    }
+
     // StatsConfiguration
     @Override
     public double getFallbackNullFraction() {
@@ -843,13 +900,35 @@ public final class SConfigurationImpl implements SConfiguration {
         olapCompactionBlocking = builder.olapCompactionBlocking;
         olapLog4jConfig = builder.olapLog4jConfig;
         resolutionOnFlushes = builder.resolutionOnFlushes;
+        compactionVersionGC = builder.compactionVersionGC;
+        activeTransactionPublishInterval = builder.activeTransactionPublishInterval;
+        rowCacheMaxBytes = builder.rowCacheMaxBytes;
         reservedSlotsTimeout = builder.reservedSlotsTimeout;
         storageFactoryHome = builder.storageFactoryHome;
         nestedLoopJoinBatchSize = builder.nestedLoopJoinBatchSize;
+        nestedLoopJoinKeyedBatchSize = builder.nestedLoopJoinKeyedBatchSize;
         controlExecutionRowLimit = builder.controlExecutionRowLimit;
+        statementCachePersistDirectory = builder.statementCachePersistDirectory;
+        statementCacheWarmupSize = builder.statementCacheWarmupSize;
+        statementCachePersistInterval = builder.statementCachePersistInterval;
+        statementStatisticsMaxEntries = builder.statementStatisticsMaxEntries;
+        statisticsRefreshRatio = builder.statisticsRefreshRatio;
+        statisticsRefreshInterval = builder.statisticsRefreshInterval;
+        statisticsMaxColumnGroups = builder.statisticsMaxColumnGroups;
+        regionAggregationMaxMemory = builder.regionAggregationMaxMemory;
+        indexPopulationRowsPerSecond = builder.indexPopulationRowsPerSecond;
+        indexPopulationRegionsPerJob = builder.indexPopulationRegionsPerJob;
+        indexPopulationParallelJobs = builder.indexPopulationParallelJobs;
+        indexPopulationMaxRetries = builder.indexPopulationMaxRetries;
         bulkImportSampleFraction = builder.bulkImportSampleFraction;
         bulkImportTasksPerRegion = builder.bulkImportTasksPerRegion;
         regionToLoadPerTask = builder.regionToLoadPerTask;
+        partitionApplyThreads = builder.partitionApplyThreads;
+        adaptiveWriteBuffer = builder.adaptiveWriteBuffer;
+        writeBufferTargetLatency = builder.writeBufferTargetLatency;
+        minBufferEntries = builder.minBufferEntries;
+        backpressureHintThreshold = builder.backpressureHintThreshold;
+        clientWritePacing = builder.clientWritePacing;
         ignoreMissingTxns = builder.ignoreMissingTxns;
     }
 
@@ -929,6 +1008,21 @@ public final class SConfigurationImpl implements SConfiguration {
         return resolutionOnFlushes;
     }
 
+    @Override
+    public boolean getCompactionVersionGC() {
+        return compactionVersionGC;
+    }
+
+    @Override
+    public long getActiveTransactionPublishInterval() {
+        return activeTransactionPublishInterval;
+    }
+
+    @Override
+    public long getRowCacheMaxBytes() {
+        return rowCacheMaxBytes;
+    }
+
     @Override
     public int getReservedSlotsTimeout() {
         return reservedSlotsTimeout;
@@ -944,4 +1038,64 @@ public final class SConfigurationImpl implements SConfiguration {
         return controlExecutionRowLimit;
     }
 
+    @Override
+    public String getStatementCachePersistDirectory() {
+        return statementCachePersistDirectory;
+    }
+
+    @Override
+    public int getStatementCacheWarmupSize() {
+        return statementCacheWarmupSize;
+    }
+
+    @Override
+    public long getStatementCachePersistInterval() {
+        return statementCachePersistInterval;
+    }
+
+    @Override
+    public int getStatementStatisticsMaxEntries() {
+        return statementStatisticsMaxEntries;
+    }
+
+    @Override
+    public double getStatisticsRefreshRatio() {
+        return statisticsRefreshRatio;
+    }
+
+    @Override
+    public long getStatisticsRefreshInterval() {
+        return statisticsRefreshInterval;
+    }
+
+    @Override
+    public int getStatisticsMaxColumnGroups() {
+        return statisticsMaxColumnGroups;
+    }
+
+    @Override
+    public long getRegionAggregationMaxMemory() {
+        return regionAggregationMaxMemory;
+    }
+
+    @Override
+    public long getIndexPopulationRowsPerSecond() {
+        return indexPopulationRowsPerSecond;
+    }
+
+    @Override
+    public int getIndexPopulationRegionsPerJob() {
+        return indexPopulationRegionsPerJob;
+    }
+
+    @Override
+    public int getIndexPopulationParallelJobs() {
+        return indexPopulationParallelJobs;
+    }
+
+    @Override
+    public int getIndexPopulationMaxRetries() {
+        return indexPopulationMaxRetries;
+    }
+
 }
@@ -141,6 +141,20 @@ public class SIConfigurations implements ConfigurationDefault {
     public static final String RESOLUTION_ON_FLUSHES = "splice.txn.resolution.flushes";
     public static final boolean DEFAULT_RESOLUTION_ON_FLUSHES = true;
 
+    // Whether compactions discard committed row versions that are hidden from every active transaction
+    public static final String COMPACTION_VERSION_GC = "splice.txn.compaction.versionGC";
+    public static final boolean DEFAULT_COMPACTION_VERSION_GC = true;
+
+    // How often each server publishes its oldest active transaction, from which the cluster-wide
+    // minimum active transaction (the version watermark for compactions) is taken
+    public static final String ACTIVE_TRANSACTION_PUBLISH_INTERVAL = "splice.txn.activeTransactionPublishIntervalMs";
+    public static final long DEFAULT_ACTIVE_TRANSACTION_PUBLISH_INTERVAL = 60000L;
+
+    // Memory in bytes each region may use to cache the rows read by point lookups, 0 to disable. Can be set per table
+    // with the same key in the configuration of the HBase table descriptor
+    public static final String ROW_CACHE_MAX_BYTES = "splice.rowCache.maxBytes";
+    public static final long DEFAULT_ROW_CACHE_MAX_BYTES = 0L;
+
     @Override
     public void setDefaults(ConfigurationBuilder builder, ConfigurationSource configurationSource) {
         builder.completedTxnConcurrency  = configurationSource.getInt(completedTxnConcurrency, DEFAULT_COMPLETED_TRANSACTION_CONCURRENCY);
@@ -174,5 +188,8 @@ public class SIConfigurations implements ConfigurationDefault {
         builder.olapCompactionResolutionBufferSize = configurationSource.getInt(COMPACTION_RESOLUTION_BUFFER_SIZE, DEFAULT_COMPACTION_RESOLUTION_BUFFER_SIZE);
         builder.olapCompactionBlocking = configurationSource.getBoolean(COMPACTION_BLOCKING, DEFAULT_COMPACTION_BLOCKING);
         builder.resolutionOnFlushes = configurationSource.getBoolean(RESOLUTION_ON_FLUSHES, DEFAULT_RESOLUTION_ON_FLUSHES);
+        builder.compactionVersionGC = configurationSource.getBoolean(COMPACTION_VERSION_GC, DEFAULT_COMPACTION_VERSION_GC);
+        builder.activeTransactionPublishInterval = configurationSource.getLong(ACTIVE_TRANSACTION_PUBLISH_INTERVAL, DEFAULT_ACTIVE_TRANSACTION_PUBLISH_INTERVAL);
+        builder.rowCacheMaxBytes = configurationSource.getLong(ROW_CACHE_MAX_BYTES, DEFAULT_ROW_CACHE_MAX_BYTES);
     }
 }
@@ -16,6 +16,8 @@ package com.splicemachine.access.configuration;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
+import java.io.File;
+
 /**
  * @author Scott Fines
  *         Date: 12/31/15
@@ -219,6 +221,95 @@ public class SQLConfiguration implements ConfigurationDefault {
     public static final String CONTROL_EXECUTION_ROWS_LIMIT = "splice.controlExecution.rowsLimit";
     private static final int DEFAULT_CONTROL_EXECUTION_ROWS_LIMIT = 1000000;
 
+    /**
+     * Local directory under which each server keeps, in a subdirectory of its own, a snapshot of its
+     * most frequently executed statements, so that their plans can be compiled in the background after
+     * a restart instead of on the first client request. An empty value disables the snapshot.
+     *
+     * Defaults to splice_statement_cache under the server's local directory (hbase.local.dir), or under
+     * the working directory when there is none
+     */
+    public static final String STATEMENT_CACHE_PERSIST_DIRECTORY = "splice.statementCache.persistDirectory";
+    private static final String STATEMENT_CACHE_DIRECTORY_NAME = "splice_statement_cache";
+
+    /**
+     * Maximum number of statements kept in the statement cache snapshot, and compiled in
+     * the background when the server starts. 0 disables the snapshot.
+     *
+     * Defaults to 1000
+     */
+    public static final String STATEMENT_CACHE_WARMUP_SIZE = "splice.statementCache.warmupSize";
+    private static final int DEFAULT_STATEMENT_CACHE_WARMUP_SIZE = 1000;
+
+    /**
+     * How often (in milliseconds) the statement cache snapshot is rewritten. It is also
+     * written when the server shuts down cleanly.
+     *
+     * Defaults to 300000 (5 minutes)
+     */
+    public static final String STATEMENT_CACHE_PERSIST_INTERVAL = "splice.statementCache.persistInterval";
+    private static final long DEFAULT_STATEMENT_CACHE_PERSIST_INTERVAL = 300000L;
+
+    /**
+     * Maximum number of distinct statements for which each server keeps aggregated execution
+     * statistics (see SYSCS_UTIL.SYSCS_GET_STATEMENT_STATISTICS). When the limit is reached, the
+     * least frequently executed statements are dropped. 0 disables the statistics.
+     *
+     * Defaults to 1000
+     */
+    public static final String STATEMENT_STATISTICS_MAX_ENTRIES = "splice.statementStatistics.maxEntries";
+    private static final int DEFAULT_STATEMENT_STATISTICS_MAX_ENTRIES = 1000;
+
+    /**
+     * Fraction of a partition's rows (as of the last statistics collection) that may be inserted,
+     * updated or deleted before the partition's statistics are considered stale and the table's
+     * statistics are collected again in the background. 0 disables the automatic refresh.
+     *
+     * Defaults to 0.2
+     */
+    public static final String STATISTICS_REFRESH_RATIO = "splice.statistics.refreshRatio";
+    private static final double DEFAULT_STATISTICS_REFRESH_RATIO = 0.2d;
+
+    /**
+     * How often (in milliseconds) each server checks the partitions it hosts for stale statistics.
+     *
+     * Defaults to 300000 (5 minutes)
+     */
+    public static final String STATISTICS_REFRESH_INTERVAL = "splice.statistics.refreshInterval";
+    private static final long DEFAULT_STATISTICS_REFRESH_INTERVAL = 300000L;
+
+    /**
+     * The maximum number of column groups (leading columns of the primary key and of indexes) to collect
+     * combined statistics for when collecting the statistics of a table. The optimizer uses them to estimate
+     * equality predicates on correlated columns. Set to 0 to disable.
+     *
+     * Defaults to 16
+     */
+    public static final String STATISTICS_MAX_COLUMN_GROUPS = "splice.statistics.maxColumnGroups";
+    private static final int DEFAULT_STATISTICS_MAX_COLUMN_GROUPS = 16;
+
+    /**
+     * Maximum memory (in bytes, as estimated from the partial results) a region may use to compute the
+     * partial results of an aggregation pushed down to it by a query running on the control side. When a
+     * region would need more (too many groups), the query reads the rows from the regions instead.
+     * 0 disables the pushdown; 16777216 (16 MB) is a reasonable value to enable it with.
+     *
+     * Defaults to 0 (disabled)
+     */
+    public static final String REGION_AGGREGATION_MAX_MEMORY = "splice.aggregation.regionMaxMemory";
+    private static final long DEFAULT_REGION_AGGREGATION_MAX_MEMORY = 0L;
+
+    /**
+     * The number of outer rows a nested loop join gathers before looking up their matches, when the inner
+     * side is an equality lookup on a primary key or an index. The probe keys of the batch are deduplicated
+     * and read with a single scan over all of their ranges, instead of opening one inner scan per outer row.
+     * Set to 0 to always scan the inner side once per outer row.
+     *
+     * Defaults to 1000
+     */
+    public static final String NESTEDLOOPJOIN_KEYED_BATCH_SIZE = "splice.nestedLoopJoin.keyedBatchSize";
+    private static final int DEFAULT_NESTEDLOOPJOIN_KEYED_BATCH_SIZE = 1000;
+
     @Override
     public void setDefaults(ConfigurationBuilder builder, ConfigurationSource configurationSource) {
         // FIXME: JC - some of these are not referenced anywhere outside. Do we need them?
@@ -261,5 +352,16 @@ public class SQLConfiguration implements ConfigurationDefault {
 //        builder.controlSideRowcountThreshold = configurationSource.getDouble(CONTROL_SIDE_ROWCOUNT_THRESHOLD, DEFAULT_CONTROL_SIDE_ROWCOUNT_THRESHOLD);
 
         builder.networkBindAddress = configurationSource.getString(NETWORK_BIND_ADDRESS, DEFAULT_NETWORK_BIND_ADDRESS);
+        String localDirectory = configurationSource.getString("hbase.local.dir", System.getProperty("user.dir"));
+        String defaultStatementCachePersistDirectory = new File(localDirectory, STATEMENT_CACHE_DIRECTORY_NAME).getPath();
+        builder.statementCachePersistDirectory = configurationSource.getString(STATEMENT_CACHE_PERSIST_DIRECTORY, defaultStatementCachePersistDirectory);
+        builder.statementCacheWarmupSize = configurationSource.getInt(STATEMENT_CACHE_WARMUP_SIZE, DEFAULT_STATEMENT_CACHE_WARMUP_SIZE);
+        builder.statementCachePersistInterval = configurationSource.getLong(STATEMENT_CACHE_PERSIST_INTERVAL, DEFAULT_STATEMENT_CACHE_PERSIST_INTERVAL);
+        builder.statementStatisticsMaxEntries = configurationSource.getInt(STATEMENT_STATISTICS_MAX_ENTRIES, DEFAULT_STATEMENT_STATISTICS_MAX_ENTRIES);
+        builder.statisticsRefreshRatio = configurationSource.getDouble(STATISTICS_REFRESH_RATIO, DEFAULT_STATISTICS_REFRESH_RATIO);
+        builder.statisticsRefreshInterval = configurationSource.getLong(STATISTICS_REFRESH_INTERVAL, DEFAULT_STATISTICS_REFRESH_INTERVAL);
+        builder.statisticsMaxColumnGroups = configurationSource.getInt(STATISTICS_MAX_COLUMN_GROUPS, DEFAULT_STATISTICS_MAX_COLUMN_GROUPS);
+        builder.regionAggregationMaxMemory = configurationSource.getLong(REGION_AGGREGATION_MAX_MEMORY, DEFAULT_REGION_AGGREGATION_MAX_MEMORY);
+        builder.nestedLoopJoinKeyedBatchSize = configurationSource.getInt(NESTEDLOOPJOIN_KEYED_BATCH_SIZE, DEFAULT_NESTEDLOOPJOIN_KEYED_BATCH_SIZE);
     }
 }
@@ -14,6 +14,10 @@
 
 package com.splicemachine.storage;
 
+import com.splicemachine.utils.Pair;
+
+import java.util.List;
+
 /**
  * Factory for creating different DataFilters. Each architecture is expected to provide an architecture
  * specific version of this.
@@ -34,4 +38,13 @@ public interface DataFilterFactory{
     DataFilter singleColumnEqualsValueFilter(byte[] family,byte[] qualifier,byte[] value);
 
     DataFilter allocatedFilter(byte[] localAddress);
+
+    /**
+     * Filter rows based on whether or not their key falls in one of the specified ranges.
+     *
+     * @param ranges the {@code [start,stop)} key ranges to keep, sorted by start key and not overlapping.
+     *               An empty stop key is unbounded.
+     * @return a DataFilter which skips the rows outside of the ranges
+     */
+    DataFilter multiRowRangeFilter(List<Pair<byte[],byte[]>> ranges);
 }
@@ -54,6 +54,21 @@ class DoubleEncoding {
         return bytes;
     }
 
+    /**
+     * Same encoding as {@link #toBytes(double, boolean)}, written into {@code buffer} at {@code offset}.
+     *
+     * @return the number of bytes written (always 8)
+     */
+    public static int toBytes(double value, boolean desc, byte[] buffer, int offset){
+        long l = Double.doubleToLongBits(value);
+        l = (l^ ((l >> Long.SIZE-1) | Long.MIN_VALUE))+1;
+        if(desc)
+            l ^= 0xffffffffffffffffl;
+
+        Bytes.toBytes(l,buffer,offset);
+        return 8;
+    }
+
     public static double toDouble(byte[] data, boolean desc){
         return toDouble(data, 0, desc);
     }
@@ -390,6 +390,10 @@ public final class Encoding {
         return ScalarEncoding.writeLong(value,desc);
     }
 
+    public static int encode(long value, byte[] buffer, int offset, boolean desc){
+        return ScalarEncoding.writeLong(value,buffer,offset,desc);
+    }
+
     /**
      * Decode an order-preserving encoded byte[] into a long. The {@code desc} flag is used
      * to determine whether the encoding is ascending or descending.
@@ -475,6 +479,10 @@ public final class Encoding {
         return FloatEncoding.toFloat(data, offset, desc);
     }
 
+    public static int encode(float value, byte[] buffer, int offset, boolean desc){
+        return FloatEncoding.toBytes(value, desc, buffer, offset);
+    }
+
     /**
      * Encode a double into an ascending, order-preserving byte[].
      *
@@ -536,6 +544,10 @@ public final class Encoding {
     public static double decodeDouble(byte[] data,int offset,boolean desc){
         return DoubleEncoding.toDouble(data, offset, desc);
     }
+
+    public static int encode(double value, byte[] buffer, int offset, boolean desc){
+        return DoubleEncoding.toBytes(value, desc, buffer, offset);
+    }
  
     /**
      * Encode a BigDecimal into an ascending, order-preserving byte[].
@@ -33,6 +33,22 @@ class FloatEncoding {
         return Bytes.toBytes(j);
     }
 
+    /**
+     * Same encoding as {@link #toBytes(float, boolean)}, written into {@code buffer} at {@code offset}.
+     *
+     * @return the number of bytes written (always 4)
+     */
+    public static int toBytes(float value,boolean desc,byte[] buffer,int offset){
+        int j = Float.floatToIntBits(value);
+        j = (j^((j>>Integer.SIZE-1) | Integer.MIN_VALUE))+1;
+
+        if(desc)
+            j^=0xffffffff;
+
+        Bytes.toBytes(j,buffer,offset);
+        return 4;
+    }
+
     public static float toFloat(byte[] data, boolean desc){
         return toFloat(data,0,desc);
     }
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.storage;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A batch of rows held column by column in primitive arrays, for use with {@link EntryBatchEncoder}
+ * and {@link EntryBatchDecoder}.
+ *
+ * Each column has one of a small set of physical types, which map onto the value encodings used
+ * by {@link com.splicemachine.encoding.MultiFieldEncoder}:
+ * <ul>
+ *     <li>{@code SCALAR}: any integral value (TINYINT through BIGINT, and DATE/TIME/TIMESTAMP in their
+ *     long form), encoded with the variable length scalar encoding</li>
+ *     <li>{@code BOOLEAN}</li>
+ *     <li>{@code FLOAT} and {@code DOUBLE}</li>
+ *     <li>{@code STRING}: UTF-8 bytes. The batch only references the bytes, it does not copy them,
+ *     so the caller must keep them unchanged until the batch has been encoded</li>
+ *     <li>{@code ENCODED}: bytes which already are in their field encoding (for example the output of a
+ *     serializer, or an unsorted byte encoding), written as they are. They are referenced like strings,
+ *     through {@link #getStringBuffer(int, int)} and friends</li>
+ * </ul>
+ *
+ * A batch is meant to be filled, encoded (or decoded into) and then {@link #clear() cleared} and reused,
+ * so that no per-cell objects are created.
+ */
+public class ColumnBatch {
+
+    public enum ColumnType { SCALAR, BOOLEAN, FLOAT, DOUBLE, STRING, ENCODED }
+
+    private final ColumnType[] types;
+    private final int capacity;
+    private final boolean[][] nulls;
+    private final long[][] longs;
+    private final boolean[][] booleans;
+    private final float[][] floats;
+    private final double[][] doubles;
+    private final byte[][][] stringBuffers;
+    private final int[][] stringOffsets;
+    private final int[][] stringLengths;
+    private int size;
+
+    /*
+     * Holds the strings decoded into this batch.
+     */
+    private byte[] decodedStrings;
+    private int decodedPosition;
+
+    public ColumnBatch(ColumnType[] types,int capacity){
+        this.types = types;
+        this.capacity = capacity;
+        int numColumns = types.length;
+        this.nulls = new boolean[numColumns][];
+        this.longs = new long[numColumns][];
+        this.booleans = new boolean[numColumns][];
+        this.floats = new float[numColumns][];
+        this.doubles = new double[numColumns][];
+        this.stringBuffers = new byte[numColumns][][];
+        this.stringOffsets = new int[numColumns][];
+        this.stringLengths = new int[numColumns][];
+        for(int i=0;i<numColumns;i++){
+            nulls[i] = new boolean[capacity];
+            switch(types[i]){
+                case SCALAR: longs[i] = new long[capacity]; break;
+                case BOOLEAN: booleans[i] = new boolean[capacity]; break;
+                case FLOAT: floats[i] = new float[capacity]; break;
+                case DOUBLE: doubles[i] = new double[capacity]; break;
+                case STRING:
+                case ENCODED:
+                    stringBuffers[i] = new byte[capacity][];
+                    stringOffsets[i] = new int[capacity];
+                    stringLengths[i] = new int[capacity];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown column type "+types[i]);
+            }
+        }
+    }
+
+    public int numColumns(){ return types.length; }
+
+    public int capacity(){ return capacity; }
+
+    public int size(){ return size; }
+
+    /**
+     * @param size the number of rows which are populated in this batch
+     */
+    public void setSize(int size){
+        assert size>=0 && size<=capacity: "Size "+size+" is outside of the batch capacity "+capacity;
+        this.size = size;
+    }
+
+    public ColumnType getType(int column){ return types[column]; }
+
+    ColumnType[] getTypes(){ return types; }
+
+    /**
+     * Forget all rows in this batch. Strings decoded into the batch are invalidated as well.
+     */
+    public void clear(){
+        for(boolean[] columnNulls:nulls){
+            for(int i=0;i<size;i++){
+                columnNulls[i] = false;
+            }
+        }
+        size = 0;
+        decodedPosition = 0;
+    }
+
+    public void setNull(int column,int row){ nulls[column][row] = true; }
+
+    public boolean isNull(int column,int row){ return nulls[column][row]; }
+
+    public void setLong(int column,int row,long value){
+        longs[column][row] = value;
+        nulls[column][row] = false;
+    }
+
+    public long getLong(int column,int row){ return longs[column][row]; }
+
+    public void setBoolean(int column,int row,boolean value){
+        booleans[column][row] = value;
+        nulls[column][row] = false;
+    }
+
+    public boolean getBoolean(int column,int row){ return booleans[column][row]; }
+
+    public void setFloat(int column,int row,float value){
+        floats[column][row] = value;
+        nulls[column][row] = false;
+    }
+
+    public float getFloat(int column,int row){ return floats[column][row]; }
+
+    public void setDouble(int column,int row,double value){
+        doubles[column][row] = value;
+        nulls[column][row] = false;
+    }
+
+    public double getDouble(int column,int row){ return doubles[column][row]; }
+
+    /**
+     * Reference {@code length} UTF-8 bytes of {@code buffer}, starting at {@code offset}, as the value
+     * of the specified cell.
+     */
+    public void setString(int column,int row,byte[] buffer,int offset,int length){
+        stringBuffers[column][row] = buffer;
+        stringOffsets[column][row] = offset;
+        stringLengths[column][row] = length;
+        nulls[column][row] = false;
+    }
+
+    /**
+     * Reference {@code length} already encoded bytes of {@code buffer}, starting at {@code offset}, as the
+     * value of the specified cell.
+     */
+    public void setEncoded(int column,int row,byte[] buffer,int offset,int length){
+        setString(column,row,buffer,offset,length);
+    }
+
+    public byte[] getStringBuffer(int column,int row){ return stringBuffers[column][row]; }
+
+    public int getStringOffset(int column,int row){ return stringOffsets[column][row]; }
+
+    public int getStringLength(int column,int row){ return stringLengths[column][row]; }
+
+    public String getString(int column,int row){
+        if(nulls[column][row]) return null;
+        return new String(stringBuffers[column][row],stringOffsets[column][row],stringLengths[column][row],StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reserve space for a decoded string (or encoded field) of {@code length} bytes, and reference it from the specified cell.
+     *
+     * @return the offset in {@link #getStringBuffer(int, int)} at which the bytes have to be written
+     */
+    int reserveString(int column,int row,int length){
+        if(decodedStrings==null || decodedPosition+length>decodedStrings.length){
+            /*
+             * Cells already decoded keep referencing the old array, which is never written to again,
+             * so we don't need to copy it over.
+             */
+            decodedStrings = new byte[Math.max(4096,2*length)];
+            decodedPosition = 0;
+        }
+        int offset = decodedPosition;
+        decodedPosition+=length;
+        setString(column,row,decodedStrings,offset,length);
+        return offset;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.storage;
+
+import com.splicemachine.encoding.Encoding;
+import com.splicemachine.storage.index.BitIndex;
+import com.splicemachine.storage.index.BitIndexing;
+
+/**
+ * Decodes row values, as written by {@link EntryBatchEncoder} or by an {@link EntryEncoder}, straight into the
+ * primitive columns of a {@link ColumnBatch}. Nulls may either be left out of the row or written as empty fields.
+ *
+ * The index header of the previous row is remembered, so rows which share a null pattern (usually all of
+ * them) don't rebuild it. Strings are decoded into a buffer owned by the destination batch.
+ */
+public class EntryBatchDecoder {
+    private final ColumnBatch.ColumnType[] types;
+    private final int firstField;
+    private final boolean[] present;
+    private final long[] valueAndLength = new long[2];
+    private byte[] lastHeader = new byte[16];
+    private int lastHeaderLength = -1;
+
+    public EntryBatchDecoder(ColumnBatch.ColumnType[] types){
+        this(types,0);
+    }
+
+    /**
+     * @param types the type of each column of the destination batches
+     * @param firstField the field position of the first column in the encoded rows
+     */
+    public EntryBatchDecoder(ColumnBatch.ColumnType[] types,int firstField){
+        this.types = types;
+        this.firstField = firstField;
+        this.present = new boolean[types.length];
+    }
+
+    /**
+     * Decode {@code numRows} rows into {@code destination}, starting at its first row. Row {@code i} is
+     * {@code lengths[i]} bytes of {@code buffer}, starting at {@code offsets[i]}.
+     */
+    public void decode(byte[] buffer,int[] offsets,int[] lengths,int numRows,ColumnBatch destination){
+        assert numRows<=destination.capacity(): "Cannot decode "+numRows+" rows into a batch of "+destination.capacity();
+        for(int row=0;row<numRows;row++){
+            decodeRow(buffer,offsets[row],lengths[row],destination,row);
+        }
+        destination.setSize(numRows);
+    }
+
+    /**
+     * Decode a single row value into row {@code row} of {@code destination}.
+     */
+    public void decodeRow(byte[] data,int offset,int length,ColumnBatch destination,int row){
+        int headerLength = readHeader(data,offset,length);
+        int position = offset+headerLength+1;
+        int end = offset+length;
+        for(int col=0;col<types.length;col++){
+            if(!present[col]){
+                destination.setNull(col,row);
+                continue;
+            }
+            int nullLength = explicitNullLength(types[col],data,position,end);
+            if(nullLength>=0){
+                destination.setNull(col,row);
+                position+=nullLength+1;
+                continue;
+            }
+            switch(types[col]){
+                case SCALAR:
+                    Encoding.decodeLongWithLength(data,position,false,valueAndLength);
+                    destination.setLong(col,row,valueAndLength[0]);
+                    position+=(int)valueAndLength[1];
+                    break;
+                case BOOLEAN:
+                    destination.setBoolean(col,row,data[position]==0x02);
+                    position++;
+                    break;
+                case FLOAT:
+                    destination.setFloat(col,row,Encoding.decodeFloat(data,position,false));
+                    position+=4;
+                    break;
+                case DOUBLE:
+                    destination.setDouble(col,row,Encoding.decodeDouble(data,position,false));
+                    position+=8;
+                    break;
+                case STRING:
+                    position = decodeString(data,position,end,destination,col,row);
+                    break;
+                case ENCODED:
+                    position = decodeEncoded(data,position,end,destination,col,row);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown column type "+types[col]);
+            }
+            position++; //skip the field delimiter
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    /*
+     * @return the length of the null written in place of the field at position, or -1 if the field is not null
+     */
+    private static int explicitNullLength(ColumnBatch.ColumnType type,byte[] data,int position,int end){
+        switch(type){
+            case FLOAT:
+            case DOUBLE:
+                byte[] nullBytes = type==ColumnBatch.ColumnType.FLOAT? Encoding.encodedNullFloat(): Encoding.encodedNullDouble();
+                if(end-position<nullBytes.length) return -1;
+                for(int i=0;i<nullBytes.length;i++){
+                    if(data[position+i]!=nullBytes[i]) return -1;
+                }
+                return nullBytes.length;
+            default:
+                return position>=end || data[position]==0x00? 0: -1;
+        }
+    }
+
+    private static int decodeEncoded(byte[] data,int position,int end,ColumnBatch destination,int col,int row){
+        int fieldEnd = position;
+        while(fieldEnd<end && data[fieldEnd]!=0x00){
+            fieldEnd++;
+        }
+        int length = fieldEnd-position;
+        int destOffset = destination.reserveString(col,row,length);
+        System.arraycopy(data,position,destination.getStringBuffer(col,row),destOffset,length);
+        return fieldEnd;
+    }
+
+    private static int decodeString(byte[] data,int position,int end,ColumnBatch destination,int col,int row){
+        int fieldEnd = position;
+        while(fieldEnd<end && data[fieldEnd]!=0x00){
+            fieldEnd++;
+        }
+        int length = fieldEnd-position;
+        if(length==1 && data[position]==0x01){
+            //the empty string
+            length = 0;
+        }
+        int destOffset = destination.reserveString(col,row,length);
+        byte[] dest = destination.getStringBuffer(col,row);
+        for(int i=0;i<length;i++){
+            dest[destOffset+i] = (byte)(data[position+i]-2);
+        }
+        return fieldEnd;
+    }
+
+    private int readHeader(byte[] data,int offset,int length){
+        int headerLength = findSeparator(data,offset,length,0);
+        if(headerLength==0){
+            /*
+             * A sparse index may start with a 0 byte, in which case the separator is the next 0
+             * (see EntryDecoder)
+             */
+            headerLength = findSeparator(data,offset,length,1);
+        }
+        if(headerLength==lastHeaderLength && sameHeader(data,offset,headerLength))
+            return headerLength;
+
+        BitIndex index = BitIndexing.wrap(data,offset,headerLength);
+        for(int col=0;col<types.length;col++){
+            present[col] = index.isSet(firstField+col);
+        }
+        if(lastHeader.length<headerLength)
+            lastHeader = new byte[headerLength];
+        System.arraycopy(data,offset,lastHeader,0,headerLength);
+        lastHeaderLength = headerLength;
+        return headerLength;
+    }
+
+    private boolean sameHeader(byte[] data,int offset,int headerLength){
+        for(int i=0;i<headerLength;i++){
+            if(lastHeader[i]!=data[offset+i]) return false;
+        }
+        return true;
+    }
+
+    private static int findSeparator(byte[] data,int offset,int length,int start){
+        for(int i=start;i<length;i++){
+            if(data[offset+i]==0x00) return i;
+        }
+        return length;
+    }
+}
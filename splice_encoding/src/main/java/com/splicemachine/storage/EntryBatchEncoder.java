@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.storage;
+
+import com.carrotsearch.hppc.BitSet;
+import com.splicemachine.encoding.Encoding;
+import com.splicemachine.storage.index.BitIndexing;
+
+/**
+ * Encodes a {@link ColumnBatch} into row values, producing the same bytes as an {@link EntryEncoder} fed
+ * row by row through a {@link com.splicemachine.encoding.MultiFieldEncoder} with sparse (null skipping)
+ * serializers.
+ *
+ * All rows of a batch are written back to back into one buffer, which is reused across batches. Instead of
+ * going through a serializer and a freshly allocated byte[] per cell, each cell is encoded in place with a
+ * switch on its column type. The index header only depends on which columns are null, so it is computed
+ * once and reused for as long as consecutive rows have the same null pattern.
+ *
+ * Rows may also be written the way base table updates and index values write them: the columns can start at
+ * a field position other than 0, and null cells can be written as explicit, empty fields instead of being
+ * left out of the row.
+ */
+public class EntryBatchEncoder {
+    /*
+     * Largest number of bytes the scalar encoding takes for a long
+     */
+    private static final int MAX_SCALAR_LENGTH = 9;
+
+    private final ColumnBatch.ColumnType[] types;
+    private final int firstField;
+    private final boolean writeNulls;
+    private final BitSet scalarFields;
+    private final BitSet floatFields;
+    private final BitSet doubleFields;
+    private final BitSet notNullFields;
+    private BitSet headerFields;
+    private byte[] header;
+
+    private byte[] buffer;
+    private int[] rowOffsets;
+    private int numRows;
+
+    public EntryBatchEncoder(ColumnBatch.ColumnType[] types){
+        this(types,0,false);
+    }
+
+    /**
+     * @param types the type of each column of the batches to encode
+     * @param firstField the field position of the first column in the encoded rows
+     * @param writeNulls if true, null cells are written as empty fields, the way
+     *                   {@link com.splicemachine.encoding.MultiFieldEncoder#encodeEmpty()} and its float and double
+     *                   variants write them, and every column is set in the index header
+     */
+    public EntryBatchEncoder(ColumnBatch.ColumnType[] types,int firstField,boolean writeNulls){
+        this.types = types;
+        this.firstField = firstField;
+        this.writeNulls = writeNulls;
+        int numFields = firstField+types.length;
+        this.scalarFields = new BitSet(numFields);
+        this.floatFields = new BitSet(numFields);
+        this.doubleFields = new BitSet(numFields);
+        this.notNullFields = new BitSet(numFields);
+        for(int i=0;i<types.length;i++){
+            switch(types[i]){
+                case SCALAR: scalarFields.set(firstField+i); break;
+                case FLOAT: floatFields.set(firstField+i); break;
+                case DOUBLE: doubleFields.set(firstField+i); break;
+                default:
+            }
+        }
+        this.buffer = new byte[4096];
+        this.rowOffsets = new int[1];
+    }
+
+    /**
+     * Encode all rows of {@code batch}, replacing the rows encoded previously.
+     */
+    public void encode(ColumnBatch batch){
+        assert batch.numColumns()==types.length: "Batch has "+batch.numColumns()+" columns, expected "+types.length;
+        int rows = batch.size();
+        if(rowOffsets.length<rows+1)
+            rowOffsets = new int[rows+1];
+        int position = 0;
+        for(int row=0;row<rows;row++){
+            rowOffsets[row] = position;
+            position = encodeRow(batch,row,position);
+        }
+        rowOffsets[rows] = position;
+        numRows = rows;
+    }
+
+    public int size(){ return numRows; }
+
+    /**
+     * @return the buffer holding the encoded rows. It is overwritten by the next call to {@link #encode(ColumnBatch)}
+     */
+    public byte[] getBuffer(){ return buffer; }
+
+    public int getRowOffset(int row){ return rowOffsets[row]; }
+
+    public int getRowLength(int row){ return rowOffsets[row+1]-rowOffsets[row]; }
+
+    public byte[] copyRow(int row){
+        int offset = rowOffsets[row];
+        byte[] value = new byte[rowOffsets[row+1]-offset];
+        System.arraycopy(buffer,offset,value,0,value.length);
+        return value;
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private int encodeRow(ColumnBatch batch,int row,int position){
+        int maxLength = 0;
+        notNullFields.clear();
+        for(int col=0;col<types.length;col++){
+            if(batch.isNull(col,row)){
+                if(writeNulls){
+                    notNullFields.set(firstField+col);
+                    maxLength+=Encoding.encodedNullDoubleLength()+1;
+                }
+                continue;
+            }
+            notNullFields.set(firstField+col);
+            switch(types[col]){
+                case SCALAR: maxLength+=MAX_SCALAR_LENGTH; break;
+                case BOOLEAN: maxLength+=1; break;
+                case FLOAT: maxLength+=4; break;
+                case DOUBLE: maxLength+=8; break;
+                case STRING: maxLength+=Math.max(1,batch.getStringLength(col,row)); break;
+                case ENCODED: maxLength+=batch.getStringLength(col,row); break;
+                default:
+            }
+            maxLength++; //field delimiter
+        }
+        if(header==null || !notNullFields.equals(headerFields)){
+            header = BitIndexing.getBestIndex(notNullFields,scalarFields,floatFields,doubleFields).encode();
+            headerFields = (BitSet)notNullFields.clone();
+        }
+        ensureCapacity(position+header.length+1+maxLength);
+
+        byte[] data = buffer;
+        System.arraycopy(header,0,data,position,header.length);
+        position+=header.length;
+        data[position++] = 0x00;
+        boolean first = true;
+        for(int col=0;col<types.length;col++){
+            boolean isNull = batch.isNull(col,row);
+            if(isNull && !writeNulls) continue;
+            if(!first)
+                data[position++] = 0x00;
+            first = false;
+            if(isNull){
+                position = encodeNull(types[col],data,position);
+                continue;
+            }
+            switch(types[col]){
+                case SCALAR:
+                    position+=Encoding.encode(batch.getLong(col,row),data,position,false);
+                    break;
+                case BOOLEAN:
+                    data[position++] = (byte)(batch.getBoolean(col,row)? 0x02: 0x01);
+                    break;
+                case FLOAT:
+                    position+=Encoding.encode(batch.getFloat(col,row),data,position,false);
+                    break;
+                case DOUBLE:
+                    position+=Encoding.encode(batch.getDouble(col,row),data,position,false);
+                    break;
+                case STRING:
+                    position = encodeString(batch,col,row,data,position);
+                    break;
+                case ENCODED:
+                    int length = batch.getStringLength(col,row);
+                    System.arraycopy(batch.getStringBuffer(col,row),batch.getStringOffset(col,row),data,position,length);
+                    position+=length;
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown column type "+types[col]);
+            }
+        }
+        return position;
+    }
+
+    private static int encodeNull(ColumnBatch.ColumnType type,byte[] data,int position){
+        byte[] nullBytes;
+        switch(type){
+            case FLOAT: nullBytes = Encoding.encodedNullFloat(); break;
+            case DOUBLE: nullBytes = Encoding.encodedNullDouble(); break;
+            default:
+                return position;
+        }
+        System.arraycopy(nullBytes,0,data,position,nullBytes.length);
+        return position+nullBytes.length;
+    }
+
+    private static int encodeString(ColumnBatch batch,int col,int row,byte[] data,int position){
+        int length = batch.getStringLength(col,row);
+        if(length==0){
+            data[position] = 0x01;
+            return position+1;
+        }
+        byte[] src = batch.getStringBuffer(col,row);
+        int offset = batch.getStringOffset(col,row);
+        for(int i=0;i<length;i++){
+            data[position+i] = (byte)(src[offset+i]+2);
+        }
+        return position+length;
+    }
+
+    private void ensureCapacity(int required){
+        if(required<=buffer.length) return;
+        byte[] newBuffer = new byte[Math.max(required,2*buffer.length)];
+        System.arraycopy(buffer,0,newBuffer,0,buffer.length);
+        buffer = newBuffer;
+    }
+}
@@ -26,9 +26,11 @@ import org.spark_project.guava.base.Supplier;
  * Created on: 7/8/13
  */
 public class EntryPredicateFilter {
+    private static final ValuePredicate[] NO_PREDICATES = new ValuePredicate[0];
     public static final EntryPredicateFilter EMPTY_PREDICATE = new EntryPredicateFilter(new BitSet());
     private BitSet fieldsToReturn;
     private boolean returnIndex;
+    private ValuePredicate[] valuePredicates;
     public static EntryPredicateFilter emptyPredicate(){ return EMPTY_PREDICATE; }
 
     public EntryPredicateFilter(BitSet fieldsToReturn){
@@ -36,8 +38,32 @@ public class EntryPredicateFilter {
     }
 
     public EntryPredicateFilter(BitSet fieldsToReturn, boolean returnIndex){
+        this(fieldsToReturn, returnIndex, NO_PREDICATES);
+    }
+
+    /**
+     * @param fieldsToReturn the fields to return, or empty for all fields
+     * @param returnIndex whether to return the index of the fields
+     * @param valuePredicates predicates on the encoded fields, a row is rejected as soon as one of them fails.
+     *                        Fields with predicates must be among the fields to return.
+     */
+    public EntryPredicateFilter(BitSet fieldsToReturn, boolean returnIndex, ValuePredicate[] valuePredicates){
         this.fieldsToReturn = fieldsToReturn;
         this.returnIndex=returnIndex;
+        this.valuePredicates=valuePredicates;
+    }
+
+    /**
+     * @return a filter returning the same fields, without any value predicates (e.g. to match key fields,
+     * whose positions do not match the positions of the row)
+     */
+    public EntryPredicateFilter withoutPredicates(){
+        if(valuePredicates.length==0) return this;
+        return new EntryPredicateFilter(fieldsToReturn,returnIndex);
+    }
+
+    public ValuePredicate[] getValuePredicates(){
+        return valuePredicates;
     }
 
 		public boolean match(Indexed index,
@@ -82,6 +108,8 @@ public class EntryPredicateFilter {
 						}else if(offset+limit>array.length){
 								limit = array.length-offset;
 						}
+						if(!checkPredicates(encodedPos, array, offset, limit))
+								return false; //reject before accumulating (and decoding) any more fields
 						accumulate(index, encodedPos, accumulator, array, offset, limit);
 				}
 				return true;
@@ -92,6 +120,14 @@ public class EntryPredicateFilter {
 				return match(entry.getCurrentIndex(),entry, accumulator);
     }
 
+    private boolean checkPredicates(int position, byte[] array, int offset, int length){
+        for(ValuePredicate predicate : valuePredicates){
+            if(predicate.getColumn()==position && !predicate.match(array,offset,length))
+                return false;
+        }
+        return true;
+    }
+
     public void rowReturned(){
         //no-op
     }
@@ -106,18 +142,32 @@ public class EntryPredicateFilter {
 
     public byte[] toBytes() {
         //if we dont have any distinguishing information, just send over an empty byte array
-        if(fieldsToReturn.isEmpty() && !returnIndex)
+        if(fieldsToReturn.isEmpty() && !returnIndex && valuePredicates.length==0)
             return new byte[]{};
 
         /*
          * Format is as follows:
          * BitSet bytes
          * 1-byte returnIndex
+         * (optionally) 4-byte predicate count followed by the predicates
          */
         byte[] bitSetBytes = Bytes.toByteArray(fieldsToReturn);
-        byte[] finalData = new byte[bitSetBytes.length+1];
+        int size = bitSetBytes.length+1;
+        if(valuePredicates.length>0){
+            size+=4;
+            for(ValuePredicate predicate : valuePredicates)
+                size+=predicate.encodedLength();
+        }
+        byte[] finalData = new byte[size];
         System.arraycopy(bitSetBytes,0,finalData,0,bitSetBytes.length);
         finalData[bitSetBytes.length] = returnIndex? (byte)0x01: 0x00;
+        if(valuePredicates.length>0){
+            int offset = bitSetBytes.length+1;
+            Bytes.toBytes(valuePredicates.length,finalData,offset);
+            offset+=4;
+            for(ValuePredicate predicate : valuePredicates)
+                offset+=predicate.encode(finalData,offset);
+        }
         return finalData;
     }
 
@@ -125,8 +175,19 @@ public class EntryPredicateFilter {
         if(data==null||data.length==0) return EMPTY_PREDICATE;
 
         Pair<BitSet,Integer> fieldsToReturn = Bytes.fromByteArray(data, 0);
-        boolean returnIndex = data[fieldsToReturn.getSecond()] > 0;
-        return new EntryPredicateFilter(fieldsToReturn.getFirst(),returnIndex);
+        int offset = fieldsToReturn.getSecond();
+        boolean returnIndex = data[offset] > 0;
+        offset++;
+        if(offset>=data.length)
+            return new EntryPredicateFilter(fieldsToReturn.getFirst(),returnIndex);
+
+        ValuePredicate[] valuePredicates = new ValuePredicate[Bytes.toInt(data,offset)];
+        offset+=4;
+        for(int i=0;i<valuePredicates.length;i++){
+            valuePredicates[i] = ValuePredicate.decode(data,offset);
+            offset+=valuePredicates[i].encodedLength();
+        }
+        return new EntryPredicateFilter(fieldsToReturn.getFirst(),returnIndex,valuePredicates);
     }
 
     private void skipField(MultiFieldDecoder decoder, int position, Indexed index) {
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.storage;
+
+import com.splicemachine.primitives.Bytes;
+
+/**
+ * A comparison of one field of a row against a constant, evaluated directly on the sort order
+ * preserving encoding of the field, so rows can be rejected before they are decoded (or, inside
+ * the region, before they are sent anywhere).
+ *
+ * Predicates are only ever used to reject rows which are certain to fail: a null (empty) field is
+ * always accepted, and left to the complete evaluation of the qualifiers once the row is decoded.
+ */
+public class ValuePredicate {
+    /*
+     * Operators use the same values as the ORDER_OP constants of the
+     * sql types, and are read as "field <operator> value".
+     */
+    public static final int LESS_THAN = 1;
+    public static final int EQUALS = 2;
+    public static final int LESS_OR_EQUALS = 3;
+    public static final int GREATER_THAN = 4;
+    public static final int GREATER_OR_EQUALS = 5;
+
+    /*
+     * Encoded blank (' '+2) and empty string markers of StringEncoding
+     */
+    private static final byte ENCODED_BLANK = 0x22;
+    private static final byte ENCODED_EMPTY = 0x01;
+
+    private final int column;
+    private final int operator;
+    private final boolean negate;
+    private final boolean blankPadded;
+    private final byte[] value;
+
+    /**
+     * @param column the position of the field in the row
+     * @param operator the comparison to make
+     * @param negate whether to negate the result of the comparison
+     * @param blankPadded whether trailing blanks are ignored when comparing, as for SQL character types.
+     *                    Only meaningful for equality.
+     * @param value the ascending encoding of the value to compare against
+     */
+    public ValuePredicate(int column, int operator, boolean negate, boolean blankPadded, byte[] value){
+        assert operator>=LESS_THAN && operator<=GREATER_OR_EQUALS: "Unknown operator "+ operator;
+        assert !blankPadded || operator==EQUALS: "Blank padded comparisons only support equality";
+        this.column = column;
+        this.operator = operator;
+        this.negate = negate;
+        this.blankPadded = blankPadded;
+        this.value = value;
+    }
+
+    public int getColumn(){
+        return column;
+    }
+
+    /**
+     * @param data the buffer holding the encoded field
+     * @param offset the start of the field
+     * @param length the length of the field
+     * @return false if the field certainly fails the comparison
+     */
+    public boolean match(byte[] data, int offset, int length){
+        if(length<=0) return true; //null, leave it to the full evaluation
+
+        int compare;
+        if(blankPadded){
+            int fieldLength = trimmedLength(data, offset, length);
+            int valueLength = trimmedLength(value, 0, value.length);
+            compare = Bytes.BASE_COMPARATOR.compare(data, offset, fieldLength, value, 0, valueLength);
+        }else
+            compare = Bytes.BASE_COMPARATOR.compare(data, offset, length, value, 0, value.length);
+
+        boolean result;
+        switch(operator){
+            case LESS_THAN: result = compare<0; break;
+            case EQUALS: result = compare==0; break;
+            case LESS_OR_EQUALS: result = compare<=0; break;
+            case GREATER_THAN: result = compare>0; break;
+            default: result = compare>=0;
+        }
+        return negate != result;
+    }
+
+    private static int trimmedLength(byte[] data, int offset, int length){
+        if(length==1 && data[offset]==ENCODED_EMPTY) return 0;
+        while(length>0 && data[offset+length-1]==ENCODED_BLANK)
+            length--;
+        return length;
+    }
+
+    int encodedLength(){
+        return 4+1+1+4+value.length;
+    }
+
+    /*
+     * Format is as follows:
+     * 4-byte column
+     * 1-byte operator
+     * 1-byte flags (0x01 negate, 0x02 blank padded)
+     * 4-byte value length
+     * value bytes
+     */
+    int encode(byte[] buffer, int offset){
+        Bytes.toBytes(column, buffer, offset);
+        buffer[offset+4] = (byte)operator;
+        buffer[offset+5] = (byte)((negate? 0x01: 0x00) | (blankPadded? 0x02: 0x00));
+        Bytes.toBytes(value.length, buffer, offset+6);
+        System.arraycopy(value, 0, buffer, offset+10, value.length);
+        return encodedLength();
+    }
+
+    static ValuePredicate decode(byte[] data, int offset){
+        int column = Bytes.toInt(data, offset);
+        int operator = data[offset+4];
+        byte flags = data[offset+5];
+        int length = Bytes.toInt(data, offset+6);
+        byte[] value = new byte[length];
+        System.arraycopy(data, offset+10, value, 0, length);
+        return new ValuePredicate(column, operator, (flags & 0x01)!=0, (flags & 0x02)!=0, value);
+    }
+
+    @Override
+    public String toString(){
+        return "ValuePredicate{column="+column+", operator="+operator+", negate="+negate+", blankPadded="+blankPadded+"}";
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.storage;
+
+import com.carrotsearch.hppc.BitSet;
+import com.splicemachine.encoding.Encoding;
+import com.splicemachine.encoding.MultiFieldEncoder;
+import com.splicemachine.storage.ColumnBatch.ColumnType;
+import com.splicemachine.utils.kryo.KryoPool;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+public class EntryBatchEncoderTest {
+    private static final KryoPool defaultPool = new KryoPool(100);
+    private static final ColumnType[] TYPES = {
+            ColumnType.SCALAR,ColumnType.STRING,ColumnType.DOUBLE,ColumnType.BOOLEAN,ColumnType.FLOAT,ColumnType.SCALAR
+    };
+
+    @Test
+    public void encodesSameBytesAsEntryEncoder() throws Exception {
+        ColumnBatch batch = randomBatch(new Random(0x1234L),TYPES,500,0.2);
+        EntryBatchEncoder batchEncoder = new EntryBatchEncoder(TYPES);
+        batchEncoder.encode(batch);
+
+        Assert.assertEquals(batch.size(),batchEncoder.size());
+        for(int row=0;row<batch.size();row++){
+            Assert.assertArrayEquals("Incorrect encoding of row "+row,encodeRow(batch,row),batchEncoder.copyRow(row));
+        }
+    }
+
+    @Test
+    public void decodesWhatWasEncoded() throws Exception {
+        ColumnBatch batch = randomBatch(new Random(0x4321L),TYPES,500,0.2);
+        EntryBatchEncoder batchEncoder = new EntryBatchEncoder(TYPES);
+        batchEncoder.encode(batch);
+
+        int[] offsets = new int[batch.size()];
+        int[] lengths = new int[batch.size()];
+        for(int row=0;row<batch.size();row++){
+            offsets[row] = batchEncoder.getRowOffset(row);
+            lengths[row] = batchEncoder.getRowLength(row);
+        }
+        ColumnBatch decoded = new ColumnBatch(TYPES,batch.size());
+        new EntryBatchDecoder(TYPES).decode(batchEncoder.getBuffer(),offsets,lengths,batch.size(),decoded);
+        assertBatchEquals(batch,decoded);
+    }
+
+    @Test
+    public void decodesWideSparseRows() throws Exception {
+        ColumnType[] types = new ColumnType[80];
+        for(int i=0;i<types.length;i++){
+            types[i] = i%3==0? ColumnType.SCALAR: ColumnType.STRING;
+        }
+        // mostly null rows make the encoder pick sparse and compressed indexes
+        ColumnBatch batch = randomBatch(new Random(0x5678L),types,200,0.95);
+        int[] offsets = new int[batch.size()];
+        int[] lengths = new int[batch.size()];
+        byte[][] rows = new byte[batch.size()][];
+        int size = 0;
+        for(int row=0;row<batch.size();row++){
+            rows[row] = encodeRow(batch,row);
+            offsets[row] = size;
+            lengths[row] = rows[row].length;
+            size+=rows[row].length;
+        }
+        byte[] buffer = new byte[size];
+        for(int row=0;row<batch.size();row++){
+            System.arraycopy(rows[row],0,buffer,offsets[row],lengths[row]);
+        }
+
+        ColumnBatch decoded = new ColumnBatch(types,batch.size());
+        new EntryBatchDecoder(types).decode(buffer,offsets,lengths,batch.size(),decoded);
+        assertBatchEquals(batch,decoded);
+    }
+
+    @Test
+    public void reusesBatchesAndBuffers() throws Exception {
+        EntryBatchEncoder batchEncoder = new EntryBatchEncoder(TYPES);
+        ColumnBatch batch = new ColumnBatch(TYPES,2);
+        Random random = new Random(0x9876L);
+        for(int i=0;i<10;i++){
+            batch.clear();
+            fillBatch(random,batch,2,0.5);
+            batchEncoder.encode(batch);
+            for(int row=0;row<batch.size();row++){
+                Assert.assertArrayEquals(encodeRow(batch,row),batchEncoder.copyRow(row));
+            }
+        }
+    }
+
+    @Test
+    public void encodesExplicitNullsFromAFieldOffset() throws Exception {
+        // the layout of index values with included columns, followed by the encoded row location
+        ColumnType[] types = {ColumnType.SCALAR,ColumnType.DOUBLE,ColumnType.FLOAT,ColumnType.STRING,ColumnType.ENCODED};
+        int firstField = 3;
+        ColumnBatch batch = randomBatch(new Random(0x2468L),types,300,0.3);
+        EntryBatchEncoder batchEncoder = new EntryBatchEncoder(types,firstField,true);
+        batchEncoder.encode(batch);
+
+        int[] offsets = new int[batch.size()];
+        int[] lengths = new int[batch.size()];
+        for(int row=0;row<batch.size();row++){
+            Assert.assertArrayEquals("Incorrect encoding of row "+row,encodeDenseRow(batch,row,firstField),batchEncoder.copyRow(row));
+            offsets[row] = batchEncoder.getRowOffset(row);
+            lengths[row] = batchEncoder.getRowLength(row);
+        }
+        ColumnBatch decoded = new ColumnBatch(types,batch.size());
+        new EntryBatchDecoder(types,firstField).decode(batchEncoder.getBuffer(),offsets,lengths,batch.size(),decoded);
+        assertBatchEquals(batch,decoded);
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    /*
+     * Encodes a row the way index values and base table updates are written, with explicit nulls
+     */
+    private static byte[] encodeDenseRow(ColumnBatch batch,int row,int firstField) throws Exception {
+        int numColumns = batch.numColumns();
+        BitSet fields = new BitSet(firstField+numColumns);
+        BitSet scalarFields = new BitSet(firstField+numColumns);
+        BitSet floatFields = new BitSet(firstField+numColumns);
+        BitSet doubleFields = new BitSet(firstField+numColumns);
+        fields.set(firstField,firstField+numColumns);
+        for(int col=0;col<numColumns;col++){
+            switch(batch.getType(col)){
+                case SCALAR: scalarFields.set(firstField+col); break;
+                case FLOAT: floatFields.set(firstField+col); break;
+                case DOUBLE: doubleFields.set(firstField+col); break;
+                default:
+            }
+        }
+        EntryEncoder encoder = EntryEncoder.create(defaultPool,firstField+numColumns,fields,scalarFields,floatFields,doubleFields);
+        MultiFieldEncoder fieldEncoder = encoder.getEntryEncoder();
+        for(int col=0;col<numColumns;col++){
+            ColumnType type = batch.getType(col);
+            if(batch.isNull(col,row)){
+                if(type==ColumnType.FLOAT) fieldEncoder.encodeEmptyFloat();
+                else if(type==ColumnType.DOUBLE) fieldEncoder.encodeEmptyDouble();
+                else fieldEncoder.encodeEmpty();
+                continue;
+            }
+            switch(type){
+                case SCALAR: fieldEncoder.encodeNext(batch.getLong(col,row),false); break;
+                case FLOAT: fieldEncoder.encodeNext(batch.getFloat(col,row),false); break;
+                case DOUBLE: fieldEncoder.encodeNext(batch.getDouble(col,row),false); break;
+                case STRING: fieldEncoder.encodeNext(batch.getString(col,row),false); break;
+                case ENCODED: fieldEncoder.setRawBytes(encodedBytes(batch,col,row)); break;
+                default:
+            }
+        }
+        return encoder.encode();
+    }
+
+    private static byte[] encodedBytes(ColumnBatch batch,int col,int row){
+        return Arrays.copyOfRange(batch.getStringBuffer(col,row),batch.getStringOffset(col,row),
+                batch.getStringOffset(col,row)+batch.getStringLength(col,row));
+    }
+
+    /*
+     * Encodes a row the way the write pipeline does it, going through EntryEncoder and MultiFieldEncoder
+     */
+    private static byte[] encodeRow(ColumnBatch batch,int row) throws Exception {
+        int numColumns = batch.numColumns();
+        BitSet notNull = new BitSet(numColumns);
+        BitSet scalarFields = new BitSet(numColumns);
+        BitSet floatFields = new BitSet(numColumns);
+        BitSet doubleFields = new BitSet(numColumns);
+        for(int col=0;col<numColumns;col++){
+            if(!batch.isNull(col,row)) notNull.set(col);
+            switch(batch.getType(col)){
+                case SCALAR: scalarFields.set(col); break;
+                case FLOAT: floatFields.set(col); break;
+                case DOUBLE: doubleFields.set(col); break;
+                default:
+            }
+        }
+        EntryEncoder encoder = EntryEncoder.create(defaultPool,numColumns,notNull,scalarFields,floatFields,doubleFields);
+        MultiFieldEncoder fieldEncoder = encoder.getEntryEncoder();
+        for(int col=0;col<numColumns;col++){
+            if(batch.isNull(col,row)) continue;
+            switch(batch.getType(col)){
+                case SCALAR: fieldEncoder.encodeNext(batch.getLong(col,row),false); break;
+                case BOOLEAN: fieldEncoder.encodeNext(batch.getBoolean(col,row),false); break;
+                case FLOAT: fieldEncoder.encodeNext(batch.getFloat(col,row),false); break;
+                case DOUBLE: fieldEncoder.encodeNext(batch.getDouble(col,row),false); break;
+                case STRING: fieldEncoder.encodeNext(batch.getString(col,row),false); break;
+                default:
+            }
+        }
+        return encoder.encode();
+    }
+
+    private static ColumnBatch randomBatch(Random random,ColumnType[] types,int rows,double nullFraction){
+        ColumnBatch batch = new ColumnBatch(types,rows);
+        fillBatch(random,batch,rows,nullFraction);
+        return batch;
+    }
+
+    private static void fillBatch(Random random,ColumnBatch batch,int rows,double nullFraction){
+        for(int row=0;row<rows;row++){
+            for(int col=0;col<batch.numColumns();col++){
+                if(random.nextDouble()<nullFraction){
+                    batch.setNull(col,row);
+                    continue;
+                }
+                switch(batch.getType(col)){
+                    case SCALAR:
+                        batch.setLong(col,row,random.nextBoolean()? random.nextInt(200)-100: random.nextLong());
+                        break;
+                    case BOOLEAN: batch.setBoolean(col,row,random.nextBoolean()); break;
+                    case FLOAT: batch.setFloat(col,row,(float)random.nextGaussian()); break;
+                    case DOUBLE: batch.setDouble(col,row,random.nextGaussian()*1e6); break;
+                    case STRING:
+                        byte[] value = randomString(random).getBytes(StandardCharsets.UTF_8);
+                        batch.setString(col,row,value,0,value.length);
+                        break;
+                    case ENCODED:
+                        byte[] bytes = new byte[1+random.nextInt(16)];
+                        random.nextBytes(bytes);
+                        byte[] encoded = Encoding.encodeBytesUnsorted(bytes);
+                        batch.setEncoded(col,row,encoded,0,encoded.length);
+                        break;
+                    default:
+                }
+            }
+        }
+        batch.setSize(rows);
+    }
+
+    private static String randomString(Random random){
+        int length = random.nextInt(12);
+        StringBuilder sb = new StringBuilder(length);
+        for(int i=0;i<length;i++){
+            int kind = random.nextInt(10);
+            if(kind==0)
+                sb.append((char)(0x00e0+random.nextInt(32)));
+            else if(kind==1)
+                sb.append((char)(0x4e00+random.nextInt(512)));
+            else
+                sb.append((char)('a'+random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+
+    private static void assertBatchEquals(ColumnBatch expected,ColumnBatch actual){
+        Assert.assertEquals(expected.size(),actual.size());
+        for(int row=0;row<expected.size();row++){
+            for(int col=0;col<expected.numColumns();col++){
+                String cell = "row "+row+", column "+col;
+                Assert.assertEquals(cell,expected.isNull(col,row),actual.isNull(col,row));
+                if(expected.isNull(col,row)) continue;
+                switch(expected.getType(col)){
+                    case SCALAR: Assert.assertEquals(cell,expected.getLong(col,row),actual.getLong(col,row)); break;
+                    case BOOLEAN: Assert.assertEquals(cell,expected.getBoolean(col,row),actual.getBoolean(col,row)); break;
+                    case FLOAT: Assert.assertEquals(cell,expected.getFloat(col,row),actual.getFloat(col,row),0f); break;
+                    case DOUBLE: Assert.assertEquals(cell,expected.getDouble(col,row),actual.getDouble(col,row),0d); break;
+                    case STRING: Assert.assertEquals(cell,expected.getString(col,row),actual.getString(col,row)); break;
+                    case ENCODED: Assert.assertArrayEquals(cell,encodedBytes(expected,col,row),encodedBytes(actual,col,row)); break;
+                    default:
+                }
+            }
+        }
+    }
+}
@@ -15,6 +15,7 @@
 package com.splicemachine.storage;
 
 import com.carrotsearch.hppc.BitSet;
+import com.splicemachine.encoding.Encoding;
 import com.splicemachine.encoding.MultiFieldDecoder;
 import com.splicemachine.storage.index.BitIndex;
 import com.splicemachine.storage.index.BitIndexing;
@@ -30,6 +31,19 @@ import java.math.BigDecimal;
 public class EntryPredicateFilterTest {
     private static KryoPool defaultPool = new KryoPool(100);
 
+    @Test
+    public void sharedEmptyPredicateMatchesEveryRow() throws Exception {
+        EntryPredicateFilter predicateFilter = EntryPredicateFilter.emptyPredicate();
+        BitSet setCols = new BitSet(1);
+        setCols.set(0);
+        EntryEncoder encoder = EntryEncoder.create(defaultPool,BitIndexing.getBestIndex(setCols,new BitSet(),new BitSet(),new BitSet()));
+        encoder.getEntryEncoder().encodeNext("test");
+
+        EntryDecoder decoder = new EntryDecoder();
+        decoder.set(encoder.encode());
+        Assert.assertTrue("did not match!",predicateFilter.match(decoder,predicateFilter.newAccumulator()));
+    }
+
     @Test
     public void testReturnsAllColumnsForEmptyPredicate() throws Exception {
         EntryPredicateFilter predicateFilter = new EntryPredicateFilter(new BitSet(),true);
@@ -139,4 +153,74 @@ public class EntryPredicateFilterTest {
         Assert.assertEquals("Incorrect string returned!",testType1,decodedField);
         Assert.assertTrue("more than one field available in field decoder!",fieldDecoder.nextIsNull());
     }
+
+    @Test
+    public void testValuePredicateRejectsRowOnScalarField() throws Exception {
+        byte[] data = encodeRow("test",10L);
+
+        EntryPredicateFilter lessThan = new EntryPredicateFilter(new BitSet(),true,
+                new ValuePredicate[]{new ValuePredicate(1,ValuePredicate.LESS_THAN,false,false,Encoding.encode(20L))});
+        Assert.assertTrue("10 < 20 should match!",matches(lessThan,data));
+
+        EntryPredicateFilter greaterThan = new EntryPredicateFilter(new BitSet(),true,
+                new ValuePredicate[]{new ValuePredicate(1,ValuePredicate.GREATER_THAN,false,false,Encoding.encode(20L))});
+        Assert.assertFalse("10 > 20 should not match!",matches(greaterThan,data));
+
+        EntryPredicateFilter negated = new EntryPredicateFilter(new BitSet(),true,
+                new ValuePredicate[]{new ValuePredicate(1,ValuePredicate.EQUALS,true,false,Encoding.encode(10L))});
+        Assert.assertFalse("10 <> 10 should not match!",matches(negated,data));
+
+        EntryPredicateFilter negative = new EntryPredicateFilter(new BitSet(),true,
+                new ValuePredicate[]{new ValuePredicate(1,ValuePredicate.GREATER_OR_EQUALS,false,false,Encoding.encode(-5L))});
+        Assert.assertTrue("10 >= -5 should match!",matches(negative,data));
+    }
+
+    @Test
+    public void testBlankPaddedValuePredicateIgnoresTrailingBlanks() throws Exception {
+        byte[] data = encodeRow("test  ",10L);
+
+        EntryPredicateFilter equal = new EntryPredicateFilter(new BitSet(),true,
+                new ValuePredicate[]{new ValuePredicate(0,ValuePredicate.EQUALS,false,true,Encoding.encode("test"))});
+        Assert.assertTrue("trailing blanks should be ignored!",matches(equal,data));
+
+        EntryPredicateFilter different = new EntryPredicateFilter(new BitSet(),true,
+                new ValuePredicate[]{new ValuePredicate(0,ValuePredicate.EQUALS,false,true,Encoding.encode("tesu"))});
+        Assert.assertFalse("different strings should not match!",matches(different,data));
+    }
+
+    @Test
+    public void testValuePredicatesSurviveSerialization() throws Exception {
+        BitSet fieldsToReturn = new BitSet(2);
+        fieldsToReturn.set(0);
+        fieldsToReturn.set(1);
+        EntryPredicateFilter filter = new EntryPredicateFilter(fieldsToReturn,true,
+                new ValuePredicate[]{new ValuePredicate(1,ValuePredicate.GREATER_THAN,false,false,Encoding.encode(20L)),
+                        new ValuePredicate(0,ValuePredicate.EQUALS,true,true,Encoding.encode("other"))});
+
+        EntryPredicateFilter decoded = EntryPredicateFilter.fromBytes(filter.toBytes());
+        Assert.assertEquals("Incorrect number of predicates!",2,decoded.getValuePredicates().length);
+        Assert.assertFalse("decoded predicates should reject the row!",matches(decoded,encodeRow("test",10L)));
+        Assert.assertTrue("decoded predicates should accept the row!",matches(decoded,encodeRow("test",30L)));
+
+        EntryPredicateFilter plain = EntryPredicateFilter.fromBytes(new EntryPredicateFilter(fieldsToReturn,true).toBytes());
+        Assert.assertEquals("Unexpected predicates!",0,plain.getValuePredicates().length);
+    }
+
+    private static byte[] encodeRow(String stringField,long longField) throws Exception {
+        BitSet setCols = new BitSet(2);
+        setCols.set(0);
+        setCols.set(1);
+        BitSet scalarFields = new BitSet(2);
+        scalarFields.set(1);
+        BitIndex index = BitIndexing.getBestIndex(setCols,scalarFields,new BitSet(2),new BitSet(2));
+        EntryEncoder encoder = EntryEncoder.create(defaultPool,index);
+        encoder.getEntryEncoder().encodeNext(stringField).encodeNext(longField);
+        return encoder.encode();
+    }
+
+    private static boolean matches(EntryPredicateFilter filter,byte[] data) throws Exception {
+        EntryDecoder decoder = new EntryDecoder();
+        decoder.set(data);
+        return filter.match(decoder,filter.newAccumulator());
+    }
 }
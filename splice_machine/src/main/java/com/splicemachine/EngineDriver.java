@@ -24,6 +24,7 @@ import com.splicemachine.derby.iapi.sql.PartitionLoadWatcher;
 import com.splicemachine.derby.iapi.sql.PropertyManager;
 import com.splicemachine.derby.iapi.sql.execute.DataSetProcessorFactory;
 import com.splicemachine.derby.iapi.sql.execute.OperationManager;
+import com.splicemachine.derby.iapi.sql.execute.StatementStatistics;
 import com.splicemachine.derby.iapi.sql.olap.OlapClient;
 import com.splicemachine.derby.impl.sql.execute.sequence.SequenceKey;
 import com.splicemachine.derby.impl.sql.execute.sequence.SpliceSequence;
@@ -53,6 +54,7 @@ public class EngineDriver{
     private final DatabaseAdministrator dbAdmin;
     private final OlapClient olapClient;
     private final OperationManager operationManager;
+    private final StatementStatistics statementStatistics;
     private final SqlEnvironment environment;
     private final ServiceDiscovery serviceDiscovery;
 
@@ -79,6 +81,7 @@ public class EngineDriver{
         this.propertyManager = environment.getPropertyManager();
         this.exceptionFactory = environment.exceptionFactory();
         this.operationManager = environment.getOperationManager();
+        this.statementStatistics = new StatementStatistics(config.getStatementStatisticsMaxEntries());
         this.dbAdmin = environment.databaseAdministrator();
         this.sequencePool=CachedResourcePool.Builder.<SpliceSequence, SequenceKey>newBuilder()
                 .expireAfterAccess(1,TimeUnit.MINUTES)
@@ -150,6 +153,8 @@ public class EngineDriver{
 
     public OperationManager getOperationManager() { return operationManager; }
 
+    public StatementStatistics getStatementStatistics() { return statementStatistics; }
+
     public ServiceDiscovery getServiceDiscovery() {
         return serviceDiscovery;
     }
@@ -19,6 +19,7 @@ import com.esotericsoftware.kryo.Serializer;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import com.esotericsoftware.kryo.serializers.MapSerializer;
+import com.splicemachine.db.iapi.stats.ColumnGroupStatisticsImpl;
 import com.splicemachine.db.iapi.stats.ColumnStatisticsImpl;
 import com.splicemachine.db.iapi.stats.ColumnStatisticsMerge;
 import com.splicemachine.db.iapi.types.*;
@@ -840,6 +841,13 @@ public class SpliceKryoRegistry implements KryoPool.KryoRegistry{
         instance.register(ControlOperationContext.class,EXTERNALIZABLE_SERIALIZER,295);
         instance.register(ActivationHolder.class,EXTERNALIZABLE_SERIALIZER,296);
         instance.register(SetOpOperation.class,EXTERNALIZABLE_SERIALIZER,297);
+        instance.register(ColumnGroupStatisticsImpl.class,EXTERNALIZABLE_SERIALIZER,298);
+        instance.register(SpliceApproxCountDistinct.class,EXTERNALIZABLE_SERIALIZER,299);
+        instance.register(SpliceApproxPercentile50.class,EXTERNALIZABLE_SERIALIZER,300);
+        instance.register(SpliceApproxPercentile90.class,EXTERNALIZABLE_SERIALIZER,301);
+        instance.register(SpliceApproxPercentile95.class,EXTERNALIZABLE_SERIALIZER,302);
+        instance.register(SpliceApproxPercentile99.class,EXTERNALIZABLE_SERIALIZER,303);
+        instance.register(SpliceApproxTopK.class,EXTERNALIZABLE_SERIALIZER,304);
 
     }
 }
@@ -19,6 +19,7 @@ import com.splicemachine.db.iapi.sql.conn.ControlExecutionLimiter;
 import com.splicemachine.derby.impl.sql.execute.operations.SpliceBaseOperation;
 import com.splicemachine.derby.stream.iapi.DataSetProcessor;
 import com.splicemachine.derby.stream.iapi.DistributedDataSetProcessor;
+import com.splicemachine.derby.stream.iapi.PartialAggregationClient;
 import com.splicemachine.derby.stream.iapi.RemoteQueryClient;
 
 import javax.annotation.Nullable;
@@ -72,5 +73,11 @@ public interface DataSetProcessorFactory{
 
     RemoteQueryClient getRemoteQueryClient(SpliceBaseOperation operation);
 
+    /**
+     * @return the client used to push the first phase of aggregations down to the partitions holding the
+     * data, or {@code null} if this architecture can't do it.
+     */
+    PartialAggregationClient getPartialAggregationClient();
+
     ControlExecutionLimiter getControlExecutionLimiter(Activation activation);
 }
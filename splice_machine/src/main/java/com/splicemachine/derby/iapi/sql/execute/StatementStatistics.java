@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.iapi.sql.execute;
+
+import com.splicemachine.derby.stream.iapi.DataSetProcessor;
+import com.splicemachine.metrics.Histogram;
+import com.splicemachine.metrics.Metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution statistics of the statements that finished on this server, aggregated by statement text.
+ *
+ * Statements are keyed by their text with white space collapsed; statements whose literals were
+ * replaced by parameter markers before compilation therefore share an entry. The number of entries is
+ * bounded: when it is reached, the least frequently executed tenth of the statements is dropped to make
+ * room, so that a burst of one-off statements cannot push out the statements that run all the time.
+ */
+public class StatementStatistics{
+    /* 2^-3 relative error keeps each entry at about 4KB */
+    private static final int HISTOGRAM_PRECISION = 3;
+
+    private final int maxEntries;
+    private final ConcurrentMap<String,Entry> entries=new ConcurrentHashMap<>();
+    private volatile long resetTime=System.currentTimeMillis();
+
+    public StatementStatistics(int maxEntries){
+        this.maxEntries=maxEntries;
+    }
+
+    public boolean isEnabled(){
+        return maxEntries>0;
+    }
+
+    /**
+     * Record one finished execution of {@code statement}.
+     *
+     * @param elapsedNanos time from opening the statement's result set until it was closed
+     * @param rowsRead rows returned by the table scans of the statement on this server
+     * @param rowsReturned rows returned to the client, or rows modified for a DML statement
+     * @param bytesScanned encoded size of the rows returned by the table scans on this server
+     */
+    public void record(String statement,DataSetProcessor.Type engine,long elapsedNanos,
+                       long rowsRead,long rowsReturned,long bytesScanned){
+        if(maxEntries<=0 || statement==null)
+            return;
+        String key=normalize(statement);
+        Entry entry=entries.get(key);
+        if(entry==null){
+            if(entries.size()>=maxEntries)
+                evict();
+            Entry newEntry=new Entry(key);
+            entry=entries.putIfAbsent(key,newEntry);
+            if(entry==null)
+                entry=newEntry;
+        }
+        entry.record(engine,elapsedNanos,rowsRead,rowsReturned,bytesScanned);
+    }
+
+    /**
+     * @return the current entries, most total time first
+     */
+    public List<Entry> getEntries(){
+        List<Entry> result=new ArrayList<>(entries.values());
+        Collections.sort(result,new Comparator<Entry>(){
+            @Override
+            public int compare(Entry o1,Entry o2){
+                return Long.compare(o2.getTotalNanos(),o1.getTotalNanos());
+            }
+        });
+        return result;
+    }
+
+    public void reset(){
+        entries.clear();
+        resetTime=System.currentTimeMillis();
+    }
+
+    /**
+     * @return the time (in ms since the epoch) the statistics were last reset
+     */
+    public long getResetTime(){
+        return resetTime;
+    }
+
+    private synchronized void evict(){
+        if(entries.size()<maxEntries)
+            return; // another thread made room
+        List<Entry> byCalls=new ArrayList<>(entries.values());
+        Collections.sort(byCalls,new Comparator<Entry>(){
+            @Override
+            public int compare(Entry o1,Entry o2){
+                return Long.compare(o1.getCalls(),o2.getCalls());
+            }
+        });
+        int toEvict=Math.max(1,byCalls.size()/10);
+        for(int i=0;i<toEvict;i++){
+            entries.remove(byCalls.get(i).getStatement());
+        }
+    }
+
+    /**
+     * @return {@code sql} with leading and trailing white space removed and every other run of white space
+     * outside quoted strings and identifiers replaced by a single space
+     */
+    static String normalize(String sql){
+        StringBuilder sb=null;
+        int len=sql.length();
+        char quote=0;
+        boolean space=false;
+        for(int i=0;i<len;i++){
+            char c=sql.charAt(i);
+            if(quote==0 && Character.isWhitespace(c)){
+                if(sb==null){
+                    sb=new StringBuilder(len);
+                    sb.append(sql,0,i);
+                }
+                space=true;
+                continue;
+            }
+            if(space){
+                if(sb.length()>0)
+                    sb.append(' ');
+                space=false;
+            }
+            if(quote==0){
+                if(c=='\'' || c=='"')
+                    quote=c;
+            }else if(c==quote)
+                quote=0; // a doubled quote closes and reopens, which ends in the same state
+            if(sb!=null)
+                sb.append(c);
+        }
+        return sb==null?sql:sb.toString();
+    }
+
+    public static class Entry{
+        private final String statement;
+        private final LongAdder calls=new LongAdder();
+        private final LongAdder controlCalls=new LongAdder();
+        private final LongAdder sparkCalls=new LongAdder();
+        private final LongAdder totalNanos=new LongAdder();
+        private final LongAdder rowsRead=new LongAdder();
+        private final LongAdder rowsReturned=new LongAdder();
+        private final LongAdder bytesScanned=new LongAdder();
+        private final Histogram latency=Metrics.histogram(HISTOGRAM_PRECISION);
+        private final AtomicLong lastExecuted=new AtomicLong();
+
+        Entry(String statement){
+            this.statement=statement;
+        }
+
+        void record(DataSetProcessor.Type engine,long elapsedNanos,long read,long returned,long bytes){
+            calls.increment();
+            if(engine==DataSetProcessor.Type.SPARK)
+                sparkCalls.increment();
+            else
+                controlCalls.increment();
+            totalNanos.add(elapsedNanos);
+            latency.update(elapsedNanos);
+            rowsRead.add(read);
+            rowsReturned.add(returned);
+            bytesScanned.add(bytes);
+            lastExecuted.set(System.currentTimeMillis());
+        }
+
+        public String getStatement(){ return statement; }
+
+        public long getCalls(){ return calls.sum(); }
+
+        public long getControlCalls(){ return controlCalls.sum(); }
+
+        public long getSparkCalls(){ return sparkCalls.sum(); }
+
+        public long getTotalNanos(){ return totalNanos.sum(); }
+
+        public long getMinNanos(){ return latency.getMin(); }
+
+        public long getMaxNanos(){ return latency.getMax(); }
+
+        public long getNanosAtPercentile(double percentile){ return latency.getValueAtPercentile(percentile); }
+
+        public long getRowsRead(){ return rowsRead.sum(); }
+
+        public long getRowsReturned(){ return rowsReturned.sum(); }
+
+        public long getBytesScanned(){ return bytesScanned.sum(); }
+
+        public long getLastExecuted(){ return lastExecuted.get(); }
+    }
+}
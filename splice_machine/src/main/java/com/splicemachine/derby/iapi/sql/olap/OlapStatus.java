@@ -55,4 +55,14 @@ public interface OlapStatus{
     boolean isRunning();
 
     boolean wait(long time, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * @param progress a short description of how far the job has got, sent to the client with status responses
+     */
+    void setProgress(String progress);
+
+    /**
+     * @return the last progress set by the job, or {@code null} if the job doesn't report progress
+     */
+    String getProgress();
 }
@@ -14,6 +14,7 @@
 
 package com.splicemachine.derby.impl.sql.catalog;
 
+import com.splicemachine.db.catalog.AliasInfo;
 import com.splicemachine.db.catalog.TypeDescriptor;
 import com.splicemachine.db.catalog.UUID;
 import com.splicemachine.db.iapi.error.StandardException;
@@ -25,9 +26,17 @@ import com.splicemachine.db.iapi.types.DataTypeDescriptor;
 import com.splicemachine.db.iapi.types.TypeId;
 import com.splicemachine.db.impl.sql.catalog.Aggregate;
 import com.splicemachine.db.impl.sql.catalog.DefaultSystemAggregateGenerator;
+import com.splicemachine.derby.impl.sql.execute.operations.SpliceApproxCountDistinct;
+import com.splicemachine.derby.impl.sql.execute.operations.SpliceApproxPercentile50;
+import com.splicemachine.derby.impl.sql.execute.operations.SpliceApproxPercentile90;
+import com.splicemachine.derby.impl.sql.execute.operations.SpliceApproxPercentile95;
+import com.splicemachine.derby.impl.sql.execute.operations.SpliceApproxPercentile99;
+import com.splicemachine.derby.impl.sql.execute.operations.SpliceApproxTopK;
 import com.splicemachine.derby.impl.sql.execute.operations.SpliceStddevPop;
 import com.splicemachine.derby.impl.sql.execute.operations.SpliceStddevSamp;
 
+import java.sql.Types;
+
 /**
  * @author Scott Fines
  *         Date: 3/2/15
@@ -66,5 +75,56 @@ public class SpliceSystemAggregatorGenerator extends DefaultSystemAggregateGener
                 ColumnStatisticsMerge.class.getCanonicalName());
         aggregate.createSystemAggregate(dictionary,tc,sysFunUUID);
 
+        createApproximateAggregates(tc);
+    }
+
+    /**
+     * Creates the sketch based approximate aggregates which are missing from SYSFUN. Also called
+     * when upgrading a dictionary created before they existed.
+     */
+    public void createApproximateAggregates(TransactionController tc) throws StandardException {
+        UUID sysFunUUID = dictionary.getSysFunSchemaDescriptor().getUUID();
+        TypeDescriptor varchar = DataTypeDescriptor.getCatalogType(Types.VARCHAR, TypeId.VARCHAR_MAXWIDTH);
+
+        createIfMissing(new Aggregate(
+                "APPROX_COUNT_DISTINCT",
+                varchar,
+                DataTypeDescriptor.getCatalogType(Types.BIGINT),
+                SpliceApproxCountDistinct.class.getCanonicalName()), tc, sysFunUUID);
+
+        createIfMissing(new Aggregate(
+                "APPROX_PERCENTILE_50",
+                TypeDescriptor.DOUBLE,
+                TypeDescriptor.DOUBLE,
+                SpliceApproxPercentile50.class.getCanonicalName()), tc, sysFunUUID);
+
+        createIfMissing(new Aggregate(
+                "APPROX_PERCENTILE_90",
+                TypeDescriptor.DOUBLE,
+                TypeDescriptor.DOUBLE,
+                SpliceApproxPercentile90.class.getCanonicalName()), tc, sysFunUUID);
+
+        createIfMissing(new Aggregate(
+                "APPROX_PERCENTILE_95",
+                TypeDescriptor.DOUBLE,
+                TypeDescriptor.DOUBLE,
+                SpliceApproxPercentile95.class.getCanonicalName()), tc, sysFunUUID);
+
+        createIfMissing(new Aggregate(
+                "APPROX_PERCENTILE_99",
+                TypeDescriptor.DOUBLE,
+                TypeDescriptor.DOUBLE,
+                SpliceApproxPercentile99.class.getCanonicalName()), tc, sysFunUUID);
+
+        createIfMissing(new Aggregate(
+                "APPROX_TOP_K",
+                varchar,
+                varchar,
+                SpliceApproxTopK.class.getCanonicalName()), tc, sysFunUUID);
+    }
+
+    private void createIfMissing(Aggregate aggregate, TransactionController tc, UUID sysFunUUID) throws StandardException {
+        if (dictionary.getAliasDescriptor(sysFunUUID.toString(), aggregate.getName(), AliasInfo.ALIAS_NAME_SPACE_AGGREGATE_AS_CHAR) == null)
+            aggregate.createSystemAggregate(dictionary, tc, sysFunUUID);
     }
 }
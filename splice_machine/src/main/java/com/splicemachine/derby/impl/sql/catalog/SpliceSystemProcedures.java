@@ -370,6 +370,17 @@ public class SpliceSystemProcedures extends DefaultSystemProcedureGenerator {
                             .build();
                     procedures.add(collectNonMergedSampleStatsForTable);
 
+                    Procedure collectStatsForPartition = Procedure.newBuilder().name("COLLECT_PARTITION_STATISTICS")
+                            .numOutputParams(0)
+                            .numResultSets(1)
+                            .varchar("schema",128)
+                            .varchar("table",1024)
+                            .varchar("partitionId",32672)
+                            .arg("staleOnly", DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.BOOLEAN).getCatalogType())
+                            .ownerClass(StatisticsAdmin.class.getCanonicalName())
+                            .build();
+                    procedures.add(collectStatsForPartition);
+
                     Procedure importWithBadRecords = Procedure.newBuilder().name("IMPORT_DATA")
                             .numOutputParams(0).numResultSets(1).ownerClass(HdfsImport.class.getCanonicalName())
                             .catalog("schemaName")
@@ -631,6 +642,37 @@ public class SpliceSystemProcedures extends DefaultSystemProcedureGenerator {
                     procedures.add(killOperation);
 
 
+                    /*
+                     * Procedures to get and reset the aggregated statistics of finished statements
+                     */
+                    Procedure statementStatistics = Procedure.newBuilder().name("SYSCS_GET_STATEMENT_STATISTICS")
+                            .numOutputParams(0)
+                            .numResultSets(1)
+                            .ownerClass(SpliceAdmin.class.getCanonicalName())
+                            .build();
+                    procedures.add(statementStatistics);
+
+                    Procedure statementStatisticsLocal = Procedure.newBuilder().name("SYSCS_GET_STATEMENT_STATISTICS_LOCAL")
+                            .numOutputParams(0)
+                            .numResultSets(1)
+                            .ownerClass(SpliceAdmin.class.getCanonicalName())
+                            .build();
+                    procedures.add(statementStatisticsLocal);
+
+                    Procedure resetStatementStatistics = Procedure.newBuilder().name("SYSCS_RESET_STATEMENT_STATISTICS")
+                            .numOutputParams(0)
+                            .numResultSets(0)
+                            .ownerClass(SpliceAdmin.class.getCanonicalName())
+                            .build();
+                    procedures.add(resetStatementStatistics);
+
+                    Procedure resetStatementStatisticsLocal = Procedure.newBuilder().name("SYSCS_RESET_STATEMENT_STATISTICS_LOCAL")
+                            .numOutputParams(0)
+                            .numResultSets(0)
+                            .ownerClass(SpliceAdmin.class.getCanonicalName())
+                            .build();
+                    procedures.add(resetStatementStatisticsLocal);
+
                     /*
                      * Procedure to delegate HDFS operations
                      */
@@ -1005,6 +1047,16 @@ public class SpliceSystemProcedures extends DefaultSystemProcedureGenerator {
                             .build();
                     procedures.add(purgeDeletedRows);
 
+                    Procedure versionGC = Procedure.newBuilder().name("SET_VERSION_GC")
+                            .varchar("schemaName", 128)
+                            .varchar("tableName", 128)
+                            .varchar("enable", 5)
+                            .numOutputParams(0)
+                            .numResultSets(0)
+                            .ownerClass(SpliceAdmin.class.getCanonicalName())
+                            .build();
+                    procedures.add(versionGC);
+
                     Procedure snapshotSchema = Procedure.newBuilder().name("SNAPSHOT_SCHEMA")
                             .varchar("schemaName", 128)
                             .varchar("snapshotName", 128)
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.catalog.upgrade;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.store.access.TransactionController;
+import com.splicemachine.derby.impl.sql.catalog.SpliceDataDictionary;
+import com.splicemachine.derby.impl.sql.catalog.SpliceSystemAggregatorGenerator;
+import com.splicemachine.utils.SpliceLogUtils;
+
+/**
+ * System aggregates are only created along with the dictionary, so add the approximate
+ * aggregates to dictionaries created before they existed.
+ */
+public class UpgradeScriptForApproximateAggregates extends UpgradeScriptBase {
+    public UpgradeScriptForApproximateAggregates(SpliceDataDictionary sdd, TransactionController tc) {
+        super(sdd, tc);
+    }
+
+    @Override
+    protected void upgradeSystemFunctions() throws StandardException {
+        tc.elevate("dictionary");
+        new SpliceSystemAggregatorGenerator(sdd).createApproximateAggregates(tc);
+        SpliceLogUtils.info(LOG, "Catalog upgraded: added approximate aggregates to SYSFUN.");
+    }
+}
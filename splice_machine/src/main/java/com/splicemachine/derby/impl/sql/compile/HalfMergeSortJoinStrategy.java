@@ -136,7 +136,7 @@ public class HalfMergeSortJoinStrategy extends HashableJoinStrategy {
     private boolean mergeable(IndexRowGenerator innerRowGenerator,
                               OptimizablePredicateList predList,
                               Optimizable innerTable) throws StandardException {
-        int[] keyColumnPositionMap = innerRowGenerator.baseColumnPositions();
+        int[] keyColumnPositionMap = innerRowGenerator.orderedColumnPositions();
 
         BitSet innerColumns = new BitSet(keyColumnPositionMap.length);
         for(int p=0;p<predList.size();p++) {
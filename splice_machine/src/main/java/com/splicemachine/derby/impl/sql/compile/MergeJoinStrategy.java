@@ -170,7 +170,7 @@ public class MergeJoinStrategy extends HashableJoinStrategy{
                                 IndexRowGenerator innerRowGenerator,
                                 OptimizablePredicateList predList,
                                 Optimizable innerTable) throws StandardException{
-        int[] keyColumnPositionMap = innerRowGenerator.baseColumnPositions();
+        int[] keyColumnPositionMap = innerRowGenerator.orderedColumnPositions();
         boolean[] keyAscending = innerRowGenerator.isAscending();
 
         BitSet innerColumns = new BitSet(keyColumnPositionMap.length);
@@ -110,6 +110,7 @@ public abstract class SpliceGenericConstantActionFactory extends GenericConstant
                                                        UUID			tableId,
                                                        String[]		columnNames,
                                                        boolean[]    isAscending,
+                                                       int          numberOfOrderedColumns,
                                                        boolean		isConstraint,
                                                        UUID			conglomerateUUID,
                                                        boolean		excludeNulls,
@@ -126,7 +127,7 @@ public abstract class SpliceGenericConstantActionFactory extends GenericConstant
                                                        Properties	properties){
         SpliceLogUtils.trace(LOG,"getCreateIndexConstantAction for index {%s.%s} on {%s.%s} with columnNames %s",schemaName,indexName,schemaName,tableName,Arrays.toString(columnNames));
         return new CreateIndexConstantOperation(forCreateTable,unique,uniqueWithDuplicateNulls,indexType, schemaName,
-                indexName,tableName,tableId,columnNames,isAscending,isConstraint, conglomerateUUID, excludeNulls,
+                indexName,tableName,tableId,columnNames,isAscending,numberOfOrderedColumns,isConstraint, conglomerateUUID, excludeNulls,
                 excludeDefaults,preSplit,sampling,splitKeyPath,hfilePath,columnDelimiter,characterDelimiter,
                 timestampFormat, dateFormat,timeFormat,properties);
     }
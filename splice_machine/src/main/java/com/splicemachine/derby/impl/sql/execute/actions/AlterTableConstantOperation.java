@@ -725,11 +725,12 @@ public class AlterTableConstantOperation extends IndexConstantOperation {
 		     * the index.  (The store doesn't preserve these.)
 		     */
         int indexRowLength = indexRows[index].nColumns();
+        int numberOfOrderedColumns = cd.getIndexDescriptor().numberOfOrderedColumns();
         properties.put("baseConglomerateId", Long.toString(newHeapConglom));
         if (cd.getIndexDescriptor().isUnique()) {
-            properties.put( "nUniqueColumns", Integer.toString(indexRowLength - 1));
+            properties.put( "nUniqueColumns", Integer.toString(numberOfOrderedColumns));
         } else {
-            properties.put( "nUniqueColumns", Integer.toString(indexRowLength));
+            properties.put( "nUniqueColumns", Integer.toString(numberOfOrderedColumns + 1));
         }
         if(cd.getIndexDescriptor().isUniqueWithDuplicateNulls()) {
             properties.put( "uniqueWithDuplicateNulls", Boolean.toString(true));
@@ -775,22 +776,22 @@ public class AlterTableConstantOperation extends IndexConstantOperation {
                         rl,
                         indexRows[index],
                         null);
-				        /* For non-unique indexes, we order by all columns + the RID.
-				         * For unique indexes, we just order by the columns.
+				        /* For non-unique indexes, we order by all key columns + the RID.
+				         * For unique indexes, we just order by the key columns.
 				         * No need to try to enforce uniqueness here as
-				         * index should be valid.
+				         * index should be valid. INCLUDE columns are not ordered.
 				         */
                 int[] baseColumnPositions = curIndex.baseColumnPositions();
 
                 boolean[] isAscending = curIndex.isAscending();
 
-                int numColumnOrderings = baseColumnPositions.length + 1;
+                int numColumnOrderings = curIndex.numberOfOrderedColumns() + 1;
                 ordering[index] = new ColumnOrdering[numColumnOrderings];
 
                 for (int ii =0; ii < numColumnOrderings - 1; ii++) {
                     ordering[index][ii] = new IndexColumnOrder(ii, isAscending[ii]);
                 }
-                ordering[index][numColumnOrderings - 1] = new IndexColumnOrder(numColumnOrderings - 1);
+                ordering[index][numColumnOrderings - 1] = new IndexColumnOrder(baseColumnPositions.length);
                 collation[index] = curIndex.getColumnCollationIds(td.getColumnDescriptorList());
             }
         }
@@ -168,6 +168,7 @@ public class CreateIndexConstantOperation extends IndexConstantOperation impleme
     private String			indexType;
     private String[]		columnNames;
     private boolean[]		isAscending;
+    private int             numberOfOrderedColumns;
     private boolean			isConstraint;
     private UUID			conglomerateUUID;
     private Properties		properties;
@@ -229,6 +230,9 @@ public class CreateIndexConstantOperation extends IndexConstantOperation impleme
      *                                      in order
      * @param isAscending	                Array of booleans telling asc/desc
      *                                      on each column
+     * @param numberOfOrderedColumns        Number of leading columns which
+     *                                      make up the index key, the rest
+     *                                      are INCLUDE columns
      * @param isConstraint	                TRUE if index is backing up a
      *                                      constraint, else FALSE
      * @param conglomerateUUID	            ID of conglomerate
@@ -248,6 +252,7 @@ public class CreateIndexConstantOperation extends IndexConstantOperation impleme
             UUID			tableId,
             String[]		columnNames,
             boolean[]		isAscending,
+            int             numberOfOrderedColumns,
             boolean			isConstraint,
             UUID			conglomerateUUID,
             boolean 		excludeNulls,
@@ -270,6 +275,7 @@ public class CreateIndexConstantOperation extends IndexConstantOperation impleme
         this.indexType                  = indexType;
         this.columnNames                = columnNames;
         this.isAscending                = isAscending;
+        this.numberOfOrderedColumns     = numberOfOrderedColumns;
         this.isConstraint               = isConstraint;
         this.conglomerateUUID           = conglomerateUUID;
         this.properties                 = properties;
@@ -328,6 +334,7 @@ public class CreateIndexConstantOperation extends IndexConstantOperation impleme
         this.indexType = irg.indexType();
         this.columnNames = srcCD.getColumnNames();
         this.isAscending = irg.isAscending();
+        this.numberOfOrderedColumns = irg.numberOfOrderedColumns();
         this.isConstraint = srcCD.isConstraint();
         this.conglomerateUUID = srcCD.getUUID();
         this.properties = properties;
@@ -463,7 +470,8 @@ public class CreateIndexConstantOperation extends IndexConstantOperation impleme
                  *       non-unique and have uniqueWithDuplicateNulls set to FALSE.
                  */
                 boolean possibleShare = (irg.isUnique() || !unique) &&
-                        (bcps.length == baseColumnPositions.length);
+                        (bcps.length == baseColumnPositions.length) &&
+                        (irg.numberOfOrderedColumns() == numberOfOrderedColumns);
 
                 //check if existing index is non unique and uniqueWithDuplicateNulls
                 //is set to true (backing index for unique constraint)
@@ -517,7 +525,7 @@ public class CreateIndexConstantOperation extends IndexConstantOperation impleme
                                     indexType, unique, uniqueWithDuplicateNulls,
                                     baseColumnPositions,
                                     isAscending,
-                                    baseColumnPositions.length,excludeNulls,excludeDefaults);
+                                    numberOfOrderedColumns,excludeNulls,excludeDefaults);
 
                     //DERBY-655 and DERBY-1343
                     // Sharing indexes will have unique logical conglomerate UUIDs.
@@ -696,7 +704,6 @@ public class CreateIndexConstantOperation extends IndexConstantOperation impleme
     private IndexRowGenerator getIndexRowGenerator(int[] baseColumnPositions,
                                                      @Nullable IndexRowGenerator existingGenerator,
                                                      boolean shareExisting) throws StandardException {
-        // For now, assume that all index columns are ordered columns
         if (! shareExisting) {
             existingGenerator = new IndexRowGenerator(
                     indexType,
@@ -704,7 +711,7 @@ public class CreateIndexConstantOperation extends IndexConstantOperation impleme
                     uniqueWithDuplicateNulls,
                     baseColumnPositions,
                     isAscending,
-                    baseColumnPositions.length,
+                    numberOfOrderedColumns,
                     excludeNulls,
                     excludeDefaults);
         }
@@ -712,15 +719,22 @@ public class CreateIndexConstantOperation extends IndexConstantOperation impleme
     }
 
     private ColumnOrdering[] getColumnOrderings(int[] baseColumnPositions) {
+        /*
+         * Only the ordered columns are part of the row key. INCLUDE columns sit between
+         * them and the row location, so a non-unique index orders on the row location
+         * at position baseColumnPositions.length rather than the next column.
+         */
         ColumnOrdering[] order;
-        int numColumnOrderings = baseColumnPositions.length;
+        int numColumnOrderings = numberOfOrderedColumns;
         if(!unique)
             numColumnOrderings++;
 
         order= new ColumnOrdering[numColumnOrderings];
-        for (int i=0; i < numColumnOrderings; i++) {
-            order[i] = new IndexColumnOrder(i, !(unique || i < numColumnOrderings - 1) || isAscending[i]);
+        for (int i=0; i < numberOfOrderedColumns; i++) {
+            order[i] = new IndexColumnOrder(i, isAscending[i]);
         }
+        if(!unique)
+            order[numberOfOrderedColumns] = new IndexColumnOrder(baseColumnPositions.length, true);
         return order;
     }
 
@@ -775,8 +789,8 @@ public class CreateIndexConstantOperation extends IndexConstantOperation impleme
         // The number of uniqueness columns must include the RowLocation
         // if the user did not specify a unique index.
         indexProperties.put("nUniqueColumns",
-                Integer.toString(unique ? baseColumnPositions.length :
-                        baseColumnPositions.length + 1));
+                Integer.toString(unique ? numberOfOrderedColumns :
+                        numberOfOrderedColumns + 1));
 
         if (uniqueWithDuplicateNulls) {
             // Derby made the distinction between "unique" and "uniqueWithDuplicateNulls"
@@ -841,7 +855,9 @@ public class CreateIndexConstantOperation extends IndexConstantOperation impleme
                             String characterDelimiter, String timestampFormat, String dateTimeFormat, String timeFormat,
                             DDLMessage.TentativeIndex tentativeIndex, TableDescriptor td, Activation activation) throws IOException, StandardException {
 
-        List<Integer> indexCols = tentativeIndex.getIndex().getIndexColsToMainColMapList();
+        // split keys only carry the ordered (key) columns of the index
+        List<Integer> indexCols = tentativeIndex.getIndex().getIndexColsToMainColMapList()
+                .subList(0, indexDescriptor.numberOfOrderedColumns());
         List<Integer> allFormatIds = tentativeIndex.getTable().getFormatIdsList();
         int[] indexFormatIds = new int[indexCols.size()];
         for (int i = 0; i < indexCols.size(); ++i) {
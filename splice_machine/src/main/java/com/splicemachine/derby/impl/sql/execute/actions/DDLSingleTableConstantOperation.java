@@ -273,6 +273,7 @@ public abstract class DDLSingleTableConstantOperation extends DDLConstantOperati
                         td.getSchemaName(), 
                         cd.getConglomerateName(), td.getName(), td.getUUID(),
                         cols, cd.getIndexDescriptor().isAscending(),
+                        cd.getIndexDescriptor().numberOfOrderedColumns(),
                         true, cd.getUUID(), false, false, false,false,
 						null,null,null,null,null,null,null,prop);
 
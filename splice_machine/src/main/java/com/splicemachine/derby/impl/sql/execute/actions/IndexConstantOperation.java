@@ -31,6 +31,7 @@ import com.splicemachine.derby.iapi.sql.olap.OlapClient;
 import com.splicemachine.derby.iapi.sql.olap.OlapResult;
 import com.splicemachine.derby.impl.sql.execute.index.BulkLoadIndexJob;
 import com.splicemachine.derby.impl.sql.execute.index.DistributedPopulateIndexJob;
+import com.splicemachine.derby.impl.sql.execute.index.IndexPopulationCoordinator;
 import com.splicemachine.derby.impl.sql.execute.index.PopulateIndexJob;
 import com.splicemachine.derby.impl.sql.execute.operations.ScanOperation;
 import com.splicemachine.derby.stream.ActivationHolder;
@@ -214,20 +215,19 @@ public abstract class IndexConstantOperation extends DDLSingleTableConstantOpera
 			String prefix = StreamUtils.getScopeString(this);
 			String userId = activation.getLanguageConnectionContext().getCurrentUserId(activation);
 			String jobGroup = userId + " <" +indexTransaction.getTxnId() +">";
-			if (distributed) {
+			if (distributed && !preSplit) {
+				new IndexPopulationCoordinator(EngineDriver.driver().getOlapClient(), SIDriver.driver().lifecycleManager(),
+						EngineDriver.driver().getConfiguration())
+						.populate(new DistributedPopulateIndexJob(childTxn, builder, scope, jobGroup, prefix,
+								tentativeIndex, indexFormatIds));
+			} else if (distributed) {
 				OlapClient olapClient = EngineDriver.driver().getOlapClient();
 				Future<OlapResult> futureResult = null;
                 OlapResult result = null;
                 SConfiguration config = EngineDriver.driver().getConfiguration();
-				if (!preSplit) {
-                    futureResult = olapClient.submit(new DistributedPopulateIndexJob(childTxn, builder, scope, jobGroup, prefix,
-                            tentativeIndex, indexFormatIds));
-				}
-				else {
-                    ActivationHolder ah = new ActivationHolder(activation, null);
-					futureResult = olapClient.submit(new BulkLoadIndexJob(ah, childTxn, builder, scope, jobGroup, prefix, tentativeIndex,
-                            indexFormatIds, sampling, hfilePath, td.getVersion(), indexName));
-				}
+                ActivationHolder ah = new ActivationHolder(activation, null);
+                futureResult = olapClient.submit(new BulkLoadIndexJob(ah, childTxn, builder, scope, jobGroup, prefix, tentativeIndex,
+                        indexFormatIds, sampling, hfilePath, td.getVersion(), indexName));
                 while (result == null) {
                     try {
                         result = futureResult.get(config.getOlapClientTickTime(), TimeUnit.MILLISECONDS);
@@ -31,6 +31,9 @@ import java.util.concurrent.Callable;
 
 /**
  * Created by dgomezferro on 6/15/16.
+ *
+ * Populates the index from the base table rows between {@link #startKey} and {@link #stopKey}, see
+ * {@link IndexPopulationCoordinator}.
  */
 public class DistributedPopulateIndexJob extends DistributedJob implements Externalizable {
     String jobGroup;
@@ -40,6 +43,9 @@ public class DistributedPopulateIndexJob extends DistributedJob implements Exter
     String prefix;
     DDLMessage.TentativeIndex tentativeIndex;
     int[] indexFormatIds;
+    byte[] startKey;
+    byte[] stopKey;
+    String description;
 
     public DistributedPopulateIndexJob() {}
     public DistributedPopulateIndexJob(TxnView childTxn, ScanSetBuilder<ExecRow> scanSetBuilder, String scope,
@@ -51,6 +57,22 @@ public class DistributedPopulateIndexJob extends DistributedJob implements Exter
         this.prefix = prefix;
         this.tentativeIndex = tentativeIndex;
         this.indexFormatIds = indexFormatIds;
+        this.startKey = new byte[0];
+        this.stopKey = new byte[0];
+        this.description = "";
+    }
+
+    /**
+     * @return a job populating the index from the base table rows in [startKey, stopKey) only, writing
+     * under {@code txn}
+     */
+    public DistributedPopulateIndexJob forRange(TxnView txn, byte[] startKey, byte[] stopKey, String description) {
+        DistributedPopulateIndexJob job = new DistributedPopulateIndexJob(txn, scanSetBuilder, scope, jobGroup, prefix,
+                tentativeIndex, indexFormatIds);
+        job.startKey = startKey;
+        job.stopKey = stopKey;
+        job.description = description;
+        return job;
     }
 
     @Override
@@ -72,6 +94,9 @@ public class DistributedPopulateIndexJob extends DistributedJob implements Exter
         out.writeObject(tentativeIndex.toByteArray());
         ArrayUtil.writeIntArray(out,indexFormatIds);
         SIDriver.driver().getOperationFactory().writeTxn(childTxn,out);
+        writeKey(out,startKey);
+        writeKey(out,stopKey);
+        out.writeUTF(description);
     }
 
     @Override
@@ -84,5 +109,19 @@ public class DistributedPopulateIndexJob extends DistributedJob implements Exter
         tentativeIndex = DDLMessage.TentativeIndex.parseFrom(bytes);
         indexFormatIds = ArrayUtil.readIntArray(in);
         childTxn = SIDriver.driver().getOperationFactory().readTxn(in);
+        startKey = readKey(in);
+        stopKey = readKey(in);
+        description = in.readUTF();
+    }
+
+    private static void writeKey(ObjectOutput out, byte[] key) throws IOException {
+        out.writeInt(key.length);
+        out.write(key);
+    }
+
+    private static byte[] readKey(ObjectInput in) throws IOException {
+        byte[] key = new byte[in.readInt()];
+        in.readFully(key);
+        return key;
     }
 }
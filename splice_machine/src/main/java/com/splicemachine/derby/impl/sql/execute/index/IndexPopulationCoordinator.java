@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.index;
+
+import com.splicemachine.access.api.PartitionAdmin;
+import com.splicemachine.access.api.SConfiguration;
+import com.splicemachine.derby.iapi.sql.olap.OlapClient;
+import com.splicemachine.derby.iapi.sql.olap.OlapResult;
+import com.splicemachine.pipeline.Exceptions;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.si.api.txn.TxnLifecycleManager;
+import com.splicemachine.si.impl.driver.SIDriver;
+import com.splicemachine.storage.Partition;
+import org.apache.log4j.Logger;
+import org.spark_project.guava.util.concurrent.ListenableFuture;
+import org.spark_project.guava.util.concurrent.MoreExecutors;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Populates a new index with one {@link DistributedPopulateIndexJob} per group of base table regions.
+ *
+ * The regions are split in groups of {@link SConfiguration#getIndexPopulationRegionsPerJob()}, and up to
+ * {@link SConfiguration#getIndexPopulationParallelJobs()} groups are populated at the same time. Each group is
+ * written in its own child transaction of the index transaction, which is committed as soon as its job succeeds.
+ * Since those transactions are managed here rather than by the jobs, a job that fails (or is lost with the OLAP
+ * server running it) only has its own group rolled back and submitted again, up to
+ * {@link SConfiguration#getIndexPopulationMaxRetries()} times, while the groups already populated are kept.
+ */
+public class IndexPopulationCoordinator {
+    private static final Logger LOG = Logger.getLogger(IndexPopulationCoordinator.class);
+
+    private final OlapClient olapClient;
+    private final TxnLifecycleManager lifecycleManager;
+    private final int regionsPerJob;
+    private final int parallelJobs;
+    private final int maxRetries;
+    private final long tickTime;
+
+    public IndexPopulationCoordinator(OlapClient olapClient, TxnLifecycleManager lifecycleManager, SConfiguration config) {
+        this(olapClient, lifecycleManager, config.getIndexPopulationRegionsPerJob(), config.getIndexPopulationParallelJobs(),
+                config.getIndexPopulationMaxRetries(), config.getOlapClientTickTime());
+    }
+
+    IndexPopulationCoordinator(OlapClient olapClient, TxnLifecycleManager lifecycleManager,
+                               int regionsPerJob, int parallelJobs, int maxRetries, long tickTime) {
+        this.olapClient = olapClient;
+        this.lifecycleManager = lifecycleManager;
+        this.regionsPerJob = Math.max(1, regionsPerJob);
+        this.parallelJobs = Math.max(1, parallelJobs);
+        this.maxRetries = maxRetries;
+        this.tickTime = tickTime;
+    }
+
+    /**
+     * Populate the index of {@code job} from every region of its base table, under the transaction of {@code job}.
+     */
+    public void populate(DistributedPopulateIndexJob job) throws IOException {
+        populate(job, getRegions(job.tentativeIndex.getTable().getConglomerate()));
+    }
+
+    void populate(DistributedPopulateIndexJob job, List<Partition> regions) throws IOException {
+        long indexConglomerate = job.tentativeIndex.getIndex().getConglomerate();
+        byte[] destinationTable = Bytes.toBytes(Long.toString(indexConglomerate));
+        Deque<RegionGroup> pending = new ArrayDeque<>();
+        for (int first = 0; first < regions.size(); first += regionsPerJob) {
+            int last = Math.min(first + regionsPerJob, regions.size()) - 1;
+            pending.add(new RegionGroup(regions.get(first).getStartKey(), regions.get(last).getEndKey(),
+                    String.format("populating regions %d-%d of %d", first + 1, last + 1, regions.size())));
+        }
+
+        Set<RegionGroup> running = new HashSet<>();
+        BlockingQueue<RegionGroup> finished = new LinkedBlockingQueue<>();
+        try {
+            while (!pending.isEmpty() || !running.isEmpty()) {
+                while (running.size() < parallelJobs && !pending.isEmpty()) {
+                    RegionGroup group = pending.poll();
+                    submit(job, group, destinationTable, finished);
+                    running.add(group);
+                }
+                /*
+                 * A tick without any job finishing is okay, we just go around and wait again
+                 */
+                RegionGroup group = finished.poll(tickTime, TimeUnit.MILLISECONDS);
+                if (group == null)
+                    continue;
+                running.remove(group);
+                try {
+                    group.result.get();
+                    group.txn.commit();
+                } catch (ExecutionException e) {
+                    group.txn.rollback();
+                    if (++group.attempts > maxRetries)
+                        throw Exceptions.rawIOException(e.getCause());
+                    LOG.warn("Index " + indexConglomerate + ": failed " + group.description + ", retrying", e.getCause());
+                    pending.addFirst(group);
+                }
+            }
+        } catch (InterruptedException e) {
+            //we were interrupted processing, so we're shutting down. Nothing to be done, just die gracefully
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } finally {
+            for (RegionGroup group : running) {
+                group.result.cancel(true);
+                try {
+                    group.txn.rollback();
+                } catch (IOException e) {
+                    LOG.warn("Index " + indexConglomerate + ": unable to roll back " + group.description, e);
+                }
+            }
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private void submit(DistributedPopulateIndexJob job, final RegionGroup group, byte[] destinationTable,
+                        final BlockingQueue<RegionGroup> finished) throws IOException {
+        group.txn = lifecycleManager.beginChildTransaction(job.childTxn, destinationTable);
+        try {
+            group.result = olapClient.submit(job.forRange(group.txn, group.startKey, group.stopKey, group.description));
+        } catch (IOException e) {
+            group.txn.rollback();
+            throw e;
+        }
+        group.result.addListener(new Runnable() {
+            @Override
+            public void run() {
+                finished.add(group);
+            }
+        }, MoreExecutors.sameThreadExecutor());
+    }
+
+    private static List<Partition> getRegions(long conglomerate) throws IOException {
+        List<Partition> regions = new ArrayList<>();
+        try (PartitionAdmin admin = SIDriver.driver().getTableFactory().getAdmin()) {
+            for (Partition partition : admin.allPartitions(Long.toString(conglomerate))) {
+                regions.add(partition);
+            }
+        }
+        Collections.sort(regions, new Comparator<Partition>() {
+            @Override
+            public int compare(Partition o1, Partition o2) {
+                return Bytes.startComparator.compare(o1.getStartKey(), o2.getStartKey());
+            }
+        });
+        return regions;
+    }
+
+    private static class RegionGroup {
+        private final byte[] startKey;
+        private final byte[] stopKey;
+        private final String description;
+        private int attempts;
+        private Txn txn;
+        private ListenableFuture<OlapResult> result;
+
+        RegionGroup(byte[] startKey, byte[] stopKey, String description) {
+            this.startKey = startKey;
+            this.stopKey = stopKey;
+            this.description = description;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.derby.impl.sql.execute.index;
+
+import com.splicemachine.concurrent.Clock;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the rate at which an index population task reads base table rows.
+ *
+ * Rows are counted in windows of about a tenth of a second at the maximum rate. At the end of each window
+ * the limiter looks at how long the rest of the task (transforming the rows and writing them to the index)
+ * took per row, and compares it to the fastest it has seen. Writes slow down when the index regions are busy
+ * with foreground writes, so when that time doubles the rate is halved, down to a sixteenth of the maximum.
+ * Otherwise the rate grows back by a tenth of the maximum per window.
+ *
+ * The fastest time decays towards the current one, so that a single fast window early in the task (or a lasting
+ * change in the cost of its rows) doesn't hold the rate at its floor until the task ends.
+ *
+ * Not thread safe, each task has its own limiter.
+ */
+public class IndexPopulationRateLimiter{
+    private static final double SLOWDOWN_FACTOR = 2.0d;
+    private static final double SMOOTHING = 0.2d;
+    private static final double DECAY = 0.02d;
+
+    private final Clock clock;
+    private final long maxRowsPerSecond;
+    private final long minRowsPerSecond;
+    private final long windowSize;
+
+    private long rowsPerSecond;
+    private long rowsInWindow;
+    private long windowStart = -1;
+    private double rowCost = -1;
+    private double fastestRowCost = Double.MAX_VALUE;
+
+    public IndexPopulationRateLimiter(long maxRowsPerSecond,Clock clock){
+        assert maxRowsPerSecond>0: "Rate limit must be positive";
+        this.clock = clock;
+        this.maxRowsPerSecond = maxRowsPerSecond;
+        this.minRowsPerSecond = Math.max(1,maxRowsPerSecond/16);
+        this.windowSize = Math.max(1,maxRowsPerSecond/10);
+        this.rowsPerSecond = maxRowsPerSecond;
+    }
+
+    /**
+     * Account for one more row, blocking as long as needed to stay within the current rate.
+     */
+    public void acquire() throws InterruptedException{
+        if(windowStart<0)
+            windowStart = clock.nanoTime();
+        rowsInWindow++;
+        if(rowsInWindow<windowSize)
+            return;
+
+        long elapsed = clock.nanoTime()-windowStart;
+        adjustRate(elapsed);
+        long expected = TimeUnit.SECONDS.toNanos(rowsInWindow)/rowsPerSecond;
+        if(elapsed<expected)
+            clock.sleep(expected-elapsed,TimeUnit.NANOSECONDS);
+        rowsInWindow = 0;
+        windowStart = clock.nanoTime();
+    }
+
+    public long getRowsPerSecond(){
+        return rowsPerSecond;
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private void adjustRate(long elapsedNanos){
+        /*
+         * The window started right after the previous sleep, so all of the elapsed time was spent processing rows
+         */
+        double cost = (double)elapsedNanos/rowsInWindow;
+        rowCost = rowCost<0? cost: SMOOTHING*cost+(1-SMOOTHING)*rowCost;
+        if(rowCost<fastestRowCost)
+            fastestRowCost = rowCost;
+        else
+            fastestRowCost+=DECAY*(rowCost-fastestRowCost);
+
+        if(rowCost>SLOWDOWN_FACTOR*fastestRowCost)
+            rowsPerSecond = Math.max(minRowsPerSecond,rowsPerSecond/2);
+        else
+            rowsPerSecond = Math.min(maxRowsPerSecond,rowsPerSecond+Math.max(1,maxRowsPerSecond/10));
+    }
+}
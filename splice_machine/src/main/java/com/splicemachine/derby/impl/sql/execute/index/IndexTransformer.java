@@ -16,6 +16,7 @@ package com.splicemachine.derby.impl.sql.execute.index;
 
 import com.carrotsearch.hppc.BitSet;
 import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.services.io.StoredFormatIds;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.db.iapi.types.DataValueDescriptor;
 import com.splicemachine.db.impl.sql.execute.ValueRow;
@@ -39,9 +40,11 @@ import com.splicemachine.si.constants.SIConstants;
 import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.storage.*;
 import com.splicemachine.storage.index.BitIndex;
+import com.splicemachine.utils.ByteSlice;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import javax.annotation.concurrent.NotThreadSafe;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -61,16 +64,21 @@ import static org.spark_project.guava.base.Preconditions.checkArgument;
  *
  * And
  *
- * indexValue = multiValueEncoding( encodeBytesUnsorted ( srcRowKey ))
+ * indexValue = multiValueEncoding( [inc1] ... [incM], encodeBytesUnsorted ( srcRowKey ))
  *
  * Where colN is an indexed column that may be encoded as part of srcRowKey or srcValue depending on if it is part of
- * a primary key in the source table.
+ * a primary key in the source table, and incM is an INCLUDE column of the index. Included columns are not part of
+ * the index key; they are carried in the index row value to let queries referencing them be answered without going
+ * back to the base table. Null included columns are written as explicit nulls, the way base table updates write them,
+ * because an update which keeps the index key rewrites the index row in place, and its value is merged with the older
+ * versions of the row on read.
  *
  * @author Scott Fines
  *         Date: 4/17/14
  */
 @NotThreadSafe
 public class IndexTransformer {
+    private static final int DIRECT_INDEX_BATCH_SIZE = 256;
     private TypeProvider typeProvider;
     private MultiFieldDecoder srcKeyDecoder;
     private EntryDecoder srcValueDecoder;
@@ -82,6 +90,12 @@ public class IndexTransformer {
     private BitSet indexedCols;
     private byte[] indexConglomBytes;
     private int[] indexFormatIds;
+    private int keyColumnCount;
+    private byte[][] includedFields;
+    private BitSet includedValueFields;
+    private BitSet includedScalarFields;
+    private BitSet includedFloatFields;
+    private BitSet includedDoubleFields;
     private DescriptorSerializer[] serializers;
     private boolean excludeNulls;
     private boolean excludeDefaultValues;
@@ -91,6 +105,12 @@ public class IndexTransformer {
     private transient DataGet baseGet = null;
     private transient DataResult baseResult = null;
     private boolean ignore;
+    private byte[] directSrcRowKey;
+    private ColumnBatch.ColumnType[] directValueTypes;
+    private ColumnBatch directValueBatch;
+    private EntryBatchEncoder directValueEncoder;
+    private byte[][] directIndexKeys;
+    private List<KVPair> unbatchedIndexRows;
 
     public IndexTransformer(DDLMessage.TentativeIndex tentativeIndex) {
         index = tentativeIndex.getIndex();
@@ -108,6 +128,24 @@ public class IndexTransformer {
         for (int i = 0; i < indexColsList.size(); i++) {
             indexFormatIds[i] = allFormatIds.get(indexColsList.get(i)-1);
         }
+        keyColumnCount = index.hasNumberOfOrderedColumns() ? index.getNumberOfOrderedColumns() : indexColsList.size();
+        if (keyColumnCount < indexColsList.size()) {
+            includedFields = new byte[indexColsList.size() - keyColumnCount][];
+            includedValueFields = new BitSet();
+            // the row location always follows the included columns
+            includedValueFields.set(keyColumnCount, indexFormatIds.length + 1);
+            includedScalarFields = new BitSet();
+            includedFloatFields = new BitSet();
+            includedDoubleFields = new BitSet();
+            for (int i = keyColumnCount; i < indexFormatIds.length; i++) {
+                if (typeProvider.isScalar(indexFormatIds[i]))
+                    includedScalarFields.set(i);
+                else if (typeProvider.isFloat(indexFormatIds[i]))
+                    includedFloatFields.set(i);
+                else if (typeProvider.isDouble(indexFormatIds[i]))
+                    includedDoubleFields.set(i);
+            }
+        }
         if ( index.hasDefaultValues() && excludeDefaultValues) {
             defaultValue = (DataValueDescriptor) SerializationUtils.deserialize(index.getDefaultValues().toByteArray());
             defaultValuesExecRow = new ValueRow(new DataValueDescriptor[]{defaultValue.cloneValue(true)});
@@ -137,15 +175,18 @@ public class IndexTransformer {
      *                 that will be updated. Once we have that, we can create a new KVPair of type
      *                 {@link KVPair.Type#DELETE DELETE} and call {@link #translate(KVPair)}
      *                 to translate it to the index's rowKey.
-     * @param ctx the write context of the modification. Used to get transaction and region info.
+     * @param ctx the write context of the modification. Used to get transaction and region info, and the
+     *            old rows already read for the context's batch.
      * @param indexedColumns the columns which are part of this index. Used to filter the Get.
      * @return An index row KVPair that can be used to delete the associated index row, or null if the mutated
      * row is not found (may have already been deleted).
      * @throws IOException for encoding/decoding problems.
      */
     public KVPair createIndexDelete(KVPair mutation, WriteContext ctx, BitSet indexedColumns) throws IOException {
-        // do a Get() on all the indexed columns of the base table
-        DataResult result =fetchBaseRow(mutation,ctx,indexedColumns);
+        // use the old row read for the whole batch if we have it, otherwise do a Get() on all the indexed columns of the base table
+        DataResult result = ctx.baseRowSnapshot().get(mutation,ctx);
+        if(result==null)
+            result =fetchBaseRow(mutation,ctx,indexedColumns);
         if(result==null||result.size()<=0){
             // we can't find the old row, may have been deleted already
             return null;
@@ -169,11 +210,102 @@ public class IndexTransformer {
     public KVPair writeDirectIndex(ExecRow execRow) throws IOException, StandardException {
         assert execRow != null: "ExecRow passed in is null";
         getSerializers(execRow);
+        byte[] indexRowKey = encodeDirectIndexKey(execRow);
+        if (indexRowKey == null)
+            return null;
+        clearIncludedFields();
+        for (int i = keyColumnCount; i < execRow.nColumns(); i++) {
+            DataValueDescriptor dvd = execRow.getColumn(i+1);
+            if (dvd != null && !dvd.isNull())
+                includedFields[i - keyColumnCount] = serializers[i].encodeDirect(dvd, false);
+        }
+        byte[] indexValue = encodeIndexValue(directSrcRowKey);
+        return new KVPair(indexRowKey, indexValue, KVPair.Type.INSERT);
+    }
+
+    /**
+     * Buffer the index row of {@code execRow}, as {@link #writeDirectIndex(ExecRow)} would build it. The index
+     * values of the buffered rows are encoded together, into one buffer, by the next call to
+     * {@link #flushDirectIndex(List)}. Rows which are excluded from the index are not buffered.
+     *
+     * Included columns of integral, boolean, real and double types are copied out of the row as primitives rather
+     * than through their serializers. Indexes including columns of other scalar, float or double types (dates and
+     * times) fall back to {@link #writeDirectIndex(ExecRow)}.
+     *
+     * @return true if the buffer is full, and must be flushed before the next row is buffered.
+     */
+    public boolean bufferDirectIndex(ExecRow execRow) throws IOException, StandardException {
+        assert execRow != null: "ExecRow passed in is null";
+        if (directValueBatch == null)
+            initDirectValueBatch();
+        if (directValueTypes == null) {
+            KVPair indexRow = writeDirectIndex(execRow);
+            if (indexRow != null)
+                unbatchedIndexRows.add(indexRow);
+            return unbatchedIndexRows.size() >= DIRECT_INDEX_BATCH_SIZE;
+        }
+        getSerializers(execRow);
+        byte[] indexRowKey = encodeDirectIndexKey(execRow);
+        if (indexRowKey == null)
+            return false;
+        int row = directValueBatch.size();
+        int column = 0;
+        for (int i = keyColumnCount; i < execRow.nColumns(); i++, column++) {
+            DataValueDescriptor dvd = execRow.getColumn(i+1);
+            if (dvd == null || dvd.isNull()) {
+                directValueBatch.setNull(column, row);
+                continue;
+            }
+            switch (directValueTypes[column]) {
+                case SCALAR: directValueBatch.setLong(column, row, dvd.getLong()); break;
+                case BOOLEAN: directValueBatch.setBoolean(column, row, dvd.getBoolean()); break;
+                case FLOAT: directValueBatch.setFloat(column, row, dvd.getFloat()); break;
+                case DOUBLE: directValueBatch.setDouble(column, row, dvd.getDouble()); break;
+                default:
+                    byte[] data = serializers[i].encodeDirect(dvd, false);
+                    directValueBatch.setEncoded(column, row, data, 0, data.length);
+            }
+        }
+        //the row location always follows the included columns
+        directValueBatch.setEncoded(column, row, directSrcRowKey, 0, directSrcRowKey.length);
+        directIndexKeys[row] = indexRowKey;
+        directValueBatch.setSize(row + 1);
+        return row + 1 >= DIRECT_INDEX_BATCH_SIZE;
+    }
+
+    /**
+     * Add the index rows buffered by {@link #bufferDirectIndex(ExecRow)} to {@code indexRows}, and empty the buffer.
+     */
+    public void flushDirectIndex(List<KVPair> indexRows) {
+        if (directValueBatch == null)
+            return;
+        if (directValueTypes == null) {
+            indexRows.addAll(unbatchedIndexRows);
+            unbatchedIndexRows.clear();
+            return;
+        }
+        int rows = directValueBatch.size();
+        if (rows == 0)
+            return;
+        directValueEncoder.encode(directValueBatch);
+        for (int row = 0; row < rows; row++) {
+            indexRows.add(new KVPair(directIndexKeys[row], directValueEncoder.copyRow(row), KVPair.Type.INSERT));
+            directIndexKeys[row] = null;
+        }
+        directValueBatch.clear();
+    }
+
+    /**
+     * Accumulate the index key of {@code execRow}, and keep the encoded base row key in {@link #directSrcRowKey}.
+     *
+     * @return the index row key, or null if the row is excluded from the index.
+     */
+    private byte[] encodeDirectIndexKey(ExecRow execRow) throws IOException, StandardException {
         EntryAccumulator keyAccumulator = getKeyAccumulator();
         keyAccumulator.reset();
         ignore = false;
         boolean hasNullKeyFields = false;
-        for (int i = 0; i< execRow.nColumns();i++) {
+        for (int i = 0; i < keyColumnCount && i < execRow.nColumns(); i++) {
             if (execRow.getColumn(i+1) == null || execRow.getColumn(i+1).isNull()) {
                 if (i == 0 && excludeNulls) // Pass along null for exclusion...
                     return null;
@@ -194,20 +326,64 @@ public class IndexTransformer {
             return null;
 
         //add the row key to the end of the index key
-        byte[] srcRowKey = Encoding.encodeBytesUnsorted(execRow.getKey());
-
-        EntryEncoder rowEncoder = getRowEncoder();
-        MultiFieldEncoder entryEncoder = rowEncoder.getEntryEncoder();
-        entryEncoder.reset();
-        entryEncoder.setRawBytes(srcRowKey);
-        byte[] indexValue = rowEncoder.encode();
-        byte[] indexRowKey;
+        directSrcRowKey = Encoding.encodeBytesUnsorted(execRow.getKey());
         if (index.getUnique()) {
             boolean nonUnique = index.getUniqueWithDuplicateNulls() && (hasNullKeyFields || !keyAccumulator.isFinished());
-            indexRowKey = getIndexRowKey(srcRowKey, nonUnique);
-        } else
-            indexRowKey = getIndexRowKey(srcRowKey, true);
-        return new KVPair(indexRowKey, indexValue, KVPair.Type.INSERT);
+            return getIndexRowKey(directSrcRowKey, nonUnique);
+        }
+        return getIndexRowKey(directSrcRowKey, true);
+    }
+
+    private void initDirectValueBatch() {
+        if (includedFields == null) {
+            // the index value only holds the row location, at the position getRowEncoder() gives it
+            directValueTypes = new ColumnBatch.ColumnType[]{ColumnBatch.ColumnType.ENCODED};
+            directValueEncoder = new EntryBatchEncoder(directValueTypes, getRowLocationField(), false);
+        } else {
+            ColumnBatch.ColumnType[] types = new ColumnBatch.ColumnType[includedFields.length + 1];
+            for (int i = 0; i < includedFields.length; i++) {
+                types[i] = getDirectValueType(indexFormatIds[keyColumnCount + i]);
+                if (types[i] == null) {
+                    types = null;
+                    break;
+                }
+            }
+            if (types != null) {
+                types[includedFields.length] = ColumnBatch.ColumnType.ENCODED;
+                directValueTypes = types;
+                directValueEncoder = new EntryBatchEncoder(directValueTypes, keyColumnCount, true);
+            }
+        }
+        if (directValueTypes == null) {
+            directValueBatch = new ColumnBatch(new ColumnBatch.ColumnType[0], 0);
+            unbatchedIndexRows = new ArrayList<>();
+        } else {
+            directValueBatch = new ColumnBatch(directValueTypes, DIRECT_INDEX_BATCH_SIZE);
+            directIndexKeys = new byte[DIRECT_INDEX_BATCH_SIZE][];
+        }
+    }
+
+    /**
+     * @return the batch column type of an included column, or null if its values can't be batched.
+     */
+    private ColumnBatch.ColumnType getDirectValueType(int formatId) {
+        switch (formatId) {
+            case StoredFormatIds.SQL_TINYINT_ID:
+            case StoredFormatIds.SQL_SMALLINT_ID:
+            case StoredFormatIds.SQL_INTEGER_ID:
+            case StoredFormatIds.SQL_LONGINT_ID:
+                return ColumnBatch.ColumnType.SCALAR;
+            case StoredFormatIds.SQL_BOOLEAN_ID:
+                return ColumnBatch.ColumnType.BOOLEAN;
+            case StoredFormatIds.SQL_REAL_ID:
+                return ColumnBatch.ColumnType.FLOAT;
+            case StoredFormatIds.SQL_DOUBLE_ID:
+                return ColumnBatch.ColumnType.DOUBLE;
+            default:
+                if (typeProvider.isScalar(formatId) || typeProvider.isFloat(formatId) || typeProvider.isDouble(formatId))
+                    return null;
+                return ColumnBatch.ColumnType.ENCODED;
+        }
     }
 
 
@@ -230,16 +406,22 @@ public class IndexTransformer {
         EntryAccumulator keyAccumulator = getKeyAccumulator();
         keyAccumulator.reset();
         boolean hasNullKeyFields = false;
+        clearIncludedFields();
 
         ignore = false;
 
+        /*
+         * The row key and value are decoded in place: on the region server they are slices of the write request.
+         */
+        ByteSlice srcKey = mutation.rowKeySlice();
+
         /*
          * Handle index columns from the source table's primary key.
          */
         if (table.getColumnOrderingCount()>0) {
             //we have key columns to check
             MultiFieldDecoder keyDecoder = getSrcKeyDecoder();
-            keyDecoder.set(mutation.getRowKey());
+            keyDecoder.set(srcKey.array(), srcKey.offset(), srcKey.length());
             for(int i=0;i<table.getColumnOrderingCount();i++){
                 int sourceKeyColumnPos = table.getColumnOrdering(i);
 
@@ -256,6 +438,11 @@ public class IndexTransformer {
                      */
                     assert !isNull: "Programmer error: Cannot update a primary key to a null value!";
                     int length = keyDecoder.offset() - offset - 1;
+                    if (indexKeyPos >= keyColumnCount) {
+                        includedFields[indexKeyPos - keyColumnCount] =
+                                Arrays.copyOfRange(keyDecoder.array(), offset, offset + length);
+                        continue;
+                    }
                     /*
                      * A note about sort order:
                      *
@@ -277,7 +464,8 @@ public class IndexTransformer {
          * backfilling them with existing values, which would occur elsewhere).
          */
         EntryDecoder rowDecoder = getSrcValueDecoder();
-        rowDecoder.set(mutation.getValue());
+        ByteSlice srcValue = mutation.valueSlice();
+        rowDecoder.set(srcValue.array(), srcValue.offset(), srcValue.length());
         BitIndex bitIndex = rowDecoder.getCurrentIndex();
         MultiFieldDecoder rowFieldDecoder = rowDecoder.getEntryDecoder();
         for (int i = bitIndex.nextSetBit(0); i >= 0; i = bitIndex.nextSetBit(i + 1)) {
@@ -290,6 +478,14 @@ public class IndexTransformer {
                     mainColToIndexPosMap[i] : -1;
             if (keyColumnPos < 0) {
                 rowDecoder.seekForward(rowFieldDecoder, i);
+            } else if (keyColumnPos >= keyColumnCount) {
+                // included column, carried in the index value
+                int offset = rowFieldDecoder.offset();
+                boolean isNull = rowDecoder.seekForward(rowFieldDecoder, i);
+                if (!isNull) {
+                    includedFields[keyColumnPos - keyColumnCount] =
+                            Arrays.copyOfRange(rowFieldDecoder.array(), offset, rowFieldDecoder.offset() - 1);
+                }
             } else {
                 int offset = rowFieldDecoder.offset();
                 boolean isNull = rowDecoder.seekForward(rowFieldDecoder, i);
@@ -330,7 +526,8 @@ public class IndexTransformer {
         for (int srcColIndex = 0; srcColIndex < mainColToIndexPosMap.length; srcColIndex++) {
             /* position of the source column within the index encoding */
             int indexColumnPosition = mainColToIndexPosMap[srcColIndex];
-            if (!isSourceColumnPrimaryKey(srcColIndex) && indexColumnPosition >= 0 && !bitIndex.isSet(srcColIndex)) {
+            if (!isSourceColumnPrimaryKey(srcColIndex) && indexColumnPosition >= 0
+                    && indexColumnPosition < keyColumnCount && !bitIndex.isSet(srcColIndex)) {
                 if (excludeNulls && indexColumnPosition == 0)
                     ignore = true;
                 hasNullKeyFields = true;
@@ -343,13 +540,9 @@ public class IndexTransformer {
         }
 
         //add the row key to the end of the index key
-        byte[] srcRowKey = Encoding.encodeBytesUnsorted(mutation.getRowKey());
+        byte[] srcRowKey = Encoding.encodeBytesUnsorted(srcKey.array(), srcKey.offset(), srcKey.length());
 
-        EntryEncoder rowEncoder = getRowEncoder();
-        MultiFieldEncoder entryEncoder = rowEncoder.getEntryEncoder();
-        entryEncoder.reset();
-        entryEncoder.setRawBytes(srcRowKey);
-        byte[] indexValue = rowEncoder.encode();
+        byte[] indexValue = encodeIndexValue(srcRowKey);
 
         byte[] indexRowKey;
         if (index.getUnique()) {
@@ -369,8 +562,10 @@ public class IndexTransformer {
      * @return
      */
     public boolean areIndexKeysModified(KVPair mutation, BitSet indexedColumns) {
-        EntryDecoder newPutDecoder = new EntryDecoder();
-        newPutDecoder.set(mutation.getValue());
+        // the decoder keeps the last bit index, so updates of the same columns don't decode it again
+        EntryDecoder newPutDecoder = getSrcValueDecoder();
+        ByteSlice value = mutation.valueSlice();
+        newPutDecoder.set(value.array(), value.offset(), value.length());
         BitIndex updateIndex = newPutDecoder.getCurrentIndex();
         for (int i = updateIndex.nextSetBit(0); i >= 0; i = updateIndex.nextSetBit(i + 1)) {
             if (indexedColumns.get(i))
@@ -401,20 +596,56 @@ public class IndexTransformer {
         return data;
     }
 
+    private byte[] encodeIndexValue(byte[] srcRowKey) throws IOException {
+        EntryEncoder rowEncoder = getRowEncoder();
+        if (includedFields == null) {
+            MultiFieldEncoder entryEncoder = rowEncoder.getEntryEncoder();
+            entryEncoder.reset();
+            entryEncoder.setRawBytes(srcRowKey);
+            return rowEncoder.encode();
+        }
+        rowEncoder.reset(includedValueFields, includedScalarFields, includedFloatFields, includedDoubleFields);
+        MultiFieldEncoder entryEncoder = rowEncoder.getEntryEncoder();
+        for (int i = 0; i < includedFields.length; i++) {
+            if (includedFields[i] != null)
+                entryEncoder.setRawBytes(includedFields[i]);
+            else if (includedFloatFields.get(keyColumnCount + i))
+                entryEncoder.encodeEmptyFloat();
+            else if (includedDoubleFields.get(keyColumnCount + i))
+                entryEncoder.encodeEmptyDouble();
+            else
+                entryEncoder.encodeEmpty();
+        }
+        entryEncoder.setRawBytes(srcRowKey);
+        return rowEncoder.encode();
+    }
+
+    private void clearIncludedFields() {
+        if (includedFields != null)
+            Arrays.fill(includedFields, null);
+    }
+
     private EntryEncoder getRowEncoder() {
         if (indexValueEncoder == null) {
             BitSet nonNullFields = new BitSet();
-            int highestSetPosition = 0;
-            for (int keyColumn : mainColToIndexPosMap) {
-                if (keyColumn > highestSetPosition)
-                    highestSetPosition = keyColumn;
-            }
-            nonNullFields.set(highestSetPosition + 1);
+            nonNullFields.set(getRowLocationField());
             indexValueEncoder = EntryEncoder.create(SpliceKryoRegistry.getInstance(), 1, nonNullFields,
                     new BitSet(), new BitSet(), new BitSet());
         }
         return indexValueEncoder;
     }
+    /**
+     * @return the field position of the row location in index values without included columns.
+     */
+    private int getRowLocationField() {
+        int highestSetPosition = 0;
+        for (int keyColumn : mainColToIndexPosMap) {
+            if (keyColumn > highestSetPosition)
+                highestSetPosition = keyColumn;
+        }
+        return highestSetPosition + 1;
+    }
+
     /**
      * because the field is NULL and it's source is the incoming mutation, we
      * still need to accumulate it. We must be careful, however, to accumulate the
@@ -518,7 +749,7 @@ public class IndexTransformer {
         if (indexKeyAccumulator == null) {
             BitSet keyFields = new BitSet();
             for (int keyColumn : mainColToIndexPosMap) {
-                if (keyColumn >= 0)
+                if (keyColumn >= 0 && keyColumn < keyColumnCount)
                     keyFields.set(keyColumn);
             }
             indexKeyAccumulator = new ByteEntryAccumulator(EntryPredicateFilter.emptyPredicate(), keyFields);
@@ -18,17 +18,23 @@ import com.splicemachine.EngineDriver;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.ddl.DDLMessage;
+import com.splicemachine.derby.ddl.DDLUtils;
 import com.splicemachine.derby.iapi.sql.olap.OlapStatus;
 import com.splicemachine.derby.iapi.sql.olap.SuccessfulOlapResult;
-import com.splicemachine.derby.stream.function.IndexTransformFunction;
+import com.splicemachine.derby.stream.function.IndexPopulationThrottleFunction;
+import com.splicemachine.derby.stream.function.IndexTransformPartitionFunction;
 import com.splicemachine.derby.stream.function.KVPairFunction;
 import com.splicemachine.derby.stream.iapi.*;
 import com.splicemachine.derby.stream.output.DataSetWriter;
 import com.splicemachine.si.api.txn.TxnView;
+
 import java.util.concurrent.Callable;
 
 /**
  * Created by dgomezferro on 6/15/16.
+ *
+ * Populates the index from one range of base table regions, under the transaction of the request. The
+ * ranges, their transactions and retries are managed by {@link IndexPopulationCoordinator}.
  */
 public class PopulateIndexJob implements Callable<Void> {
     private final DistributedPopulateIndexJob request;
@@ -48,8 +54,12 @@ public class PopulateIndexJob implements Callable<Void> {
 
         DistributedDataSetProcessor dsp = EngineDriver.driver().processorFactory().distributedProcessor();
         dsp.setSchedulerPool("admin");
-        dsp.setJobGroup(request.jobGroup, "");
-        populateIndex(request.tentativeIndex,request.scanSetBuilder,request.prefix,request.indexFormatIds,request.scope,request.childTxn);
+        jobStatus.setProgress(request.description);
+        dsp.setJobGroup(request.jobGroup, request.description);
+
+        request.scanSetBuilder.scan(DDLUtils.createFullScan().startKey(request.startKey).stopKey(request.stopKey));
+        populateIndex(request.tentativeIndex, request.scanSetBuilder, request.prefix, request.indexFormatIds,
+                request.scope, request.childTxn);
         jobStatus.markCompleted(new SuccessfulOlapResult());
         return null;
     }
@@ -65,8 +75,11 @@ public class PopulateIndexJob implements Callable<Void> {
 
         DataSet<ExecRow> dataSet = scanSetBuilder.buildDataSet(prefix);
         OperationContext operationContext = scanSetBuilder.getOperationContext();
+        long rowsPerSecond = EngineDriver.driver().getConfiguration().getIndexPopulationRowsPerSecond();
+        if (rowsPerSecond > 0)
+            dataSet = dataSet.map(new IndexPopulationThrottleFunction<>(rowsPerSecond));
         PairDataSet dsToWrite = dataSet
-                .map(new IndexTransformFunction(tentativeIndex), null, false, true, scope + ": Prepare Index")
+                .mapPartitions(new IndexTransformPartitionFunction(tentativeIndex), false, true, scope + ": Prepare Index")
                 .index(new KVPairFunction(), false, true, scope + ": Populate Index");
         DataSetWriter writer = dsToWrite.directWriteData()
                 .operationContext(operationContext)
@@ -34,6 +34,7 @@ import org.apache.log4j.Logger;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.Iterator;
 
 /**
  *
@@ -153,11 +154,17 @@ public class GroupedAggregateOperation extends GenericAggregateOperation {
     @Override
     public DataSet<ExecRow> getDataSet(DataSetProcessor dsp) throws StandardException {
         OperationContext<GroupedAggregateOperation> operationContext = dsp.createOperationContext(this);
-        DataSet set = source.getDataSet(dsp);
-
-        operationContext.pushScope();
-        set = set.map(new CountReadFunction(operationContext));
-        operationContext.popScope();
+        DataSet set;
+        Iterator<ExecRow> partialResults = PartialAggregation.computeInRegions(this, dsp, operationContext);
+        if (partialResults != null) {
+            set = dsp.createDataSet(partialResults, "Region Aggregation");
+        } else {
+            set = source.getDataSet(dsp);
+
+            operationContext.pushScope();
+            set = set.map(new CountReadFunction(operationContext));
+            operationContext.popScope();
+        }
         // Have distinct Aggregates?
         boolean hasMultipleDistinct = false;
         int numOfGroupKeys = groupedAggregateContext.getGroupingKeys().length;
@@ -211,6 +211,12 @@ public class MultiProbeTableScanOperation extends TableScanOperation  {
         return "MultiProbe"+super.toString();
     }
 
+    @Override
+    public boolean isKeyedLookup() throws StandardException {
+        // each probe value is its own scan
+        return false;
+    }
+
     @Override
     public DataSet<ExecRow> getDataSet(DataSetProcessor dsp) throws StandardException {
         try {
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations;
+
+import com.splicemachine.EngineDriver;
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
+import com.splicemachine.derby.impl.sql.execute.operations.framework.SpliceGenericAggregator;
+import com.splicemachine.derby.stream.function.CountReadFunction;
+import com.splicemachine.derby.stream.function.KeyerFunction;
+import com.splicemachine.derby.stream.function.MergeAllAggregatesFunction;
+import com.splicemachine.derby.stream.function.ScalarAggregateFlatMapFunction;
+import com.splicemachine.derby.stream.iapi.DataSetProcessor;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import com.splicemachine.derby.stream.iapi.PartialAggregationClient;
+import com.splicemachine.pipeline.Exceptions;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pushes the first phase of control side aggregations down to the regions holding the rows.
+ *
+ * An aggregation which reads a single table (through any number of projections/restrictions) and has no
+ * distinct aggregates or rollups can compute its partial results in each region, under the
+ * query's transaction. The server running the query then only merges those partial results, exactly as it
+ * does with the partial results of its own first phase, instead of reading every row.
+ */
+public final class PartialAggregation{
+    private static final Logger LOG=Logger.getLogger(PartialAggregation.class);
+    /*
+     * When the scan is expected to return fewer rows, reading them costs less than shipping the
+     * operation tree to the regions
+     */
+    private static final double MIN_SCANNED_ROWS=10000d;
+
+    private PartialAggregation(){ }
+
+    /**
+     * Computes the partial results of {@code op} in the regions, if possible. The rows the regions read
+     * are recorded in {@code operationContext}, as if {@code op} had read them itself.
+     *
+     * @return the partial results, or {@code null} if {@code op} should read its source as usual.
+     */
+    public static Iterator<ExecRow> computeInRegions(GenericAggregateOperation op,
+                                                       DataSetProcessor dsp,
+                                                       OperationContext<?> operationContext) throws StandardException{
+        if(dsp.getType()!=DataSetProcessor.Type.CONTROL)
+            return null; //Spark already aggregates next to the data
+        long maxMemory=EngineDriver.driver().getConfiguration().getRegionAggregationMaxMemory();
+        if(maxMemory<=0)
+            return null;
+        ScanOperation scan=getPushableScan(op);
+        if(scan==null)
+            return null;
+        PartialAggregationClient client=EngineDriver.driver().processorFactory().getPartialAggregationClient();
+        if(client==null)
+            return null;
+        Iterator<ExecRow> partialResults=client.getPartialResults(op,scan,maxMemory,operationContext);
+        if(partialResults==null && LOG.isDebugEnabled())
+            LOG.debug("Unable to aggregate "+op.getName()+" in the regions, reading the rows instead");
+        return partialResults;
+    }
+
+    /**
+     * @return the scan feeding {@code op}, or {@code null} if {@code op} can't be computed in the regions
+     * of that scan.
+     */
+    static ScanOperation getPushableScan(GenericAggregateOperation op){
+        if(op.getClass()==GroupedAggregateOperation.class){
+            GroupedAggregateOperation grouped=(GroupedAggregateOperation)op;
+            int[] distinctColumns=grouped.groupedAggregateContext.getNonGroupedUniqueColumns();
+            if(grouped.isRollup || (distinctColumns!=null && distinctColumns.length>0))
+                return null;
+        }else if(op.getClass()!=ScalarAggregateOperation.class)
+            return null;
+        for(SpliceGenericAggregator aggregate : op.aggregates){
+            if(aggregate.isDistinct())
+                return null;
+        }
+
+        SpliceOperation source=op.getSource();
+        while(source instanceof ProjectRestrictOperation)
+            source=((ProjectRestrictOperation)source).getSource();
+        if(source==null || source.getClass()!=TableScanOperation.class)
+            return null;
+        ScanOperation scan=(ScanOperation)source;
+        if(scan.pin || scan.getStoredAs()!=null)
+            return null; //not stored in regions
+        if(scan.getEstimatedRowCount()<MIN_SCANNED_ROWS)
+            return null;
+        return scan;
+    }
+
+    /**
+     * Computes the first phase of {@code op} over the rows its source reads through {@code dsp}, recording
+     * those rows in {@code operationContext}.
+     *
+     * @return the partial results, or {@code null} if they would take more than {@code maxMemory}
+     * bytes.
+     */
+    @SuppressWarnings("unchecked")
+    public static List<ExecRow> computePartialResults(GenericAggregateOperation op,
+                                                      DataSetProcessor dsp,
+                                                      OperationContext operationContext,
+                                                      long maxMemory) throws StandardException{
+        try{
+            if(op instanceof ScalarAggregateOperation){
+                Iterator<ExecRow> partialResult=op.getSource().getDataSet(dsp)
+                        .map(new CountReadFunction(operationContext))
+                        .mapPartitions(new ScalarAggregateFlatMapFunction(operationContext,false))
+                        .toLocalIterator();
+                List<ExecRow> partialResults=new ArrayList<>(1);
+                while(partialResult.hasNext())
+                    partialResults.add(partialResult.next());
+                return partialResults;
+            }
+            return computeGroups(operationContext,dsp,maxMemory);
+        }catch(Exception e){
+            throw Exceptions.parseException(e);
+        }finally{
+            op.getSource().close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<ExecRow> computeGroups(OperationContext<GroupedAggregateOperation> operationContext,
+                                               DataSetProcessor dsp,
+                                               long maxMemory) throws Exception{
+        GroupedAggregateOperation op=operationContext.getOperation();
+        KeyerFunction<ExecRow, GroupedAggregateOperation> keyer=
+                new KeyerFunction<>(operationContext,op.groupedAggregateContext.getGroupingKeys());
+        MergeAllAggregatesFunction<GroupedAggregateOperation> merger=new MergeAllAggregatesFunction<>(operationContext);
+
+        Map<ExecRow, ExecRow> groups=new HashMap<>();
+        long memory=0L;
+        Iterator<ExecRow> rows=op.getSource().getDataSet(dsp).map(new CountReadFunction(operationContext)).toLocalIterator();
+        while(rows.hasNext()){
+            ExecRow row=rows.next();
+            ExecRow key=keyer.call(row);
+            ExecRow group=groups.get(key);
+            if(group!=null){
+                merger.call(group,row);
+                continue;
+            }
+            group=merger.call(null,row);
+            key=key.getClone();
+            memory+=estimateMemoryUsage(key)+estimateMemoryUsage(group);
+            if(memory>maxMemory)
+                return null; //too many groups, let the query read the rows
+            groups.put(key,group);
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    private static long estimateMemoryUsage(ExecRow row){
+        long size=0L;
+        for(DataValueDescriptor dvd : row.getRowArray()){
+            if(dvd!=null)
+                size+=dvd.estimateMemoryUsage();
+        }
+        return size;
+    }
+}
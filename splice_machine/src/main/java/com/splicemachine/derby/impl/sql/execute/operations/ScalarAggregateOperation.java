@@ -30,6 +30,7 @@ import org.apache.log4j.Logger;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.Iterator;
 
 /**
  * Operation for performing Scalar Aggregations (sum, avg, max/min, etc.). 
@@ -119,8 +120,14 @@ public class ScalarAggregateOperation extends GenericAggregateOperation {
     @Override
     public DataSet<ExecRow> getDataSet(DataSetProcessor dsp) throws StandardException {
         OperationContext<ScalarAggregateOperation> operationContext = dsp.createOperationContext(this);
-        DataSet<ExecRow> dsSource = source.getDataSet(dsp);
-        DataSet<ExecRow> ds = dsSource.mapPartitions(new ScalarAggregateFlatMapFunction(operationContext, false), false, /*pushScope=*/true, "First Aggregation");
+        DataSet<ExecRow> ds;
+        Iterator<ExecRow> partialResults = PartialAggregation.computeInRegions(this, dsp, operationContext);
+        if (partialResults != null) {
+            ds = dsp.createDataSet(partialResults, "Region Aggregation");
+        } else {
+            DataSet<ExecRow> dsSource = source.getDataSet(dsp);
+            ds = dsSource.mapPartitions(new ScalarAggregateFlatMapFunction(operationContext, false), false, /*pushScope=*/true, "First Aggregation");
+        }
         DataSet<ExecRow> ds2 = ds.coalesce(1, /*shuffle=*/true, /*isLast=*/false, operationContext, /*pushScope=*/true, "Coalesce");
         return ds2.mapPartitions(new ScalarAggregateFlatMapFunction(operationContext, true), /*isLast=*/true, /*pushScope=*/true, "Final Aggregation");
     }
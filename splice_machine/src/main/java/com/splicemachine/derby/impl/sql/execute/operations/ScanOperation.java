@@ -69,6 +69,9 @@ public abstract class ScanOperation extends SpliceBaseOperation{
     int partitionRefItem;
     protected int[] partitionColumnMap;
     protected ExecRow defaultRow;
+    /* what the table scanners of this operation read on this server, for the statement statistics */
+    private transient long rowsScanned;
+    private transient long bytesScanned;
 
     public ScanOperation(){
         super();
@@ -346,6 +349,19 @@ public abstract class ScanOperation extends SpliceBaseOperation{
         return tableName.equals(String.valueOf(tableNumber));
     }
 
+    public void recordScan(long rows,long bytes){
+        rowsScanned+=rows;
+        bytesScanned+=bytes;
+    }
+
+    public long getRowsScanned(){
+        return rowsScanned;
+    }
+
+    public long getBytesScanned(){
+        return bytesScanned;
+    }
+
     public String getTableName() {
         return this.tableName;
     }
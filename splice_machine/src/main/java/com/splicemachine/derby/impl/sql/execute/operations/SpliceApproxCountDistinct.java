@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations;
+
+import com.splicemachine.db.agg.Aggregator;
+import com.yahoo.memory.NativeMemory;
+import com.yahoo.sketches.theta.SetOperation;
+import com.yahoo.sketches.theta.Union;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * Estimates the number of distinct values with a theta sketch. Partial results are merged with a sketch
+ * union, so the aggregate can be split across regions and Spark partitions like any other UDA.
+ *
+ * 16384 nominal entries give a relative standard error below 1%.
+ */
+public class SpliceApproxCountDistinct<K extends String> implements Aggregator<K,Long,SpliceApproxCountDistinct<K>>, Externalizable {
+    static final int NOMINAL_ENTRIES = 16384;
+
+    private Union union;
+
+    public SpliceApproxCountDistinct() {
+
+    }
+
+    public void init() {
+        union = SetOperation.builder().setNominalEntries(NOMINAL_ENTRIES).buildUnion();
+    }
+
+    public void accumulate( K value ) {
+        union.update(value.toString());
+    }
+
+    public void merge( SpliceApproxCountDistinct<K> other ) {
+        union.update(other.union.getResult());
+    }
+
+    public Long terminate() {
+        return Math.round(union.getResult().getEstimate());
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        byte[] bytes = union.getResult().toByteArray();
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        init();
+        union.update(new NativeMemory(bytes));
+    }
+}
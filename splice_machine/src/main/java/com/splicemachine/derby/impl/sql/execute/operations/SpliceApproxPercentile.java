@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations;
+
+import com.splicemachine.db.agg.Aggregator;
+import com.yahoo.memory.NativeMemory;
+import com.yahoo.sketches.quantiles.DoublesSketch;
+import com.yahoo.sketches.quantiles.DoublesUnion;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * Estimates a fixed percentile with a quantiles sketch. A UDA only takes a single argument, so each
+ * supported percentile is exposed as its own subclass (and its own system aggregate).
+ *
+ * With k=256 the normalized rank error is below 1%.
+ */
+public abstract class SpliceApproxPercentile<K extends Double> implements Aggregator<K,K,SpliceApproxPercentile<K>>, Externalizable {
+    static final int K = 256;
+
+    private DoublesUnion union;
+
+    public SpliceApproxPercentile() {
+
+    }
+
+    /**
+     * @return the fraction of the values which are smaller than the result, between 0 and 1
+     */
+    protected abstract double getFraction();
+
+    public void init() {
+        union = DoublesUnion.builder().setMaxK(K).build();
+    }
+
+    public void accumulate( K value ) {
+        union.update(value.doubleValue());
+    }
+
+    public void merge( SpliceApproxPercentile<K> other ) {
+        union.update(other.union.getResult());
+    }
+
+    public K terminate() {
+        DoublesSketch sketch = union.getResult();
+        if (sketch.isEmpty())
+            return null;
+        Double r = sketch.getQuantile(getFraction());
+        return (K) r;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        byte[] bytes = union.getResult().toByteArray();
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        init();
+        union.update(DoublesSketch.heapify(new NativeMemory(bytes)));
+    }
+}
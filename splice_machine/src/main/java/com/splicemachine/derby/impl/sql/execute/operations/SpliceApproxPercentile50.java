@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012 - 2017 Splice Machine, Inc.
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
  *
  * This file is part of Splice Machine.
  * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
@@ -12,19 +12,16 @@
  * If not, see <http://www.gnu.org/licenses/>.
  */
 
-package com.splicemachine.derby.stream.function;
+package com.splicemachine.derby.impl.sql.execute.operations;
 
-import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
-import scala.Tuple2;
+public class SpliceApproxPercentile50<K extends Double> extends SpliceApproxPercentile<K> {
 
+    public SpliceApproxPercentile50() {
 
-public class BulkImportKeyerFunction extends
-        SpliceFunction <SpliceOperation, Tuple2<Long, Tuple2<byte[], byte[]>>, Tuple2<Long, byte[]>> {
+    }
 
-    public Tuple2<Long, byte[]> call(Tuple2<Long, Tuple2<byte[], byte[]>> row) throws Exception {
-        Long conglomerateId = row._1;
-        Tuple2<byte[], byte[]> kvPair = row._2;
-        byte[] rowKey = kvPair._1;
-        return new Tuple2<>(conglomerateId, rowKey);
+    @Override
+    protected double getFraction() {
+        return 0.50;
     }
 }
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations;
+
+import com.splicemachine.db.agg.Aggregator;
+import com.yahoo.memory.NativeMemory;
+import com.yahoo.sketches.ArrayOfStringsSerDe;
+import com.yahoo.sketches.frequencies.ErrorType;
+import com.yahoo.sketches.frequencies.ItemsSketch;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * Finds the most frequent values with a frequent items sketch. The result lists the top {@link #TOP_K}
+ * values with their estimated counts, most frequent first, e.g. {@code a=120, b=97, c=13}.
+ */
+public class SpliceApproxTopK<K extends String> implements Aggregator<K,String,SpliceApproxTopK<K>>, Externalizable {
+    static final int TOP_K = 10;
+    static final int MAX_MAP_SIZE = 1024;
+    private static final ArrayOfStringsSerDe SERDE = new ArrayOfStringsSerDe();
+
+    private ItemsSketch<String> sketch;
+
+    public SpliceApproxTopK() {
+
+    }
+
+    public void init() {
+        sketch = new ItemsSketch<>(MAX_MAP_SIZE);
+    }
+
+    public void accumulate( K value ) {
+        sketch.update(value.toString());
+    }
+
+    public void merge( SpliceApproxTopK<K> other ) {
+        sketch.merge(other.sketch);
+    }
+
+    public String terminate() {
+        if (sketch.isEmpty())
+            return null;
+        ItemsSketch.Row<String>[] rows = sketch.getFrequentItems(ErrorType.NO_FALSE_NEGATIVES);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < rows.length && i < TOP_K; i++) {
+            if (i > 0)
+                sb.append(", ");
+            sb.append(rows[i].getItem()).append('=').append(rows[i].getEstimate());
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        byte[] bytes = sketch.toByteArray(SERDE);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        sketch = ItemsSketch.getInstance(new NativeMemory(bytes), SERDE);
+    }
+}
@@ -31,6 +31,7 @@ import com.splicemachine.db.iapi.sql.conn.LanguageConnectionContext;
 import com.splicemachine.db.iapi.sql.conn.ResubmitDistributedException;
 import com.splicemachine.db.iapi.sql.conn.StatementContext;
 import com.splicemachine.db.iapi.sql.execute.ExecIndexRow;
+import com.splicemachine.db.iapi.sql.execute.ExecPreparedStatement;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.db.iapi.sql.execute.ExecutionFactory;
 import com.splicemachine.db.iapi.sql.execute.NoPutResultSet;
@@ -44,6 +45,7 @@ import com.splicemachine.db.iapi.types.RowLocation;
 import com.splicemachine.db.impl.sql.execute.ValueRow;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperationContext;
+import com.splicemachine.derby.iapi.sql.execute.StatementStatistics;
 import com.splicemachine.derby.impl.sql.execute.operations.iapi.OperationInformation;
 import com.splicemachine.derby.impl.store.access.BaseSpliceTransaction;
 import com.splicemachine.derby.impl.store.access.SpliceTransaction;
@@ -104,6 +106,9 @@ public abstract class SpliceBaseOperation implements SpliceOperation, ScopeNamed
     private volatile boolean isKilled = false;
     private volatile boolean isTimedout = false;
     private long startTime = System.nanoTime();
+    private long openTime;
+    private long rowsFetched;
+    private DataSetProcessor.Type engine;
 
     public SpliceBaseOperation(){
         super();
@@ -208,6 +213,7 @@ public abstract class SpliceBaseOperation implements SpliceOperation, ScopeNamed
 
     @Override
     public void close() throws StandardException {
+        boolean recordStatistics = uuid != null && isOpen;
         if (uuid != null) {
             EngineDriver.driver().getOperationManager().unregisterOperation(uuid);
             if (isOpen) {
@@ -261,6 +267,8 @@ public abstract class SpliceBaseOperation implements SpliceOperation, ScopeNamed
                     subqueryTrackingArray[index].close();
                 }
             }
+            if(recordStatistics)
+                recordStatementStatistics();
             isOpen=false;
             operationContext = null;
         }catch(Exception e){
@@ -290,6 +298,9 @@ public abstract class SpliceBaseOperation implements SpliceOperation, ScopeNamed
         try {
             DataSetProcessor dsp = EngineDriver.driver().processorFactory().chooseProcessor(activation, this);
             uuid = EngineDriver.driver().getOperationManager().registerOperation(this, Thread.currentThread(),new Date(), dsp.getType());
+            openTime = System.nanoTime();
+            rowsFetched = 0;
+            engine = dsp.getType();
             logExecutionStart(dsp);
             openCore();
         } catch (Exception e) {
@@ -496,6 +507,26 @@ public abstract class SpliceBaseOperation implements SpliceOperation, ScopeNamed
                 (long) modifiedRowCount(), badRecords, System.nanoTime() - startTime);
     }
 
+    private void recordStatementStatistics() {
+        StatementStatistics statistics = EngineDriver.driver().getStatementStatistics();
+        ExecPreparedStatement ps = activation.getPreparedStatement();
+        if (!statistics.isEnabled() || ps == null)
+            return;
+        long[] scanned = new long[2];
+        addScanned(this, scanned);
+        statistics.record(ps.getSource(), engine, System.nanoTime() - openTime,
+                scanned[0], rowsFetched + modifiedRowCount, scanned[1]);
+    }
+
+    private static void addScanned(SpliceOperation op, long[] scanned) {
+        if (op instanceof ScanOperation) {
+            scanned[0] += ((ScanOperation) op).getRowsScanned();
+            scanned[1] += ((ScanOperation) op).getBytesScanned();
+        }
+        for (SpliceOperation child : op.getSubOperations())
+            addScanned(child, scanned);
+    }
+
     protected void computeModifiedRows() throws StandardException {
         modifiedRowCount = 0;
         badRecords = 0;
@@ -525,6 +556,7 @@ public abstract class SpliceBaseOperation implements SpliceOperation, ScopeNamed
                     SpliceLogUtils.trace(LOG, "getNextRowCore %s locatedRow=%s", this, locatedRow);
                 ExecRow result = locatedRow;
                 returnedRows = true;
+                rowsFetched++;
                 return result;
             }
             locatedRow = null;
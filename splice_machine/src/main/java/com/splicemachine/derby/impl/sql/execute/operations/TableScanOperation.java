@@ -29,6 +29,7 @@ import com.splicemachine.derby.stream.iapi.DataSet;
 import com.splicemachine.derby.stream.iapi.DataSetProcessor;
 import com.splicemachine.primitives.Bytes;
 import com.splicemachine.si.api.txn.TxnView;
+import com.splicemachine.storage.DataScan;
 import com.splicemachine.utils.ByteSlice;
 import com.splicemachine.utils.SpliceLogUtils;
 import org.apache.log4j.Logger;
@@ -309,6 +310,22 @@ public class TableScanOperation extends ScanOperation{
         return getTableScannerBuilder(dsp);
     }
 
+    /**
+     *
+     * Whether this scan is an equality lookup on (a prefix of) the key of the table or index, with nothing but
+     * its start key depending on the current row of an outer operation. The lookups of several outer rows can then
+     * be read with one scan over all of their key ranges.
+     *
+     * @return true if this scan is a keyed lookup
+     * @throws StandardException
+     */
+    public boolean isKeyedLookup() throws StandardException{
+        return !pin && storedAs==null
+                && scanInformation instanceof DerbyScanInformation
+                && ((DerbyScanInformation)scanInformation).isSameStartStopPosition()
+                && scanInformation.getScanQualifiers()==null;
+    }
+
     /**
      *
      * Return the string representation for TableScan.
@@ -333,12 +350,25 @@ public class TableScanOperation extends ScanOperation{
      * @throws StandardException
      */
     public DataSet<ExecRow> getTableScannerBuilder(DataSetProcessor dsp) throws StandardException{
+        return getTableScannerBuilder(dsp,getNonSIScan());
+    }
+
+    /**
+     *
+     * Retrieve the Table Scan Builder for creating the data set of a specific scan of this table.
+     *
+     * @param dsp
+     * @param scan
+     * @return
+     * @throws StandardException
+     */
+    public DataSet<ExecRow> getTableScannerBuilder(DataSetProcessor dsp,DataScan scan) throws StandardException{
         TxnView txn=getCurrentTransaction();
         return dsp.<TableScanOperation,ExecRow>newScanSet(this,tableName)
                 .tableDisplayName(tableDisplayName)
                 .activation(activation)
                 .transaction(txn)
-                .scan(getNonSIScan())
+                .scan(scan)
                 .template(currentTemplate)
                 .tableVersion(tableVersion)
                 .indexName(indexName)
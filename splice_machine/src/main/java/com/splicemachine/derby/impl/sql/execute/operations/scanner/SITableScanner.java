@@ -71,6 +71,7 @@ public class SITableScanner<Data> implements StandardIterator<ExecRow>,AutoClose
     protected final int[] rowDecodingMap;
     private SIFilter siFilter;
     private EntryPredicateFilter predicateFilter;
+    private EntryPredicateFilter keyPredicateFilter;
     protected RowLocation currentRowLocation;
     private final boolean[] keyColumnSortOrder;
     private String indexName;
@@ -119,7 +120,8 @@ public class SITableScanner<Data> implements StandardIterator<ExecRow>,AutoClose
         this.reuseRowLocation = reuseRowLocation;
         MetricFactory metricFactory = Metrics.noOpMetricFactory();
         this.filterCounter = metricFactory.newCounter();
-        this.outputBytesCounter = metricFactory.newCounter();
+        // always counted: the statement statistics report the bytes scanned by each statement
+        this.outputBytesCounter = Metrics.basicCounter();
         this.regionScanner = scanner;
         this.keyDecodingMap = keyDecodingMap;
         this.accessedKeys = accessedPks;
@@ -456,12 +458,15 @@ public class SITableScanner<Data> implements StandardIterator<ExecRow>,AutoClose
     private boolean filterRowKey(DataCell data) throws IOException {
         if(!isKeyed) return true;
         keyDecoder.set(data.keyArray(), data.keyOffset(), data.keyLength());
-        if(keyAccumulator==null)
-            keyAccumulator = ExecRowAccumulator.newAccumulator(predicateFilter,false,template,
+        if(keyAccumulator==null) {
+            // value predicates refer to positions in the row, not in the key
+            keyPredicateFilter = predicateFilter.withoutPredicates();
+            keyAccumulator = ExecRowAccumulator.newAccumulator(keyPredicateFilter,false,template,
                     keyDecodingMap, keyColumnSortOrder, accessedKeys, tableVersion);
+        }
         keyAccumulator.reset();
         primaryKeyIndex.reset();
-        return predicateFilter.match(primaryKeyIndex, keyDecoderProvider, keyAccumulator);
+        return keyPredicateFilter.match(primaryKeyIndex, keyDecoderProvider, keyAccumulator);
     }
 
     private class KeyIndex implements Indexed{
@@ -98,7 +98,7 @@ public class StoreCostControllerImpl implements StoreCostController {
             if (conglomerateDescriptor.getIndexDescriptor().isPrimaryKey())
                 conglomerateColumns = td.getNumberOfColumns();
             else
-                conglomerateColumns = conglomerateDescriptor.getIndexDescriptor().numberOfOrderedColumns();
+                conglomerateColumns = conglomerateDescriptor.getIndexDescriptor().baseColumnPositions().length;
         } else {
             conglomerateColumns = (conglomerateDescriptor.getColumnNames() == null) ? 2 : conglomerateDescriptor.getColumnNames().length;
         }
@@ -401,4 +401,9 @@ public class StoreCostControllerImpl implements StoreCostController {
     public double getSelectivityExcludingValueIfSkewed(int columnNumber, DataValueDescriptor value) {
         return tableStatistics.selectivityExcludingValueIfSkewed(value, columnNumber-1);
     }
+
+    @Override
+    public List<ColumnGroupStatisticsImpl> getColumnGroupStatistics() {
+        return noStats ? Collections.<ColumnGroupStatisticsImpl>emptyList() : tableStatistics.getColumnGroupStatistics();
+    }
 }
@@ -727,7 +727,7 @@ public class SpliceRegionAdmin {
             IndexRowGenerator irg = index.getIndexDescriptor();
             IndexDescriptor id = irg.getIndexDescriptor();
             boolean isUnique = id.isUnique();
-            int[] positions = id.baseColumnPositions();
+            int[] positions = id.orderedColumnPositions();
             int[] typeFormatIds = new int[positions.length];
             int i = 0;
             for(int position : positions) {
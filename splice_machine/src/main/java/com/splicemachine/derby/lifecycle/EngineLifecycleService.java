@@ -33,6 +33,7 @@ import com.splicemachine.derby.ddl.DDLEnvironmentLoader;
 import com.splicemachine.derby.impl.db.SpliceDatabase;
 import com.splicemachine.derby.impl.store.access.SpliceAccessManager;
 import com.splicemachine.lifecycle.DatabaseLifecycleService;
+import com.splicemachine.metrics.LatencyHistograms;
 import com.splicemachine.pipeline.ContextFactoryDriverService;
 import com.splicemachine.pipeline.DerbyContextFactoryLoader;
 import com.splicemachine.pipeline.PipelineDriver;
@@ -129,11 +130,14 @@ public class EngineLifecycleService implements DatabaseLifecycleService{
     @Override
     public void registerJMX(MBeanServer mbs) throws Exception{
         manifestReader.registerJMX(mbs);
+        LatencyHistograms.registerJMX(mbs);
         try{
             ObjectName on=new ObjectName("com.splicemachine.utils.logging:type=LogManager");
             ObjectName execServ = new ObjectName("com.splicemachine.derby.lifecycle:type=ExecutorService");
+            ObjectName rowCache = new ObjectName("com.splicemachine.si.impl.region:type=RowCacheManagement");
             mbs.registerMBean(logging,on);
             mbs.registerMBean(SIDriver.driver().getRejectingExecutorService(),execServ);
+            mbs.registerMBean(SIDriver.driver().getRowCacheStatus(),rowCache);
             db.getDataDictionary().getDataDictionaryCache().registerJMX(mbs);
 
 
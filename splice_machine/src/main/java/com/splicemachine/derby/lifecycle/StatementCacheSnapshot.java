@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.splicemachine.derby.lifecycle;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * The identity and execution count of the most frequently executed statements in the statement
+ * cache, as persisted between restarts.
+ *
+ * An entry holds exactly what makes up a statement cache key (compilation schema, statement text
+ * and read-only flag), so compiling it again produces the cache entry a client would otherwise
+ * have to wait for.
+ */
+public class StatementCacheSnapshot{
+    private static final int MAGIC = 0x53434331; // "SCC1"
+
+    public static class Entry{
+        private final String schema;
+        private final String text;
+        private final boolean forReadOnly;
+        private long executionCount;
+
+        public Entry(String schema,String text,boolean forReadOnly,long executionCount){
+            this.schema=schema;
+            this.text=text;
+            this.forReadOnly=forReadOnly;
+            this.executionCount=executionCount;
+        }
+
+        public String getSchema(){ return schema; }
+
+        public String getText(){ return text; }
+
+        public boolean isForReadOnly(){ return forReadOnly; }
+
+        public long getExecutionCount(){ return executionCount; }
+
+        @Override
+        public boolean equals(Object o){
+            if(this==o) return true;
+            if(!(o instanceof Entry)) return false;
+            Entry entry=(Entry)o;
+            return forReadOnly==entry.forReadOnly && schema.equals(entry.schema) && text.equals(entry.text);
+        }
+
+        @Override
+        public int hashCode(){
+            return 31*(31*schema.hashCode()+text.hashCode())+(forReadOnly?1:0);
+        }
+    }
+
+    private final List<Entry> entries;
+
+    public StatementCacheSnapshot(List<Entry> entries){
+        this.entries=entries;
+    }
+
+    /**
+     * @return the entries, most frequently executed first
+     */
+    public List<Entry> getEntries(){
+        return entries;
+    }
+
+    /**
+     * Combine the statements currently cached with a previous snapshot. Statements that are no longer
+     * cached (because the cache was emptied or they were evicted) keep half of their previous count, so
+     * that they survive a cache flush but eventually give way to the current workload.
+     *
+     * @param current the statements currently in the cache
+     * @param previous the previous snapshot, or null
+     * @param maxEntries the maximum number of entries to keep
+     */
+    public static StatementCacheSnapshot merge(Collection<Entry> current,StatementCacheSnapshot previous,int maxEntries){
+        Map<Entry,Entry> merged=new HashMap<>();
+        if(previous!=null){
+            for(Entry e : previous.entries){
+                merged.put(e,new Entry(e.schema,e.text,e.forReadOnly,e.executionCount/2));
+            }
+        }
+        for(Entry e : current){
+            Entry old=merged.get(e);
+            if(old==null)
+                merged.put(e,new Entry(e.schema,e.text,e.forReadOnly,e.executionCount));
+            else
+                old.executionCount=Math.max(old.executionCount,e.executionCount);
+        }
+        List<Entry> sorted=new ArrayList<>(merged.values());
+        Collections.sort(sorted,new Comparator<Entry>(){
+            @Override
+            public int compare(Entry o1,Entry o2){
+                return Long.compare(o2.executionCount,o1.executionCount);
+            }
+        });
+        if(sorted.size()>maxEntries)
+            sorted=new ArrayList<>(sorted.subList(0,maxEntries));
+        return new StatementCacheSnapshot(sorted);
+    }
+
+    /**
+     * Write the snapshot to a temporary file and move it into place, so a crash while writing
+     * leaves the previous snapshot intact.
+     */
+    public void write(File file) throws IOException{
+        File tmp=new File(file.getPath()+".tmp");
+        try(DataOutputStream out=new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))){
+            out.writeInt(MAGIC);
+            out.writeInt(entries.size());
+            for(Entry e : entries){
+                writeString(out,e.schema);
+                writeString(out,e.text);
+                out.writeBoolean(e.forReadOnly);
+                out.writeLong(e.executionCount);
+            }
+        }
+        Files.move(tmp.toPath(),file.toPath(),StandardCopyOption.REPLACE_EXISTING,StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return the snapshot stored in {@code file}, or null if there is none
+     * @throws IOException if the file exists but cannot be read
+     */
+    public static StatementCacheSnapshot read(File file) throws IOException{
+        if(!file.exists())
+            return null;
+        try(DataInputStream in=new DataInputStream(new BufferedInputStream(new FileInputStream(file)))){
+            if(in.readInt()!=MAGIC)
+                throw new IOException("Not a statement cache snapshot: "+file);
+            int size=in.readInt();
+            List<Entry> entries=new ArrayList<>(size);
+            for(int i=0;i<size;i++){
+                String schema=readString(in);
+                String text=readString(in);
+                boolean forReadOnly=in.readBoolean();
+                long count=in.readLong();
+                entries.add(new Entry(schema,text,forReadOnly,count));
+            }
+            return new StatementCacheSnapshot(entries);
+        }
+    }
+
+    /* DataOutput.writeUTF is limited to 64K, statements are not */
+    private static void writeString(DataOutput out,String s) throws IOException{
+        byte[] bytes=s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException{
+        byte[] bytes=new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes,StandardCharsets.UTF_8);
+    }
+}
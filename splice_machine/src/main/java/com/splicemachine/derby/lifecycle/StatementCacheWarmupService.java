@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.splicemachine.derby.lifecycle;
+
+import com.splicemachine.access.api.SConfiguration;
+import com.splicemachine.db.iapi.sql.execute.ExecutionContext;
+import com.splicemachine.db.impl.jdbc.EmbedConnection;
+import com.splicemachine.db.impl.sql.GenericStatement;
+import com.splicemachine.db.impl.sql.GenericStorablePreparedStatement;
+import com.splicemachine.db.impl.sql.catalog.DataDictionaryCache;
+import com.splicemachine.lifecycle.DatabaseLifecycleService;
+import com.splicemachine.tools.EmbedConnectionMaker;
+import com.splicemachine.utils.SpliceLogUtils;
+import org.apache.log4j.Logger;
+import org.spark_project.guava.util.concurrent.ThreadFactoryBuilder;
+
+import javax.management.MBeanServer;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the statement cache warm across restarts.
+ *
+ * The most frequently executed statements in the statement cache are periodically written to a
+ * local {@link StatementCacheSnapshot}. When the server starts, the statements in the last snapshot
+ * are compiled in the background, most frequent first, so that their plans and generated activation
+ * classes are in the statement cache before clients ask for them.
+ *
+ * Each server keeps its snapshot in its own subdirectory of the persist directory, readable only by the
+ * server's user, since it holds SQL text.
+ *
+ * Plans are compiled again rather than deserialized: compiling binds against the current data
+ * dictionary and registers the plan with the DependencyManager, so a table altered or dropped while
+ * the server was down cannot leave a stale plan in the cache. Statements that no longer compile are
+ * dropped from the snapshot.
+ */
+public class StatementCacheWarmupService implements DatabaseLifecycleService{
+    private static final Logger LOG=Logger.getLogger(StatementCacheWarmupService.class);
+    private static final String SNAPSHOT_FILE="statement_cache.snapshot";
+
+    private final SConfiguration config;
+    private final String serverName;
+    private ScheduledExecutorService executor;
+    private volatile File snapshotFile;
+    private volatile Connection connection;
+    private volatile StatementCacheSnapshot lastSnapshot;
+    private volatile boolean warmedUp;
+
+    /**
+     * @param config the configuration
+     * @param serverName a name for this server which is stable across restarts (such as its host and port)
+     */
+    public StatementCacheWarmupService(SConfiguration config,String serverName){
+        this.config=config;
+        this.serverName=serverName;
+    }
+
+    @Override
+    public void start() throws Exception{
+        String directory=config.getStatementCachePersistDirectory();
+        final int maxEntries=config.getStatementCacheWarmupSize();
+        if(directory==null || directory.isEmpty() || maxEntries<=0)
+            return;
+        File dir=snapshotDirectory(directory,serverName);
+        if(dir==null)
+            return;
+        final File file=new File(dir,SNAPSHOT_FILE);
+        snapshotFile=file;
+        executor=Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("statement-cache-warmup").setDaemon(true).build());
+        executor.execute(new Runnable(){
+            @Override
+            public void run(){
+                warmUp(file,maxEntries);
+            }
+        });
+        long interval=config.getStatementCachePersistInterval();
+        executor.scheduleWithFixedDelay(new Runnable(){
+            @Override
+            public void run(){
+                persist(file,maxEntries);
+            }
+        },interval,interval,TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void registerJMX(MBeanServer mbs) throws Exception{
+    }
+
+    @Override
+    public void shutdown() throws Exception{
+        if(executor==null)
+            return;
+        executor.shutdownNow();
+        executor.awaitTermination(10,TimeUnit.SECONDS);
+        persist(snapshotFile,config.getStatementCacheWarmupSize());
+        Connection conn=connection;
+        if(conn!=null)
+            conn.close();
+    }
+
+    /**
+     * @return this server's snapshot directory under {@code directory}, created if need be and restricted to the
+     * server's user, or null if it cannot be created
+     */
+    static File snapshotDirectory(String directory,String serverName){
+        File dir=new File(directory,serverName.replaceAll("[^A-Za-z0-9._-]","_"));
+        if(!dir.isDirectory() && !dir.mkdirs()){
+            SpliceLogUtils.warn(LOG,"Unable to create statement cache snapshot directory %s",dir);
+            return null;
+        }
+        try{
+            Files.setPosixFilePermissions(dir.toPath(),PosixFilePermissions.fromString("rwx------"));
+        }catch(UnsupportedOperationException | IOException e){
+            SpliceLogUtils.warn(LOG,"Unable to restrict access to statement cache snapshot directory %s: %s",dir,e.getMessage());
+        }
+        return dir;
+    }
+
+    private void warmUp(File file,int maxEntries){
+        StatementCacheSnapshot snapshot;
+        try{
+            snapshot=StatementCacheSnapshot.read(file);
+        }catch(IOException e){
+            SpliceLogUtils.warn(LOG,"Unable to read statement cache snapshot %s: %s",file,e.getMessage());
+            snapshot=null;
+        }
+        if(snapshot==null){
+            warmedUp=true;
+            return;
+        }
+        long start=System.currentTimeMillis();
+        int compiled=0;
+        List<StatementCacheSnapshot.Entry> kept=new ArrayList<>(snapshot.getEntries());
+        try{
+            Connection conn=getConnection();
+            String schema=null;
+            try(Statement setSchema=conn.createStatement()){
+                for(StatementCacheSnapshot.Entry entry : snapshot.getEntries()){
+                    if(Thread.currentThread().isInterrupted() || compiled>=maxEntries)
+                        break;
+                    try{
+                        if(!entry.getSchema().equals(schema)){
+                            setSchema.execute("SET SCHEMA \""+entry.getSchema().replace("\"","\"\"")+"\"");
+                            schema=entry.getSchema();
+                        }
+                        int concurrency=entry.isForReadOnly()?ResultSet.CONCUR_READ_ONLY:ResultSet.CONCUR_UPDATABLE;
+                        conn.prepareStatement(entry.getText(),ResultSet.TYPE_FORWARD_ONLY,concurrency).close();
+                        compiled++;
+                    }catch(SQLException se){
+                        // the statement no longer compiles (e.g. a table was dropped); forget about it
+                        kept.remove(entry);
+                        if(LOG.isDebugEnabled())
+                            SpliceLogUtils.debug(LOG,"Dropping statement from warmup: %s",se.getMessage());
+                    }
+                }
+            }
+        }catch(SQLException e){
+            SpliceLogUtils.warn(LOG,"Statement cache warmup failed: %s",e.getMessage());
+        }
+        lastSnapshot=new StatementCacheSnapshot(kept);
+        warmedUp=true;
+        SpliceLogUtils.info(LOG,"Compiled %d of %d cached statements in %d ms",
+                compiled,snapshot.getEntries().size(),System.currentTimeMillis()-start);
+    }
+
+    private void persist(File file,int maxEntries){
+        // don't overwrite the previous snapshot with a cold cache before it has been replayed
+        if(!warmedUp)
+            return;
+        try{
+            Connection conn=getConnection();
+            DataDictionaryCache cache=((EmbedConnection)conn).getLanguageConnection()
+                    .getDataDictionary().getDataDictionaryCache();
+            List<StatementCacheSnapshot.Entry> current=new ArrayList<>();
+            for(Map.Entry<GenericStatement,GenericStorablePreparedStatement> e : cache.statementCacheEntries().entrySet()){
+                GenericStatement statement=e.getKey();
+                GenericStorablePreparedStatement ps=e.getValue();
+                if(!ps.upToDate() || ps.referencesSessionSchema()
+                        || statement.getPrepareIsolationLevel()!=ExecutionContext.UNSPECIFIED_ISOLATION_LEVEL
+                        || ps.getExecutionCount()==0)
+                    continue;
+                current.add(new StatementCacheSnapshot.Entry(statement.getCompilationSchema(),statement.getSource(),
+                        statement.isForReadOnly(),ps.getExecutionCount()));
+            }
+            StatementCacheSnapshot snapshot=StatementCacheSnapshot.merge(current,lastSnapshot,maxEntries);
+            snapshot.write(file);
+            lastSnapshot=snapshot;
+        }catch(Exception e){
+            SpliceLogUtils.warn(LOG,"Unable to write statement cache snapshot %s: %s",file,e.getMessage());
+        }
+    }
+
+    private Connection getConnection() throws SQLException{
+        Connection conn=connection;
+        if(conn==null || conn.isClosed()){
+            Properties properties=new Properties();
+            properties.put(EmbedConnection.INTERNAL_CONNECTION,"true");
+            conn=new EmbedConnectionMaker().createNew(properties);
+            connection=conn;
+        }
+        return conn;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.lifecycle;
+
+import java.io.IOException;
+
+/**
+ * Claims on tables whose statistics a server is about to refresh, so that servers hosting partitions of
+ * the same table don't collect its statistics at the same time.
+ *
+ * A claim is released explicitly once the refresh is done, and implicitly when the server holding it
+ * goes away.
+ */
+public interface StatisticsRefreshClaims{
+
+    /**
+     * @return true if this server now holds the claim on the conglomerate, false if another server holds it
+     */
+    boolean claim(long conglomId) throws IOException;
+
+    void release(long conglomId) throws IOException;
+
+    /**
+     * Claims for a single server, which always succeed.
+     */
+    StatisticsRefreshClaims LOCAL=new StatisticsRefreshClaims(){
+        @Override
+        public boolean claim(long conglomId){
+            return true;
+        }
+
+        @Override
+        public void release(long conglomId){
+        }
+    };
+}
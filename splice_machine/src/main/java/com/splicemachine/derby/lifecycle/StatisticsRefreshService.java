@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.lifecycle;
+
+import com.splicemachine.access.api.SConfiguration;
+import com.splicemachine.db.impl.jdbc.EmbedConnection;
+import com.splicemachine.db.impl.sql.catalog.SYSTABLESTATISTICSRowFactory;
+import com.splicemachine.lifecycle.DatabaseLifecycleService;
+import com.splicemachine.pipeline.PartitionMutationCounter;
+import com.splicemachine.pipeline.PartitionWritePipeline;
+import com.splicemachine.pipeline.PipelineDriver;
+import com.splicemachine.tools.EmbedConnectionMaker;
+import com.splicemachine.utils.SpliceLogUtils;
+import org.apache.log4j.Logger;
+import org.spark_project.guava.util.concurrent.ThreadFactoryBuilder;
+
+import javax.management.MBeanServer;
+import java.io.IOException;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects table statistics again once the data they describe has changed significantly.
+ *
+ * The write pipeline counts the rows inserted, updated and deleted in each partition hosted on this
+ * server. Periodically the counts are compared with the number of rows each partition held when
+ * statistics were last collected; a partition is stale once its changes exceed
+ * {@link SConfiguration#getStatisticsRefreshRatio()} of its rows.
+ *
+ * When the statistics of the table are not merged, only the stale partitions are collected again
+ * (see {@link com.splicemachine.derby.utils.StatisticsAdmin#COLLECT_PARTITION_STATISTICS}), and the
+ * statistics of the other partitions are kept; partitions are merged when the statistics are read. Merged
+ * statistics can't be updated a partition at a time, so the table's statistics are collected again, the
+ * same way (full or sampled) they were collected before. On a cluster the collection runs as a Spark job
+ * on the OLAP server.
+ *
+ * Before collecting, a server claims the table through {@link StatisticsRefreshClaims}, so servers hosting
+ * other partitions of the same table don't collect its statistics at the same time. Statistics collected
+ * by any server (or by a user) reset the counts of the partitions they cover.
+ *
+ * Only tables that already have statistics are refreshed.
+ */
+public class StatisticsRefreshService implements DatabaseLifecycleService{
+    private static final Logger LOG=Logger.getLogger(StatisticsRefreshService.class);
+    /* don't bother collecting statistics again for partitions that have hardly been touched */
+    static final long MIN_MUTATIONS=1000L;
+
+    private static final String TABLE_STATISTICS_SQL="select s.schemaname, t.tablename, ts.rowcount, ts.numpartitions, "+
+            "ts.last_updated, ts.statstype, ts.samplefraction, ts.partitionid "+
+            "from sys.systablestats ts, sys.sysconglomerates c, sys.systables t, sys.sysschemas s "+
+            "where ts.conglomerateid = ? and c.conglomeratenumber = ts.conglomerateid and c.isindex = false "+
+            "and t.tableid = c.tableid and t.schemaid = s.schemaid";
+
+    private final SConfiguration config;
+    private final StatisticsRefreshClaims claims;
+    private ScheduledExecutorService executor;
+    private volatile Connection connection;
+
+    public StatisticsRefreshService(SConfiguration config){
+        this(config,StatisticsRefreshClaims.LOCAL);
+    }
+
+    public StatisticsRefreshService(SConfiguration config,StatisticsRefreshClaims claims){
+        this.config=config;
+        this.claims=claims;
+    }
+
+    @Override
+    public void start() throws Exception{
+        final double ratio=config.getStatisticsRefreshRatio();
+        if(ratio<=0)
+            return;
+        long interval=config.getStatisticsRefreshInterval();
+        executor=Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("statistics-refresh").setDaemon(true).build());
+        executor.scheduleWithFixedDelay(new Runnable(){
+            @Override
+            public void run(){
+                try{
+                    refresh(ratio);
+                }catch(Exception e){
+                    SpliceLogUtils.warn(LOG,"Unable to refresh statistics: %s",e.getMessage());
+                }
+            }
+        },interval,interval,TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void registerJMX(MBeanServer mbs) throws Exception{
+    }
+
+    @Override
+    public void shutdown() throws Exception{
+        if(executor==null)
+            return;
+        executor.shutdownNow();
+        executor.awaitTermination(10,TimeUnit.SECONDS);
+        Connection conn=connection;
+        if(conn!=null)
+            conn.close();
+    }
+
+    /**
+     * @param mutations the rows changed in the partition since its statistics were collected
+     * @param partitionRows the rows in the partition when its statistics were collected
+     * @param ratio the fraction of changed rows at which statistics are considered stale
+     */
+    static boolean isStale(long mutations,long partitionRows,double ratio){
+        return mutations>=MIN_MUTATIONS && mutations>=ratio*partitionRows;
+    }
+
+    /**
+     * @return true if the stale partitions can be collected on their own, which requires statistics that
+     * are not merged and that already cover each of the partitions (split partitions have new names)
+     */
+    static boolean collectPartitions(TableStatistics stats,Collection<String> stalePartitions){
+        if(stats.isMerged())
+            return false;
+        for(String partition : stalePartitions){
+            if(!stats.partitions.containsKey(partition))
+                return false;
+        }
+        return true;
+    }
+
+    private void refresh(double ratio) throws SQLException, IOException{
+        PipelineDriver driver=PipelineDriver.driver();
+        if(driver==null)
+            return;
+        Map<Long,List<PartitionWritePipeline>> candidates=new HashMap<>();
+        for(PartitionWritePipeline pipeline : driver.getPipelines()){
+            if(pipeline.getMutationCounter().getMutationsSinceCollection()<MIN_MUTATIONS)
+                continue;
+            long conglomId;
+            try{
+                conglomId=Long.parseLong(pipeline.getPartition().getTableName());
+            }catch(NumberFormatException nfe){
+                continue; // not a conglomerate
+            }
+            List<PartitionWritePipeline> pipelines=candidates.get(conglomId);
+            if(pipelines==null){
+                pipelines=new ArrayList<>();
+                candidates.put(conglomId,pipelines);
+            }
+            pipelines.add(pipeline);
+        }
+        if(candidates.isEmpty())
+            return;
+        Connection conn=getConnection();
+        for(Map.Entry<Long,List<PartitionWritePipeline>> e : candidates.entrySet()){
+            if(Thread.currentThread().isInterrupted())
+                return;
+            long conglomId=e.getKey();
+            TableStatistics stats=loadStatistics(conn,conglomId);
+            if(stats==null || staleOnly(stats,e.getValue(),ratio).isEmpty())
+                continue;
+            if(!claims.claim(conglomId))
+                continue; // another server is refreshing them, which resets our counts as well
+            try{
+                // the statistics may have been refreshed while we were looking
+                stats=loadStatistics(conn,conglomId);
+                if(stats==null)
+                    continue;
+                List<PartitionWritePipeline> stale=staleOnly(stats,e.getValue(),ratio);
+                if(!stale.isEmpty())
+                    refresh(conn,stats,e.getValue(),stale);
+            }finally{
+                claims.release(conglomId);
+            }
+        }
+    }
+
+    private static List<PartitionWritePipeline> staleOnly(TableStatistics stats,List<PartitionWritePipeline> pipelines,double ratio){
+        List<PartitionWritePipeline> stale=new ArrayList<>(pipelines.size());
+        for(PartitionWritePipeline pipeline : pipelines){
+            PartitionMutationCounter counter=pipeline.getMutationCounter();
+            long[] partitionStats=stats.isMerged()?null:stats.partitions.get(pipeline.getPartition().getName());
+            long rows=partitionStats==null?stats.rowsPerPartition():partitionStats[0];
+            long lastUpdated=partitionStats==null?stats.lastUpdated:partitionStats[1];
+            if(lastUpdated>counter.getCollectedTime())
+                counter.markCollected(lastUpdated);
+            if(isStale(counter.getMutationsSinceCollection(),rows,ratio))
+                stale.add(pipeline);
+        }
+        return stale;
+    }
+
+    private static void refresh(Connection conn,TableStatistics stats,
+                                List<PartitionWritePipeline> pipelines,
+                                List<PartitionWritePipeline> stale){
+        List<String> stalePartitions=new ArrayList<>(stale.size());
+        for(PartitionWritePipeline pipeline : stale){
+            stalePartitions.add(pipeline.getPartition().getName());
+        }
+        long start=System.currentTimeMillis();
+        boolean partial=collectPartitions(stats,stalePartitions);
+        if(partial){
+            try{
+                for(String partition : stalePartitions){
+                    collectPartition(conn,stats,partition);
+                }
+            }catch(SQLException se){
+                // most likely a partition moved or split meanwhile
+                SpliceLogUtils.info(LOG,"Unable to refresh partition statistics of %s.%s, refreshing the table instead: %s",
+                        stats.schema,stats.table,se.getMessage());
+                partial=false;
+            }
+        }
+        if(!partial){
+            try{
+                collect(conn,stats);
+            }catch(SQLException se){
+                SpliceLogUtils.warn(LOG,"Unable to refresh statistics of %s.%s: %s",stats.schema,stats.table,se.getMessage());
+                return;
+            }
+        }
+        for(PartitionWritePipeline pipeline : partial?stale:pipelines){
+            pipeline.getMutationCounter().markCollected(start);
+        }
+        SpliceLogUtils.info(LOG,"Refreshed stale statistics of %s.%s (%s) in %d ms",
+                stats.schema,stats.table,partial?stalePartitions.size()+" partitions":"entire table",
+                System.currentTimeMillis()-start);
+    }
+
+    private static TableStatistics loadStatistics(Connection conn,long conglomId) throws SQLException{
+        TableStatistics stats=null;
+        try(PreparedStatement ps=conn.prepareStatement(TABLE_STATISTICS_SQL)){
+            ps.setLong(1,conglomId);
+            try(ResultSet rs=ps.executeQuery()){
+                while(rs.next()){
+                    if(stats==null)
+                        stats=new TableStatistics(rs.getString(1),rs.getString(2),rs.getInt(6),rs.getDouble(7));
+                    long updated=rs.getTimestamp(5).getTime();
+                    stats.addPartition(rs.getString(8),rs.getLong(3),rs.getLong(4),updated);
+                }
+            }
+        }
+        return stats;
+    }
+
+    private static void collect(Connection conn,TableStatistics stats) throws SQLException{
+        boolean sampled=stats.isSampled();
+        String procedure="SYSCS_UTIL.COLLECT_"+(stats.isMerged()?"":"NONMERGED_")+"TABLE_"+(sampled?"SAMPLE_":"")+"STATISTICS";
+        String sql="call "+procedure+(sampled?"(?,?,?,false)":"(?,?,false)");
+        try(CallableStatement cs=conn.prepareCall(sql)){
+            cs.setString(1,stats.schema);
+            cs.setString(2,stats.table);
+            if(sampled)
+                cs.setDouble(3,stats.sampleFraction*100);
+            execute(cs);
+        }
+    }
+
+    private static void collectPartition(Connection conn,TableStatistics stats,String partition) throws SQLException{
+        try(CallableStatement cs=conn.prepareCall("call SYSCS_UTIL.COLLECT_PARTITION_STATISTICS(?,?,?,false)")){
+            cs.setString(1,stats.schema);
+            cs.setString(2,stats.table);
+            cs.setString(3,partition);
+            execute(cs);
+        }
+    }
+
+    private static void execute(CallableStatement cs) throws SQLException{
+        cs.execute();
+        // the statistics are written while their result set is read
+        try(ResultSet rs=cs.getResultSet()){
+            while(rs!=null && rs.next()){
+            }
+        }
+    }
+
+    private Connection getConnection() throws SQLException{
+        Connection conn=connection;
+        if(conn==null || conn.isClosed()){
+            Properties properties=new Properties();
+            properties.put(EmbedConnection.INTERNAL_CONNECTION,"true");
+            conn=new EmbedConnectionMaker().createNew(properties);
+            connection=conn;
+        }
+        return conn;
+    }
+
+    static class TableStatistics{
+        final String schema;
+        final String table;
+        final int statsType;
+        final double sampleFraction;
+        /* the row count and the time statistics were collected, by partition */
+        final Map<String,long[]> partitions=new HashMap<>();
+        long rowCount;
+        long numberOfPartitions;
+        long lastUpdated;
+
+        TableStatistics(String schema,String table,int statsType,double sampleFraction){
+            this.schema=schema;
+            this.table=table;
+            this.statsType=statsType;
+            this.sampleFraction=sampleFraction;
+        }
+
+        void addPartition(String partitionId,long rows,long numberOfPartitions,long updated){
+            partitions.put(partitionId,new long[]{rows,updated});
+            this.rowCount+=rows;
+            this.numberOfPartitions+=numberOfPartitions;
+            // non-merged statistics have one row per partition; the oldest one counts
+            this.lastUpdated=lastUpdated==0?updated:Math.min(lastUpdated,updated);
+        }
+
+        boolean isMerged(){
+            return statsType==SYSTABLESTATISTICSRowFactory.REGULAR_MERGED_STATS
+                    || statsType==SYSTABLESTATISTICSRowFactory.SAMPLE_MERGED_STATS;
+        }
+
+        boolean isSampled(){
+            return statsType==SYSTABLESTATISTICSRowFactory.SAMPLE_MERGED_STATS
+                    || statsType==SYSTABLESTATISTICSRowFactory.SAMPLE_NONMERGED_STATS;
+        }
+
+        long rowsPerPartition(){
+            return numberOfPartitions<=0?rowCount:rowCount/numberOfPartitions;
+        }
+    }
+}
@@ -48,14 +48,17 @@ import org.spark_project.guava.base.Charsets;
 import scala.Tuple2;
 
 import javax.annotation.Nonnull;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.SequenceInputStream;
 import java.net.URISyntaxException;
 import java.nio.file.OpenOption;
 import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Scanner;
 import java.util.zip.GZIPInputStream;
 
@@ -214,6 +217,16 @@ public class ControlDataSetProcessor implements DataSetProcessor{
         return readTextFile(s);
     }
 
+    @Override
+    public DataSet<byte[]> readRawTextFile(String s,SpliceOperation op){
+        try{
+            InputStream is=getFileStream(s);
+            return new ControlDataSet<>(new RawTextFileIterator(is));
+        }catch(IOException | URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Override
     public <K,V> PairDataSet<K, V> getEmptyPair(){
         return new ControlPairDataSet<>(Collections.<Tuple2<K, V>>emptyList().iterator());
@@ -259,6 +272,86 @@ public class ControlDataSetProcessor implements DataSetProcessor{
 
     }
 
+    /**
+     * Splits a stream in lines the same way as {@link TextFileIterator}, but without decoding them.
+     */
+    private static class RawTextFileIterator implements Iterator<byte[]>{
+        private final InputStream inputStream;
+        private final byte[] buffer=new byte[1<<16];
+        private int position;
+        private int limit;
+        private boolean skipLineFeed;
+        private boolean done;
+        private byte[] next;
+
+        RawTextFileIterator(InputStream inputStream){
+            this.inputStream=inputStream;
+        }
+
+        @Override
+        public void remove(){
+        }
+
+        @Override
+        public byte[] next(){
+            if(!hasNext())
+                throw new NoSuchElementException();
+            byte[] line=next;
+            next=null;
+            return line;
+        }
+
+        @Override
+        public boolean hasNext(){
+            if(next==null && !done){
+                try{
+                    next=readLine();
+                }catch(IOException e){
+                    throw new RuntimeException(e);
+                }
+            }
+            return next!=null;
+        }
+
+        private byte[] readLine() throws IOException{
+            ByteArrayOutputStream line=null; // only needed when a line spans several reads
+            while(true){
+                if(position==limit){
+                    position=0;
+                    limit=inputStream.read(buffer,0,buffer.length);
+                    if(limit<0){
+                        limit=0;
+                        done=true;
+                        inputStream.close();
+                        return line==null?null:line.toByteArray();
+                    }
+                    continue;
+                }
+                if(skipLineFeed){
+                    skipLineFeed=false;
+                    if(buffer[position]=='\n'){
+                        position++;
+                        continue;
+                    }
+                }
+                int start=position;
+                while(position<limit && buffer[position]!='\n' && buffer[position]!='\r')
+                    position++;
+                if(position<limit){
+                    skipLineFeed=buffer[position]=='\r';
+                    position++;
+                    if(line==null)
+                        return Arrays.copyOfRange(buffer,start,position-1);
+                    line.write(buffer,start,position-1-start);
+                    return line.toByteArray();
+                }
+                if(line==null)
+                    line=new ByteArrayOutputStream();
+                line.write(buffer,start,position-start);
+            }
+        }
+    }
+
     @Override
     public void setPermissive(String statusDirectory, String importFileName, long badRecordThreshold){
         this.permissive = true;
@@ -23,6 +23,8 @@ import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.db.iapi.types.DataTypeDescriptor;
 import com.splicemachine.db.iapi.types.DataValueDescriptor;
 import com.splicemachine.db.iapi.types.DateTimeDataValue;
+import com.splicemachine.db.iapi.types.SQLDate;
+import com.splicemachine.db.iapi.types.SQLTime;
 import com.splicemachine.db.iapi.types.SQLTimestamp;
 import com.splicemachine.db.shared.common.reference.SQLState;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
@@ -126,10 +128,19 @@ public abstract class AbstractFileFunction<I> extends SpliceFlatMapFunction<Spli
 
     @SuppressFBWarnings(value = "REC_CATCH_EXCEPTION",justification = "Intentional")
     public ExecRow call(List<String> values,BooleanList quotedColumns) throws Exception {
+        if (calendar == null)
+            calendar = new GregorianCalendar();
         return getRow(values, quotedColumns, operationContext, execRow, calendar, timeFormat,
                 dateTimeFormat, timestampFormat);
     }
 
+    public ExecRow call(Utf8CsvTokenizer tokenizer) throws Exception {
+        if (calendar == null)
+            calendar = new GregorianCalendar();
+        return getRow(tokenizer, operationContext, execRow, calendar, timeFormat,
+                dateTimeFormat, timestampFormat);
+    }
+
 
     public static ExecRow getRow(List<String> values,BooleanList quotedColumns,
                                  OperationContext operationContext, ExecRow execRow,
@@ -174,47 +185,10 @@ public abstract class AbstractFileFunction<I> extends SpliceFlatMapFunction<Spli
                 if (shouldBeNull(value,quotedColumns.valueAt(i-1)))
                     value = null;
                 columnValue = value;
-                switch(type){
-                    case StoredFormatIds.SQL_TIME_ID:
-                        if(calendar==null)
-                            calendar = new GregorianCalendar();
-                        if (timeFormat == null || value==null){
-                            ((DateTimeDataValue)dvd).setValue(value,calendar);
-                        }else
-                            dvd.setValue(SpliceDateFunctions.TO_TIME(value, timeFormat),calendar);
-                        break;
-                    case StoredFormatIds.SQL_DATE_ID:
-                        if(calendar==null)
-                            calendar = new GregorianCalendar();
-                        if (dateTimeFormat == null || value == null)
-                            ((DateTimeDataValue)dvd).setValue(value,calendar);
-                        else
-                            dvd.setValue(SpliceDateFunctions.TO_DATE(value, dateTimeFormat),calendar);
-                        break;
-                    case StoredFormatIds.SQL_TIMESTAMP_ID:
-                        if(calendar==null)
-                            calendar = new GregorianCalendar();
-                        if (timestampFormat == null || value==null)
-                            ((DateTimeDataValue)dvd).setValue(value,calendar);
-                        else {
-                            Timestamp ts = SpliceDateFunctions.TO_TIMESTAMP(value, timestampFormat);
-                            if (convertTimestamps)
-                                ts = SQLTimestamp.convertTimeStamp(ts);
-                            dvd.setValue(ts, calendar);
-                        }
-                        break;
-                    case StoredFormatIds.SQL_CHAR_ID:
-                    case StoredFormatIds.SQL_VARCHAR_ID:
-                    case StoredFormatIds.SQL_CLOB_ID:
-                        dvd.setValue(value);
-                        //normalize the char type
-                        if(dataTypeDescriptors != null && !dvd.isNull()){
-                            dvd.normalize(dataTypeDescriptors[i-1], dvd);
-                        }
-                        break;
-                    default:
-                        dvd.setValue(value);
-                }
+                if (calendar == null && isDateTime(type))
+                    calendar = new GregorianCalendar();
+                setColumn(dvd, type, value, dataTypeDescriptors == null ? null : dataTypeDescriptors[i - 1], calendar,
+                        convertTimestamps, timeFormat, dateTimeFormat, timestampFormat);
             }
             return returnRow;
         } catch (Exception e) {
@@ -231,17 +205,274 @@ public abstract class AbstractFileFunction<I> extends SpliceFlatMapFunction<Spli
         }
     }
 
+    /**
+     * Same as {@link #getRow(List, BooleanList, OperationContext, ExecRow, Calendar, String, String, String)},
+     * but reads the columns of the current row of a {@link Utf8CsvTokenizer}. Integers, and dates and timestamps
+     * without a custom format, are parsed directly from the bytes when they are in their canonical form; all
+     * other values are decoded and parsed the same way as before.
+     */
+    public static ExecRow getRow(Utf8CsvTokenizer tokenizer,
+                                 OperationContext operationContext, ExecRow execRow,
+                                 Calendar calendar, String timeFormat,
+                                 String dateTimeFormat, String timestampFormat)  throws Exception {
+        int columnID = 0;
+        int numofColumnsinTable = 0;
+        int numofColumnsinFile = tokenizer.getNumColumns();
+        boolean columnnumbermistmatch = false;
+        boolean convertTimestamps = false;
+
+        if (operationContext != null)
+            operationContext.recordRead();
+
+        try {
+            ExecRow returnRow = execRow.getClone();
+            if (numofColumnsinFile < returnRow.nColumns()) {
+                columnnumbermistmatch = true;
+                throw StandardException.newException(SQLState.COLUMN_NUMBER_MISMATCH, returnRow.nColumns(), numofColumnsinFile);
+            }
+
+            DataTypeDescriptor[] dataTypeDescriptors = null;
+            if (operationContext != null && operationContext.getOperation() instanceof VTIOperation) {
+                VTIOperation op = (VTIOperation) operationContext.getOperation();
+                dataTypeDescriptors = op.getResultColumnTypes();
+                convertTimestamps = op.isConvertTimestampsEnabled();
+            }
+
+            numofColumnsinTable = returnRow.nColumns();
+            byte[] buffer = tokenizer.getBuffer();
+            for (int i = 1; i <= returnRow.nColumns(); i++) {
+                DataValueDescriptor dvd = returnRow.getColumn(i);
+                columnID = i;
+                int type = dvd.getTypeFormatId();
+                int offset = tokenizer.getColumnOffset(i - 1);
+                int length = tokenizer.getColumnLength(i - 1);
+
+                if (shouldBeNull(buffer, offset, length, tokenizer.wasQuoted(i - 1))) {
+                    dvd.setToNull();
+                    continue;
+                }
+                if (setColumn(dvd, type, buffer, offset, length, timeFormat, dateTimeFormat, timestampFormat))
+                    continue;
+
+                if (calendar == null && isDateTime(type))
+                    calendar = new GregorianCalendar();
+                setColumn(dvd, type, tokenizer.getColumn(i - 1), dataTypeDescriptors == null ? null : dataTypeDescriptors[i - 1],
+                        calendar, convertTimestamps, timeFormat, dateTimeFormat, timestampFormat);
+            }
+            return returnRow;
+        } catch (Exception e) {
+            if (operationContext != null && operationContext.isPermissive()) {
+                List<String> values = tokenizer.getColumns();
+                String extendedMessage;
+                if (columnnumbermistmatch)
+                    extendedMessage = " row Data: " + values;
+                else
+                    extendedMessage = " [Columns in Table: " + numofColumnsinTable + "] [Columns in File: " + numofColumnsinFile + "] [Bad Column ID: " + columnID + "] "+ "[Bad Column Value: " + values.get(columnID - 1) + "]" + " row Data: " + values;
+                operationContext.recordBadRecord(e.getLocalizedMessage() + extendedMessage, e);
+                return null;
+            }
+            throw e; // Not Permissive of errors
+        }
+    }
+
+    private static void setColumn(DataValueDescriptor dvd, int type, String value, DataTypeDescriptor dataTypeDescriptor,
+                                  Calendar calendar, boolean convertTimestamps, String timeFormat,
+                                  String dateTimeFormat, String timestampFormat) throws Exception {
+        switch(type){
+            case StoredFormatIds.SQL_TIME_ID:
+                if (timeFormat == null || value==null){
+                    ((DateTimeDataValue)dvd).setValue(value,calendar);
+                }else
+                    dvd.setValue(SpliceDateFunctions.TO_TIME(value, timeFormat),calendar);
+                break;
+            case StoredFormatIds.SQL_DATE_ID:
+                if (dateTimeFormat == null || value == null)
+                    ((DateTimeDataValue)dvd).setValue(value,calendar);
+                else
+                    dvd.setValue(SpliceDateFunctions.TO_DATE(value, dateTimeFormat),calendar);
+                break;
+            case StoredFormatIds.SQL_TIMESTAMP_ID:
+                if (timestampFormat == null || value==null)
+                    ((DateTimeDataValue)dvd).setValue(value,calendar);
+                else {
+                    Timestamp ts = SpliceDateFunctions.TO_TIMESTAMP(value, timestampFormat);
+                    if (convertTimestamps)
+                        ts = SQLTimestamp.convertTimeStamp(ts);
+                    dvd.setValue(ts, calendar);
+                }
+                break;
+            case StoredFormatIds.SQL_CHAR_ID:
+            case StoredFormatIds.SQL_VARCHAR_ID:
+            case StoredFormatIds.SQL_CLOB_ID:
+                dvd.setValue(value);
+                //normalize the char type
+                if(dataTypeDescriptor != null && !dvd.isNull()){
+                    dvd.normalize(dataTypeDescriptor, dvd);
+                }
+                break;
+            default:
+                dvd.setValue(value);
+        }
+    }
+
+    /**
+     * Sets the column straight from its bytes, if it is of a type and in a form which can be parsed without
+     * decoding it. Anything unusual (signs, spaces, overflows, other date formats, invalid dates) is left to
+     * the String based parsing, so that it is accepted or rejected exactly as before.
+     *
+     * @return true if the column was set
+     */
+    private static boolean setColumn(DataValueDescriptor dvd, int type, byte[] buffer, int offset, int length,
+                                     String timeFormat, String dateTimeFormat, String timestampFormat) throws StandardException {
+        switch (type) {
+            case StoredFormatIds.SQL_TINYINT_ID:
+            case StoredFormatIds.SQL_SMALLINT_ID:
+            case StoredFormatIds.SQL_INTEGER_ID:
+            case StoredFormatIds.SQL_LONGINT_ID: {
+                long value = parseLong(buffer, offset, length);
+                if (value == Long.MIN_VALUE)
+                    return false;
+                switch (type) {
+                    case StoredFormatIds.SQL_TINYINT_ID:
+                        if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE)
+                            return false;
+                        dvd.setValue((int) value);
+                        return true;
+                    case StoredFormatIds.SQL_SMALLINT_ID:
+                        if (value < Short.MIN_VALUE || value > Short.MAX_VALUE)
+                            return false;
+                        dvd.setValue((int) value);
+                        return true;
+                    case StoredFormatIds.SQL_INTEGER_ID:
+                        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+                            return false;
+                        dvd.setValue((int) value);
+                        return true;
+                    default:
+                        dvd.setValue(value);
+                        return true;
+                }
+            }
+            case StoredFormatIds.SQL_DATE_ID: {
+                // yyyy-mm-dd
+                if (dateTimeFormat != null || length != 10 || buffer[offset + 4] != '-' || buffer[offset + 7] != '-')
+                    return false;
+                int year = parseDigits(buffer, offset, 4);
+                int month = parseDigits(buffer, offset + 5, 2);
+                int day = parseDigits(buffer, offset + 8, 2);
+                if (year < 0 || month < 0 || day < 0)
+                    return false;
+                try {
+                    dvd.setValue(SQLDate.computeEncodedDate(year, month, day));
+                } catch (StandardException se) {
+                    return false;
+                }
+                return true;
+            }
+            case StoredFormatIds.SQL_TIMESTAMP_ID: {
+                // yyyy-mm-dd hh:mm:ss[.fffffffff]
+                if (timestampFormat != null || length < 19 || (length > 19 && (length == 20 || length > 29 || buffer[offset + 19] != '.'))
+                        || buffer[offset + 4] != '-' || buffer[offset + 7] != '-' || buffer[offset + 10] != ' '
+                        || buffer[offset + 13] != ':' || buffer[offset + 16] != ':')
+                    return false;
+                int year = parseDigits(buffer, offset, 4);
+                int month = parseDigits(buffer, offset + 5, 2);
+                int day = parseDigits(buffer, offset + 8, 2);
+                int hour = parseDigits(buffer, offset + 11, 2);
+                int minute = parseDigits(buffer, offset + 14, 2);
+                int second = parseDigits(buffer, offset + 17, 2);
+                int nanos = 0;
+                if (length > 19) {
+                    nanos = parseDigits(buffer, offset + 20, length - 20);
+                    for (int i = length - 20; i < 9 && nanos >= 0; i++)
+                        nanos *= 10;
+                }
+                if (year < 0 || month < 0 || day < 0 || hour < 0 || minute < 0 || second < 0 || nanos < 0)
+                    return false;
+                try {
+                    ((SQLTimestamp) dvd).setValue(SQLDate.computeEncodedDate(year, month, day),
+                            SQLTime.computeEncodedTime(hour, minute, second), nanos);
+                } catch (StandardException se) {
+                    return false;
+                }
+                return true;
+            }
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return the value of an optional minus sign followed by 1 to 18 digits, or Long.MIN_VALUE
+     * if the bytes are anything else
+     */
+    private static long parseLong(byte[] buffer, int offset, int length) {
+        boolean negative = length > 0 && buffer[offset] == '-';
+        if (negative) {
+            offset++;
+            length--;
+        }
+        if (length == 0 || length > 18)
+            return Long.MIN_VALUE;
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9)
+                return Long.MIN_VALUE;
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * @return the value of exactly {@code length} digits, or -1 if any byte is not a digit
+     */
+    private static int parseDigits(byte[] buffer, int offset, int length) {
+        int value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9)
+                return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static boolean isDateTime(int type) {
+        return type == StoredFormatIds.SQL_TIME_ID || type == StoredFormatIds.SQL_DATE_ID || type == StoredFormatIds.SQL_TIMESTAMP_ID;
+    }
+
+    /**
+     * @return true if the {@link Utf8CsvTokenizer} can be used for the given delimiters
+     */
+    public static boolean canTokenizeBytes(String characterDelimiter, String columnDelimiter) {
+        return Utf8CsvTokenizer.supports(getQuoteChar(characterDelimiter), getDelimiterChar(columnDelimiter));
+    }
+
+    Utf8CsvTokenizer newTokenizer() {
+        checkPreference();
+        return new Utf8CsvTokenizer(preference.getQuoteChar(), (char) preference.getDelimiterChar(), preference.getMaxLinesPerRow());
+    }
+
     void checkPreference() {
         if (preference==null){
             SConfiguration config =EngineDriver.driver().getConfiguration();
             int maxQuotedLines = config.getImportMaxQuotedColumnLines();
             preference=new CsvPreference.Builder(
-                    characterDelimiter!=null && !characterDelimiter.isEmpty() ?characterDelimiter.charAt(0):DEFAULT_STRIP_STRING,
-                    columnDelimiter!=null && !columnDelimiter.isEmpty() ?columnDelimiter.charAt(0):DEFAULT_COLUMN_DELIMITTER,
+                    getQuoteChar(characterDelimiter),
+                    getDelimiterChar(columnDelimiter),
                     "\n").maxLinesPerRow(maxQuotedLines).build();
         }
     }
 
+    private static char getQuoteChar(String characterDelimiter) {
+        return characterDelimiter!=null && !characterDelimiter.isEmpty() ?characterDelimiter.charAt(0):DEFAULT_STRIP_STRING;
+    }
+
+    private static char getDelimiterChar(String columnDelimiter) {
+        return columnDelimiter!=null && !columnDelimiter.isEmpty() ?columnDelimiter.charAt(0):DEFAULT_COLUMN_DELIMITTER;
+    }
+
     /* ****************************************************************************************************************/
     /*private helper methods*/
     @SuppressWarnings("SimplifiableIfStatement") //the logic is clearer this way, without a performance penalty
@@ -251,6 +482,13 @@ public abstract class AbstractFileFunction<I> extends SpliceFlatMapFunction<Spli
         else return value.isEmpty() || value.equalsIgnoreCase("null");
     }
 
+    private static boolean shouldBeNull(byte[] buffer,int offset,int length,boolean wasQuoted){
+        if(length==0) return true;
+        else if(wasQuoted || length!=4) return false;
+        else return (buffer[offset]|0x20)=='n' && (buffer[offset+1]|0x20)=='u'
+                && (buffer[offset+2]|0x20)=='l' && (buffer[offset+3]|0x20)=='l';
+    }
+
 
 
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.function;
+
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+
+/**
+ * Classifies the columns of a Spark schema by how their values move between a
+ * {@link com.splicemachine.db.iapi.types.DataValueDescriptor} and a Catalyst
+ * {@link org.apache.spark.sql.catalyst.InternalRow}.
+ *
+ * Primitive columns are copied with the typed getters and setters on both sides, so they are never
+ * boxed. Every other column goes through the value Spark itself would use for it.
+ */
+final class CatalystColumns{
+    static final byte OTHER = 0;
+    static final byte BOOLEAN = 1;
+    static final byte BYTE = 2;
+    static final byte SHORT = 3;
+    static final byte INT = 4;
+    static final byte LONG = 5;
+    static final byte FLOAT = 6;
+    static final byte DOUBLE = 7;
+
+    private CatalystColumns(){}
+
+    static DataType[] types(StructType schema){
+        StructField[] fields=schema.fields();
+        DataType[] types=new DataType[fields.length];
+        for(int i=0;i<fields.length;i++){
+            types[i]=fields[i].dataType();
+        }
+        return types;
+    }
+
+    static byte[] kinds(DataType[] types){
+        byte[] kinds=new byte[types.length];
+        for(int i=0;i<types.length;i++){
+            kinds[i]=kind(types[i]);
+        }
+        return kinds;
+    }
+
+    private static byte kind(DataType type){
+        if(DataTypes.BooleanType.equals(type))
+            return BOOLEAN;
+        if(DataTypes.ByteType.equals(type))
+            return BYTE;
+        if(DataTypes.ShortType.equals(type))
+            return SHORT;
+        if(DataTypes.IntegerType.equals(type))
+            return INT;
+        if(DataTypes.LongType.equals(type))
+            return LONG;
+        if(DataTypes.FloatType.equals(type))
+            return FLOAT;
+        if(DataTypes.DoubleType.equals(type))
+            return DOUBLE;
+        return OTHER;
+    }
+}
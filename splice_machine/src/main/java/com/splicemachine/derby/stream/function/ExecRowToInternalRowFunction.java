@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.function;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import org.apache.spark.api.java.function.Function;
+import org.apache.spark.sql.catalyst.CatalystTypeConverters;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.catalyst.util.ArrayData;
+import org.apache.spark.sql.catalyst.util.MapData;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.Decimal;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.unsafe.types.CalendarInterval;
+import org.apache.spark.unsafe.types.UTF8String;
+import scala.Function1;
+
+/**
+ *
+ * Allows a map to convert from RDD<ExecRow> to RDD<InternalRow>, for use with
+ * SparkSession.internalCreateDataFrame().
+ *
+ * Each row is exposed to Spark as a read-only view over its columns, so the scan that consumes the
+ * RDD copies the values straight into its own UnsafeRow. Unlike SparkSession.createDataFrame() over
+ * RDD<Row>, primitive columns are never boxed and no intermediate row of converted values is built.
+ *
+ */
+public class ExecRowToInternalRowFunction implements Function<ExecRow, InternalRow> {
+    private static final long serialVersionUID = 1L;
+
+    private final StructType schema;
+    private transient DataType[] types;
+    private transient byte[] kinds;
+    private transient Function1<Object, Object>[] converters;
+
+    public ExecRowToInternalRowFunction(StructType schema) {
+        this.schema = schema;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public InternalRow call(ExecRow execRow) throws Exception {
+        if (types == null) {
+            types = CatalystColumns.types(schema);
+            kinds = CatalystColumns.kinds(types);
+            converters = new Function1[types.length];
+            for (int i = 0; i < types.length; i++) {
+                if (kinds[i] == CatalystColumns.OTHER)
+                    converters[i] = CatalystTypeConverters.createToCatalystConverter(types[i]);
+            }
+        }
+        return new ExecRowView(execRow.getRowArray(), types, kinds, converters);
+    }
+
+    /**
+     * An InternalRow reading its values from the columns of an ExecRow.
+     */
+    static final class ExecRowView extends InternalRow {
+        private static final long serialVersionUID = 1L;
+
+        private final DataValueDescriptor[] columns;
+        private final DataType[] types;
+        private final byte[] kinds;
+        private final Function1<Object, Object>[] converters;
+
+        ExecRowView(DataValueDescriptor[] columns, DataType[] types, byte[] kinds, Function1<Object, Object>[] converters) {
+            this.columns = columns;
+            this.types = types;
+            this.kinds = kinds;
+            this.converters = converters;
+        }
+
+        @Override
+        public int numFields() {
+            return types.length;
+        }
+
+        @Override
+        public void setNullAt(int i) {
+            throw new UnsupportedOperationException("read-only row");
+        }
+
+        @Override
+        public void update(int i, Object value) {
+            throw new UnsupportedOperationException("read-only row");
+        }
+
+        @Override
+        public InternalRow copy() {
+            Object[] values = new Object[types.length];
+            for (int i = 0; i < types.length; i++) {
+                values[i] = get(i, types[i]);
+            }
+            return new GenericInternalRow(values);
+        }
+
+        @Override
+        public boolean anyNull() {
+            for (int i = 0; i < types.length; i++) {
+                if (columns[i].isNull())
+                    return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isNullAt(int i) {
+            return columns[i].isNull();
+        }
+
+        @Override
+        public boolean getBoolean(int i) {
+            try {
+                return columns[i].getBoolean();
+            } catch (StandardException se) {
+                throw new RuntimeException(se);
+            }
+        }
+
+        @Override
+        public byte getByte(int i) {
+            try {
+                return columns[i].getByte();
+            } catch (StandardException se) {
+                throw new RuntimeException(se);
+            }
+        }
+
+        @Override
+        public short getShort(int i) {
+            try {
+                return columns[i].getShort();
+            } catch (StandardException se) {
+                throw new RuntimeException(se);
+            }
+        }
+
+        @Override
+        public int getInt(int i) {
+            // dates are stored as an int in Catalyst
+            if (kinds[i] != CatalystColumns.INT)
+                return (Integer) convert(i);
+            try {
+                return columns[i].getInt();
+            } catch (StandardException se) {
+                throw new RuntimeException(se);
+            }
+        }
+
+        @Override
+        public long getLong(int i) {
+            // timestamps are stored as a long in Catalyst
+            if (kinds[i] != CatalystColumns.LONG)
+                return (Long) convert(i);
+            try {
+                return columns[i].getLong();
+            } catch (StandardException se) {
+                throw new RuntimeException(se);
+            }
+        }
+
+        @Override
+        public float getFloat(int i) {
+            try {
+                return columns[i].getFloat();
+            } catch (StandardException se) {
+                throw new RuntimeException(se);
+            }
+        }
+
+        @Override
+        public double getDouble(int i) {
+            try {
+                return columns[i].getDouble();
+            } catch (StandardException se) {
+                throw new RuntimeException(se);
+            }
+        }
+
+        @Override
+        public Decimal getDecimal(int i, int precision, int scale) {
+            return (Decimal) convert(i);
+        }
+
+        @Override
+        public UTF8String getUTF8String(int i) {
+            return (UTF8String) convert(i);
+        }
+
+        @Override
+        public byte[] getBinary(int i) {
+            return (byte[]) convert(i);
+        }
+
+        @Override
+        public CalendarInterval getInterval(int i) {
+            return (CalendarInterval) convert(i);
+        }
+
+        @Override
+        public InternalRow getStruct(int i, int numFields) {
+            return (InternalRow) convert(i);
+        }
+
+        @Override
+        public ArrayData getArray(int i) {
+            return (ArrayData) convert(i);
+        }
+
+        @Override
+        public MapData getMap(int i) {
+            return (MapData) convert(i);
+        }
+
+        @Override
+        public Object get(int i, DataType dataType) {
+            if (columns[i].isNull())
+                return null;
+            switch (kinds[i]) {
+                case CatalystColumns.BOOLEAN:
+                    return getBoolean(i);
+                case CatalystColumns.BYTE:
+                    return getByte(i);
+                case CatalystColumns.SHORT:
+                    return getShort(i);
+                case CatalystColumns.INT:
+                    return getInt(i);
+                case CatalystColumns.LONG:
+                    return getLong(i);
+                case CatalystColumns.FLOAT:
+                    return getFloat(i);
+                case CatalystColumns.DOUBLE:
+                    return getDouble(i);
+                default:
+                    return convert(i);
+            }
+        }
+
+        /* The Catalyst value of a non-primitive column, as SparkSession.createDataFrame() would produce it */
+        private Object convert(int i) {
+            try {
+                Object value = columns[i].getSparkObject();
+                return value == null ? null : converters[i].apply(value);
+            } catch (StandardException se) {
+                throw new RuntimeException(se);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.derby.stream.function;
+
+import com.splicemachine.concurrent.SystemClock;
+import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
+import com.splicemachine.derby.impl.sql.execute.index.IndexPopulationRateLimiter;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * Passes rows through unchanged, limiting the rate at which each task consumes them.
+ *
+ * @see IndexPopulationRateLimiter
+ */
+public class IndexPopulationThrottleFunction<Op extends SpliceOperation, T> extends SpliceFunction<Op,T,T> {
+    private long maxRowsPerSecond;
+
+    private transient IndexPopulationRateLimiter rateLimiter;
+
+    public IndexPopulationThrottleFunction() {
+        super();
+    }
+
+    public IndexPopulationThrottleFunction(long maxRowsPerSecond) {
+        this.maxRowsPerSecond = maxRowsPerSecond;
+    }
+
+    @Override
+    public T call(T row) throws Exception {
+        if (rateLimiter == null)
+            rateLimiter = new IndexPopulationRateLimiter(maxRowsPerSecond, SystemClock.INSTANCE);
+        rateLimiter.acquire();
+        return row;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeLong(maxRowsPerSecond);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        maxRowsPerSecond = in.readLong();
+    }
+}
@@ -45,14 +45,21 @@ public class IndexTransformFunction <Op extends SpliceOperation> extends SpliceF
 
     public IndexTransformFunction(DDLMessage.TentativeIndex tentativeIndex) {
         this.tentativeIndex = tentativeIndex;
+        projectedMapping = getProjectedMapping(tentativeIndex);
+    }
+
+    /**
+     * @return the position of each index column in the base rows, which hold the indexed columns in table order.
+     */
+    static int[] getProjectedMapping(DDLMessage.TentativeIndex tentativeIndex) {
         List<Integer> actualList = tentativeIndex.getIndex().getIndexColsToMainColMapList();
         List<Integer> sortedList = new ArrayList<>(actualList);
         Collections.sort(sortedList);
-        projectedMapping = new int[sortedList.size()];
+        int[] projectedMapping = new int[sortedList.size()];
         for (int i =0; i<projectedMapping.length;i++) {
             projectedMapping[i] = sortedList.indexOf(actualList.get(i));
         }
-
+        return projectedMapping;
     }
 
     @Override
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.function;
+
+import com.splicemachine.db.iapi.services.io.ArrayUtil;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.ddl.DDLMessage;
+import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
+import com.splicemachine.derby.impl.sql.execute.index.IndexTransformer;
+import com.splicemachine.kvpair.KVPair;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Builds the index rows of a partition of base rows, like {@link IndexTransformFunction} does one row at a time.
+ * Base rows are buffered in the {@link IndexTransformer}, which encodes the index values of a whole buffer at once.
+ */
+public class IndexTransformPartitionFunction<Op extends SpliceOperation> extends SpliceFlatMapFunction<Op,Iterator<ExecRow>,KVPair> {
+    private DDLMessage.TentativeIndex tentativeIndex;
+    private int[] projectedMapping;
+
+    public IndexTransformPartitionFunction() {
+        super();
+    }
+
+    public IndexTransformPartitionFunction(DDLMessage.TentativeIndex tentativeIndex) {
+        this.tentativeIndex = tentativeIndex;
+        this.projectedMapping = IndexTransformFunction.getProjectedMapping(tentativeIndex);
+    }
+
+    @Override
+    public Iterator<KVPair> call(final Iterator<ExecRow> execRows) throws Exception {
+        final IndexTransformer transformer = new IndexTransformer(tentativeIndex);
+        return new Iterator<KVPair>() {
+            private final List<KVPair> indexRows = new ArrayList<>();
+            private int position;
+            private ExecRow indexRow;
+
+            @Override
+            public boolean hasNext() {
+                while (position == indexRows.size()) {
+                    if (!execRows.hasNext())
+                        return false;
+                    indexRows.clear();
+                    position = 0;
+                    try {
+                        fill();
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public KVPair next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return indexRows.get(position++);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            private void fill() throws Exception {
+                while (execRows.hasNext()) {
+                    ExecRow execRow = execRows.next();
+                    if (indexRow == null)
+                        indexRow = new ValueRow(execRow.nColumns());
+                    for (int i = 0; i < projectedMapping.length; i++) {
+                        indexRow.setColumn(i + 1, execRow.getColumn(projectedMapping[i] + 1));
+                    }
+                    indexRow.setKey(execRow.getKey());
+                    if (transformer.bufferDirectIndex(indexRow))
+                        break;
+                }
+                transformer.flushDirectIndex(indexRows);
+            }
+        };
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        byte[] message = tentativeIndex.toByteArray();
+        out.writeInt(message.length);
+        out.write(message);
+        ArrayUtil.writeIntArray(out,projectedMapping);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        byte[] message = new byte[in.readInt()];
+        in.readFully(message);
+        tentativeIndex = DDLMessage.TentativeIndex.parseFrom(message);
+        projectedMapping = ArrayUtil.readIntArray(in);
+    }
+}
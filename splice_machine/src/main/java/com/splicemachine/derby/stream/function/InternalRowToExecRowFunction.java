@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.function;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
+import com.splicemachine.derby.impl.sql.execute.operations.scanner.SITableScanner;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import org.apache.spark.TaskContext;
+import org.apache.spark.api.java.function.Function;
+import org.apache.spark.sql.catalyst.CatalystTypeConverters;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericRow;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.StructType;
+import scala.Function1;
+
+import java.io.*;
+
+/**
+ *
+ * Allows a map to convert from RDD<InternalRow> (Dataset.queryExecution().toRdd()) to RDD<ExecRow>
+ *
+ * Primitive columns are copied straight out of the Catalyst row. The remaining columns are converted
+ * to their external Spark values and read by the columns as in {@link RowToLocatedRowFunction}, through
+ * a single holder row reused for the whole partition instead of one Row per record. Each record still gets
+ * its own ExecRow, since callers may hold on to the rows they are handed.
+ *
+ */
+public class InternalRowToExecRowFunction implements Function<InternalRow, ExecRow>, Serializable, Externalizable {
+    protected SpliceOperation op;
+    protected ExecRow execRow;
+    protected OperationContext operationContext;
+    protected StructType schema;
+    protected boolean initialized = false;
+    private transient DataType[] types;
+    private transient byte[] kinds;
+    private transient Function1<Object, Object>[] converters;
+    private transient Object[] values;
+    private transient GenericRow holder;
+
+    public InternalRowToExecRowFunction() {
+        super();
+    }
+
+    public InternalRowToExecRowFunction(OperationContext<SpliceOperation> operationContext, StructType schema) throws StandardException {
+        this(operationContext, operationContext.getOperation().getExecRowDefinition(), schema);
+    }
+
+    public InternalRowToExecRowFunction(OperationContext<SpliceOperation> operationContext, ExecRow execRow, StructType schema) {
+        this.operationContext = operationContext;
+        this.execRow = execRow;
+        this.schema = schema;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeObject(operationContext);
+        out.writeObject(execRow);
+        out.writeObject(schema);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in)
+            throws IOException, ClassNotFoundException {
+        operationContext = (OperationContext) in.readObject();
+        execRow = (ExecRow) in.readObject();
+        schema = (StructType) in.readObject();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ExecRow call(InternalRow row) throws Exception {
+        if (!initialized) {
+            if (operationContext != null)
+                op = operationContext.getOperation();
+            else
+                SITableScanner.regionId.set("" + TaskContext.getPartitionId()); // Sets PartitionId for columnar files.
+            types = CatalystColumns.types(schema);
+            kinds = CatalystColumns.kinds(types);
+            converters = new Function1[types.length];
+            for (int i = 0; i < types.length; i++) {
+                if (kinds[i] == CatalystColumns.OTHER)
+                    converters[i] = CatalystTypeConverters.createToScalaConverter(types[i]);
+            }
+            values = new Object[types.length];
+            holder = new GenericRow(values);
+            initialized = true;
+        }
+        ExecRow result = execRow.getNewNullRow();
+        DataValueDescriptor[] columns = result.getRowArray();
+        int size = Math.min(Math.min(columns.length, row.numFields()), types.length); // Fix for antijoin
+        for (int i = 0; i < size; i++) {
+            DataValueDescriptor column = columns[i];
+            if (row.isNullAt(i)) {
+                column.setToNull();
+                continue;
+            }
+            switch (kinds[i]) {
+                case CatalystColumns.BOOLEAN:
+                    column.setValue(row.getBoolean(i));
+                    break;
+                case CatalystColumns.BYTE:
+                    column.setValue(row.getByte(i));
+                    break;
+                case CatalystColumns.SHORT:
+                    column.setValue(row.getShort(i));
+                    break;
+                case CatalystColumns.INT:
+                    column.setValue(row.getInt(i));
+                    break;
+                case CatalystColumns.LONG:
+                    column.setValue(row.getLong(i));
+                    break;
+                case CatalystColumns.FLOAT:
+                    column.setValue(row.getFloat(i));
+                    break;
+                case CatalystColumns.DOUBLE:
+                    column.setValue(row.getDouble(i));
+                    break;
+                default:
+                    values[i] = converters[i].apply(row.get(i, types[i]));
+                    column.read(holder, i);
+                    values[i] = null;
+            }
+        }
+        if (op != null)
+            op.setCurrentRow(result);
+        return result;
+    }
+}
@@ -23,14 +23,17 @@ import com.splicemachine.db.iapi.types.HBaseRowLocation;
 import com.splicemachine.db.iapi.types.RowLocation;
 import com.splicemachine.db.shared.common.reference.SQLState;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
+import com.splicemachine.derby.impl.sql.execute.operations.TableScanOperation;
 import com.splicemachine.derby.stream.iapi.IterableJoinFunction;
 import com.splicemachine.derby.stream.iapi.OperationContext;
 import com.splicemachine.derby.stream.iterator.GetNLJoinIterator;
+import com.splicemachine.derby.stream.iterator.GetNLJoinKeyedBatchIterator;
 import com.splicemachine.pipeline.Exceptions;
 import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.utils.Pair;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.*;
@@ -61,6 +64,10 @@ public abstract class NLJoinFunction <Op extends SpliceOperation, From, To> exte
     protected boolean isOneRowInnerJoin;
     protected boolean hasMatch;
     protected List<Future<Pair<OperationContext, Iterator<ExecRow>>>> futures;
+    /* for inner sides which are keyed lookups, the context used to look up batches of outer rows together */
+    protected OperationContext keyedBatchContext;
+    protected int keyedBatchSize;
+    protected Iterator<Pair<ExecRow, Iterator<ExecRow>>> keyedBatch;
 
     protected ExecutorService executorService;
 
@@ -79,10 +86,28 @@ public abstract class NLJoinFunction <Op extends SpliceOperation, From, To> exte
         leftSideIterator = from;
         executorService = SIDriver.driver().getExecutorService();
 
+        keyedBatchSize = configuration.getNestedLoopJoinKeyedBatchSize();
+        if (joinType == JoinType.INNER && keyedBatchSize > 0 && isKeyedLookup()) {
+            try {
+                keyedBatchContext = operationContext.getClone();
+            }
+            catch (Exception e) {
+                throw Exceptions.parseException(e);
+            }
+            keyedBatch = Collections.emptyIterator();
+            rightSideNLJIterator = Collections.emptyIterator();
+            return;
+        }
+
         initOperationContexts();
         loadBatch();
     }
 
+    private boolean isKeyedLookup() throws StandardException {
+        SpliceOperation rightOperation = operationContext.getOperation().getRightOperation();
+        return rightOperation instanceof TableScanOperation && ((TableScanOperation) rightOperation).isKeyedLookup();
+    }
+
     private void initOperationContexts() throws StandardException {
         try {
             operationContextList = new ArrayList<>(batchSize);
@@ -133,6 +158,11 @@ public abstract class NLJoinFunction <Op extends SpliceOperation, From, To> exte
             if (rightSideNLJIterator == null)
                 return false;
             while (true) {
+                if (keyedBatchContext != null) {
+                    while (!rightSideNLJIterator.hasNext() && nextKeyedLeftRow()) {
+                        // skip outer rows without matches
+                    }
+                }
                 while (nLeftRows > 0 && !rightSideNLJIterator.hasNext()) {
 
                     // We have consumed all rows from right side iterator, reclaim operation context
@@ -186,6 +216,32 @@ public abstract class NLJoinFunction <Op extends SpliceOperation, From, To> exte
         }
     }
 
+    /**
+     * Move to the next outer row in keyed batch mode, looking up the next batch of outer rows if needed.
+     *
+     * @return false if there are no more outer rows
+     */
+    private boolean nextKeyedLeftRow() throws Exception {
+        if (!keyedBatch.hasNext()) {
+            List<ExecRow> leftRows = new ArrayList<>();
+            while (leftRows.size() < keyedBatchSize && leftSideIterator.hasNext()) {
+                leftRows.add(leftSideIterator.next().getClone());
+            }
+            if (leftRows.isEmpty())
+                return false;
+            keyedBatch = new GetNLJoinKeyedBatchIterator(keyedBatchContext, leftRows).call().iterator();
+            keyedBatchContext.getOperation().close();
+        }
+        Pair<ExecRow, Iterator<ExecRow>> next = keyedBatch.next();
+        rightSideNLJIterator = next.getSecond();
+        leftRow = next.getFirst();
+        leftRowLocation = new HBaseRowLocation(leftRow.getKey());
+        operationContext.getOperation().getLeftOperation().setCurrentRow(getLeftLocatedRow());
+        operationContext.getOperation().getLeftOperation().setCurrentRowLocation(getLeftRowLocation());
+        hasMatch = false;
+        return true;
+    }
+
     @Override
     public ExecRow getLeftLocatedRow() {
         return leftRow;
@@ -234,8 +290,13 @@ public abstract class NLJoinFunction <Op extends SpliceOperation, From, To> exte
     @Override
     public ExecRow getRightRow() {
         ExecRow row = rightSideNLJIterator.next();
-        SpliceOperation from = currentOperationContext.getOperation().getRightOperation();
         SpliceOperation to = operationContext.getOperation().getRightOperation();
+        if (keyedBatchContext != null) {
+            to.setCurrentRow(row);
+            to.setCurrentRowLocation(new HBaseRowLocation(row.getKey()));
+            return row;
+        }
+        SpliceOperation from = currentOperationContext.getOperation().getRightOperation();
         setRightSideCurrentLocatedRow(from, to);
         return row;
     }
@@ -21,6 +21,8 @@ import com.splicemachine.derby.stream.iapi.OperationContext;
 import com.splicemachine.derby.stream.utils.BooleanList;
 
 import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -56,6 +58,14 @@ import java.util.NoSuchElementException;
         charset = in.readUTF();
     }
 
+    /**
+     * UTF-8 input is tokenized straight from its bytes, unless the delimiters are not ASCII.
+     */
+    private boolean canTokenizeBytes() {
+        return Charset.forName(charset).equals(StandardCharsets.UTF_8) &&
+                Utf8CsvTokenizer.supports(preference.getQuoteChar(), (char) preference.getDelimiterChar());
+    }
+
     @Override
     public Iterator<ExecRow> call(final InputStream s) throws Exception {
         if (operationContext.isFailed())
@@ -67,6 +77,7 @@ import java.util.NoSuchElementException;
                     private boolean initialized = false;
                     private Reader reader;
                     private SpliceCsvReader spliceCsvReader;
+                    private Utf8CsvTokenizer tokenizer;
                     private boolean hasNext = true;
                     private boolean stale = false;
                     @Override
@@ -75,20 +86,34 @@ import java.util.NoSuchElementException;
                                 return hasNext;
                             try {
                                 if (!initialized) {
-                                    reader = new BufferedReader(new InputStreamReader(s,charset));
-                                    spliceCsvReader = new SpliceCsvReader(reader, preference);
+                                    if (canTokenizeBytes()) {
+                                        tokenizer = newTokenizer();
+                                        tokenizer.reset(s);
+                                    } else {
+                                        reader = new BufferedReader(new InputStreamReader(s, charset));
+                                        spliceCsvReader = new SpliceCsvReader(reader, preference);
+                                    }
                                     initialized = true;
                                 }
                                 while (true) {
                                     try {
-                                        if (!spliceCsvReader.hasNext()) {
-                                            reader.close();
-                                            hasNext = false;
-                                            return false;
+                                        if (tokenizer != null) {
+                                            if (!tokenizer.readRow()) {
+                                                s.close();
+                                                hasNext = false;
+                                                return false;
+                                            }
+                                            nextRow = call(tokenizer);
+                                        } else {
+                                            if (!spliceCsvReader.hasNext()) {
+                                                reader.close();
+                                                hasNext = false;
+                                                return false;
+                                            }
+                                            List<String> next = spliceCsvReader.next();
+                                            BooleanList quotedColumns = spliceCsvReader.nextQuotedColumns();
+                                            nextRow = call(next, quotedColumns);
                                         }
-                                        List<String> next=spliceCsvReader.next();
-                                        BooleanList quotedColumns = spliceCsvReader.nextQuotedColumns();
-                                        nextRow = call(next,quotedColumns);
                                         if (nextRow != null) {
                                             stale = true;
                                             hasNext = true;
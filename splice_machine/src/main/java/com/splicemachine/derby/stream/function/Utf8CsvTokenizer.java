@@ -0,0 +1,369 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.function;
+
+import com.splicemachine.derby.stream.utils.BooleanList;
+import com.splicemachine.utils.UnsafeUtil;
+import org.supercsv.exception.SuperCsvException;
+import sun.misc.Unsafe;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A CSV tokenizer which works directly on UTF-8 encoded bytes, as an alternative to
+ * {@link QuoteTrackingTokenizer} for imports.
+ *
+ * Columns are not materialized: the tokenizer only records where each column starts and ends in its
+ * buffer, so that callers can parse numbers and dates straight from the bytes and only create Strings
+ * for the columns which need them. Quotes are removed in place, which keeps every column contiguous.
+ * The delimiter and quote characters must be ASCII, so they can never be part of a multi-byte UTF-8
+ * sequence and the input can be scanned a word (8 bytes) at a time for the next special byte.
+ *
+ * The grammar is the one of {@link QuoteTrackingTokenizer} with the preferences used for imports:
+ * surrounding spaces are kept, empty lines are skipped, {@code ""} is an escaped quote within
+ * a quoted column, and a quoted column can span at most {@code maxLinesPerRow} lines (0 means no limit).
+ * Lines end with {@code \n}, {@code \r\n} or {@code \r}; line breaks within quotes become {@code \n}.
+ */
+public class Utf8CsvTokenizer{
+    private static final byte NEWLINE='\n';
+    private static final byte CARRIAGE_RETURN='\r';
+    private static final int DEFAULT_BUFFER_SIZE=1<<16;
+
+    private static final Unsafe UNSAFE=UnsafeUtil.unsafe();
+    private static final long BYTE_ARRAY_OFFSET=UnsafeUtil.byteArrayOffset();
+    private static final long ONES=0x0101010101010101L;
+    private static final long HIGH_BITS=0x8080808080808080L;
+    private static final long NEWLINE_PATTERN=ONES*NEWLINE;
+    private static final long CARRIAGE_RETURN_PATTERN=ONES*CARRIAGE_RETURN;
+
+    private final byte quoteChar;
+    private final byte delimiterChar;
+    private final long quotePattern;
+    private final long delimiterPattern;
+    private final int maxLinesPerRow;
+
+    private InputStream in;
+    private byte[] buffer;
+    private int limit;
+    private int lineNumber;
+
+    /*
+     * The state of the row being read. These are fields rather than locals so that fill() can
+     * move them when it compacts the buffer.
+     */
+    private int rowStart;
+    private int read;
+    private int write;
+    private int columnStart;
+
+    private int numColumns;
+    private int[] columnStarts=new int[16];
+    private int[] columnEnds=new int[16];
+    private final BooleanList quotedColumns=new BooleanList();
+
+    public Utf8CsvTokenizer(char quoteChar,char delimiterChar,int maxLinesPerRow){
+        assert supports(quoteChar,delimiterChar): "Characters are not supported";
+        this.quoteChar=(byte)quoteChar;
+        this.delimiterChar=(byte)delimiterChar;
+        this.quotePattern=ONES*quoteChar;
+        this.delimiterPattern=ONES*delimiterChar;
+        this.maxLinesPerRow=maxLinesPerRow;
+    }
+
+    /**
+     * @return true if the given characters can be handled when scanning bytes
+     */
+    public static boolean supports(char quoteChar,char delimiterChar){
+        return quoteChar<0x80 && delimiterChar<0x80 && quoteChar!=delimiterChar
+                && quoteChar!=NEWLINE && quoteChar!=CARRIAGE_RETURN
+                && delimiterChar!=NEWLINE && delimiterChar!=CARRIAGE_RETURN;
+    }
+
+    /**
+     * Tokenize the rows of a stream. The stream is read in blocks, and is not closed by the tokenizer.
+     */
+    public void reset(InputStream in){
+        this.in=in;
+        if(buffer==null || buffer.length<DEFAULT_BUFFER_SIZE)
+            buffer=new byte[DEFAULT_BUFFER_SIZE];
+        reset(0,0);
+    }
+
+    /**
+     * Tokenize a single line, without line terminator. The line is modified in place when quotes are removed.
+     */
+    public void reset(byte[] line,int offset,int length){
+        this.in=null;
+        this.buffer=line;
+        reset(offset,offset+length);
+    }
+
+    private void reset(int position,int limit){
+        this.read=position;
+        this.limit=limit;
+        this.lineNumber=0;
+        this.numColumns=0;
+        this.quotedColumns.clear();
+    }
+
+    /**
+     * Reads the next row.
+     *
+     * @return false if there are no more rows
+     * @throws SuperCsvException if a quoted column is not closed or spans too many lines
+     */
+    public boolean readRow() throws IOException{
+        numColumns=0;
+        quotedColumns.clear();
+
+        // skip empty lines
+        while(true){
+            rowStart=read;
+            if(read==limit && !fill())
+                return false;
+            byte b=buffer[read];
+            if(b==NEWLINE){
+                read++;
+            }else if(b==CARRIAGE_RETURN){
+                read++;
+                skipLineFeed();
+            }else
+                break;
+            lineNumber++;
+        }
+        lineNumber++;
+        rowStart=write=columnStart=read;
+
+        boolean quoted=false;
+        boolean inQuotes=false;
+        int quoteStartLine=-1;
+        while(true){
+            if(read==limit && !fill()){
+                if(inQuotes){
+                    checkQuotedLines(quoteStartLine);
+                    throw new SuperCsvException(
+                            String.format("partial record found [%s] while reading quoted column beginning on line %d and ending on line %d",
+                                    new String(buffer,columnStart,write-columnStart,StandardCharsets.UTF_8),quoteStartLine,lineNumber));
+                }
+                endColumn(quoted);
+                return true;
+            }
+
+            // move the run of ordinary bytes in one go
+            int runEnd=inQuotes?scanQuoted(read):scanUnquoted(read);
+            if(runEnd>read){
+                int length=runEnd-read;
+                if(write!=read)
+                    System.arraycopy(buffer,read,buffer,write,length);
+                write+=length;
+                read=runEnd;
+                continue;
+            }
+
+            byte b=buffer[read++];
+            if(inQuotes){
+                if(b==quoteChar){
+                    if((read<limit || fill()) && buffer[read]==quoteChar){
+                        // an escaped quote
+                        buffer[write++]=quoteChar;
+                        read++;
+                    }else{
+                        inQuotes=false;
+                        quoteStartLine=-1;
+                    }
+                }else{
+                    // a line break within quotes is part of the column
+                    checkQuotedLines(quoteStartLine);
+                    if(b==CARRIAGE_RETURN)
+                        skipLineFeed();
+                    buffer[write++]=NEWLINE;
+                    lineNumber++;
+                }
+            }else if(b==delimiterChar){
+                endColumn(quoted);
+                quoted=false;
+                write=columnStart=read;
+            }else if(b==quoteChar){
+                inQuotes=true;
+                quoted=true;
+                quoteStartLine=lineNumber;
+            }else{
+                endColumn(quoted);
+                if(b==CARRIAGE_RETURN)
+                    skipLineFeed();
+                return true;
+            }
+        }
+    }
+
+    public int getNumColumns(){
+        return numColumns;
+    }
+
+    /**
+     * @return the buffer holding the columns of the current row, which is only valid until the next call to {@link #readRow()}
+     */
+    public byte[] getBuffer(){
+        return buffer;
+    }
+
+    public int getColumnOffset(int column){
+        return columnStarts[column];
+    }
+
+    public int getColumnLength(int column){
+        return columnEnds[column]-columnStarts[column];
+    }
+
+    public boolean wasQuoted(int column){
+        return quotedColumns.valueAt(column);
+    }
+
+    /**
+     * @return the decoded column, or null if it is empty
+     */
+    public String getColumn(int column){
+        int length=getColumnLength(column);
+        return length==0?null:new String(buffer,columnStarts[column],length,StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return all decoded columns of the current row, as {@link QuoteTrackingTokenizer} would return them
+     */
+    public List<String> getColumns(){
+        List<String> columns=new ArrayList<>(numColumns);
+        for(int i=0;i<numColumns;i++){
+            columns.add(getColumn(i));
+        }
+        return columns;
+    }
+
+    public BooleanList getQuotedColumns(){
+        return new BooleanList(quotedColumns);
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private void endColumn(boolean quoted){
+        if(numColumns==columnStarts.length){
+            columnStarts=Arrays.copyOf(columnStarts,2*numColumns);
+            columnEnds=Arrays.copyOf(columnEnds,2*numColumns);
+        }
+        columnStarts[numColumns]=columnStart;
+        columnEnds[numColumns]=write;
+        quotedColumns.append(quoted);
+        numColumns++;
+    }
+
+    private void skipLineFeed() throws IOException{
+        if((read<limit || fill()) && buffer[read]==NEWLINE)
+            read++;
+    }
+
+    private void checkQuotedLines(int quoteStartLine){
+        if(maxLinesPerRow>0 && lineNumber-quoteStartLine+1>=maxLinesPerRow){
+            String msg=maxLinesPerRow==1?
+                    String.format("unexpected end of line while reading quoted column on line %d",lineNumber):
+                    String.format("max number of lines to read exceeded while reading quoted column"+
+                            " beginning on line %d and ending on line %d",quoteStartLine,lineNumber);
+            throw new SuperCsvException(msg);
+        }
+    }
+
+    /**
+     * @return the position of the first delimiter, quote or line break at or after {@code position}, or the limit
+     */
+    private int scanUnquoted(int position){
+        while(position+8<=limit){
+            long word=UNSAFE.getLong(buffer,BYTE_ARRAY_OFFSET+position);
+            if(hasByte(word,delimiterPattern) || hasByte(word,quotePattern)
+                    || hasByte(word,NEWLINE_PATTERN) || hasByte(word,CARRIAGE_RETURN_PATTERN))
+                break;
+            position+=8;
+        }
+        for(;position<limit;position++){
+            byte b=buffer[position];
+            if(b==delimiterChar || b==quoteChar || b==NEWLINE || b==CARRIAGE_RETURN)
+                break;
+        }
+        return position;
+    }
+
+    /**
+     * @return the position of the first quote or line break at or after {@code position}, or the limit
+     */
+    private int scanQuoted(int position){
+        while(position+8<=limit){
+            long word=UNSAFE.getLong(buffer,BYTE_ARRAY_OFFSET+position);
+            if(hasByte(word,quotePattern) || hasByte(word,NEWLINE_PATTERN) || hasByte(word,CARRIAGE_RETURN_PATTERN))
+                break;
+            position+=8;
+        }
+        for(;position<limit;position++){
+            byte b=buffer[position];
+            if(b==quoteChar || b==NEWLINE || b==CARRIAGE_RETURN)
+                break;
+        }
+        return position;
+    }
+
+    /**
+     * @return true if any byte of {@code word} is the byte repeated in {@code pattern}
+     */
+    private static boolean hasByte(long word,long pattern){
+        long x=word^pattern;
+        return ((x-ONES)&~x&HIGH_BITS)!=0;
+    }
+
+    /**
+     * Reads more bytes from the stream, after moving the current row to the start of the buffer
+     * (and growing the buffer if the row fills it).
+     *
+     * @return false if there are no more bytes
+     */
+    private boolean fill() throws IOException{
+        if(in==null)
+            return false;
+        if(rowStart>0){
+            int shift=rowStart;
+            System.arraycopy(buffer,shift,buffer,0,limit-shift);
+            limit-=shift;
+            rowStart=0;
+            read-=shift;
+            write-=shift;
+            columnStart-=shift;
+            for(int i=0;i<numColumns;i++){
+                columnStarts[i]-=shift;
+                columnEnds[i]-=shift;
+            }
+        }
+        if(limit==buffer.length)
+            buffer=Arrays.copyOf(buffer,2*buffer.length);
+        int n;
+        do{
+            n=in.read(buffer,limit,buffer.length-limit);
+        }while(n==0);
+        if(n<0)
+            return false;
+        limit+=n;
+        return true;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.function;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import org.apache.commons.collections.iterators.SingletonIterator;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ *
+ * Function for parsing the lines of UTF-8 CSV files that are splittable by Hadoop, like {@link FileFunction},
+ * but straight from the bytes of each line with a {@link Utf8CsvTokenizer}.
+ *
+ * Special attention should be paid to permissive execution of the OperationContext.  This occurs
+ * during imports so that failures are <i>handled</i>.
+ *
+ */
+@NotThreadSafe
+public class Utf8FileFunction extends AbstractFileFunction<byte[]> {
+    private transient Utf8CsvTokenizer tokenizer;
+
+    public Utf8FileFunction() {
+        super();
+    }
+
+    public Utf8FileFunction(String characterDelimiter, String columnDelimiter, ExecRow execRow, int[] columnIndex, String timeFormat,
+                            String dateTimeFormat, String timestampFormat, OperationContext operationContext) {
+        super(characterDelimiter, columnDelimiter, execRow, columnIndex, timeFormat,
+                dateTimeFormat, timestampFormat, operationContext);
+    }
+
+    /**
+     *
+     * Call Method for parsing the line into either a singleton List with a ExecRow or
+     * an empty list.
+     *
+     * @param line the bytes of the line, which are modified when quotes are removed
+     * @return
+     * @throws Exception
+     */
+    @Override
+    public Iterator<ExecRow> call(final byte[] line) throws Exception {
+        if (operationContext.isFailed())
+            return Collections.<ExecRow>emptyList().iterator();
+        if (tokenizer == null)
+            tokenizer = newTokenizer();
+        try {
+            tokenizer.reset(line, 0, line.length);
+            ExecRow lr = tokenizer.readRow() ? call(tokenizer) : call(null, null);
+            return lr==null?Collections.<ExecRow>emptyList().iterator():new SingletonIterator(lr);
+        } catch (Exception e) {
+            if (operationContext.isPermissive()) {
+                operationContext.recordBadRecord(e.getLocalizedMessage(), e);
+                return Collections.<ExecRow>emptyList().iterator();
+            }
+            throw StandardException.plainWrapException(e);
+        }
+    }
+}
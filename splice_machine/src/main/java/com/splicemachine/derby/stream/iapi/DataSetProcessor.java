@@ -93,6 +93,12 @@ public interface DataSetProcessor {
 
     DataSet<String> readTextFile(String path, SpliceOperation op) throws StandardException;
 
+    /**
+     * Reads a text file like {@link #readTextFile(String, SpliceOperation)}, but returns the
+     * undecoded bytes of each line, without line terminator.
+     */
+    DataSet<byte[]> readRawTextFile(String path, SpliceOperation op) throws StandardException;
+
     /**
      * Gets an empty PairDataSet
      */
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.iapi;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.derby.impl.sql.execute.operations.GenericAggregateOperation;
+import com.splicemachine.derby.impl.sql.execute.operations.ScanOperation;
+
+import java.util.Iterator;
+
+/**
+ * Computes the first phase of an aggregation inside the partitions holding the rows it reads, so that only
+ * the partial results have to be sent to the server running the query.
+ */
+public interface PartialAggregationClient {
+
+    /**
+     * @param operation the aggregation
+     * @param scan the scan feeding the aggregation
+     * @param maxMemory the memory each partition may use for its partial results
+     * @param operationContext the context recording the rows the partitions read
+     * @return the partial results of every partition read by {@code scan}, or {@code null} if they could not
+     * all be computed remotely, in which case the aggregation has to read the rows itself.
+     */
+    Iterator<ExecRow> getPartialResults(GenericAggregateOperation operation,
+                                        ScanOperation scan,
+                                        long maxMemory,
+                                        OperationContext<?> operationContext) throws StandardException;
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.derby.stream.iterator;
+
+import com.splicemachine.EngineDriver;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.derby.impl.sql.execute.operations.JoinOperation;
+import com.splicemachine.derby.impl.sql.execute.operations.TableScanOperation;
+import com.splicemachine.derby.stream.iapi.DataSetProcessor;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import com.splicemachine.si.impl.driver.SIDriver;
+import com.splicemachine.storage.DataScan;
+import com.splicemachine.utils.Pair;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Looks up the inner rows of a batch of outer rows of a nested loop join whose inner side is a keyed lookup
+ * (see {@link TableScanOperation#isKeyedLookup()}).
+ *
+ * Rather than opening one inner scan per outer row, the probe range of every outer row is computed and all the
+ * distinct ranges are read with a single scan, filtered to those ranges. The inner rows are then handed back to
+ * each outer row, in the order of the outer rows.
+ */
+public class GetNLJoinKeyedBatchIterator implements Callable<List<Pair<ExecRow, Iterator<ExecRow>>>> {
+
+    private final OperationContext operationContext;
+    private final List<ExecRow> locatedRows;
+
+    public GetNLJoinKeyedBatchIterator(OperationContext operationContext, List<ExecRow> locatedRows) {
+        this.operationContext = operationContext;
+        this.locatedRows = locatedRows;
+    }
+
+    @Override
+    public List<Pair<ExecRow, Iterator<ExecRow>>> call() throws Exception {
+        JoinOperation op = (JoinOperation) operationContext.getOperation();
+        TableScanOperation rightOperation = (TableScanOperation) op.getRightOperation();
+
+        // The start key of the inner scan is generated from the current outer row
+        List<Pair<byte[], byte[]>> probes = new ArrayList<>(locatedRows.size());
+        DataScan scan = null;
+        for (ExecRow locatedRow : locatedRows) {
+            op.getLeftOperation().setCurrentRow(locatedRow);
+            scan = rightOperation.getNonSIScan();
+            byte[] startKey = scan.getStartKey();
+            byte[] stopKey = scan.getStopKey();
+            if (startKey != null && startKey.length > 0 && Arrays.equals(startKey, stopKey)) {
+                // a scan starting and stopping at the same key reads that single row
+                stopKey = Arrays.copyOf(startKey, startKey.length + 1);
+            }
+            probes.add(Pair.newPair(startKey, stopKey));
+        }
+        KeyedProbeBatch<ExecRow> batch = new KeyedProbeBatch<>(probes);
+        scan.startKey(batch.getStartKey())
+                .stopKey(batch.getStopKey())
+                .filter(SIDriver.driver().filterFactory().multiRowRangeFilter(batch.getScanRanges()));
+
+        DataSetProcessor dsp = EngineDriver.driver().processorFactory().localProcessor(op.getActivation(), op);
+        Iterator<ExecRow> rightRows = rightOperation.getTableScannerBuilder(dsp, scan).toLocalIterator();
+        while (rightRows.hasNext()) {
+            ExecRow rightRow = rightRows.next();
+            // the scanner reuses its row
+            ExecRow copy = rightRow.getClone();
+            copy.setKey(rightRow.getKey());
+            batch.route(rightRow.getKey(), copy);
+        }
+
+        List<Pair<ExecRow, Iterator<ExecRow>>> results = new ArrayList<>(locatedRows.size());
+        for (int i = 0; i < locatedRows.size(); i++) {
+            results.add(Pair.newPair(locatedRows.get(i), batch.getMatches(i).iterator()));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.derby.stream.iterator;
+
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.utils.Pair;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The key ranges probed by a batch of outer rows of a nested loop join, and the inner rows matching each of them.
+ *
+ * Outer rows probing the same range share it. The ranges are read together, using {@link #getScanRanges()}, and each
+ * inner row read is routed to every range containing its key. Inner rows have to be routed in key order, which is
+ * the order a scan of a single range would have returned them in.
+ *
+ * Ranges are {@code [start,stop)}, an empty stop key is unbounded.
+ */
+public class KeyedProbeBatch<T>{
+    private final int[] rangeOfProbe;
+    private final byte[][] startKeys;
+    private final byte[][] stopKeys;
+    /* the largest stop key of the ranges up to each position, to know when to stop looking back for containing ranges */
+    private final byte[][] maxStopKeys;
+    private final List<List<T>> matches;
+
+    public KeyedProbeBatch(final List<Pair<byte[],byte[]>> probes){
+        Integer[] order = new Integer[probes.size()];
+        for(int i=0;i<order.length;i++){
+            order[i] = i;
+        }
+        Arrays.sort(order,new Comparator<Integer>(){
+            @Override
+            public int compare(Integer o1,Integer o2){
+                return compareRanges(probes.get(o1),probes.get(o2));
+            }
+        });
+
+        rangeOfProbe = new int[order.length];
+        List<Pair<byte[],byte[]>> ranges = new ArrayList<>(order.length);
+        for(Integer probe : order){
+            Pair<byte[],byte[]> range = probes.get(probe);
+            if(ranges.isEmpty() || compareRanges(ranges.get(ranges.size()-1),range)!=0)
+                ranges.add(range);
+            rangeOfProbe[probe] = ranges.size()-1;
+        }
+
+        int n = ranges.size();
+        startKeys = new byte[n][];
+        stopKeys = new byte[n][];
+        maxStopKeys = new byte[n][];
+        matches = new ArrayList<>(n);
+        for(int i=0;i<n;i++){
+            startKeys[i] = nonNull(ranges.get(i).getFirst());
+            stopKeys[i] = nonNull(ranges.get(i).getSecond());
+            maxStopKeys[i] = i==0 || compareStops(stopKeys[i],maxStopKeys[i-1])>0 ? stopKeys[i] : maxStopKeys[i-1];
+            matches.add(new ArrayList<T>());
+        }
+    }
+
+    /**
+     * @return the distinct ranges of the batch, sorted and with overlapping ranges merged
+     */
+    public List<Pair<byte[],byte[]>> getScanRanges(){
+        List<Pair<byte[],byte[]>> scanRanges = new ArrayList<>();
+        byte[] start = null;
+        byte[] stop = null;
+        for(int i=0;i<startKeys.length;i++){
+            if(start!=null && (stop.length==0 || Bytes.BASE_COMPARATOR.compare(startKeys[i],stop)<=0)){
+                if(compareStops(stopKeys[i],stop)>0)
+                    stop = stopKeys[i];
+                continue;
+            }
+            if(start!=null)
+                scanRanges.add(Pair.newPair(start,stop));
+            start = startKeys[i];
+            stop = stopKeys[i];
+        }
+        if(start!=null)
+            scanRanges.add(Pair.newPair(start,stop));
+        return scanRanges;
+    }
+
+    /**
+     * @return the first key of the batch
+     */
+    public byte[] getStartKey(){
+        return startKeys[0];
+    }
+
+    /**
+     * @return the key the batch ends at, empty if unbounded
+     */
+    public byte[] getStopKey(){
+        return maxStopKeys[maxStopKeys.length-1];
+    }
+
+    /**
+     * Add an inner row to the ranges containing its key.
+     *
+     * @param key the key of the inner row
+     * @param row the inner row, which is kept as it is
+     */
+    public void route(byte[] key,T row){
+        int low = 0;
+        int high = startKeys.length-1;
+        while(low<=high){
+            int mid = (low+high)>>>1;
+            if(Bytes.BASE_COMPARATOR.compare(startKeys[mid],key)<=0)
+                low = mid+1;
+            else
+                high = mid-1;
+        }
+        for(int i=high;i>=0;i--){
+            if(maxStopKeys[i].length>0 && Bytes.BASE_COMPARATOR.compare(key,maxStopKeys[i])>=0)
+                break;
+            if(stopKeys[i].length==0 || Bytes.BASE_COMPARATOR.compare(key,stopKeys[i])<0)
+                matches.get(i).add(row);
+        }
+    }
+
+    /**
+     * @param probe the position of the probe in the batch
+     * @return the inner rows matching the probe, in key order
+     */
+    public List<T> getMatches(int probe){
+        return Collections.unmodifiableList(matches.get(rangeOfProbe[probe]));
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private static byte[] nonNull(byte[] key){
+        return key==null ? Bytes.EMPTY_BYTE_ARRAY : key;
+    }
+
+    private static int compareRanges(Pair<byte[],byte[]> o1,Pair<byte[],byte[]> o2){
+        int c = Bytes.BASE_COMPARATOR.compare(nonNull(o1.getFirst()),nonNull(o2.getFirst()));
+        if(c!=0) return c;
+        return compareStops(nonNull(o1.getSecond()),nonNull(o2.getSecond()));
+    }
+
+    private static int compareStops(byte[] stop1,byte[] stop2){
+        if(stop1.length==0)
+            return stop2.length==0 ? 0 : 1;
+        if(stop2.length==0)
+            return -1;
+        return Bytes.BASE_COMPARATOR.compare(stop1,stop2);
+    }
+}
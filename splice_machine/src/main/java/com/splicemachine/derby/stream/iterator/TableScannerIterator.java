@@ -48,6 +48,8 @@ public class TableScannerIterator implements Iterable<ExecRow>, Iterator<ExecRow
     protected int[] baseColumnMap;
     protected boolean rowIdKey; // HACK Row ID Qualifiers point to the projection above them ?  TODO JL
     protected HBaseRowLocation hBaseRowLocation;
+    private long rowsScanned;
+    private boolean scanReported;
 
     public TableScannerIterator(TableScannerBuilder siTableBuilder, SpliceOperation operation) throws StandardException {
         this.siTableBuilder = siTableBuilder;
@@ -75,13 +77,17 @@ public class TableScannerIterator implements Iterable<ExecRow>, Iterator<ExecRow
                 initialized = true;
                 tableScanner = siTableBuilder.build();
                 tableScanner.open();
+                rowsScanned = 0;
+                scanReported = false;
                 if (operation!= null) {
                     operation.registerCloseable(new Closeable() {
                         @Override
                         public void close() throws IOException {
                             try {
-                                if (tableScanner != null && initialized)
+                                if (tableScanner != null && initialized) {
+                                    reportScan();
                                     tableScanner.close();
+                                }
                             } catch (Exception e) {
                                 throw new IOException(e);
                             }
@@ -92,12 +98,14 @@ public class TableScannerIterator implements Iterable<ExecRow>, Iterator<ExecRow
             while (true) {
                 execRow = tableScanner.next();
                 if (execRow == null) {
+                    reportScan();
                     tableScanner.close();
                     initialized = false;
                     hasNext = false;
                     return hasNext;
                 } else {
                     hasNext = true;
+                    rowsScanned++;
                     if (qualifiers == null || rowIdKey || Scans.qualifyRecordFromRow(execRow.getRowArray(), qualifiers,baseColumnMap,siTableBuilder.getOptionalProbeValue() ))
                         break;
                 }
@@ -121,6 +129,16 @@ public class TableScannerIterator implements Iterable<ExecRow>, Iterator<ExecRow
         return execRow;
     }
 
+    /**
+     * Add what the current table scanner read to the operation, once per scanner.
+     */
+    private void reportScan() {
+        if (scanReported || operation == null)
+            return;
+        scanReported = true;
+        operation.recordScan(rowsScanned, tableScanner.getBytesOutput());
+    }
+
     @Override
     public void remove() {
         throw new RuntimeException("Not Implemented");
@@ -130,6 +148,7 @@ public class TableScannerIterator implements Iterable<ExecRow>, Iterator<ExecRow
     public void close() throws IOException {
         if (tableScanner != null) {
             try {
+                reportScan();
                 tableScanner.close();
             } catch (StandardException se) {
                 throw new IOException(se);
@@ -117,6 +117,11 @@ public abstract class ForwardingDataSetProcessor implements DataSetProcessor{
         return delegate.readTextFile(path,op);
     }
 
+    @Override
+    public DataSet<byte[]> readRawTextFile(String path,SpliceOperation op) throws StandardException {
+        return delegate.readRawTextFile(path,op);
+    }
+
     @Override
     public <K,V> PairDataSet<K, V> getEmptyPair(){
         return delegate.getEmptyPair();
@@ -51,6 +51,7 @@ public class StreamUtils {
             .put("IndexToBaseRowFilterPredicateFunction", "Map Index to Base Row using Filter")
             .put("IndexToBaseRowFlatMapFunction", "Create Flat Map for Index to Base Row using Flat Map")
             .put("IndexTransformFunction", "Transform Index")
+            .put("IndexTransformPartitionFunction", "Transform Index")
             .put("InnerJoinFunction", "Execute Inner Join")
             .put("InnerJoinRestrictionFlatMapFunction", "Create Flat Map for Inner Join with Restriction")
             .put("InnerJoinRestrictionFunction", "Execute Inner Join with Restriction")
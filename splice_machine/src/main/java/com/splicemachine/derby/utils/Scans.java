@@ -28,8 +28,14 @@ import com.splicemachine.db.iapi.services.io.FormatableBitSet;
 import com.splicemachine.db.iapi.store.access.Qualifier;
 import com.splicemachine.db.iapi.types.DataValueDescriptor;
 import com.splicemachine.db.iapi.types.DataValueFactory;
+import com.splicemachine.db.iapi.services.io.StoredFormatIds;
+import com.splicemachine.db.iapi.types.SQLVarchar;
+import com.splicemachine.derby.utils.marshall.dvd.SerializerMap;
+import com.splicemachine.derby.utils.marshall.dvd.VersionedSerializers;
 import org.apache.log4j.Logger;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import com.carrotsearch.hppc.BitSet;
 
 /**
@@ -110,7 +116,9 @@ public class Scans extends SpliceUtils {
                     sortOrder, formatIds, startScanKeys, keyTablePositionMap, keyDecodingMap, dataValueFactory, tableVersion, rowIdKey);
 
             if (!rowIdKey) {
-                buildPredicateFilter(qualifiers, scanColumnList, scan, keyDecodingMap);
+                EntryPredicateFilter pqf = getEntryPredicateFilter(qualifiers, scanColumnList, keyDecodingMap,
+                        formatIds, tableVersion);
+                scan.addAttribute(SIConstants.ENTRY_PREDICATE_LABEL, pqf.toBytes());
             }
 
 
@@ -159,6 +167,73 @@ public class Scans extends SpliceUtils {
     public static EntryPredicateFilter getEntryPredicateFilter(Qualifier[][] qualifiers,
                                                      FormatableBitSet scanColumnList,
                                                      int[] keyColumnEncodingOrder) throws StandardException {
+        return new EntryPredicateFilter(getColumnsToReturn(qualifiers, scanColumnList, keyColumnEncodingOrder), true);
+    }
+
+    /**
+     * Builds a predicate filter which, in addition to selecting the columns to return, evaluates the
+     * scan-invariant AND qualifiers it can directly against the encoded row, so that rows which certainly
+     * fail them are dropped before they are decoded (or shipped from the region).
+     *
+     * The qualifiers are still evaluated in full once the row has been decoded; pushing them down
+     * only ever removes rows that would have been rejected anyway.
+     */
+    public static EntryPredicateFilter getEntryPredicateFilter(Qualifier[][] qualifiers,
+                                                     FormatableBitSet scanColumnList,
+                                                     int[] keyColumnEncodingOrder,
+                                                     int[] formatIds,
+                                                     String tableVersion) throws StandardException {
+        BitSet colsToReturn = getColumnsToReturn(qualifiers, scanColumnList, keyColumnEncodingOrder);
+        if (qualifiers == null || qualifiers.length == 0 || qualifiers[0] == null || formatIds == null)
+            return new EntryPredicateFilter(colsToReturn, true);
+
+        SerializerMap serializers = VersionedSerializers.forVersion(tableVersion, true);
+        List<ValuePredicate> predicates = new ArrayList<>(qualifiers[0].length);
+        for (Qualifier qualifier : qualifiers[0]) {
+            int position = qualifier.getStoragePosition();
+            if (position < 0 || position >= formatIds.length)
+                continue;
+            if (!colsToReturn.isEmpty() && !colsToReturn.get(position))
+                continue; //primary key column, which is not stored in the row
+            ValuePredicate predicate = toValuePredicate(qualifier, formatIds[position], serializers);
+            if (predicate != null)
+                predicates.add(predicate);
+        }
+        return new EntryPredicateFilter(colsToReturn, true, predicates.toArray(new ValuePredicate[predicates.size()]));
+    }
+
+    private static ValuePredicate toValuePredicate(Qualifier qualifier,
+                                                   int formatId,
+                                                   SerializerMap serializers) throws StandardException {
+        if (qualifier.getVariantType() == Qualifier.VARIANT)
+            return null;
+        DataValueDescriptor orderable = qualifier.getOrderable();
+        if (orderable == null || orderable.isNull() || orderable.getTypeFormatId() != formatId)
+            return null;
+        switch (formatId) {
+            case StoredFormatIds.SQL_TINYINT_ID:
+            case StoredFormatIds.SQL_SMALLINT_ID:
+            case StoredFormatIds.SQL_INTEGER_ID:
+            case StoredFormatIds.SQL_LONGINT_ID:
+                //scalar encodings sort the same way as the values they encode
+                return new ValuePredicate(qualifier.getStoragePosition(), qualifier.getOperator(),
+                        qualifier.negateCompareResult(), false,
+                        serializers.getSerializer(formatId).encodeDirect(orderable, false));
+            case StoredFormatIds.SQL_VARCHAR_ID:
+                //trailing blanks are ignored and chars do not sort as their UTF-8 bytes, so only equality is safe
+                if (orderable.getClass() != SQLVarchar.class || qualifier.getOperator() != DataValueDescriptor.ORDER_OP_EQUALS)
+                    return null;
+                return new ValuePredicate(qualifier.getStoragePosition(), ValuePredicate.EQUALS,
+                        qualifier.negateCompareResult(), true,
+                        serializers.getSerializer(formatId).encodeDirect(orderable, false));
+            default:
+                return null;
+        }
+    }
+
+    private static BitSet getColumnsToReturn(Qualifier[][] qualifiers,
+                                             FormatableBitSet scanColumnList,
+                                             int[] keyColumnEncodingOrder) {
         BitSet colsToReturn = new BitSet();
         if (qualifiers != null) {
             for (Qualifier[] qualifierList : qualifiers) {
@@ -182,7 +257,7 @@ public class Scans extends SpliceUtils {
                     colsToReturn.clear(col);
             }
         }
-        return new EntryPredicateFilter(colsToReturn, true);
+        return colsToReturn;
     }
 
     private static void attachScanKeys(DataScan scan,
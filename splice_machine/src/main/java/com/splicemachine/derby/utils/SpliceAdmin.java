@@ -57,7 +57,6 @@ import com.splicemachine.db.iapi.types.SQLChar;
 import com.splicemachine.db.iapi.types.SQLDate;
 import com.splicemachine.db.iapi.types.SQLInteger;
 import com.splicemachine.db.iapi.types.SQLLongint;
-import com.splicemachine.db.iapi.types.SQLReal;
 import com.splicemachine.db.iapi.types.SQLTimestamp;
 import com.splicemachine.db.iapi.types.SQLVarchar;
 import com.splicemachine.db.impl.drda.RemoteUser;
@@ -80,10 +79,13 @@ import com.splicemachine.db.impl.sql.execute.ValueRow;
 import com.splicemachine.ddl.DDLMessage;
 import com.splicemachine.derby.ddl.DDLUtils;
 import com.splicemachine.derby.iapi.sql.execute.RunningOperation;
+import com.splicemachine.derby.iapi.sql.execute.StatementStatistics;
 import com.splicemachine.derby.impl.store.access.SpliceTransactionManager;
 import com.splicemachine.derby.stream.ActivationHolder;
 import com.splicemachine.hbase.JMXThreadPool;
 import com.splicemachine.hbase.jmx.JMXUtils;
+import com.splicemachine.metrics.LatencyHistogramStatistics;
+import com.splicemachine.metrics.LatencyHistograms;
 import com.splicemachine.pipeline.ErrorState;
 import com.splicemachine.pipeline.Exceptions;
 import com.splicemachine.pipeline.SimpleActivation;
@@ -117,6 +119,8 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
 import java.sql.Types;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -132,6 +136,7 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static com.splicemachine.db.shared.common.reference.SQLState.LANG_INVALID_FUNCTION_ARGUMENT;
 import static com.splicemachine.db.shared.common.reference.SQLState.LANG_NO_SUCH_RUNNING_OPERATION;
@@ -323,7 +328,7 @@ public class SpliceAdmin extends BaseAdminProcedures{
                     }
                     rows.add(template.getClone());
                     i++;
-                    j = i >= DataDictionaryCache.cacheNames.length?1:0;
+                    j = i / DataDictionaryCache.cacheNames.length;
                 }
 
                 EmbedConnection defaultConn = (EmbedConnection) getDefaultConn();
@@ -484,12 +489,16 @@ public class SpliceAdmin extends BaseAdminProcedures{
 
     public static void SYSCS_GET_REGION_SERVER_STATS_INFO(final ResultSet[] resultSet) throws SQLException{
         Collection<PartitionServer> load=getLoad();
+        final List<String> histograms=new ArrayList<>(LatencyHistograms.histograms().keySet());
 
-        ExecRow template=new ValueRow(6);
-        template.setRowArray(new DataValueDescriptor[]{
-                new SQLVarchar(),new SQLInteger(),new SQLLongint(),new SQLLongint(),
-                new SQLLongint(),new SQLLongint(),new SQLReal()
-        });
+        DataValueDescriptor[] templateColumns=new DataValueDescriptor[6+3*histograms.size()];
+        templateColumns[0]=new SQLVarchar();
+        templateColumns[1]=new SQLInteger();
+        for(int c=2;c<templateColumns.length;c++){
+            templateColumns[c]=new SQLLongint();
+        }
+        ExecRow template=new ValueRow(templateColumns.length);
+        template.setRowArray(templateColumns);
         int i=0;
         List<ExecRow> rows=new ArrayList<>(load.size());
         for(PartitionServer ps:load){
@@ -518,7 +527,22 @@ public class SpliceAdmin extends BaseAdminProcedures{
             rows.add(template.getClone());
             i++;
         }
-        ResultColumnDescriptor[] columnInfo=new ResultColumnDescriptor[6];
+        final List<ExecRow> serverRows=rows;
+        try{
+            operate(new BaseAdminProcedures.JMXServerOperation(){
+                @Override
+                public void operate(List<Pair<String, JMXConnector>> connections) throws MalformedObjectNameException, IOException, SQLException{
+                    for(int s=0;s<connections.size();s++){
+                        setLatencyColumns(serverRows.get(s).getRowArray(),connections.get(s).getSecond(),histograms);
+                    }
+                }
+            },load);
+        }catch(SQLException se){
+            // the load figures are still useful without the latencies
+            SpliceLogUtils.warn(LOG,"Unable to read latency histograms from region servers: %s",se.getMessage());
+        }
+
+        ResultColumnDescriptor[] columnInfo=new ResultColumnDescriptor[templateColumns.length];
         int idx=0;
         columnInfo[idx++]=new GenericColumnDescriptor("host",DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.VARCHAR));
         columnInfo[idx++]=new GenericColumnDescriptor("regionCount",DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.BIGINT));
@@ -526,6 +550,12 @@ public class SpliceAdmin extends BaseAdminProcedures{
         columnInfo[idx++]=new GenericColumnDescriptor("writeRequestCount",DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.BIGINT));
         columnInfo[idx++]=new GenericColumnDescriptor("readRequestCount",DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.BIGINT));
         columnInfo[idx++]=new GenericColumnDescriptor("totalRequestCount",DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.BIGINT));
+        for(String name:histograms){
+            String prefix=Character.toLowerCase(name.charAt(0))+name.substring(1);
+            columnInfo[idx++]=new GenericColumnDescriptor(prefix+"P50Micros",DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.BIGINT));
+            columnInfo[idx++]=new GenericColumnDescriptor(prefix+"P99Micros",DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.BIGINT));
+            columnInfo[idx++]=new GenericColumnDescriptor(prefix+"P999Micros",DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.BIGINT));
+        }
         EmbedConnection defaultConn=(EmbedConnection)BaseAdminProcedures.getDefaultConn();
         Activation lastActivation=defaultConn.getLanguageConnection().getLastActivation();
         IteratorNoPutResultSet resultsToWrap=new IteratorNoPutResultSet(rows,columnInfo,lastActivation);
@@ -539,6 +569,27 @@ public class SpliceAdmin extends BaseAdminProcedures{
         resultSet[0]=ers;
     }
 
+    /*
+     * Fill in the p50/p99/p999 columns of each latency histogram, in microseconds. A server that does not
+     * (yet) export a histogram leaves its columns null.
+     */
+    private static void setLatencyColumns(DataValueDescriptor[] dvds,JMXConnector connector,List<String> histograms) throws SQLException{
+        int idx=6;
+        for(String name:histograms){
+            try{
+                LatencyHistogramStatistics stats=JMXUtils.getLatencyHistogram(connector,name);
+                dvds[idx].setValue(stats.getP50Micros());
+                dvds[idx+1].setValue(stats.getP99Micros());
+                dvds[idx+2].setValue(stats.getP999Micros());
+            }catch(StandardException se){
+                throw PublicAPI.wrapStandardException(se);
+            }catch(Exception e){
+                SpliceLogUtils.debug(LOG,"Latency histogram %s is not available: %s",name,e.getMessage());
+            }
+            idx+=3;
+        }
+    }
+
     public static void SYSCS_GET_REQUESTS(ResultSet[] resultSet) throws SQLException{
         StringBuilder sb=new StringBuilder("select * from (values ");
         int i=0;
@@ -1221,6 +1272,32 @@ public class SpliceAdmin extends BaseAdminProcedures{
         dd.addDescriptor(td, sd, DataDictionary.SYSTABLES_CATALOG_NUM, false, tc);
     }
 
+    /**
+     * Enable or disable the garbage collection of obsolete MVCC versions by compactions for a table and its indexes.
+     * The setting is stored as a property of the underlying HBase tables, which compactions read.
+     */
+    public static void SET_VERSION_GC (String schemaName, String tableName, String enable) throws Exception{
+        LanguageConnectionContext lcc = ConnectionUtil.getCurrentLCC();
+        TransactionController tc  = lcc.getTransactionExecute();
+        DataDictionary dd = lcc.getDataDictionary();
+        SchemaDescriptor sd = dd.getSchemaDescriptor(schemaName, tc, true);
+        if (sd == null)
+        {
+            throw StandardException.newException(SQLState.LANG_SCHEMA_DOES_NOT_EXIST, schemaName);
+        }
+        TableDescriptor td = dd.getTableDescriptor(tableName, sd, tc);
+        if (td == null)
+        {
+            throw StandardException.newException(SQLState.TABLE_NOT_FOUND, tableName);
+        }
+        boolean b = "TRUE".compareToIgnoreCase(enable) == 0;
+        try(PartitionAdmin admin=SIDriver.driver().getTableFactory().getAdmin()){
+            for (ConglomerateDescriptor cd : td.getConglomerateDescriptorList()) {
+                admin.setTableProperty(Long.toString(cd.getConglomerateNumber()), SIConstants.VERSION_GC_ATTR, Boolean.toString(b));
+            }
+        }
+    }
+
     /**
      * Take a snapshot of a schema
      * @param schemaName
@@ -1721,6 +1798,128 @@ public class SpliceAdmin extends BaseAdminProcedures{
     }
 
 
+    private static final GenericColumnDescriptor[] statementStatisticsDescriptors = {
+            new GenericColumnDescriptor("HOSTNAME", DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.VARCHAR, 120)),
+            new GenericColumnDescriptor("SQL", DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.VARCHAR)),
+            new GenericColumnDescriptor("CALLS", DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.BIGINT)),
+            new GenericColumnDescriptor("CONTROL_CALLS", DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.BIGINT)),
+            new GenericColumnDescriptor("SPARK_CALLS", DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.BIGINT)),
+            new GenericColumnDescriptor("TOTAL_MICROS", DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.BIGINT)),
+            new GenericColumnDescriptor("MIN_MICROS", DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.BIGINT)),
+            new GenericColumnDescriptor("MAX_MICROS", DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.BIGINT)),
+            new GenericColumnDescriptor("P50_MICROS", DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.BIGINT)),
+            new GenericColumnDescriptor("P95_MICROS", DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.BIGINT)),
+            new GenericColumnDescriptor("P99_MICROS", DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.BIGINT)),
+            new GenericColumnDescriptor("ROWS_READ", DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.BIGINT)),
+            new GenericColumnDescriptor("ROWS_RETURNED", DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.BIGINT)),
+            new GenericColumnDescriptor("BYTES_SCANNED", DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.BIGINT)),
+            new GenericColumnDescriptor("LAST_EXECUTED", DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.TIMESTAMP)),
+    };
+
+    /**
+     * Aggregated execution statistics of the statements that finished on every server, one row per
+     * statement and server, most total time first on each server.
+     */
+    public static void SYSCS_GET_STATEMENT_STATISTICS(final ResultSet[] resultSet) throws SQLException {
+        List<HostAndPort> servers;
+        try {
+            servers = EngineDriver.driver().getServiceDiscovery().listServers();
+        } catch (IOException e) {
+            throw PublicAPI.wrapStandardException(Exceptions.parseException(e));
+        }
+
+        List<ExecRow> rows = new ArrayList<>();
+        try {
+            for (HostAndPort server : servers) {
+                try (Connection connection = RemoteUser.getConnection(server.toString());
+                     ResultSet rs = connection.createStatement().executeQuery("call SYSCS_UTIL.SYSCS_GET_STATEMENT_STATISTICS_LOCAL()")) {
+                    while (rs.next()) {
+                        ExecRow row = buildExecRow(statementStatisticsDescriptors);
+                        DataValueDescriptor[] dvds = row.getRowArray();
+                        for (int i = 0; i < dvds.length; i++) {
+                            dvds[i].setValueFromResultSet(rs, i + 1, true);
+                        }
+                        rows.add(row);
+                    }
+                }
+            }
+        } catch (StandardException se) {
+            throw PublicAPI.wrapStandardException(se);
+        }
+
+        EmbedConnection conn = (EmbedConnection)getDefaultConn();
+        Activation lastActivation = conn.getLanguageConnection().getLastActivation();
+        IteratorNoPutResultSet resultsToWrap = new IteratorNoPutResultSet(rows, statementStatisticsDescriptors, lastActivation);
+        try {
+            resultsToWrap.openCore();
+        } catch (StandardException se) {
+            throw PublicAPI.wrapStandardException(se);
+        }
+        resultSet[0] = new EmbedResultSet40(conn, resultsToWrap, false, null, true);
+    }
+
+    public static void SYSCS_GET_STATEMENT_STATISTICS_LOCAL(final ResultSet[] resultSet) throws SQLException {
+        SConfiguration config = EngineDriver.driver().getConfiguration();
+        String hostname = NetworkUtils.getHostname(config) + ":" + config.getNetworkBindPort();
+
+        List<StatementStatistics.Entry> entries = EngineDriver.driver().getStatementStatistics().getEntries();
+        List<ExecRow> rows = new ArrayList<>(entries.size());
+        try {
+            for (StatementStatistics.Entry entry : entries) {
+                ExecRow row = buildExecRow(statementStatisticsDescriptors);
+                DataValueDescriptor[] dvds = row.getRowArray();
+                int i = 0;
+                dvds[i++].setValue(hostname);
+                dvds[i++].setValue(entry.getStatement());
+                dvds[i++].setValue(entry.getCalls());
+                dvds[i++].setValue(entry.getControlCalls());
+                dvds[i++].setValue(entry.getSparkCalls());
+                dvds[i++].setValue(TimeUnit.NANOSECONDS.toMicros(entry.getTotalNanos()));
+                dvds[i++].setValue(TimeUnit.NANOSECONDS.toMicros(entry.getMinNanos()));
+                dvds[i++].setValue(TimeUnit.NANOSECONDS.toMicros(entry.getMaxNanos()));
+                dvds[i++].setValue(TimeUnit.NANOSECONDS.toMicros(entry.getNanosAtPercentile(50d)));
+                dvds[i++].setValue(TimeUnit.NANOSECONDS.toMicros(entry.getNanosAtPercentile(95d)));
+                dvds[i++].setValue(TimeUnit.NANOSECONDS.toMicros(entry.getNanosAtPercentile(99d)));
+                dvds[i++].setValue(entry.getRowsRead());
+                dvds[i++].setValue(entry.getRowsReturned());
+                dvds[i++].setValue(entry.getBytesScanned());
+                dvds[i].setValue(new Timestamp(entry.getLastExecuted()), null);
+                rows.add(row);
+            }
+        } catch (StandardException se) {
+            throw PublicAPI.wrapStandardException(se);
+        }
+
+        EmbedConnection conn = (EmbedConnection)getDefaultConn();
+        Activation lastActivation = conn.getLanguageConnection().getLastActivation();
+        IteratorNoPutResultSet resultsToWrap = new IteratorNoPutResultSet(rows, statementStatisticsDescriptors, lastActivation);
+        try {
+            resultsToWrap.openCore();
+        } catch (StandardException se) {
+            throw PublicAPI.wrapStandardException(se);
+        }
+        resultSet[0] = new EmbedResultSet40(conn, resultsToWrap, false, null, true);
+    }
+
+    public static void SYSCS_RESET_STATEMENT_STATISTICS() throws SQLException {
+        List<HostAndPort> servers;
+        try {
+            servers = EngineDriver.driver().getServiceDiscovery().listServers();
+        } catch (IOException e) {
+            throw PublicAPI.wrapStandardException(Exceptions.parseException(e));
+        }
+        for (HostAndPort server : servers) {
+            try (Connection connection = RemoteUser.getConnection(server.toString());
+                 Statement statement = connection.createStatement()) {
+                statement.execute("call SYSCS_UTIL.SYSCS_RESET_STATEMENT_STATISTICS_LOCAL()");
+            }
+        }
+    }
+
+    public static void SYSCS_RESET_STATEMENT_STATISTICS_LOCAL() throws SQLException {
+        EngineDriver.driver().getStatementStatistics().reset();
+    }
+
     public static void SYSCS_HDFS_OPERATION(final String path, final String operation, final ResultSet[] resultSet) throws SQLException {
         try {
             FilesystemAdmin admin = SIDriver.driver().getFilesystemAdmin();
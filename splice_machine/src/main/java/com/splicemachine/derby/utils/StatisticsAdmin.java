@@ -51,6 +51,7 @@ import com.splicemachine.protobuf.ProtoUtil;
 import com.splicemachine.si.api.txn.TxnView;
 import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.storage.DataScan;
+import com.splicemachine.storage.Partition;
 import com.splicemachine.utils.Pair;
 import com.splicemachine.utils.SpliceLogUtils;
 import org.apache.log4j.Logger;
@@ -60,6 +61,7 @@ import org.spark_project.guava.collect.Lists;
 
 import javax.annotation.Nullable;
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.sql.*;
 import java.util.*;
@@ -346,6 +348,70 @@ public class StatisticsAdmin extends BaseAdminProcedures {
         doStatsCollectionForTables(schema, table, true, sample, staleOnly, false, outputResults);
     }
 
+    /**
+     * Collect the statistics of a single partition of a table again, replacing the statistics that partition
+     * had. The statistics of the other partitions are kept, and merged with the new ones when the table's
+     * statistics are read. This is only possible for tables whose statistics are not merged, and the partition
+     * must still exist; statistics are collected the same way (full or sampled) they were before.
+     */
+    public static void COLLECT_PARTITION_STATISTICS(String schema,
+                                                    String table,
+                                                    String partitionId,
+                                                    boolean staleOnly,
+                                                    ResultSet[] outputResults) throws SQLException {
+        EmbedConnection conn = (EmbedConnection) SpliceAdmin.getDefaultConn();
+        try {
+            schema = EngineUtils.validateSchema(schema);
+            table = EngineUtils.validateTable(table);
+            TableDescriptor tableDesc = verifyTableExists(conn, schema, table);
+            List<TableDescriptor> tds = Collections.singletonList(tableDesc);
+            authorize(tds);
+            DataDictionary dd = conn.getLanguageConnection().getDataDictionary();
+            dd.startWriting(conn.getLanguageConnection());
+            TransactionController tc = conn.getLanguageConnection().getTransactionExecute();
+            long heapConglomerateId = tableDesc.getHeapConglomerateId();
+            PartitionStatisticsDescriptor partitionStats = null;
+            for (PartitionStatisticsDescriptor psd : dd.getPartitionStatistics(heapConglomerateId, tc)) {
+                if (psd.getPartitionId().equals(partitionId))
+                    partitionStats = psd;
+            }
+            if (partitionStats == null
+                    || (partitionStats.getStatsType() != SYSTABLESTATISTICSRowFactory.REGULAR_NONMERGED_STATS
+                        && partitionStats.getStatsType() != SYSTABLESTATISTICSRowFactory.SAMPLE_NONMERGED_STATS))
+                throw ErrorState.LANG_INVALID_FUNCTION_ARGUMENT.newException(partitionId, "COLLECT_PARTITION_STATISTICS");
+            Partition partition = null;
+            try (Partition root = SIDriver.driver().getTableFactory().getTable(Long.toString(heapConglomerateId))) {
+                for (Partition p : root.subPartitions(true)) {
+                    if (p.getName().equals(partitionId))
+                        partition = p;
+                }
+            }
+            if (partition == null)
+                throw ErrorState.LANG_INVALID_FUNCTION_ARGUMENT.newException(partitionId, "COLLECT_PARTITION_STATISTICS");
+            boolean useSample = partitionStats.getStatsType() == SYSTABLESTATISTICSRowFactory.SAMPLE_NONMERGED_STATS;
+            dd.deletePartitionStatistics(heapConglomerateId, partitionId, tc);
+            ddlNotification(tc, tds);
+            TxnView txn = ((SpliceTransactionManager) tc).getRawTransaction().getActiveStateTxn();
+            HashMap<Long,Pair<String,String>> display = new HashMap<>();
+            display.put(heapConglomerateId,Pair.newPair(schema,table));
+            IteratorNoPutResultSet resultsToWrap = wrapResults(
+                    conn,
+                    displayTableStatistics(Lists.newArrayList(
+                            collectBaseTableStatistics(tableDesc, useSample, partitionStats.getSampleFraction(), false, txn, conn,
+                                    partition.getStartKey(), partition.getEndKey())
+                            ),
+                            false,
+                            dd, tc, display));
+            outputResults[0] = new EmbedResultSet40(conn, resultsToWrap, false, null, true);
+        } catch (StandardException se) {
+            throw PublicAPI.wrapStandardException(se);
+        } catch (ExecutionException e) {
+            throw PublicAPI.wrapStandardException(Exceptions.parseException(e.getCause()));
+        } catch (IOException e) {
+            throw PublicAPI.wrapStandardException(Exceptions.parseException(e));
+        }
+    }
+
     public static void DROP_SCHEMA_STATISTICS(String schema) throws SQLException {
         EmbedConnection conn = (EmbedConnection) getDefaultConn();
         try {
@@ -454,19 +520,32 @@ public class StatisticsAdmin extends BaseAdminProcedures {
                                                                   boolean mergeStats,
                                                                  TxnView txn,
                                                                  EmbedConnection conn) throws StandardException, ExecutionException {
+        return collectBaseTableStatistics(table, useSample, sampleFraction, mergeStats, txn, conn, new byte[0], new byte[0]);
+    }
+
+    private static StatisticsOperation collectBaseTableStatistics(TableDescriptor table,
+                                                                 boolean useSample,
+                                                                 double sampleFraction,
+                                                                  boolean mergeStats,
+                                                                 TxnView txn,
+                                                                 EmbedConnection conn,
+                                                                 byte[] startKey,
+                                                                 byte[] stopKey) throws StandardException, ExecutionException {
         long heapConglomerateId = table.getHeapConglomerateId();
         Activation activation = conn.getLanguageConnection().getLastActivation();
         DistributedDataSetProcessor dsp = EngineDriver.driver().processorFactory().distributedProcessor();
 
         ScanSetBuilder ssb = dsp.newScanSet(null,Long.toString(heapConglomerateId));
-        ScanSetBuilder scanSetBuilder = createTableScanner(ssb,conn,table,txn);
+        ScanSetBuilder scanSetBuilder = createTableScanner(ssb,conn,table,txn,startKey,stopKey);
         String scope = getScopeName(table);
         // no sample stats support on mem platform
         if (dsp.getType() != DataSetProcessor.Type.SPARK) {
             useSample = false;
             sampleFraction = 0.0d;
         }
-        StatisticsOperation op = new StatisticsOperation(scanSetBuilder,useSample, sampleFraction, mergeStats, scope,activation);
+        int[][] columnGroups = getColumnGroups(table, scanSetBuilder.getColumnPositionMap(),
+                EngineDriver.driver().getConfiguration().getStatisticsMaxColumnGroups());
+        StatisticsOperation op = new StatisticsOperation(scanSetBuilder,useSample, sampleFraction, mergeStats, columnGroups, scope,activation);
         op.openCore();
         return op;
     }
@@ -475,10 +554,10 @@ public class StatisticsAdmin extends BaseAdminProcedures {
         return String.format(OperationContext.Scope.COLLECT_STATS.displayName(), td.getName());
     }
 
-    private static DataScan createScan (TxnView txn) {
+    private static DataScan createScan (TxnView txn, byte[] startKey, byte[] stopKey) {
         DataScan scan=SIDriver.driver().getOperationFactory().newDataScan(txn);
         scan.returnAllVersions(); //make sure that we read all versions of the data
-        return scan.startKey(new byte[0]).stopKey(new byte[0]);
+        return scan.startKey(startKey).stopKey(stopKey);
     }
 
     public static int[] getFormatIds(EmbedConnection conn, long columnStatsConglomId) throws StandardException{
@@ -491,7 +570,9 @@ public class StatisticsAdmin extends BaseAdminProcedures {
     private static ScanSetBuilder createTableScanner(ScanSetBuilder builder,
                                                      EmbedConnection conn,
                                                      TableDescriptor table,
-                                                     TxnView txn) throws StandardException{
+                                                     TxnView txn,
+                                                     byte[] startKey,
+                                                     byte[] stopKey) throws StandardException{
 
         List<ColumnDescriptor> colsToCollect = getCollectedColumns(conn, table);
         ExecRow row = new ValueRow(colsToCollect.size());
@@ -542,7 +623,7 @@ public class StatisticsAdmin extends BaseAdminProcedures {
                 }
             }
         }
-        DataScan scan = createScan(txn);
+        DataScan scan = createScan(txn, startKey, stopKey);
         return builder.transaction(txn)
                 .metricFactory(Metrics.basicMetricFactory())
                 .template(row)
@@ -689,7 +770,7 @@ public class StatisticsAdmin extends BaseAdminProcedures {
         if (indexLister != null) {
             IndexRowGenerator[] distinctIndexRowGenerators = indexLister.getDistinctIndexRowGenerators();
             for (IndexRowGenerator irg : distinctIndexRowGenerators) {
-                int[] keyColumns = irg.getIndexDescriptor().baseColumnPositions();
+                int[] keyColumns = irg.getIndexDescriptor().orderedColumnPositions();
                 for (int keyColumn : keyColumns) {
                     for (ColumnDescriptor cd : columnDescriptorList) {
                         if (cd.getPosition() == keyColumn) {
@@ -723,6 +804,61 @@ public class StatisticsAdmin extends BaseAdminProcedures {
         return toCollect;
     }
 
+    /**
+     *
+     * The column groups to collect combined statistics for: the leading columns (two or more) of the primary key
+     * and of every index, as long as all of them are collected.
+     *
+     * @param td the table
+     * @param columnPositionMap the ids of the collected columns
+     * @param maxGroups the maximum number of groups to return
+     * @return the column ids of each group
+     * @throws StandardException
+     */
+    static int[][] getColumnGroups(TableDescriptor td, int[] columnPositionMap, int maxGroups) throws StandardException {
+        List<int[]> keys = new ArrayList<>();
+        ConglomerateDescriptor heapConglom = td.getConglomerateDescriptor(td.getHeapConglomerateId());
+        IndexRowGenerator pkDescriptor = heapConglom == null ? null : heapConglom.getIndexDescriptor();
+        if (pkDescriptor != null && pkDescriptor.getIndexDescriptor() != null)
+            keys.add(pkDescriptor.baseColumnPositions());
+        IndexLister indexLister = td.getIndexLister();
+        if (indexLister != null) {
+            for (IndexRowGenerator irg : indexLister.getIndexRowGenerators()) {
+                if (irg.getIndexDescriptor() != null)
+                    keys.add(irg.orderedColumnPositions());
+            }
+        }
+        Set<Integer> collected = new HashSet<>();
+        for (int column : columnPositionMap)
+            collected.add(column);
+        Map<String,int[]> groups = new LinkedHashMap<>();
+        KEYS: for (int[] key : keys) {
+            if (key.length < 2 || !collected.contains(key[0]))
+                continue;
+            for (int length = 2; length <= key.length; length++) {
+                if (!collected.contains(key[length - 1]))
+                    continue KEYS;
+                if (groups.size() >= maxGroups)
+                    break KEYS;
+                int[] group = Arrays.copyOf(key, length);
+                groups.put(Arrays.toString(group), group);
+            }
+        }
+        return groups.values().toArray(new int[groups.size()][]);
+    }
+
+    /**
+     *
+     * Column group statistics are stored with the negative column ids -1, -2, ... so they don't clash with
+     * the statistics of the columns.
+     *
+     * @param group the index of the group
+     * @return the column id to store the statistics of the group under
+     */
+    public static int columnGroupId(int group) {
+        return -(group + 1);
+    }
+
     private static void ensureNotKeyed(ColumnDescriptor descriptor, TableDescriptor td) throws StandardException {
         ConglomerateDescriptor heapConglom = td.getConglomerateDescriptor(td.getHeapConglomerateId());
         IndexRowGenerator pkDescriptor = heapConglom.getIndexDescriptor();
@@ -737,7 +873,7 @@ public class StatisticsAdmin extends BaseAdminProcedures {
         if (indexLister != null) {
             for (IndexRowGenerator irg : indexLister.getIndexRowGenerators()) {
                 if (irg.getIndexDescriptor() == null) continue;
-                for (int col : irg.baseColumnPositions()) {
+                for (int col : irg.orderedColumnPositions()) {
                     if (col == descriptor.getPosition())
                         throw ErrorState.LANG_DISABLE_STATS_FOR_KEYED_COLUMN.newException(descriptor.getColumnName());
                 }
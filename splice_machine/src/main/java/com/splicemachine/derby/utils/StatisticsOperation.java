@@ -33,6 +33,7 @@ package com.splicemachine.derby.utils;
 
 import com.splicemachine.EngineDriver;
 import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.services.io.ArrayUtil;
 import com.splicemachine.db.iapi.sql.Activation;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
@@ -65,11 +66,17 @@ public class StatisticsOperation extends SpliceBaseOperation {
     protected boolean useSample;
     protected double sampleFraction;
     private boolean mergeStats;
+    protected int[][] columnGroups;
 
     // serialization
     public StatisticsOperation(){}
 
     public StatisticsOperation(ScanSetBuilder scanSetBuilder, boolean useSample, double sampleFraction, boolean mergeStats, String scope, Activation activation) throws StandardException {
+        this(scanSetBuilder, useSample, sampleFraction, mergeStats, new int[0][], scope, activation);
+    }
+
+    public StatisticsOperation(ScanSetBuilder scanSetBuilder, boolean useSample, double sampleFraction, boolean mergeStats,
+                               int[][] columnGroups, String scope, Activation activation) throws StandardException {
         super(new DerbyOperationInformation(activation, 0, 0, 0));
         this.scanSetBuilder = scanSetBuilder;
         this.scope = scope;
@@ -77,6 +84,7 @@ public class StatisticsOperation extends SpliceBaseOperation {
         this.useSample = useSample;
         this.sampleFraction = sampleFraction;
         this.mergeStats = mergeStats;
+        this.columnGroups = columnGroups;
         if (useSample) {
             scanSetBuilder.useSample(useSample).sampleFraction(sampleFraction);
         }
@@ -191,6 +199,9 @@ public class StatisticsOperation extends SpliceBaseOperation {
         out.writeBoolean(useSample);
         out.writeDouble(sampleFraction);
         out.writeBoolean(mergeStats);
+        out.writeInt(columnGroups.length);
+        for (int[] columnGroup : columnGroups)
+            ArrayUtil.writeIntArray(out, columnGroup);
     }
 
     @Override
@@ -201,6 +212,9 @@ public class StatisticsOperation extends SpliceBaseOperation {
         useSample = in.readBoolean();
         sampleFraction = in.readDouble();
         mergeStats = in.readBoolean();
+        columnGroups = new int[in.readInt()][];
+        for (int i = 0; i < columnGroups.length; i++)
+            columnGroups[i] = ArrayUtil.readIntArray(in);
     }
 
     public double getSampleFraction() {
@@ -210,4 +224,11 @@ public class StatisticsOperation extends SpliceBaseOperation {
     public boolean getUseSample() {
         return useSample;
     }
+
+    /**
+     * @return the groups of columns (by column id in the base table) to collect combined statistics for
+     */
+    public int[][] getColumnGroups() {
+        return columnGroups;
+    }
 }
@@ -23,8 +23,10 @@ import com.splicemachine.db.vti.VTICosting;
 import com.splicemachine.db.vti.VTIEnvironment;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
 import com.splicemachine.derby.impl.load.ImportUtils;
+import com.splicemachine.derby.stream.function.AbstractFileFunction;
 import com.splicemachine.derby.stream.function.FileFunction;
 import com.splicemachine.derby.stream.function.StreamFileFunction;
+import com.splicemachine.derby.stream.function.Utf8FileFunction;
 import com.splicemachine.derby.stream.iapi.DataSet;
 import com.splicemachine.derby.stream.iapi.DataSetProcessor;
 import com.splicemachine.derby.stream.iapi.OperationContext;
@@ -124,7 +126,12 @@ public class SpliceFileVTI implements DatasetProvider, VTICosting {
             operationContext = dsp.createOperationContext((Activation)null);
         try {
             ImportUtils.validateReadable(fileName, false);
-            if (oneLineRecords && (charset==null || charset.toLowerCase().equals("utf-8"))) {
+            if (oneLineRecords && (charset==null || charset.toLowerCase().equals("utf-8"))
+                    && AbstractFileFunction.canTokenizeBytes(characterDelimiter, columnDelimiter)) {
+                DataSet<byte[]> textSet = dsp.readRawTextFile(fileName, op);
+                operationContext.pushScopeForOp("Parse File");
+                return textSet.flatMap(new Utf8FileFunction(characterDelimiter, columnDelimiter, execRow, columnIndex, timeFormat, dateTimeFormat, timestampFormat, operationContext), true);
+            } else if (oneLineRecords && (charset==null || charset.toLowerCase().equals("utf-8"))) {
                 DataSet<String> textSet = dsp.readTextFile(fileName, op);
                 operationContext.pushScopeForOp("Parse File");
                 return textSet.flatMap(new FileFunction(characterDelimiter, columnDelimiter, execRow, columnIndex, timeFormat, dateTimeFormat, timestampFormat, operationContext), true);
@@ -35,6 +35,8 @@ import com.splicemachine.EngineDriver;
 import com.splicemachine.access.api.DatabaseVersion;
 import com.splicemachine.derby.management.StatementManagement;
 import com.splicemachine.derby.utils.DatabasePropertyManagement;
+import com.splicemachine.metrics.LatencyHistogramStatistics;
+import com.splicemachine.metrics.LatencyHistograms;
 import com.splicemachine.pipeline.PipelineDriver;
 import com.splicemachine.pipeline.threadpool.ThreadPoolStatus;
 import com.splicemachine.timestamp.api.TimestampClientStatistics;
@@ -56,6 +58,7 @@ public class JMXUtils {
     public static final String TIMESTAMP_MASTER_MANAGEMENT = "com.splicemachine.si.client.timestamp.generator:type=TimestampMasterManagement";
     public static final String TIMESTAMP_REGION_MANAGEMENT = "com.splicemachine.si.client.timestamp.request:type=TimestampRegionManagement";
 	public static final String DATABASE_PROPERTY_MANAGEMENT = "com.splicemachine.derby.utils:type=DatabasePropertyManagement";
+    public static final String LATENCY_HISTOGRAM = LatencyHistograms.OBJECT_NAME_BASE;
 
     public static List<Pair<String,JMXConnector>> getMBeanServerConnections(Collection<Pair<String,String>> serverConnections) throws IOException {
         List<Pair<String,JMXConnector>> mbscArray =new ArrayList<>(serverConnections.size());
@@ -162,6 +165,10 @@ public class JMXUtils {
         return dbProps;
     }
 
+    public static LatencyHistogramStatistics getLatencyHistogram(JMXConnector mbsc, String name) throws MalformedObjectNameException, IOException {
+        return getNewMXBeanProxy(mbsc, LATENCY_HISTOGRAM+name, LatencyHistogramStatistics.class);
+    }
+
 	public static <T> T getNewMBeanProxy(JMXConnector mbsc, String mbeanName, Class<T> type) throws MalformedObjectNameException, IOException {
 		ObjectName objectName = new ObjectName(mbeanName);
 		return JMX.newMBeanProxy(mbsc.getMBeanServerConnection(), objectName,type, true);
@@ -278,7 +278,8 @@ public class ProtoUtil {
                 .setUniqueWithDuplicateNulls(indexDescriptor.isUniqueWithDuplicateNulls())
                 .setUnique(indexDescriptor.isUnique())
                 .setExcludeDefaults(indexDescriptor.excludeDefaults())
-                .setExcludeNulls(indexDescriptor.excludeNulls());
+                .setExcludeNulls(indexDescriptor.excludeNulls())
+                .setNumberOfOrderedColumns(indexDescriptor.numberOfOrderedColumns());
         if (defaultValuesBytes != null)
             builder.setDefaultValues(ByteString.copyFrom(defaultValuesBytes));
         for(int i=0;i<ascColumns.length;i++){
@@ -14,13 +14,25 @@
 
 package com.splicemachine.db.impl.sql.compile;
 
+import com.splicemachine.db.iapi.sql.compile.CostEstimate;
+import com.splicemachine.db.iapi.sql.compile.Optimizable;
+import com.splicemachine.db.iapi.stats.ColumnGroupStatisticsImpl;
+import com.splicemachine.db.iapi.store.access.StoreCostController;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.SQLInteger;
+import com.splicemachine.db.iapi.types.SQLVarchar;
 import com.splicemachine.si.testenv.ArchitectureIndependent;
 import org.junit.*;
 import org.junit.experimental.categories.Category;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.LinkedList;
 import java.util.List;
 
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
 /**
  * Created by jleach on 8/8/15.
  */
@@ -85,4 +97,88 @@ public class ScanCostFunctionTest {
         );
     }
 
+    @Test
+    public void testColumnGroupReplacesEqualityPredicates() throws Exception {
+        ScanCostFunction scf = scanCostFunction(group(1, 2));
+        equality(scf, 1, QualifierPhase.BASE, new SQLInteger(3));
+        equality(scf, 2, QualifierPhase.BASE, new SQLVarchar("zip3"));
+        scf.applyColumnGroupSelectivity();
+
+        Assert.assertEquals(1, scf.getSelectivityListForColumn(1).size());
+        Assert.assertTrue(scf.getSelectivityListForColumn(1).get(0) instanceof ColumnGroupSelectivity);
+        Assert.assertTrue(scf.getSelectivityListForColumn(2).isEmpty());
+        // every combination of the correlated columns holds a tenth of the rows
+        Assert.assertEquals(0.1d, ScanCostFunction.computeTotalSelectivity(selectivityHolders(scf)), 0.0d);
+    }
+
+    @Test
+    public void testWidestColumnGroupIsUsedFirst() throws Exception {
+        ScanCostFunction scf = scanCostFunction(group(1, 2), group(1, 2, 3));
+        equality(scf, 1, QualifierPhase.BASE, null);
+        equality(scf, 2, QualifierPhase.BASE, null);
+        equality(scf, 3, QualifierPhase.BASE, null);
+        scf.applyColumnGroupSelectivity();
+
+        ColumnGroupSelectivity selectivity = (ColumnGroupSelectivity) scf.getSelectivityListForColumn(1).get(0);
+        Assert.assertEquals(1, scf.getSelectivityListForColumn(1).size());
+        Assert.assertTrue(scf.getSelectivityListForColumn(2).isEmpty());
+        Assert.assertTrue(scf.getSelectivityListForColumn(3).isEmpty());
+        Assert.assertEquals(0.1d, selectivity.getSelectivity(), 0.0d);
+    }
+
+    @Test
+    public void testColumnGroupNeedsEqualityPredicatesOnAllColumnsInOnePhase() throws Exception {
+        ScanCostFunction scf = scanCostFunction(group(1, 2), group(1, 3));
+        equality(scf, 1, QualifierPhase.BASE, new SQLInteger(3));
+        equality(scf, 2, QualifierPhase.FILTER_BASE, new SQLVarchar("zip3"));
+        scf.addSelectivity(new ConstantSelectivity(0.5d, 3, QualifierPhase.BASE)); // not an equality predicate
+        scf.applyColumnGroupSelectivity();
+
+        for (int column = 1; column <= 3; column++) {
+            Assert.assertEquals(1, scf.getSelectivityListForColumn(column).size());
+            Assert.assertTrue(scf.getSelectivityListForColumn(column).get(0) instanceof ConstantSelectivity);
+        }
+    }
+
+    /*private helper methods*/
+
+    private static ScanCostFunction scanCostFunction(ColumnGroupStatisticsImpl... groups) throws Exception {
+        StoreCostController scc = mock(StoreCostController.class);
+        when(scc.getColumnGroupStatistics()).thenReturn(Arrays.asList(groups));
+        ResultColumnList resultColumns = new ResultColumnList();
+        for (int i = 0; i < 3; i++)
+            resultColumns.addElement(null);
+        return new ScanCostFunction(new BitSet(), null, mock(Optimizable.class), scc, mock(CostEstimate.class),
+                null, null, false, resultColumns);
+    }
+
+    private static void equality(ScanCostFunction scf, int column, QualifierPhase phase, DataValueDescriptor value) {
+        SelectivityHolder holder = new ConstantSelectivity(0.1d, column, phase);
+        scf.addSelectivity(holder);
+        scf.addEqualityHolder(column, holder, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<SelectivityHolder>[] selectivityHolders(ScanCostFunction scf) {
+        List<SelectivityHolder>[] holders = new List[4];
+        for (int column = 1; column <= 3; column++)
+            holders[column] = scf.getSelectivityListForColumn(column);
+        return holders;
+    }
+
+    /**
+     * Statistics of a group of columns whose values are fully correlated: 10 combinations over 10000 rows.
+     */
+    private static ColumnGroupStatisticsImpl group(int... columns) throws Exception {
+        ColumnGroupStatisticsImpl group = new ColumnGroupStatisticsImpl(columns);
+        for (int i = 0; i < 10000; i++) {
+            int city = i % 10;
+            DataValueDescriptor[] values = new DataValueDescriptor[columns.length];
+            values[0] = new SQLInteger(city);
+            for (int c = 1; c < columns.length; c++)
+                values[c] = new SQLVarchar("zip" + city);
+            group.update(ColumnGroupStatisticsImpl.key(values));
+        }
+        return group;
+    }
 }
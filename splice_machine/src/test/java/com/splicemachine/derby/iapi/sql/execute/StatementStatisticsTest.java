@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.iapi.sql.execute;
+
+import com.splicemachine.derby.stream.iapi.DataSetProcessor;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@Category(ArchitectureIndependent.class)
+public class StatementStatisticsTest{
+
+    @Test
+    public void aggregatesByNormalizedText() throws Exception{
+        StatementStatistics stats=new StatementStatistics(10);
+        stats.record("select * from t where a = ?",DataSetProcessor.Type.CONTROL,1000,10,1,100);
+        stats.record("  select *\n  from t\twhere a = ?  ",DataSetProcessor.Type.SPARK,3000,20,2,200);
+
+        List<StatementStatistics.Entry> entries=stats.getEntries();
+        assertEquals(1,entries.size());
+        StatementStatistics.Entry e=entries.get(0);
+        assertEquals("select * from t where a = ?",e.getStatement());
+        assertEquals(2,e.getCalls());
+        assertEquals(1,e.getControlCalls());
+        assertEquals(1,e.getSparkCalls());
+        assertEquals(4000,e.getTotalNanos());
+        assertEquals(1000,e.getMinNanos());
+        assertEquals(3000,e.getMaxNanos());
+        assertEquals(30,e.getRowsRead());
+        assertEquals(3,e.getRowsReturned());
+        assertEquals(300,e.getBytesScanned());
+        assertTrue(e.getLastExecuted()>0);
+    }
+
+    @Test
+    public void whiteSpaceInsideQuotesIsKept() throws Exception{
+        assertEquals("select 'a  b' from \"my  table\"",StatementStatistics.normalize("select  'a  b'\nfrom \"my  table\" "));
+        assertEquals("values 'it''s  here'",StatementStatistics.normalize("values   'it''s  here'"));
+        String unchanged="select 1";
+        assertEquals(unchanged,StatementStatistics.normalize(unchanged));
+    }
+
+    @Test
+    public void entriesAreSortedByTotalTime() throws Exception{
+        StatementStatistics stats=new StatementStatistics(10);
+        stats.record("fast",DataSetProcessor.Type.CONTROL,10,0,0,0);
+        stats.record("slow",DataSetProcessor.Type.CONTROL,1000,0,0,0);
+        stats.record("medium",DataSetProcessor.Type.CONTROL,100,0,0,0);
+        List<StatementStatistics.Entry> entries=stats.getEntries();
+        assertEquals("slow",entries.get(0).getStatement());
+        assertEquals("medium",entries.get(1).getStatement());
+        assertEquals("fast",entries.get(2).getStatement());
+    }
+
+    @Test
+    public void evictsLeastFrequentlyExecuted() throws Exception{
+        StatementStatistics stats=new StatementStatistics(10);
+        for(int i=0;i<10;i++){
+            for(int j=0;j<=i;j++){
+                stats.record("s"+i,DataSetProcessor.Type.CONTROL,1,0,0,0);
+            }
+        }
+        stats.record("new",DataSetProcessor.Type.CONTROL,1,0,0,0);
+        assertEquals(10,stats.getEntries().size());
+        for(StatementStatistics.Entry e : stats.getEntries()){
+            assertNotEquals("s0",e.getStatement());
+        }
+    }
+
+    @Test
+    public void resetAndDisabled() throws Exception{
+        StatementStatistics stats=new StatementStatistics(10);
+        stats.record("x",DataSetProcessor.Type.CONTROL,1,0,0,0);
+        stats.reset();
+        assertTrue(stats.getEntries().isEmpty());
+
+        StatementStatistics disabled=new StatementStatistics(0);
+        assertFalse(disabled.isEnabled());
+        disabled.record("x",DataSetProcessor.Type.CONTROL,1,0,0,0);
+        assertTrue(disabled.getEntries().isEmpty());
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.index;
+
+import com.splicemachine.db.iapi.services.io.StoredFormatIds;
+import com.splicemachine.ddl.DDLMessage;
+import com.splicemachine.derby.iapi.sql.olap.DistributedJob;
+import com.splicemachine.derby.iapi.sql.olap.OlapClient;
+import com.splicemachine.derby.iapi.sql.olap.OlapResult;
+import com.splicemachine.derby.iapi.sql.olap.SuccessfulOlapResult;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.si.api.txn.TxnLifecycleManager;
+import com.splicemachine.si.api.txn.TxnView;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import com.splicemachine.storage.Partition;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.spark_project.guava.util.concurrent.SettableFuture;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Category(ArchitectureIndependent.class)
+public class IndexPopulationCoordinatorTest{
+    private final List<DistributedPopulateIndexJob> submitted = new ArrayList<>();
+    private final List<SettableFuture<OlapResult>> results = new ArrayList<>();
+    private final List<Txn> txns = new ArrayList<>();
+    private OlapClient olapClient;
+    private TxnLifecycleManager lifecycleManager;
+    private volatile int maxInFlight;
+
+    @Before
+    public void setUp() throws Exception{
+        olapClient = mock(OlapClient.class);
+        when(olapClient.submit(any(DistributedJob.class))).thenAnswer(new Answer<Object>(){
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable{
+                submitted.add((DistributedPopulateIndexJob)invocation.getArguments()[0]);
+                SettableFuture<OlapResult> result = SettableFuture.create();
+                results.add(result);
+                return result;
+            }
+        });
+        lifecycleManager = mock(TxnLifecycleManager.class);
+        when(lifecycleManager.beginChildTransaction(any(TxnView.class),any(byte[].class))).thenAnswer(new Answer<Txn>(){
+            @Override
+            public Txn answer(InvocationOnMock invocation) throws Throwable{
+                Txn txn = mock(Txn.class);
+                txns.add(txn);
+                return txn;
+            }
+        });
+    }
+
+    @Test
+    public void populatesRegionGroupsInParallel() throws Exception{
+        IndexPopulationCoordinator coordinator = new IndexPopulationCoordinator(olapClient,lifecycleManager,2,2,0,10L);
+        Thread completer = completeJobs(3,0,2);
+        coordinator.populate(job(),regions("","b","d","f","h",""));
+        completer.join();
+
+        Assert.assertEquals("Incorrect number of jobs",3,submitted.size());
+        assertRange(submitted.get(0),"","d");
+        assertRange(submitted.get(1),"d","h");
+        assertRange(submitted.get(2),"h","");
+        Assert.assertEquals("Jobs should have run two at a time",2,maxInFlight);
+        for(int i=0;i<submitted.size();i++){
+            Assert.assertSame("Each group should write in its own transaction",txns.get(i),submitted.get(i).childTxn);
+            verify(txns.get(i)).commit();
+        }
+    }
+
+    @Test
+    public void retriesOnlyTheFailedGroup() throws Exception{
+        IndexPopulationCoordinator coordinator = new IndexPopulationCoordinator(olapClient,lifecycleManager,1,1,3,10L);
+        Thread completer = completeJobs(3,1,1);
+        coordinator.populate(job(),regions("","b",""));
+        completer.join();
+
+        Assert.assertEquals("Incorrect number of jobs",3,submitted.size());
+        assertRange(submitted.get(0),"","b");
+        assertRange(submitted.get(1),"","b");
+        assertRange(submitted.get(2),"b","");
+        verify(txns.get(0)).rollback();
+        verify(txns.get(0),never()).commit();
+        verify(txns.get(1)).commit();
+        verify(txns.get(2)).commit();
+    }
+
+    @Test
+    public void failsOnceRetriesAreExhausted() throws Exception{
+        IndexPopulationCoordinator coordinator = new IndexPopulationCoordinator(olapClient,lifecycleManager,1,2,1,10L);
+        // both groups fail, and the first one fails again on its retry while the second one is running
+        Thread completer = completeJobs(3,3,2);
+        try{
+            coordinator.populate(job(),regions("","b",""));
+            Assert.fail("Population should have failed");
+        }catch(IOException expected){
+            Assert.assertEquals("Incorrect failure","failed",expected.getMessage());
+        }
+        completer.join();
+        Assert.assertEquals("Incorrect number of jobs",4,submitted.size());
+        Assert.assertTrue("The job still running should have been cancelled",results.get(3).isCancelled());
+        for(Txn txn : txns){
+            verify(txn,never()).commit();
+            verify(txn).rollback();
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    /**
+     * Completes the first {@code jobs} jobs submitted, in order, failing the first {@code failing} of them. A job is
+     * only completed once the coordinator has had the chance to submit the {@code parallel} jobs following it.
+     */
+    private Thread completeJobs(final int jobs,final int failing,final int parallel){
+        Thread completer = new Thread(new Runnable(){
+            @Override
+            public void run(){
+                try{
+                    for(int next = 0;next<jobs;next++){
+                        long deadline = System.currentTimeMillis()+1000L;
+                        while(results.size()<Math.min(next+parallel,jobs) && System.currentTimeMillis()<deadline)
+                            Thread.sleep(1);
+                        if(results.size()<=next)
+                            return; //the coordinator has given up
+                        maxInFlight = Math.max(maxInFlight,results.size()-next);
+                        if(next<failing)
+                            results.get(next).setException(new IOException("failed"));
+                        else
+                            results.get(next).set(new SuccessfulOlapResult());
+                    }
+                }catch(InterruptedException e){
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        completer.setDaemon(true);
+        completer.start();
+        return completer;
+    }
+
+    private static void assertRange(DistributedPopulateIndexJob job,String startKey,String stopKey){
+        Assert.assertArrayEquals("Incorrect start key",Bytes.toBytes(startKey),job.startKey);
+        Assert.assertArrayEquals("Incorrect stop key",Bytes.toBytes(stopKey),job.stopKey);
+    }
+
+    /**
+     * @return the regions split at {@code keys}, the first and last keys being the table's boundaries
+     */
+    private static List<Partition> regions(String... keys){
+        List<Partition> regions = new ArrayList<>();
+        for(int i=0;i<keys.length-1;i++){
+            Partition region = mock(Partition.class);
+            when(region.getStartKey()).thenReturn(Bytes.toBytes(keys[i]));
+            when(region.getEndKey()).thenReturn(Bytes.toBytes(keys[i+1]));
+            regions.add(region);
+        }
+        return regions;
+    }
+
+    private static DistributedPopulateIndexJob job(){
+        DDLMessage.Index index = DDLMessage.Index.newBuilder()
+                .setConglomerate(1568L)
+                .addIndexColsToMainColMap(1)
+                .addDescColumns(false)
+                .setUnique(false)
+                .build();
+        DDLMessage.Table table = DDLMessage.Table.newBuilder()
+                .setConglomerate(1552L)
+                .addFormatIds(StoredFormatIds.SQL_INTEGER_ID)
+                .setTableVersion("2.0")
+                .build();
+        DDLMessage.TentativeIndex tentativeIndex = DDLMessage.TentativeIndex.newBuilder().setIndex(index).setTable(table).build();
+        return new DistributedPopulateIndexJob(mock(TxnView.class),null,"scope","jobGroup","prefix",tentativeIndex,new int[]{StoredFormatIds.SQL_INTEGER_ID});
+    }
+}
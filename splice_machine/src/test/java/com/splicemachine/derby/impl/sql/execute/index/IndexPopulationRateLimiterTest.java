@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.derby.impl.sql.execute.index;
+
+import com.splicemachine.concurrent.IncrementingClock;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.concurrent.TimeUnit;
+
+@Category(ArchitectureIndependent.class)
+public class IndexPopulationRateLimiterTest{
+
+    @Test
+    public void holdsTheMaximumRate() throws Exception{
+        IncrementingClock clock = new IncrementingClock();
+        IndexPopulationRateLimiter limiter = new IndexPopulationRateLimiter(100,clock);
+        for(int i=0;i<1000;i++){
+            limiter.acquire();
+        }
+        Assert.assertEquals("Incorrect elapsed time",10L,TimeUnit.NANOSECONDS.toSeconds(clock.nanoTime()));
+        Assert.assertEquals("Incorrect rate",100L,limiter.getRowsPerSecond());
+    }
+
+    @Test
+    public void backsOffWhenRowsGetSlower() throws Exception{
+        IncrementingClock clock = new IncrementingClock();
+        IndexPopulationRateLimiter limiter = new IndexPopulationRateLimiter(100,clock);
+        processWindows(limiter,clock,5,TimeUnit.MILLISECONDS.toNanos(1));
+        Assert.assertEquals("Rate should not change while rows are fast",100L,limiter.getRowsPerSecond());
+
+        processWindows(limiter,clock,1,TimeUnit.MILLISECONDS.toNanos(10));
+        Assert.assertTrue("Rate should have been lowered",limiter.getRowsPerSecond()<100L);
+
+        processWindows(limiter,clock,20,TimeUnit.MILLISECONDS.toNanos(10));
+        Assert.assertEquals("Rate should not go below its floor",6L,limiter.getRowsPerSecond());
+
+        processWindows(limiter,clock,50,TimeUnit.MILLISECONDS.toNanos(1));
+        Assert.assertEquals("Rate should have recovered",100L,limiter.getRowsPerSecond());
+    }
+
+    @Test
+    public void lastingSlowdownBecomesTheNewBaseline() throws Exception{
+        IncrementingClock clock = new IncrementingClock();
+        IndexPopulationRateLimiter limiter = new IndexPopulationRateLimiter(100,clock);
+        processWindows(limiter,clock,5,TimeUnit.MILLISECONDS.toNanos(1));
+        processWindows(limiter,clock,10,TimeUnit.MILLISECONDS.toNanos(10));
+        Assert.assertEquals("Rate should have been lowered",6L,limiter.getRowsPerSecond());
+
+        processWindows(limiter,clock,100,TimeUnit.MILLISECONDS.toNanos(10));
+        Assert.assertEquals("Rate should have recovered once the slower rows are the norm",100L,limiter.getRowsPerSecond());
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private void processWindows(IndexPopulationRateLimiter limiter,IncrementingClock clock,int windows,long rowCost) throws Exception{
+        for(int i=0;i<windows*10;i++){
+            clock.increment(rowCost);
+            limiter.acquire();
+        }
+    }
+}
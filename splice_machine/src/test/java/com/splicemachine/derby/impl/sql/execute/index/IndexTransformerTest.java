@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.index;
+
+import com.carrotsearch.hppc.BitSet;
+import com.splicemachine.SpliceKryoRegistry;
+import com.splicemachine.db.iapi.services.io.StoredFormatIds;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.SQLDate;
+import com.splicemachine.db.iapi.types.SQLDouble;
+import com.splicemachine.db.iapi.types.SQLInteger;
+import com.splicemachine.db.iapi.types.SQLVarchar;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.ddl.DDLMessage;
+import com.splicemachine.derby.utils.marshall.dvd.V2SerializerMap;
+import com.splicemachine.encoding.MultiFieldDecoder;
+import com.splicemachine.encoding.MultiFieldEncoder;
+import com.splicemachine.kvpair.KVPair;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import com.splicemachine.storage.EntryAccumulator;
+import com.splicemachine.storage.EntryDecoder;
+import com.splicemachine.storage.EntryEncoder;
+import com.splicemachine.storage.EntryPredicateFilter;
+import com.splicemachine.storage.index.BitIndex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for the index row layout produced by {@link IndexTransformer}.
+ */
+@Category(ArchitectureIndependent.class)
+public class IndexTransformerTest{
+    private static final byte[] BASE_ROW_KEY = new byte[]{0x01,0x02,0x03};
+
+    @Test
+    public void keyOnlyIndexStoresRowLocationInValue() throws Exception{
+        // index on (a, c)
+        IndexTransformer transformer = new IndexTransformer(tentativeIndex(2));
+        KVPair indexRow = transformer.translate(baseRow(5,"hello",7));
+
+        MultiFieldDecoder keyDecoder = MultiFieldDecoder.wrap(indexRow.getRowKey());
+        Assert.assertEquals("Incorrect first key column",5,keyDecoder.decodeNextInt());
+        Assert.assertEquals("Incorrect second key column",7,keyDecoder.decodeNextInt());
+        Assert.assertArrayEquals("Incorrect row location in key",BASE_ROW_KEY,keyDecoder.decodeNextBytesUnsorted());
+
+        EntryDecoder valueDecoder = new EntryDecoder();
+        valueDecoder.set(indexRow.getValue());
+        BitIndex index = valueDecoder.getCurrentIndex();
+        Assert.assertEquals("Value should only hold the row location",1,index.cardinality());
+        Assert.assertTrue("Row location should follow the index columns",index.isSet(2));
+        Assert.assertArrayEquals("Incorrect row location in value",BASE_ROW_KEY,
+                valueDecoder.getEntryDecoder().decodeNextBytesUnsorted());
+    }
+
+    @Test
+    public void includedColumnsAreStoredInValue() throws Exception{
+        // index on (a) include (c)
+        IndexTransformer transformer = new IndexTransformer(tentativeIndex(1));
+        KVPair indexRow = transformer.translate(baseRow(5,"hello",7));
+
+        MultiFieldDecoder keyDecoder = MultiFieldDecoder.wrap(indexRow.getRowKey());
+        Assert.assertEquals("Incorrect key column",5,keyDecoder.decodeNextInt());
+        Assert.assertArrayEquals("Included column must not be part of the key",BASE_ROW_KEY,keyDecoder.decodeNextBytesUnsorted());
+        Assert.assertFalse("Unexpected trailing key data",keyDecoder.available());
+
+        EntryDecoder valueDecoder = new EntryDecoder();
+        valueDecoder.set(indexRow.getValue());
+        BitIndex index = valueDecoder.getCurrentIndex();
+        Assert.assertEquals("Incorrect value fields",2,index.cardinality());
+        Assert.assertTrue("Included column should be in the value",index.isSet(1));
+        Assert.assertTrue("Included column should be typed as scalar",index.isScalarType(1));
+        Assert.assertTrue("Row location should follow the included columns",index.isSet(2));
+        MultiFieldDecoder fieldDecoder = valueDecoder.getEntryDecoder();
+        Assert.assertEquals("Incorrect included column",7,fieldDecoder.decodeNextInt());
+        Assert.assertArrayEquals("Incorrect row location in value",BASE_ROW_KEY,fieldDecoder.decodeNextBytesUnsorted());
+    }
+
+    @Test
+    public void nullIncludedColumnsAreWrittenAsNulls() throws Exception{
+        // index on (a) include (c)
+        IndexTransformer transformer = new IndexTransformer(tentativeIndex(1));
+        transformer.translate(baseRow(5,"hello",7));
+        KVPair indexRow = transformer.translate(baseRow(6,"world",null));
+
+        MultiFieldDecoder keyDecoder = MultiFieldDecoder.wrap(indexRow.getRowKey());
+        Assert.assertEquals("Incorrect key column",6,keyDecoder.decodeNextInt());
+
+        EntryDecoder valueDecoder = new EntryDecoder();
+        valueDecoder.set(indexRow.getValue());
+        BitIndex index = valueDecoder.getCurrentIndex();
+        Assert.assertEquals("Incorrect value fields",2,index.cardinality());
+        Assert.assertTrue("Null included column should be written",index.isSet(1));
+        MultiFieldDecoder fieldDecoder = valueDecoder.getEntryDecoder();
+        Assert.assertTrue("Included column should be null",valueDecoder.seekForward(fieldDecoder,1));
+        Assert.assertArrayEquals("Incorrect row location in value",BASE_ROW_KEY,fieldDecoder.decodeNextBytesUnsorted());
+    }
+
+    @Test
+    public void updatingIncludedColumnToNullMasksOldValue() throws Exception{
+        // index on (a) include (c)
+        IndexTransformer transformer = new IndexTransformer(tentativeIndex(1));
+        KVPair inserted = transformer.translate(baseRow(5,"hello",7));
+        // UPDATE t SET c = NULL keeps the index key, so the index row is rewritten in place
+        KVPair updated = transformer.translate(nullingUpdate(5,"hello"));
+        Assert.assertArrayEquals("Index key should not change",inserted.getRowKey(),updated.getRowKey());
+
+        // merge the versions of the index row, newest first, the way transactional reads do
+        EntryPredicateFilter predicateFilter = EntryPredicateFilter.emptyPredicate();
+        EntryAccumulator accumulator = predicateFilter.newAccumulator();
+        EntryDecoder versionDecoder = new EntryDecoder();
+        for(KVPair version:new KVPair[]{updated,inserted}){
+            versionDecoder.set(version.getValue());
+            Assert.assertTrue(predicateFilter.match(versionDecoder,accumulator));
+        }
+
+        EntryDecoder valueDecoder = new EntryDecoder();
+        valueDecoder.set(accumulator.finish());
+        Assert.assertTrue("Included column should be read",valueDecoder.getCurrentIndex().isSet(1));
+        MultiFieldDecoder fieldDecoder = valueDecoder.getEntryDecoder();
+        Assert.assertTrue("Included column should read back as null",valueDecoder.seekForward(fieldDecoder,1));
+        Assert.assertArrayEquals("Incorrect row location in value",BASE_ROW_KEY,fieldDecoder.decodeNextBytesUnsorted());
+    }
+
+    @Test
+    public void decodesRowsInPlaceFromTheWriteBuffer() throws Exception{
+        // index on (a) include (c), over rows laid out back to back in one buffer, as in a decoded write request
+        KVPair[] rows = new KVPair[]{baseRow(5,"hello",7), nullingUpdate(6,"world"), baseRow(8,"!",null)};
+        byte[] buffer = new byte[256];
+        Arrays.fill(buffer,(byte)0x7F);
+        KVPair[] sliced = new KVPair[rows.length];
+        int offset = 1;
+        for(int i=0;i<rows.length;i++){
+            byte[] key = rows[i].getRowKey();
+            byte[] value = rows[i].getValue();
+            System.arraycopy(key,0,buffer,offset,key.length);
+            System.arraycopy(value,0,buffer,offset+key.length+1,value.length);
+            sliced[i] = new KVPair(buffer,offset,key.length,buffer,offset+key.length+1,value.length,rows[i].getType());
+            offset += key.length+value.length+3;
+        }
+
+        IndexTransformer copying = new IndexTransformer(tentativeIndex(1));
+        IndexTransformer inPlace = new IndexTransformer(tentativeIndex(1));
+        BitSet included = new BitSet();
+        included.set(2);
+        for(int i=0;i<rows.length;i++){
+            KVPair expected = copying.translate(rows[i]);
+            KVPair actual = inPlace.translate(sliced[i]);
+            Assert.assertArrayEquals("Incorrect index key of row "+i,expected.getRowKey(),actual.getRowKey());
+            Assert.assertArrayEquals("Incorrect index value of row "+i,expected.getValue(),actual.getValue());
+            Assert.assertEquals("Incorrect modified check of row "+i,
+                    copying.areIndexKeysModified(rows[i],included),inPlace.areIndexKeysModified(sliced[i],included));
+        }
+    }
+
+    @Test
+    public void bufferedIndexRowsMatchDirectlyWrittenOnes() throws Exception{
+        int integer = StoredFormatIds.SQL_INTEGER_ID;
+        int varchar = StoredFormatIds.SQL_VARCHAR_ID;
+        assertBufferedIndexRowsMatch(tentativeIndex(2),integer,integer);
+        assertBufferedIndexRowsMatch(tentativeIndex(1),integer,integer);
+        assertBufferedIndexRowsMatch(includingIndex(StoredFormatIds.SQL_DOUBLE_ID),integer,varchar,StoredFormatIds.SQL_DOUBLE_ID);
+        // dates are scalars which can't be batched, the transformer writes them one row at a time
+        assertBufferedIndexRowsMatch(includingIndex(StoredFormatIds.SQL_DATE_ID),integer,varchar,StoredFormatIds.SQL_DATE_ID);
+    }
+
+    /*private helper methods*/
+
+    /**
+     * Populate the index with rows of the given index column types, both through writeDirectIndex() and through
+     * bufferDirectIndex()/flushDirectIndex(), and check both produce the same rows.
+     */
+    private static void assertBufferedIndexRowsMatch(DDLMessage.TentativeIndex tentativeIndex,int... formatIds) throws Exception{
+        IndexTransformer direct = new IndexTransformer(tentativeIndex);
+        IndexTransformer buffered = new IndexTransformer(tentativeIndex);
+        List<KVPair> expected = new ArrayList<>();
+        List<KVPair> actual = new ArrayList<>();
+        for(int i=0;i<600;i++){
+            ExecRow row = new ValueRow(formatIds.length);
+            for(int col=0;col<formatIds.length;col++){
+                // leave some of the columns after the first null
+                boolean isNull = col>0 && i%(col+4)==0;
+                DataValueDescriptor dvd;
+                switch(formatIds[col]){
+                    case StoredFormatIds.SQL_VARCHAR_ID:
+                        dvd = isNull? new SQLVarchar(): new SQLVarchar("row "+i);
+                        break;
+                    case StoredFormatIds.SQL_DOUBLE_ID:
+                        dvd = isNull? new SQLDouble(): new SQLDouble(i*1.5d);
+                        break;
+                    case StoredFormatIds.SQL_DATE_ID:
+                        dvd = isNull? new SQLDate(): new SQLDate(new Date(86400000L*i));
+                        break;
+                    default:
+                        dvd = isNull? new SQLInteger(): new SQLInteger(col==0? i: -i);
+                }
+                row.setColumn(col+1,dvd);
+            }
+            row.setKey(Bytes.toBytes(i));
+            KVPair indexRow = direct.writeDirectIndex(row);
+            if(indexRow!=null)
+                expected.add(indexRow);
+            if(buffered.bufferDirectIndex(row))
+                buffered.flushDirectIndex(actual);
+        }
+        buffered.flushDirectIndex(actual);
+
+        Assert.assertEquals("Incorrect number of index rows",expected.size(),actual.size());
+        for(int i=0;i<expected.size();i++){
+            Assert.assertArrayEquals("Incorrect index key of row "+i,expected.get(i).getRowKey(),actual.get(i).getRowKey());
+            Assert.assertArrayEquals("Incorrect index value of row "+i,expected.get(i).getValue(),actual.get(i).getValue());
+        }
+    }
+
+    /**
+     * A non-unique index over (a int, b varchar, c int, d) on column a, including b and d.
+     */
+    private static DDLMessage.TentativeIndex includingIndex(int dFormatId){
+        DDLMessage.Index index = DDLMessage.Index.newBuilder()
+                .setConglomerate(1584L)
+                .addIndexColsToMainColMap(1)
+                .addIndexColsToMainColMap(2)
+                .addIndexColsToMainColMap(4)
+                .addDescColumns(false)
+                .addDescColumns(false)
+                .addDescColumns(false)
+                .setUnique(false)
+                .setNumberOfOrderedColumns(1)
+                .build();
+        DDLMessage.Table table = DDLMessage.Table.newBuilder()
+                .setConglomerate(1552L)
+                .addFormatIds(StoredFormatIds.SQL_INTEGER_ID)
+                .addFormatIds(StoredFormatIds.SQL_VARCHAR_ID)
+                .addFormatIds(StoredFormatIds.SQL_INTEGER_ID)
+                .addFormatIds(dFormatId)
+                .setTableVersion(V2SerializerMap.VERSION)
+                .build();
+        return DDLMessage.TentativeIndex.newBuilder().setIndex(index).setTable(table).build();
+    }
+
+    /**
+     * A non-unique index over (a int, b varchar, c int) on columns a and c, of which the first
+     * {@code numberOfOrderedColumns} form the key.
+     */
+    private static DDLMessage.TentativeIndex tentativeIndex(int numberOfOrderedColumns){
+        DDLMessage.Index index = DDLMessage.Index.newBuilder()
+                .setConglomerate(1568L)
+                .addIndexColsToMainColMap(1)
+                .addIndexColsToMainColMap(3)
+                .addDescColumns(false)
+                .addDescColumns(false)
+                .setUnique(false)
+                .setNumberOfOrderedColumns(numberOfOrderedColumns)
+                .build();
+        DDLMessage.Table table = DDLMessage.Table.newBuilder()
+                .setConglomerate(1552L)
+                .addFormatIds(StoredFormatIds.SQL_INTEGER_ID)
+                .addFormatIds(StoredFormatIds.SQL_VARCHAR_ID)
+                .addFormatIds(StoredFormatIds.SQL_INTEGER_ID)
+                .setTableVersion(V2SerializerMap.VERSION)
+                .build();
+        return DDLMessage.TentativeIndex.newBuilder().setIndex(index).setTable(table).build();
+    }
+
+    /**
+     * An update of every column of the row which sets c to null, encoded with an explicit null the way updates are.
+     */
+    private static KVPair nullingUpdate(int a,String b) throws Exception{
+        BitSet setCols = new BitSet();
+        setCols.set(0,3);
+        BitSet scalarFields = new BitSet();
+        scalarFields.set(0);
+        scalarFields.set(2);
+        EntryEncoder encoder = EntryEncoder.create(SpliceKryoRegistry.getInstance(),3,setCols,scalarFields,new BitSet(),new BitSet());
+        encoder.getEntryEncoder().encodeNext(a).encodeNext(b).encodeEmpty();
+        return new KVPair(BASE_ROW_KEY,encoder.encode(),KVPair.Type.UPDATE);
+    }
+
+    private static KVPair baseRow(int a,String b,Integer c) throws Exception{
+        BitSet setCols = new BitSet();
+        setCols.set(0);
+        setCols.set(1);
+        if(c!=null)
+            setCols.set(2);
+        BitSet scalarFields = new BitSet();
+        scalarFields.set(0);
+        scalarFields.set(2);
+        EntryEncoder encoder = EntryEncoder.create(SpliceKryoRegistry.getInstance(),3,setCols,scalarFields,new BitSet(),new BitSet());
+        MultiFieldEncoder fieldEncoder = encoder.getEntryEncoder();
+        fieldEncoder.encodeNext(a).encodeNext(b);
+        if(c!=null)
+            fieldEncoder.encodeNext(c.intValue());
+        return new KVPair(BASE_ROW_KEY,encoder.encode(),KVPair.Type.INSERT);
+    }
+}
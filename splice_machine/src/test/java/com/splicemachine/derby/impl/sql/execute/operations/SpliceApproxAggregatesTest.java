@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations;
+
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+@Category(ArchitectureIndependent.class)
+public class SpliceApproxAggregatesTest {
+
+    @Test
+    public void countDistinctMergesPartialResults() throws Exception {
+        SpliceApproxCountDistinct<String> first = new SpliceApproxCountDistinct<>();
+        SpliceApproxCountDistinct<String> second = new SpliceApproxCountDistinct<>();
+        first.init();
+        second.init();
+        for (int i = 0; i < 60000; i++) {
+            first.accumulate(Integer.toString(i));
+            // overlaps the first half with the second
+            second.accumulate(Integer.toString(i + 30000));
+        }
+        first.merge(roundTrip(second));
+        long estimate = roundTrip(first).terminate();
+        Assert.assertEquals(90000, estimate, 90000 * 0.03);
+    }
+
+    @Test
+    public void countDistinctOfNothingIsZero() throws Exception {
+        SpliceApproxCountDistinct<String> agg = new SpliceApproxCountDistinct<>();
+        agg.init();
+        Assert.assertEquals(0L, (long) roundTrip(agg).terminate());
+    }
+
+    @Test
+    public void percentileMergesPartialResults() throws Exception {
+        SpliceApproxPercentile<Double> first = new SpliceApproxPercentile90<>();
+        SpliceApproxPercentile<Double> second = new SpliceApproxPercentile90<>();
+        first.init();
+        second.init();
+        for (int i = 0; i < 100000; i++) {
+            if (i % 2 == 0)
+                first.accumulate((double) i);
+            else
+                second.accumulate((double) i);
+        }
+        first.merge(roundTrip(second));
+        double p90 = roundTrip(first).terminate();
+        Assert.assertEquals(90000d, p90, 100000 * 0.01);
+    }
+
+    @Test
+    public void percentileOfNothingIsNull() throws Exception {
+        SpliceApproxPercentile<Double> agg = new SpliceApproxPercentile50<>();
+        agg.init();
+        Assert.assertNull(roundTrip(agg).terminate());
+    }
+
+    @Test
+    public void topKListsMostFrequentValuesFirst() throws Exception {
+        SpliceApproxTopK<String> first = new SpliceApproxTopK<>();
+        SpliceApproxTopK<String> second = new SpliceApproxTopK<>();
+        first.init();
+        second.init();
+        for (int i = 0; i < 300; i++) {
+            first.accumulate("a");
+            if (i < 200)
+                second.accumulate("b");
+            if (i < 100)
+                first.accumulate("c");
+        }
+        for (int i = 0; i < 5000; i++) {
+            second.accumulate("unique" + i);
+        }
+        first.merge(roundTrip(second));
+        String top = roundTrip(first).terminate();
+        Assert.assertTrue(top, top.startsWith("a="));
+        Assert.assertTrue(top, top.indexOf("b=") < top.indexOf("c="));
+        Assert.assertEquals(top, SpliceApproxTopK.TOP_K, top.split(", ").length);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Externalizable> T roundTrip(T agg) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(baos)) {
+            out.writeObject(agg);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+            return (T) in.readObject();
+        }
+    }
+}
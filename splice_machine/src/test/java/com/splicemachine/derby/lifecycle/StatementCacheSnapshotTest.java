@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.splicemachine.derby.lifecycle;
+
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@Category(ArchitectureIndependent.class)
+public class StatementCacheSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTrip() throws Exception {
+        StringBuilder longText = new StringBuilder("select * from t where ");
+        for (int i = 0; i < 20000; i++)
+            longText.append("a = 1 or ");
+        longText.append("a = 2");
+        StatementCacheSnapshot snapshot = StatementCacheSnapshot.merge(Arrays.asList(
+                new StatementCacheSnapshot.Entry("SPLICE", "select 1 from sys.sysschemas", true, 5),
+                new StatementCacheSnapshot.Entry("APP", longText.toString(), false, 7)), null, 10);
+        File file = new File(folder.getRoot(), "snapshot");
+        snapshot.write(file);
+
+        List<StatementCacheSnapshot.Entry> read = StatementCacheSnapshot.read(file).getEntries();
+        Assert.assertEquals(2, read.size());
+        Assert.assertEquals("APP", read.get(0).getSchema());
+        Assert.assertEquals(longText.toString(), read.get(0).getText());
+        Assert.assertFalse(read.get(0).isForReadOnly());
+        Assert.assertEquals(7, read.get(0).getExecutionCount());
+        Assert.assertEquals("select 1 from sys.sysschemas", read.get(1).getText());
+        Assert.assertTrue(read.get(1).isForReadOnly());
+    }
+
+    @Test
+    public void missingFileHasNoSnapshot() throws Exception {
+        Assert.assertNull(StatementCacheSnapshot.read(new File(folder.getRoot(), "none")));
+    }
+
+    @Test
+    public void uncachedStatementsDecay() {
+        StatementCacheSnapshot previous = new StatementCacheSnapshot(Arrays.asList(
+                new StatementCacheSnapshot.Entry("APP", "q1", true, 100),
+                new StatementCacheSnapshot.Entry("APP", "q2", true, 80)));
+        StatementCacheSnapshot merged = StatementCacheSnapshot.merge(Arrays.asList(
+                new StatementCacheSnapshot.Entry("APP", "q2", true, 90),
+                new StatementCacheSnapshot.Entry("APP", "q3", true, 60)), previous, 10);
+
+        List<StatementCacheSnapshot.Entry> entries = merged.getEntries();
+        Assert.assertEquals(3, entries.size());
+        Assert.assertEquals("q2", entries.get(0).getText());
+        Assert.assertEquals(90, entries.get(0).getExecutionCount());
+        Assert.assertEquals("q3", entries.get(1).getText());
+        Assert.assertEquals("q1", entries.get(2).getText());
+        Assert.assertEquals(50, entries.get(2).getExecutionCount());
+    }
+
+    @Test
+    public void keepsMostFrequentEntries() {
+        StatementCacheSnapshot merged = StatementCacheSnapshot.merge(Arrays.asList(
+                new StatementCacheSnapshot.Entry("APP", "q1", true, 1),
+                new StatementCacheSnapshot.Entry("APP", "q2", true, 3),
+                new StatementCacheSnapshot.Entry("APP", "q2", false, 2)), null, 2);
+        Assert.assertEquals(2, merged.getEntries().size());
+        Assert.assertEquals("q2", merged.getEntries().get(0).getText());
+        Assert.assertTrue(merged.getEntries().get(0).isForReadOnly());
+        Assert.assertFalse(merged.getEntries().get(1).isForReadOnly());
+        Assert.assertTrue(StatementCacheSnapshot.merge(Collections.<StatementCacheSnapshot.Entry>emptyList(), null, 2)
+                .getEntries().isEmpty());
+    }
+}
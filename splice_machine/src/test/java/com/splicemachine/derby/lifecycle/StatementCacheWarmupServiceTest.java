@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.splicemachine.derby.lifecycle;
+
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+
+@Category(ArchitectureIndependent.class)
+public class StatementCacheWarmupServiceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void eachServerGetsItsOwnPrivateDirectory() throws Exception {
+        String base = new File(folder.getRoot(), "statement_cache").getPath();
+        File first = StatementCacheWarmupService.snapshotDirectory(base, "host1.example.com:16020");
+        File second = StatementCacheWarmupService.snapshotDirectory(base, "host1.example.com:16021");
+
+        Assert.assertNotNull(first);
+        Assert.assertNotNull(second);
+        Assert.assertNotEquals("Servers on the same host must not share a snapshot", first, second);
+        Assert.assertEquals("Incorrect directory", new File(base, "host1.example.com_16020"), first);
+        Assert.assertTrue(first.isDirectory());
+        Assert.assertEquals("Snapshot directory should only be accessible to the server's user",
+                "rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(first.toPath())));
+    }
+
+    @Test
+    public void existingDirectoryIsRestricted() throws Exception {
+        File existing = folder.newFolder("statement_cache", "host2_16020");
+        Files.setPosixFilePermissions(existing.toPath(), PosixFilePermissions.fromString("rwxrwxrwx"));
+
+        File dir = StatementCacheWarmupService.snapshotDirectory(existing.getParent(), "host2:16020");
+        Assert.assertEquals(existing, dir);
+        Assert.assertEquals("Snapshot directory should only be accessible to the server's user",
+                "rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(dir.toPath())));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.lifecycle;
+
+import com.splicemachine.db.impl.sql.catalog.SYSTABLESTATISTICSRowFactory;
+import com.splicemachine.kvpair.KVPair;
+import com.splicemachine.pipeline.PartitionMutationCounter;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Arrays;
+
+@Category(ArchitectureIndependent.class)
+public class StatisticsRefreshServiceTest {
+
+    @Test
+    public void staleOnceRatioIsExceeded() {
+        Assert.assertFalse(StatisticsRefreshService.isStale(19999, 100000, 0.2));
+        Assert.assertTrue(StatisticsRefreshService.isStale(20000, 100000, 0.2));
+    }
+
+    @Test
+    public void smallPartitionsNeedMinimumChanges() {
+        Assert.assertFalse(StatisticsRefreshService.isStale(StatisticsRefreshService.MIN_MUTATIONS - 1, 10, 0.2));
+        Assert.assertTrue(StatisticsRefreshService.isStale(StatisticsRefreshService.MIN_MUTATIONS, 10, 0.2));
+        Assert.assertTrue(StatisticsRefreshService.isStale(StatisticsRefreshService.MIN_MUTATIONS, 0, 0.2));
+    }
+
+    @Test
+    public void stalePartitionsOfNonMergedStatisticsAreCollectedOnTheirOwn() {
+        StatisticsRefreshService.TableStatistics stats = statistics(SYSTABLESTATISTICSRowFactory.REGULAR_NONMERGED_STATS, "p1", "p2");
+        Assert.assertTrue(StatisticsRefreshService.collectPartitions(stats, Arrays.asList("p2")));
+        Assert.assertEquals(200, stats.rowCount);
+        Assert.assertEquals(100, stats.rowsPerPartition());
+        stats = statistics(SYSTABLESTATISTICSRowFactory.SAMPLE_NONMERGED_STATS, "p1", "p2");
+        Assert.assertTrue(StatisticsRefreshService.collectPartitions(stats, Arrays.asList("p1", "p2")));
+    }
+
+    @Test
+    public void mergedStatisticsAreCollectedForTheTable() {
+        StatisticsRefreshService.TableStatistics stats = statistics(SYSTABLESTATISTICSRowFactory.REGULAR_MERGED_STATS, "-All-");
+        Assert.assertFalse(StatisticsRefreshService.collectPartitions(stats, Arrays.asList("p1")));
+        stats = statistics(SYSTABLESTATISTICSRowFactory.SAMPLE_MERGED_STATS, "-All-");
+        Assert.assertFalse(StatisticsRefreshService.collectPartitions(stats, Arrays.asList("p1")));
+    }
+
+    @Test
+    public void partitionsWithoutStatisticsAreCollectedForTheTable() {
+        StatisticsRefreshService.TableStatistics stats = statistics(SYSTABLESTATISTICSRowFactory.REGULAR_NONMERGED_STATS, "p1", "p2");
+        Assert.assertFalse(StatisticsRefreshService.collectPartitions(stats, Arrays.asList("p2", "p3")));
+    }
+
+    @Test
+    public void counterTracksChangesSinceCollection() {
+        PartitionMutationCounter counter = new PartitionMutationCounter();
+        counter.record(KVPair.Type.INSERT);
+        counter.record(KVPair.Type.UPSERT);
+        counter.record(KVPair.Type.UPDATE);
+        counter.record(KVPair.Type.DELETE);
+        counter.record(KVPair.Type.CANCEL);
+        counter.record(KVPair.Type.EMPTY_COLUMN);
+        Assert.assertEquals(2, counter.getInserts());
+        Assert.assertEquals(1, counter.getUpdates());
+        Assert.assertEquals(1, counter.getDeletes());
+        Assert.assertEquals(4, counter.getMutationsSinceCollection());
+
+        counter.markCollected(42L);
+        Assert.assertEquals(42L, counter.getCollectedTime());
+        Assert.assertEquals(0, counter.getMutationsSinceCollection());
+        counter.record(KVPair.Type.DELETE);
+        Assert.assertEquals(1, counter.getMutationsSinceCollection());
+        Assert.assertEquals(5, counter.getMutations());
+    }
+
+    private static StatisticsRefreshService.TableStatistics statistics(int statsType, String... partitions) {
+        StatisticsRefreshService.TableStatistics stats = new StatisticsRefreshService.TableStatistics("S", "T", statsType, 0.0d);
+        for (String partition : partitions) {
+            stats.addPartition(partition, 100, 1, 42L);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.function;
+
+import com.splicemachine.db.iapi.services.io.StoredFormatIds;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.SQLInteger;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.ddl.DDLMessage;
+import com.splicemachine.derby.utils.marshall.dvd.V2SerializerMap;
+import com.splicemachine.kvpair.KVPair;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+@Category(ArchitectureIndependent.class)
+public class IndexTransformPartitionFunctionTest {
+
+    @Test
+    public void buildsSameIndexRowsAsRowByRowTransform() throws Exception {
+        // index on (c) include (a), excluding nulls, over (a int, b varchar, c int)
+        DDLMessage.Index index = DDLMessage.Index.newBuilder()
+                .setConglomerate(1568L)
+                .addIndexColsToMainColMap(3)
+                .addIndexColsToMainColMap(1)
+                .addDescColumns(false)
+                .addDescColumns(false)
+                .setUnique(false)
+                .setExcludeNulls(true)
+                .setNumberOfOrderedColumns(1)
+                .build();
+        DDLMessage.Table table = DDLMessage.Table.newBuilder()
+                .setConglomerate(1552L)
+                .addFormatIds(StoredFormatIds.SQL_INTEGER_ID)
+                .addFormatIds(StoredFormatIds.SQL_VARCHAR_ID)
+                .addFormatIds(StoredFormatIds.SQL_INTEGER_ID)
+                .setTableVersion(V2SerializerMap.VERSION)
+                .build();
+        DDLMessage.TentativeIndex tentativeIndex = DDLMessage.TentativeIndex.newBuilder().setIndex(index).setTable(table).build();
+
+        IndexTransformFunction rowFunction = new IndexTransformFunction(tentativeIndex);
+        List<KVPair> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            KVPair indexRow = rowFunction.call(baseRow(new ValueRow(2), i));
+            if (indexRow != null)
+                expected.add(indexRow);
+        }
+
+        // scans hand out the same row over and over
+        final ExecRow scanRow = new ValueRow(2);
+        Iterator<ExecRow> baseRows = new Iterator<ExecRow>() {
+            private int i;
+
+            @Override public boolean hasNext() { return i < 1000; }
+
+            @Override public ExecRow next() { return baseRow(scanRow, i++); }
+
+            @Override public void remove() { throw new UnsupportedOperationException(); }
+        };
+        List<KVPair> actual = new ArrayList<>();
+        Iterator<KVPair> indexRows = new IndexTransformPartitionFunction(tentativeIndex).call(baseRows);
+        while (indexRows.hasNext()) {
+            actual.add(indexRows.next());
+        }
+
+        Assert.assertEquals("Incorrect number of index rows", expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertArrayEquals("Incorrect index key of row " + i, expected.get(i).getRowKey(), actual.get(i).getRowKey());
+            Assert.assertArrayEquals("Incorrect index value of row " + i, expected.get(i).getValue(), actual.get(i).getValue());
+        }
+    }
+
+    /*
+     * The indexed columns (a, c) of a base row, in table order. A run of rows longer than a buffer has a null c,
+     * which excludes them from the index.
+     */
+    private static ExecRow baseRow(ExecRow row, int i) {
+        row.setColumn(1, i % 3 == 0 ? new SQLInteger() : new SQLInteger(i));
+        row.setColumn(2, i >= 300 && i < 700 ? new SQLInteger() : new SQLInteger(-i));
+        row.setKey(Bytes.toBytes(i));
+        return row;
+    }
+}
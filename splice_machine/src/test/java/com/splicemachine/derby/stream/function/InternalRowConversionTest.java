@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.function;
+
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.*;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.derby.impl.sql.execute.operations.scanner.SITableScanner;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.Decimal;
+import org.apache.spark.sql.types.StructType;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+
+@Category(ArchitectureIndependent.class)
+public class InternalRowConversionTest{
+
+    private static ExecRow template() throws Exception{
+        ValueRow row=new ValueRow(6);
+        row.setRowArray(new DataValueDescriptor[]{
+                new SQLInteger(),new SQLLongint(),new SQLVarchar(),new SQLDecimal(null,10,2),new SQLDate(),new SQLTimestamp()
+        });
+        return row;
+    }
+
+    private static ExecRow sample() throws Exception{
+        ExecRow row=template().getNewNullRow();
+        row.getColumn(1).setValue(42);
+        row.getColumn(2).setValue(Long.MAX_VALUE);
+        row.getColumn(3).setValue("splice");
+        row.getColumn(4).setBigDecimal(new BigDecimal("12.34"));
+        row.getColumn(5).setValue(Date.valueOf("2017-03-14"));
+        row.getColumn(6).setValue(Timestamp.valueOf("2017-03-14 01:02:03.456"),null);
+        return row;
+    }
+
+    @Test
+    public void viewMatchesCatalystValues() throws Exception{
+        ExecRow row=sample();
+        StructType schema=row.schema();
+        InternalRow internal=new ExecRowToInternalRowFunction(schema).call(row);
+
+        Assert.assertEquals(6,internal.numFields());
+        Assert.assertEquals(42,internal.getInt(0));
+        Assert.assertEquals(Long.MAX_VALUE,internal.getLong(1));
+        Assert.assertEquals("splice",internal.getUTF8String(2).toString());
+        Assert.assertEquals(Decimal.apply(new BigDecimal("12.34")),internal.getDecimal(3,10,2));
+        Assert.assertEquals(DataTypes.DateType,schema.fields()[4].dataType());
+        Assert.assertEquals(Date.valueOf("2017-03-14"),
+                org.apache.spark.sql.catalyst.util.DateTimeUtils.toJavaDate(internal.getInt(4)));
+        Assert.assertEquals(Timestamp.valueOf("2017-03-14 01:02:03.456"),
+                org.apache.spark.sql.catalyst.util.DateTimeUtils.toJavaTimestamp(internal.getLong(5)));
+        Assert.assertFalse(internal.anyNull());
+    }
+
+    @Test
+    public void nullsAreVisibleThroughTheView() throws Exception{
+        ExecRow row=template().getNewNullRow();
+        InternalRow internal=new ExecRowToInternalRowFunction(row.schema()).call(row);
+        for(int i=0;i<internal.numFields();i++){
+            Assert.assertTrue(internal.isNullAt(i));
+        }
+        Assert.assertTrue(internal.anyNull());
+        Assert.assertNull(internal.copy().get(2,DataTypes.StringType));
+    }
+
+    @Test
+    public void roundTripsThroughCatalystRows() throws Exception{
+        ExecRow row=sample();
+        StructType schema=row.schema();
+        // copy() materializes the view as a GenericInternalRow, like the rows of a Spark plan
+        InternalRow internal=new ExecRowToInternalRowFunction(schema).call(row).copy();
+        ExecRow back=new InternalRowToExecRowFunction(null,template(),schema).call(internal);
+        for(int i=1;i<=row.nColumns();i++){
+            Assert.assertEquals("column "+i,row.getColumn(i),back.getColumn(i));
+        }
+    }
+
+    @Test
+    public void roundTripsNulls() throws Exception{
+        ExecRow row=template().getNewNullRow();
+        StructType schema=row.schema();
+        InternalRow internal=new ExecRowToInternalRowFunction(schema).call(row).copy();
+        ExecRow back=new InternalRowToExecRowFunction(null,template(),schema).call(internal);
+        for(int i=1;i<=back.nColumns();i++){
+            Assert.assertTrue("column "+i,back.getColumn(i).isNull());
+        }
+    }
+
+    @Test
+    public void columnarReadsSetThePartitionAsRegion() throws Exception{
+        ExecRow row=sample();
+        StructType schema=row.schema();
+        InternalRow internal=new ExecRowToInternalRowFunction(schema).call(row).copy();
+        SITableScanner.regionId.set("not a partition");
+        new InternalRowToExecRowFunction(null,template(),schema).call(internal);
+        // outside of a Spark task the partition id is 0
+        Assert.assertEquals("0",SITableScanner.regionId.get());
+        SITableScanner.regionId.remove();
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.function;
+
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.SQLDate;
+import com.splicemachine.db.iapi.types.SQLInteger;
+import com.splicemachine.db.iapi.types.SQLLongint;
+import com.splicemachine.db.iapi.types.SQLSmallint;
+import com.splicemachine.db.iapi.types.SQLTimestamp;
+import com.splicemachine.db.iapi.types.SQLVarchar;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.derby.stream.utils.BooleanList;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.supercsv.exception.SuperCsvException;
+import org.supercsv.prefs.CsvPreference;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+@Category(ArchitectureIndependent.class)
+public class Utf8CsvTokenizerTest{
+    private static final CsvPreference PREFERENCE=new CsvPreference.Builder('"',',',"\n").maxLinesPerRow(0).build();
+
+    @Test
+    public void tokenizesLikeQuoteTrackingTokenizer() throws Exception{
+        String[] inputs={
+                "hello,goodbye,parseThis!,boots\n",
+                "\"hello\",goodbye,parseThis!,boots\n",
+                "\"hello\",goodbye,parseThis!,\"boots\nmagoo\"",
+                "a,,\"\",\"say \"\"hi\"\"\",  spaced  ,\"x\"y,z\"w\"\n",
+                "first,row\n\n\nsecond,row\r\nthird,\"row\r\nwith break\"\rfourth\n",
+                "naïve,日本語,\"déjà, vu\",€\n",
+                "a rather long first column to make the word at a time scan skip a few words,b,\"and a long quoted one, with a comma\"\n",
+                "no,trailing,newline"
+        };
+        for(String input : inputs){
+            Assert.assertEquals(input,tokenizeWithSuperCsv(input),tokenizeBytes(input,false));
+            Assert.assertEquals(input,tokenizeWithSuperCsv(input),tokenizeBytes(input,true));
+        }
+    }
+
+    @Test
+    public void tokenizesRowsLargerThanTheBuffer() throws Exception{
+        char[] chars=new char[200000];
+        Arrays.fill(chars,'x');
+        String big=new String(chars);
+        String input="a,\""+big+"\"\n"+big+",b\n";
+        Assert.assertEquals(tokenizeWithSuperCsv(input),tokenizeBytes(input,true));
+    }
+
+    @Test
+    public void tokenizesSingleLines() throws Exception{
+        Utf8CsvTokenizer tokenizer=new Utf8CsvTokenizer('"',',',1);
+        byte[] line="1,\"two\",,null".getBytes(StandardCharsets.UTF_8);
+        tokenizer.reset(line,0,line.length);
+        Assert.assertTrue(tokenizer.readRow());
+        Assert.assertEquals(Arrays.asList("1","two",null,"null"),tokenizer.getColumns());
+        Assert.assertEquals(BooleanList.wrap(false,true,false,false),tokenizer.getQuotedColumns());
+        Assert.assertFalse(tokenizer.readRow());
+
+        byte[] empty=new byte[0];
+        tokenizer.reset(empty,0,0);
+        Assert.assertFalse(tokenizer.readRow());
+    }
+
+    @Test(expected=SuperCsvException.class)
+    public void rejectsUnclosedQuoteOnSingleLine() throws Exception{
+        Utf8CsvTokenizer tokenizer=new Utf8CsvTokenizer('"',',',1);
+        byte[] line="1,\"two".getBytes(StandardCharsets.UTF_8);
+        tokenizer.reset(line,0,line.length);
+        tokenizer.readRow();
+    }
+
+    @Test
+    public void limitsLinesOfQuotedColumns() throws Exception{
+        Utf8CsvTokenizer tokenizer=new Utf8CsvTokenizer('"',',',2);
+        tokenizer.reset(new ByteArrayInputStream("a,\"b\nc\"\nd,\"e\nf\ng\"\n".getBytes(StandardCharsets.UTF_8)));
+        Assert.assertTrue(tokenizer.readRow());
+        Assert.assertEquals(Arrays.asList("a","b\nc"),tokenizer.getColumns());
+        try{
+            tokenizer.readRow();
+            Assert.fail("Expected the quoted column to span too many lines");
+        }catch(SuperCsvException expected){
+            Assert.assertTrue(expected.getMessage(),expected.getMessage().contains("max number of lines"));
+        }
+    }
+
+    @Test
+    public void parsesColumnsLikeTheStringPath() throws Exception{
+        String[] lines={
+                "1,-42,9000000000,2018-02-28,2018-02-28 13:14:15,hello",
+                "+1, 42,-9223372036854775808,2018-2-28,2018-02-28 13:14:15.5,\"\"",
+                "32767,2147483647,0,2016-02-29,2018-02-28 23:59:59.123456789,null",
+                "NULL,,\"1\",0001-01-01,2018-02-28-13.14.15.000001,\"null\""
+        };
+        for(String line : lines){
+            byte[] bytes=line.getBytes(StandardCharsets.UTF_8);
+            Utf8CsvTokenizer tokenizer=new Utf8CsvTokenizer('"',',',1);
+            tokenizer.reset(bytes,0,bytes.length);
+            Assert.assertTrue(tokenizer.readRow());
+            ExecRow fromBytes=AbstractFileFunction.getRow(tokenizer,null,template(),new GregorianCalendar(),null,null,null);
+
+            MutableCSVTokenizer stringTokenizer=new MutableCSVTokenizer(new StringReader(line),PREFERENCE);
+            stringTokenizer.setLine(line);
+            List<String> values=stringTokenizer.read();
+            ExecRow fromStrings=AbstractFileFunction.getRow(values,stringTokenizer.getQuotedColumns(),null,template(),
+                    new GregorianCalendar(),null,null,null);
+
+            Assert.assertArrayEquals(line,fromStrings.getRowArray(),fromBytes.getRowArray());
+        }
+    }
+
+    @Test
+    public void rejectsInvalidValuesLikeTheStringPath() throws Exception{
+        String[] lines={
+                "70000,1,1,2018-02-28,2018-02-28 13:14:15,a",
+                "1,1,1,2018-02-30,2018-02-28 13:14:15,a",
+                "1,1,1,2018-02-28,2018-02-28 25:14:15,a",
+                "1,1x,1,2018-02-28,2018-02-28 13:14:15,a"
+        };
+        for(String line : lines){
+            byte[] bytes=line.getBytes(StandardCharsets.UTF_8);
+            Utf8CsvTokenizer tokenizer=new Utf8CsvTokenizer('"',',',1);
+            tokenizer.reset(bytes,0,bytes.length);
+            Assert.assertTrue(tokenizer.readRow());
+            try{
+                AbstractFileFunction.getRow(tokenizer,null,template(),new GregorianCalendar(),null,null,null);
+                Assert.fail("Expected "+line+" to be rejected");
+            }catch(Exception expected){
+                // expected
+            }
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private static ExecRow template(){
+        ExecRow row=new ValueRow(6);
+        row.setRowArray(new DataValueDescriptor[]{new SQLSmallint(),new SQLInteger(),new SQLLongint(),
+                new SQLDate(),new SQLTimestamp(),new SQLVarchar()});
+        return row;
+    }
+
+    private static List<Object> tokenizeWithSuperCsv(String input) throws IOException{
+        QuoteTrackingTokenizer tokenizer=new QuoteTrackingTokenizer(new StringReader(input),PREFERENCE);
+        List<Object> rows=new ArrayList<>();
+        while(true){
+            List<String> columns=new ArrayList<>();
+            BooleanList quoted=new BooleanList();
+            if(!tokenizer.readColumns(columns,quoted))
+                return rows;
+            rows.add(columns);
+            rows.add(quoted);
+        }
+    }
+
+    private static List<Object> tokenizeBytes(String input,boolean trickle) throws IOException{
+        final byte[] bytes=input.getBytes(StandardCharsets.UTF_8);
+        InputStream in=new ByteArrayInputStream(bytes);
+        if(trickle){
+            // hand out a few bytes at a time, so that rows and escapes span reads
+            in=new ByteArrayInputStream(bytes){
+                @Override
+                public synchronized int read(byte[] b,int off,int len){
+                    return super.read(b,off,Math.min(len,3));
+                }
+            };
+        }
+        Utf8CsvTokenizer tokenizer=new Utf8CsvTokenizer('"',',',0);
+        tokenizer.reset(in);
+        List<Object> rows=new ArrayList<>();
+        while(tokenizer.readRow()){
+            rows.add(tokenizer.getColumns());
+            rows.add(tokenizer.getQuotedColumns());
+        }
+        return rows;
+    }
+}
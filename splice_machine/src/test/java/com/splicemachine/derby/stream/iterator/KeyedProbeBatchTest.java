@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.derby.stream.iterator;
+
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import com.splicemachine.utils.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@Category(ArchitectureIndependent.class)
+public class KeyedProbeBatchTest{
+
+    @Test
+    public void routesRowsToEveryProbeOfTheirRange() throws Exception{
+        KeyedProbeBatch<String> batch = new KeyedProbeBatch<>(Arrays.asList(
+                range("c","d"),
+                range("a","b"),
+                range("c","d")));
+        Assert.assertEquals("Incorrect scan ranges",2,batch.getScanRanges().size());
+        Assert.assertArrayEquals("Incorrect start key",Bytes.toBytes("a"),batch.getStartKey());
+        Assert.assertArrayEquals("Incorrect stop key",Bytes.toBytes("d"),batch.getStopKey());
+
+        batch.route(Bytes.toBytes("a1"),"a1");
+        batch.route(Bytes.toBytes("a2"),"a2");
+        batch.route(Bytes.toBytes("c1"),"c1");
+
+        Assert.assertEquals(Collections.singletonList("c1"),batch.getMatches(0));
+        Assert.assertEquals(Arrays.asList("a1","a2"),batch.getMatches(1));
+        Assert.assertEquals(Collections.singletonList("c1"),batch.getMatches(2));
+    }
+
+    @Test
+    public void mergesOverlappingRanges() throws Exception{
+        KeyedProbeBatch<String> batch = new KeyedProbeBatch<>(Arrays.asList(
+                range("ab","ac"),
+                range("a","b"),
+                range("x","")));
+        List<Pair<byte[],byte[]>> scanRanges = batch.getScanRanges();
+        Assert.assertEquals("Incorrect scan ranges",2,scanRanges.size());
+        Assert.assertArrayEquals(Bytes.toBytes("a"),scanRanges.get(0).getFirst());
+        Assert.assertArrayEquals(Bytes.toBytes("b"),scanRanges.get(0).getSecond());
+        Assert.assertArrayEquals(Bytes.toBytes("x"),scanRanges.get(1).getFirst());
+        Assert.assertEquals("Stop key should be unbounded",0,batch.getStopKey().length);
+
+        batch.route(Bytes.toBytes("aa"),"aa");
+        batch.route(Bytes.toBytes("abc"),"abc");
+        batch.route(Bytes.toBytes("zz"),"zz");
+
+        Assert.assertEquals(Collections.singletonList("abc"),batch.getMatches(0));
+        Assert.assertEquals(Arrays.asList("aa","abc"),batch.getMatches(1));
+        Assert.assertEquals(Collections.singletonList("zz"),batch.getMatches(2));
+    }
+
+    @Test
+    public void ignoresRowsOutsideOfTheRanges() throws Exception{
+        KeyedProbeBatch<String> batch = new KeyedProbeBatch<>(Arrays.asList(range("b","c"),range("e","f")));
+        batch.route(Bytes.toBytes("a"),"a");
+        batch.route(Bytes.toBytes("c"),"c");
+        batch.route(Bytes.toBytes("d"),"d");
+        batch.route(Bytes.toBytes("f"),"f");
+        Assert.assertTrue(batch.getMatches(0).isEmpty());
+        Assert.assertTrue(batch.getMatches(1).isEmpty());
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private static Pair<byte[],byte[]> range(String start,String stop){
+        return Pair.newPair(Bytes.toBytes(start),Bytes.toBytes(stop));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.utils;
+
+import com.splicemachine.db.catalog.UUID;
+import com.splicemachine.db.iapi.sql.dictionary.DataDescriptorGenerator;
+import com.splicemachine.db.iapi.sql.dictionary.IndexLister;
+import com.splicemachine.db.iapi.sql.dictionary.IndexRowGenerator;
+import com.splicemachine.db.iapi.sql.dictionary.TableDescriptor;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Category(ArchitectureIndependent.class)
+public class StatisticsAdminTest {
+    private static final long HEAP_CONGLOMERATE = 1568L;
+
+    @Test
+    public void columnGroupsArePrefixesOfTheKeys() throws Exception {
+        // primary key (1, 2, 3), index on (4, 2)
+        TableDescriptor td = table(new int[]{1, 2, 3}, index(4, 2));
+        int[][] groups = StatisticsAdmin.getColumnGroups(td, new int[]{1, 2, 3, 4}, 10);
+        Assert.assertArrayEquals(new int[][]{{1, 2}, {1, 2, 3}, {4, 2}}, groups);
+    }
+
+    @Test
+    public void columnGroupsStopAtTheFirstColumnNotCollected() throws Exception {
+        TableDescriptor td = table(new int[]{1, 2, 3}, index(2, 4));
+        int[][] groups = StatisticsAdmin.getColumnGroups(td, new int[]{1, 3, 4}, 10);
+        Assert.assertEquals(0, groups.length);
+        groups = StatisticsAdmin.getColumnGroups(td, new int[]{1, 2, 4}, 10);
+        Assert.assertArrayEquals(new int[][]{{1, 2}, {2, 4}}, groups);
+    }
+
+    @Test
+    public void columnGroupsAreNotRepeatedAndBounded() throws Exception {
+        TableDescriptor td = table(new int[]{1, 2}, index(1, 2, 3), index(3));
+        int[][] groups = StatisticsAdmin.getColumnGroups(td, new int[]{1, 2, 3}, 10);
+        Assert.assertArrayEquals(new int[][]{{1, 2}, {1, 2, 3}}, groups);
+        groups = StatisticsAdmin.getColumnGroups(td, new int[]{1, 2, 3}, 1);
+        Assert.assertArrayEquals(new int[][]{{1, 2}}, groups);
+    }
+
+    @Test
+    public void tablesWithoutKeysHaveNoColumnGroups() throws Exception {
+        TableDescriptor td = table(null);
+        Assert.assertEquals(0, StatisticsAdmin.getColumnGroups(td, new int[]{1, 2, 3}, 10).length);
+    }
+
+    /*private helper methods*/
+
+    private static TableDescriptor table(int[] primaryKey, IndexRowGenerator... indexes) throws Exception {
+        TableDescriptor td = mock(TableDescriptor.class);
+        IndexRowGenerator pk = null;
+        if (primaryKey != null) {
+            pk = mock(IndexRowGenerator.class);
+            when(pk.getIndexDescriptor()).thenReturn(pk);
+            when(pk.baseColumnPositions()).thenReturn(primaryKey);
+        }
+        when(td.getHeapConglomerateId()).thenReturn(HEAP_CONGLOMERATE);
+        when(td.getConglomerateDescriptor(HEAP_CONGLOMERATE)).thenReturn(new DataDescriptorGenerator(null)
+                .newConglomerateDescriptor(HEAP_CONGLOMERATE, "T", false, pk, false, mock(UUID.class), null, null));
+        IndexLister lister = mock(IndexLister.class);
+        when(lister.getIndexRowGenerators()).thenReturn(indexes);
+        when(td.getIndexLister()).thenReturn(lister);
+        return td;
+    }
+
+    private static IndexRowGenerator index(int... columns) {
+        IndexRowGenerator irg = mock(IndexRowGenerator.class);
+        when(irg.getIndexDescriptor()).thenReturn(irg);
+        when(irg.orderedColumnPositions()).thenReturn(columns);
+        return irg;
+    }
+}
@@ -103,4 +103,8 @@ public class SIConstants {
     public static final String SCHEMA_DISPLAY_NAME_ATTR = "schemaDisplayName";
     public static final String TABLE_DISPLAY_NAME_ATTR = "tableDisplayName";
     public static final String INDEX_DISPLAY_NAME_ATTR = "indexDisplayName";
+
+    // HTableDescriptor property used to opt a table out of MVCC version garbage collection
+    // during compactions. Any value other than "false" leaves collection enabled.
+    public static final String VERSION_GC_ATTR = "versionGC";
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.si.impl;
+
+import com.splicemachine.annotations.ThreadSafe;
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.timestamp.api.TimestampSource;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Tracks the top-level transactions begun by this process which may still read data, including read-only
+ * transactions (which are never recorded in the transaction table).
+ * <p/>
+ * Only top-level transactions are tracked, since a child transaction begins after its parent and cannot
+ * outlive it. Transactions are held weakly, so a transaction which is dropped without being committed or
+ * rolled back stops holding back the oldest active transaction once it can no longer be used to read.
+ */
+@ThreadSafe
+public class ActiveTransactionTracker{
+    private static final Logger LOG=Logger.getLogger(ActiveTransactionTracker.class);
+    private final ConcurrentMap<Long, WeakReference<Txn>> active=new ConcurrentHashMap<>();
+    /*
+     * Held shared from before a new top-level transaction gets its begin timestamp until it is registered,
+     * and exclusively while computing the oldest active transaction, so that no transaction can begin
+     * below the computed value without being seen.
+     */
+    private final ReadWriteLock beginLock=new ReentrantReadWriteLock();
+
+    /**
+     * @return the lock to hold from before a top-level transaction gets its begin timestamp until it is registered
+     */
+    public Lock beginLock(){
+        return beginLock.readLock();
+    }
+
+    public void register(Txn txn){
+        active.put(txn.getTxnId(),new WeakReference<>(txn));
+    }
+
+    /**
+     * @param timestampSource the source of transaction timestamps
+     * @return the begin timestamp of the oldest active transaction begun by this process or, if there is none,
+     * a new timestamp (every transaction begun afterwards will be newer than it).
+     */
+    public long oldestActive(TimestampSource timestampSource){
+        Lock lock=beginLock.writeLock();
+        lock.lock();
+        try{
+            long oldest=timestampSource.nextTimestamp();
+            Iterator<WeakReference<Txn>> iterator=active.values().iterator();
+            while(iterator.hasNext()){
+                Txn txn=iterator.next().get();
+                if(txn==null || txn.getState()!=Txn.State.ACTIVE){
+                    iterator.remove();
+                }else if(txn.getBeginTimestamp()<oldest){
+                    oldest=txn.getBeginTimestamp();
+                }
+            }
+            return oldest;
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Roll back every active transaction, once this process may have stopped holding back the oldest active
+     * transaction of the cluster: the versions those transactions read may have been garbage collected since.
+     *
+     * @return the number of transactions rolled back
+     */
+    public int rollbackActive(){
+        int rolledBack=0;
+        Iterator<WeakReference<Txn>> iterator=active.values().iterator();
+        while(iterator.hasNext()){
+            Txn txn=iterator.next().get();
+            if(txn==null || txn.getState()!=Txn.State.ACTIVE){
+                iterator.remove();
+                continue;
+            }
+            try{
+                txn.rollback();
+                iterator.remove();
+                rolledBack++;
+            }catch(IOException e){
+                LOG.warn("Unable to roll back transaction "+txn.getTxnId(),e);
+            }
+        }
+        return rolledBack;
+    }
+
+    public int size(){
+        return active.size();
+    }
+}
@@ -24,6 +24,7 @@ import com.splicemachine.si.impl.txn.WritableTxn;
 import com.splicemachine.timestamp.api.TimestampSource;
 
 import java.io.IOException;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Represents a Client Transaction Lifecycle Manager.
@@ -41,6 +42,7 @@ public class ClientTxnLifecycleManager implements TxnLifecycleManager{
     @ThreadSafe private TxnStore store;
     @ThreadSafe private KeepAliveScheduler keepAliveScheduler;
     @ThreadSafe private final ExceptionFactory exceptionFactory;
+    @ThreadSafe private final ActiveTransactionTracker activeTransactions=new ActiveTransactionTracker();
 
     private volatile boolean restoreMode=false;
 
@@ -58,6 +60,13 @@ public class ClientTxnLifecycleManager implements TxnLifecycleManager{
         this.keepAliveScheduler = kas;
     }
 
+    /**
+     * @return the top-level transactions begun through this manager which may still be active
+     */
+    public ActiveTransactionTracker getActiveTransactions(){
+        return activeTransactions;
+    }
+
     @Override
     public Txn beginTransaction() throws IOException{
         return beginTransaction(Txn.ROOT_TRANSACTION.getIsolationLevel());
@@ -124,6 +133,49 @@ public class ClientTxnLifecycleManager implements TxnLifecycleManager{
             throw exceptionFactory.doNotRetry("Cannot create a writable child of a read-only transaction. Elevate the parent transaction("+parentTxn.getTxnId()+") first");
         if(parentTxn.getState()!=Txn.State.ACTIVE)
             throw exceptionFactory.doNotRetry("Cannot create a child of an inactive transaction. Parent: "+parentTxn);
+        if(parentTxn.equals(Txn.ROOT_TRANSACTION)){
+            Lock beginLock=activeTransactions.beginLock();
+            beginLock.lock();
+            try{
+                Txn txn=newTransaction(parentTxn,isolationLevel,additive,destinationTable,inMemory,taskId);
+                activeTransactions.register(txn);
+                return txn;
+            }finally{
+                beginLock.unlock();
+            }
+        }
+        return newTransaction(parentTxn,isolationLevel,additive,destinationTable,inMemory,taskId);
+    }
+
+    @Override
+    public Txn chainTransaction(TxnView parentTxn,
+                                Txn.IsolationLevel isolationLevel,
+                                boolean additive,
+                                byte[] destinationTable,
+                                Txn txnToCommit) throws IOException{
+        if(parentTxn==null)
+            parentTxn=Txn.ROOT_TRANSACTION;
+        if(parentTxn.equals(Txn.ROOT_TRANSACTION)){
+            //the chained transaction begins at the commit timestamp, so commit under the begin lock
+            Lock beginLock=activeTransactions.beginLock();
+            beginLock.lock();
+            try{
+                Txn txn=chain(parentTxn,isolationLevel,additive,destinationTable,txnToCommit);
+                activeTransactions.register(txn);
+                return txn;
+            }finally{
+                beginLock.unlock();
+            }
+        }
+        return chain(parentTxn,isolationLevel,additive,destinationTable,txnToCommit);
+    }
+
+    private Txn newTransaction(TxnView parentTxn,
+                               Txn.IsolationLevel isolationLevel,
+                               boolean additive,
+                               byte[] destinationTable,
+                               boolean inMemory,
+                               TaskId taskId) throws IOException{
         if(destinationTable!=null){
             if (inMemory && parentTxn.allowsSubtransactions()) {
                 Txn parent = (Txn) parentTxn;
@@ -137,14 +189,11 @@ public class ClientTxnLifecycleManager implements TxnLifecycleManager{
             return createReadableTransaction(isolationLevel,additive,parentTxn);
     }
 
-    @Override
-    public Txn chainTransaction(TxnView parentTxn,
-                                Txn.IsolationLevel isolationLevel,
-                                boolean additive,
-                                byte[] destinationTable,
-                                Txn txnToCommit) throws IOException{
-        if(parentTxn==null)
-            parentTxn=Txn.ROOT_TRANSACTION;
+    private Txn chain(TxnView parentTxn,
+                      Txn.IsolationLevel isolationLevel,
+                      boolean additive,
+                      byte[] destinationTable,
+                      Txn txnToCommit) throws IOException{
         if(destinationTable!=null){
             /*
              * the new transaction must be writable, so we have to make sure that we generate a timestamp
@@ -194,6 +243,8 @@ public class ClientTxnLifecycleManager implements TxnLifecycleManager{
             Txn writableTxn=new WritableTxn(txn,this,destinationTable,exceptionFactory);
             store.recordNewTransaction(writableTxn);
             keepAliveScheduler.scheduleKeepAlive(writableTxn);
+            if(Txn.ROOT_TRANSACTION.equals(writableTxn.getParentTxnView()))
+                activeTransactions.register(writableTxn); //same begin timestamp, but the read-only one may be dropped
             txn=writableTxn;
         }else
             store.elevateTransaction(txn,destinationTable);
@@ -36,11 +36,13 @@ import com.splicemachine.si.api.server.Transactor;
 import com.splicemachine.si.api.txn.TxnLifecycleManager;
 import com.splicemachine.si.api.txn.TxnStore;
 import com.splicemachine.si.api.txn.TxnSupplier;
+import com.splicemachine.si.impl.ActiveTransactionTracker;
 import com.splicemachine.si.impl.ClientTxnLifecycleManager;
 import com.splicemachine.si.impl.TxnRegion;
 import com.splicemachine.si.impl.execution.ManagedThreadPool;
 import com.splicemachine.si.impl.execution.NonRejectingExecutor;
 import com.splicemachine.si.impl.readresolve.NoOpReadResolver;
+import com.splicemachine.si.impl.region.RowCacheStatus;
 import com.splicemachine.si.impl.rollforward.NoopRollForward;
 import com.splicemachine.si.impl.rollforward.RollForwardStatus;
 import com.splicemachine.si.impl.server.SITransactor;
@@ -96,6 +98,7 @@ public class SIDriver {
     private final TxnOperationFactory txnOpFactory;
     private final RollForward rollForward;
     private final TxnLifecycleManager lifecycleManager;
+    private final ActiveTransactionTracker activeTransactions;
     private final DataFilterFactory filterFactory;
     private final Clock clock;
     private final AsyncReadResolver readResolver;
@@ -106,6 +109,7 @@ public class SIDriver {
     private final ClusterHealth clusterHealth;
     private final ManagedThreadPool rejectingThreadPool;
     private final NonRejectingExecutor threadPool;
+    private final RowCacheStatus rowCacheStatus = new RowCacheStatus();
     private boolean engineStarted = false;
 
     public SIDriver(SIEnvironment env){
@@ -134,6 +138,7 @@ public class SIDriver {
         clientTxnLifecycleManager.setTxnStore(this.txnStore);
         clientTxnLifecycleManager.setKeepAliveScheduler(env.keepAliveScheduler());
         this.lifecycleManager =clientTxnLifecycleManager;
+        this.activeTransactions = clientTxnLifecycleManager.getActiveTransactions();
         readController = new SITransactionReadController(txnSupplier);
         readResolver = initializedReadResolver(config,env.keyedReadResolver());
         this.baseOpFactory = env.baseOperationFactory();
@@ -222,6 +227,10 @@ public class SIDriver {
         return lifecycleManager;
     }
 
+    public ActiveTransactionTracker getActiveTransactions(){
+        return activeTransactions;
+    }
+
     public DataFilterFactory filterFactory(){
         return filterFactory;
     }
@@ -273,6 +282,10 @@ public class SIDriver {
         return rejectingThreadPool;
     }
 
+    public RowCacheStatus getRowCacheStatus() {
+        return rowCacheStatus;
+    }
+
     /* ****************************************************************************************************************/
     /*private helper methods*/
     private AsyncReadResolver initializedReadResolver(SConfiguration config,KeyedReadResolver keyedResolver){
@@ -99,7 +99,9 @@ public class PackedTxnFilter implements TxnFilter, SIFilter{
     public DataFilter.ReturnCode accumulate(DataCell data) throws IOException{
         if(!accumulator.isFinished() && !excludeRow && accumulator.isInteresting(data)){
             if(!accumulator.accumulateCell(data)){
+                //the row failed a predicate, don't bother resolving the rest of it
                 excludeRow=true;
+                return DataFilter.ReturnCode.NEXT_ROW;
             }
         }
         if(lastValidCell==null){
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.si.impl.region;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * A memory bounded cache of the stored cells of recently read rows of a region, used to serve point lookups
+ * without reading the region.
+ *
+ * The cells are kept as they are stored, with all their versions, and the reader still applies its transactional
+ * filter to them, so a cached row can be served to any transaction. A cached row is only valid until the row is
+ * written to: the region has to {@link #invalidate(byte[])} it once the write is visible to region reads, and
+ * {@link #clear()} the cache when it is loaded with data by other means or closed.
+ *
+ * A row read concurrently with a write can be missing that write, so it is only cached if no row of the region was
+ * invalidated since the read started; callers get a token from {@link #startRead()} before reading the row and pass
+ * it back to {@link #put(byte[],List,long,long)}.
+ *
+ * Rows are evicted in least recently used order.
+ */
+public class RowCache<C>{
+    private final long maxBytes;
+    private final RowCacheStatus status;
+    private final LinkedHashMap<ByteBuffer,CachedRow<C>> rows = new LinkedHashMap<>(16,0.75f,true);
+    private long cachedBytes;
+    private long generation;
+
+    public RowCache(long maxBytes,RowCacheStatus status){
+        this.maxBytes = maxBytes;
+        this.status = status;
+    }
+
+    /**
+     * @return a token to pass to {@link #put(byte[],List,long,long)} when caching a row read after this call
+     */
+    public synchronized long startRead(){
+        return generation;
+    }
+
+    /**
+     * @param rowKey the key of the row
+     * @return the cached cells of the row, or {@code null} if the row is not cached
+     */
+    public List<C> get(byte[] rowKey){
+        CachedRow<C> row;
+        synchronized(this){
+            row = rows.get(ByteBuffer.wrap(rowKey));
+        }
+        if(row==null){
+            status.miss();
+            return null;
+        }
+        status.hit();
+        return row.cells;
+    }
+
+    /**
+     * Cache the cells of a row, unless a row was invalidated since the read started.
+     *
+     * @param rowKey the key of the row
+     * @param cells the cells of the row, which must not be modified afterwards
+     * @param bytes the size of the cells
+     * @param readToken the token returned by {@link #startRead()} before the row was read
+     */
+    public synchronized void put(byte[] rowKey,List<C> cells,long bytes,long readToken){
+        if(readToken!=generation || bytes>maxBytes)
+            return;
+        CachedRow<C> previous = rows.put(ByteBuffer.wrap(rowKey),new CachedRow<>(cells,bytes));
+        if(previous!=null){
+            cachedBytes -= previous.bytes;
+            status.dropped(previous.bytes);
+        }
+        cachedBytes += bytes;
+        status.cached(bytes);
+
+        Iterator<CachedRow<C>> eldest = rows.values().iterator();
+        while(cachedBytes>maxBytes){
+            CachedRow<C> evicted = eldest.next();
+            eldest.remove();
+            cachedBytes -= evicted.bytes;
+            status.evicted(evicted.bytes);
+        }
+    }
+
+    /**
+     * Drop a row which has been written to.
+     *
+     * @param rowKey the key of the row
+     */
+    public synchronized void invalidate(byte[] rowKey){
+        generation++;
+        CachedRow<C> row = rows.remove(ByteBuffer.wrap(rowKey));
+        if(row!=null){
+            cachedBytes -= row.bytes;
+            status.invalidated(row.bytes);
+        }
+    }
+
+    /**
+     * Drop all the rows.
+     */
+    public synchronized void clear(){
+        generation++;
+        rows.clear();
+        status.dropped(cachedBytes);
+        cachedBytes = 0;
+    }
+
+    public synchronized int size(){
+        return rows.size();
+    }
+
+    private static class CachedRow<C>{
+        private final List<C> cells;
+        private final long bytes;
+
+        CachedRow(List<C> cells,long bytes){
+            this.cells = cells;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.si.impl.region;
+
+import javax.management.MXBean;
+
+/**
+ * JMX Hook for monitoring the row caches of the regions of this server.
+ */
+@MXBean
+public interface RowCacheManagement{
+
+    /**
+     * @return the number of point lookups served from a row cache
+     */
+    long getHits();
+
+    /**
+     * @return the number of point lookups which had to read the row from the region
+     */
+    long getMisses();
+
+    /**
+     * @return the number of cached rows dropped because they were written to
+     */
+    long getInvalidations();
+
+    /**
+     * @return the number of cached rows dropped to make room for others
+     */
+    long getEvictions();
+
+    /**
+     * @return the total size in bytes of the rows currently cached
+     */
+    long getCachedBytes();
+}
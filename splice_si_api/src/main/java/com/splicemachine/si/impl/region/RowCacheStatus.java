@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.si.impl.region;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of all the row caches of this server.
+ */
+public class RowCacheStatus implements RowCacheManagement{
+    private final AtomicLong hits = new AtomicLong(0l);
+    private final AtomicLong misses = new AtomicLong(0l);
+    private final AtomicLong invalidations = new AtomicLong(0l);
+    private final AtomicLong evictions = new AtomicLong(0l);
+    private final AtomicLong cachedBytes = new AtomicLong(0l);
+
+    @Override public long getHits(){ return hits.get(); }
+    @Override public long getMisses(){ return misses.get(); }
+    @Override public long getInvalidations(){ return invalidations.get(); }
+    @Override public long getEvictions(){ return evictions.get(); }
+    @Override public long getCachedBytes(){ return cachedBytes.get(); }
+
+    public void hit(){
+        hits.incrementAndGet();
+    }
+
+    public void miss(){
+        misses.incrementAndGet();
+    }
+
+    public void invalidated(long bytes){
+        invalidations.incrementAndGet();
+        cachedBytes.addAndGet(-bytes);
+    }
+
+    public void evicted(long bytes){
+        evictions.incrementAndGet();
+        cachedBytes.addAndGet(-bytes);
+    }
+
+    public void cached(long bytes){
+        cachedBytes.addAndGet(bytes);
+    }
+
+    public void dropped(long bytes){
+        cachedBytes.addAndGet(-bytes);
+    }
+}
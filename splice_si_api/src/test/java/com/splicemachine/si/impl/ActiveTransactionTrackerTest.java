@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.si.impl;
+
+import com.splicemachine.si.api.data.ExceptionFactory;
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.si.impl.store.TestingTimestampSource;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.mockito.Mockito.mock;
+
+@Category(ArchitectureIndependent.class)
+public class ActiveTransactionTrackerTest{
+    private TestingTimestampSource timestampSource;
+    private ClientTxnLifecycleManager lifecycleManager;
+    private ActiveTransactionTracker tracker;
+
+    @Before
+    public void setUp(){
+        timestampSource=new TestingTimestampSource();
+        lifecycleManager=new ClientTxnLifecycleManager(timestampSource,mock(ExceptionFactory.class));
+        tracker=lifecycleManager.getActiveTransactions();
+    }
+
+    @Test
+    public void oldestReadOnlyTransactionHoldsBackTheOldestActive() throws Exception{
+        Txn first=lifecycleManager.beginTransaction();
+        Txn second=lifecycleManager.beginTransaction();
+        Assert.assertFalse("Read-only transactions should be tracked",first.allowsWrites());
+
+        Assert.assertEquals("Incorrect oldest active transaction",first.getBeginTimestamp(),tracker.oldestActive(timestampSource));
+        first.commit();
+        Assert.assertEquals("Incorrect oldest active transaction",second.getBeginTimestamp(),tracker.oldestActive(timestampSource));
+        second.rollback();
+        long oldest=tracker.oldestActive(timestampSource);
+        Assert.assertTrue("With nothing active, the oldest active transaction should be a new timestamp",oldest>second.getBeginTimestamp());
+        Assert.assertEquals("Finished transactions should be dropped",0,tracker.size());
+    }
+
+    @Test
+    public void childTransactionsAreNotTracked() throws Exception{
+        Txn parent=lifecycleManager.beginTransaction();
+        lifecycleManager.beginChildTransaction(parent,null);
+
+        Assert.assertEquals("Only the parent should be tracked",1,tracker.size());
+        Assert.assertEquals("Incorrect oldest active transaction",parent.getBeginTimestamp(),tracker.oldestActive(timestampSource));
+    }
+
+    @Test
+    public void rollbackActiveRollsBackEveryActiveTransaction() throws Exception{
+        Txn committed=lifecycleManager.beginTransaction();
+        Txn first=lifecycleManager.beginTransaction();
+        Txn second=lifecycleManager.beginTransaction();
+        committed.commit();
+
+        Assert.assertEquals("Incorrect number of rolled back transactions",2,tracker.rollbackActive());
+        Assert.assertEquals("Transaction should be rolled back",Txn.State.ROLLEDBACK,first.getState());
+        Assert.assertEquals("Transaction should be rolled back",Txn.State.ROLLEDBACK,second.getState());
+        Assert.assertEquals("Committed transaction should stay committed",Txn.State.COMMITTED,committed.getState());
+        Assert.assertEquals("Rolled back transactions should be dropped",0,tracker.size());
+    }
+
+    @Test
+    public void nothingActiveYieldsANewTimestamp() throws Exception{
+        long before=timestampSource.nextTimestamp();
+        long oldest=tracker.oldestActive(timestampSource);
+        Assert.assertTrue("Every transaction begun afterwards should be newer",oldest>before);
+        Txn txn=lifecycleManager.beginTransaction();
+        Assert.assertTrue("Every transaction begun afterwards should be newer",txn.getBeginTimestamp()>oldest);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.si.impl.region;
+
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@Category(ArchitectureIndependent.class)
+public class RowCacheTest{
+
+    @Test
+    public void servesCachedRows() throws Exception{
+        RowCacheStatus status = new RowCacheStatus();
+        RowCache<String> cache = new RowCache<>(100,status);
+        Assert.assertNull("Row should not be cached yet",cache.get(key(1)));
+
+        List<String> cells = Arrays.asList("a","b");
+        cache.put(key(1),cells,10,cache.startRead());
+        Assert.assertEquals("Incorrect cached cells",cells,cache.get(key(1)));
+        Assert.assertEquals("Incorrect hits",1L,status.getHits());
+        Assert.assertEquals("Incorrect misses",1L,status.getMisses());
+        Assert.assertEquals("Incorrect cached bytes",10L,status.getCachedBytes());
+    }
+
+    @Test
+    public void invalidatesWrittenRows() throws Exception{
+        RowCacheStatus status = new RowCacheStatus();
+        RowCache<String> cache = new RowCache<>(100,status);
+        cache.put(key(1),Collections.singletonList("a"),10,cache.startRead());
+        cache.put(key(2),Collections.singletonList("b"),10,cache.startRead());
+
+        cache.invalidate(key(1));
+        Assert.assertNull("Written row should have been dropped",cache.get(key(1)));
+        Assert.assertNotNull("Other rows should still be cached",cache.get(key(2)));
+        Assert.assertEquals("Incorrect invalidations",1L,status.getInvalidations());
+        Assert.assertEquals("Incorrect cached bytes",10L,status.getCachedBytes());
+    }
+
+    @Test
+    public void doesNotCacheRowsReadDuringAWrite() throws Exception{
+        RowCache<String> cache = new RowCache<>(100,new RowCacheStatus());
+        long readToken = cache.startRead();
+        cache.invalidate(key(2));
+        cache.put(key(1),Collections.singletonList("a"),10,readToken);
+        Assert.assertNull("Row read before a write should not be cached",cache.get(key(1)));
+
+        readToken = cache.startRead();
+        cache.clear();
+        cache.put(key(1),Collections.singletonList("a"),10,readToken);
+        Assert.assertNull("Row read before the cache was cleared should not be cached",cache.get(key(1)));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedRows() throws Exception{
+        RowCacheStatus status = new RowCacheStatus();
+        RowCache<String> cache = new RowCache<>(30,status);
+        for(int i=0;i<3;i++){
+            cache.put(key(i),Collections.singletonList("v"+i),10,cache.startRead());
+        }
+        Assert.assertNotNull(cache.get(key(0)));
+        cache.put(key(3),Collections.singletonList("v3"),10,cache.startRead());
+
+        Assert.assertNull("Least recently used row should have been evicted",cache.get(key(1)));
+        Assert.assertNotNull(cache.get(key(0)));
+        Assert.assertNotNull(cache.get(key(3)));
+        Assert.assertEquals("Incorrect evictions",1L,status.getEvictions());
+        Assert.assertEquals("Incorrect cached bytes",30L,status.getCachedBytes());
+        Assert.assertEquals("Incorrect size",3,cache.size());
+
+        cache.put(key(4),Collections.singletonList("v4"),31,cache.startRead());
+        Assert.assertNull("Rows larger than the cache should not be cached",cache.get(key(4)));
+    }
+
+    private static byte[] key(int i){
+        return new byte[]{(byte)i};
+    }
+}
@@ -35,6 +35,7 @@ import org.jboss.netty.channel.socket.nio.NioClientSocketChannelFactory;
 import org.jboss.netty.handler.codec.frame.FixedLengthFrameDecoder;
 import org.spark_project.guava.util.concurrent.ThreadFactoryBuilder;
 import com.splicemachine.concurrent.CountDownLatches;
+import com.splicemachine.metrics.LatencyHistograms;
 import com.splicemachine.timestamp.api.Callback;
 import com.splicemachine.timestamp.api.TimestampClientStatistics;
 import com.splicemachine.timestamp.api.TimestampHostProvider;
@@ -216,6 +217,7 @@ public class TimestampClient extends TimestampBaseHandler implements TimestampCl
 
         // Measure duration of full client request for JMX
         long requestStartTime = System.currentTimeMillis();
+        long requestStartNanos = System.nanoTime();
 
         connectIfNeeded();
 
@@ -280,6 +282,7 @@ public class TimestampClient extends TimestampBaseHandler implements TimestampCl
         // Since request was successful, update JMX metrics
         numRequests.incrementAndGet();
         totalRequestDuration.addAndGet(System.currentTimeMillis() - requestStartTime);
+        LatencyHistograms.TIMESTAMP_REQUEST.update(System.nanoTime() - requestStartNanos);
 
         return timestamp;
     }
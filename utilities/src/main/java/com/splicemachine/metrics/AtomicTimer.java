@@ -40,6 +40,8 @@ public class AtomicTimer implements MetricFactory{
 				@Override public boolean isActive() { return true; }
 		};
 
+		private final Histogram histogram = Metrics.histogram();
+
 		private final TimeView view;
 
 		public AtomicTimer() {
@@ -83,6 +85,7 @@ public class AtomicTimer implements MetricFactory{
 
 		@Override public Gauge newMaxGauge() { return Metrics.noOpGauge(); }
 		@Override public Gauge newMinGauge() { return Metrics.noOpGauge(); }
+		@Override public Histogram newHistogram() { return histogram; }
 
 		@Override public boolean isActive() { return true; }
 
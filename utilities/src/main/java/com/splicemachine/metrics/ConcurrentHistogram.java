@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.metrics;
+
+import com.splicemachine.annotations.ThreadSafe;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free Histogram with log-linear buckets.
+ *
+ * Values below {@code 2^(precision+1)} each get their own bucket. Above that every power of two
+ * is split into {@code 2^precision} equal buckets, so a recorded value is known to within a relative
+ * error of {@code 2^-precision} whatever its magnitude, and the whole positive range of a long fits in
+ * {@code (64-precision)*2^precision} counters. Recording is a single atomic increment plus the
+ * min/max/sum bookkeeping, and two histograms of the same precision merge by adding their counters.
+ *
+ * @see Metrics#histogram()
+ */
+@ThreadSafe
+class ConcurrentHistogram implements Histogram {
+		private final int precision;
+		private final AtomicLongArray counts;
+		private final LongAdder sum = new LongAdder();
+		private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+		private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+		ConcurrentHistogram(int precision) {
+				if(precision<1 || precision>16)
+						throw new IllegalArgumentException("Precision must be between 1 and 16, not "+precision);
+				this.precision = precision;
+				this.counts = new AtomicLongArray((64-precision)<<precision);
+		}
+
+		@Override
+		public void update(long value) {
+				if(value<0) value = 0;
+				counts.incrementAndGet(bucket(value));
+				sum.add(value);
+				long m;
+				while(value<(m = min.get()) && !min.compareAndSet(m,value)){ }
+				while(value>(m = max.get()) && !max.compareAndSet(m,value)){ }
+		}
+
+		@Override
+		public long getCount() {
+				long count = 0;
+				for(int i=0;i<counts.length();i++){
+						count+=counts.get(i);
+				}
+				return count;
+		}
+
+		@Override public long getMin() { long m = min.get(); return m==Long.MAX_VALUE? 0: m; }
+		@Override public long getMax() { long m = max.get(); return m==Long.MIN_VALUE? 0: m; }
+
+		@Override
+		public double getMean() {
+				long count = getCount();
+				return count==0? 0d: sum.doubleValue()/count;
+		}
+
+		@Override
+		public long getValueAtPercentile(double percentile) {
+				if(percentile<0 || percentile>100)
+						throw new IllegalArgumentException("Percentile must be between 0 and 100, not "+percentile);
+				long[] snapshot = new long[counts.length()];
+				long count = 0;
+				for(int i=0;i<snapshot.length;i++){
+						snapshot[i] = counts.get(i);
+						count+=snapshot[i];
+				}
+				if(count==0) return 0;
+				long rank = Math.max(1,(long)Math.ceil(percentile/100d*count));
+				long seen = 0;
+				for(int i=0;i<snapshot.length;i++){
+						seen+=snapshot[i];
+						if(seen>=rank)
+								return Math.min(upperBound(i),getMax());
+				}
+				return getMax();
+		}
+
+		@Override
+		public void merge(Histogram other) {
+				if(!other.isActive()) return;
+				if(!(other instanceof ConcurrentHistogram) || ((ConcurrentHistogram)other).precision!=precision)
+						throw new IllegalArgumentException("Cannot merge histograms with different bucket layouts");
+				ConcurrentHistogram o = (ConcurrentHistogram)other;
+				for(int i=0;i<counts.length();i++){
+						long c = o.counts.get(i);
+						if(c!=0)
+								counts.addAndGet(i,c);
+				}
+				sum.add(o.sum.sum());
+				long m;
+				long oMin = o.min.get();
+				while(oMin<(m = min.get()) && !min.compareAndSet(m,oMin)){ }
+				long oMax = o.max.get();
+				while(oMax>(m = max.get()) && !max.compareAndSet(m,oMax)){ }
+		}
+
+		@Override public boolean isActive() { return true; }
+
+		int bucket(long value) {
+				int shift = 63-Long.numberOfLeadingZeros(value)-precision;
+				if(shift<=0) return (int)value;
+				return (shift<<precision)+(int)(value>>>shift);
+		}
+
+		long upperBound(int bucket) {
+				int shift = (bucket>>>precision)-1;
+				if(shift<=0) return bucket;
+				long mantissa = bucket-((long)shift<<precision);
+				return ((mantissa+1)<<shift)-1;
+		}
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.metrics;
+
+/**
+ * A distribution of recorded values (typically latencies in nanoseconds).
+ *
+ * Implementations record into a fixed number of buckets, so a value is only known to within the
+ * bounds of its bucket; percentiles are reported as the upper bound of the bucket they fall in,
+ * never above the largest value recorded.
+ */
+public interface Histogram {
+
+		void update(long value);
+
+		long getCount();
+
+		long getMin();
+
+		long getMax();
+
+		double getMean();
+
+		/**
+		 * @param percentile a percentile in the range [0,100], e.g. 99.9
+		 * @return the smallest bucket bound that is greater than or equal to {@code percentile} percent
+		 * of the recorded values, or 0 if nothing was recorded
+		 */
+		long getValueAtPercentile(double percentile);
+
+		/**
+		 * Add the values recorded by {@code other} to this histogram.
+		 *
+		 * @throws IllegalArgumentException if {@code other} does not have the same bucket layout
+		 */
+		void merge(Histogram other);
+
+		boolean isActive();
+}
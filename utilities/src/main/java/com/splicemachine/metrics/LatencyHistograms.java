@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide latency distributions of the operations whose tail latency matters most to clients.
+ *
+ * Each histogram records nanoseconds from the moment the operation starts until it completes, and is
+ * exported over JMX as {@code com.splicemachine.metrics:type=LatencyHistogram,name=<name>}.
+ */
+public final class LatencyHistograms{
+    public static final String OBJECT_NAME_BASE="com.splicemachine.metrics:type=LatencyHistogram,name=";
+
+    private static final Map<String,Histogram> HISTOGRAMS=new LinkedHashMap<>();
+
+    /** Time to write a BulkWrite to a region server, including retries */
+    public static final Histogram PIPELINE_FLUSH=register("PipelineFlush");
+    /** Time for a region server to obtain a timestamp from the timestamp server */
+    public static final Histogram TIMESTAMP_REQUEST=register("TimestampRequest");
+    /** Time to look up a transaction in the transaction table */
+    public static final Histogram TXN_LOOKUP=register("TxnLookup");
+    /** Time an OLAP job waits between being submitted and starting to run */
+    public static final Histogram OLAP_JOB_QUEUE=register("OlapJobQueue");
+    /** Time to execute a top-level statement, up to the point its result set is returned */
+    public static final Histogram STATEMENT_EXECUTION=register("StatementExecution");
+
+    private LatencyHistograms(){ }
+
+    private static Histogram register(String name){
+        Histogram histogram=Metrics.histogram();
+        HISTOGRAMS.put(name,histogram);
+        return histogram;
+    }
+
+    /**
+     * @return the histograms by name, in a fixed order
+     */
+    public static Map<String,Histogram> histograms(){
+        return Collections.unmodifiableMap(HISTOGRAMS);
+    }
+
+    public static ObjectName objectName(String name) throws MalformedObjectNameException{
+        return new ObjectName(OBJECT_NAME_BASE+name);
+    }
+
+    /**
+     * Register every histogram with {@code mbs}. Histograms that are already registered (e.g. when
+     * several servers share a JVM) are left alone.
+     */
+    public static void registerJMX(MBeanServer mbs) throws Exception{
+        for(Map.Entry<String,Histogram> e : HISTOGRAMS.entrySet()){
+            try{
+                mbs.registerMBean(new Statistics(e.getKey(),e.getValue()),objectName(e.getKey()));
+            }catch(InstanceAlreadyExistsException ignored){
+            }
+        }
+    }
+
+    private static class Statistics implements LatencyHistogramStatistics{
+        private final String name;
+        private final Histogram histogram;
+
+        Statistics(String name,Histogram histogram){
+            this.name=name;
+            this.histogram=histogram;
+        }
+
+        @Override public String getName(){ return name; }
+        @Override public long getCount(){ return histogram.getCount(); }
+        @Override public double getMeanMicros(){ return histogram.getMean()/1000d; }
+        @Override public long getP50Micros(){ return micros(histogram.getValueAtPercentile(50d)); }
+        @Override public long getP99Micros(){ return micros(histogram.getValueAtPercentile(99d)); }
+        @Override public long getP999Micros(){ return micros(histogram.getValueAtPercentile(99.9d)); }
+        @Override public long getMaxMicros(){ return micros(histogram.getMax()); }
+
+        private static long micros(long nanos){
+            return TimeUnit.NANOSECONDS.toMicros(nanos);
+        }
+    }
+}
@@ -31,5 +31,7 @@ public interface MetricFactory {
 
 		Gauge newMinGauge();
 
+		Histogram newHistogram();
+
 		boolean isActive();
 }
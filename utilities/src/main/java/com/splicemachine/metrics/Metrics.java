@@ -47,9 +47,15 @@ public class Metrics {
 
 				@Override public Gauge newMaxGauge() { return NOOP_GAUGE; }
 				@Override public Gauge newMinGauge() { return NOOP_GAUGE; }
+				@Override public Histogram newHistogram() { return NOOP_HISTOGRAM; }
 				@Override public boolean isActive() { return false; }
 		};
 
+		/*
+		 * 2^-5 relative error; 1888 buckets (about 15KB) cover every non-negative long
+		 */
+		private static final int DEFAULT_HISTOGRAM_PRECISION = 5;
+
 		private static final IOStats NOOP_IO = new IOStats() {
 				@Override public TimeView getTime() { return NOOP_TIME_VIEW; }
 				@Override public long elementsSeen() { return 0; }
@@ -87,6 +93,17 @@ public class Metrics {
 				@Override public TimeView getTime() { return NOOP_TIME_VIEW; }
 		};
 
+		private static final Histogram NOOP_HISTOGRAM = new Histogram() {
+				@Override public void update(long value) { }
+				@Override public long getCount() { return 0; }
+				@Override public long getMin() { return 0; }
+				@Override public long getMax() { return 0; }
+				@Override public double getMean() { return 0; }
+				@Override public long getValueAtPercentile(double percentile) { return 0; }
+				@Override public void merge(Histogram other) { }
+				@Override public boolean isActive() { return false; }
+		};
+
 		private static Counter NOOP_COUNTER = new Counter() {
 				@Override public void add(long value) { }
 				@Override public long getTotal() { return 0; }
@@ -168,6 +185,19 @@ public class Metrics {
 		@ThreadSafe
 		public static Gauge noOpGauge() { return NOOP_GAUGE; }
 
+		@ThreadSafe
+		public static Histogram histogram() { return new ConcurrentHistogram(DEFAULT_HISTOGRAM_PRECISION); }
+
+		/**
+		 * @param precision the number of bits of each value that are kept; the relative error of
+		 *                  a recorded value is at most {@code 2^-precision}
+		 */
+		@ThreadSafe
+		public static Histogram histogram(int precision) { return new ConcurrentHistogram(precision); }
+
+		@ThreadSafe
+		public static Histogram noOpHistogram() { return NOOP_HISTOGRAM; }
+
 		public static MultiTimeView multiTimeView() {
 				return new SimpleMultiTimeView(Folders.sumFolder(),Folders.sumFolder(),Folders.sumFolder(),Folders.minLongFolder(),Folders.maxLongFolder());
 		}
@@ -239,6 +269,7 @@ public class Metrics {
 				@Override public Timer newTimer() { return Metrics.samplingTimer(sampleSize,initialSize); }
 				@Override public Gauge newMaxGauge() { return maxGauge(); }
 				@Override public Gauge newMinGauge() { return minGauge(); }
+				@Override public Histogram newHistogram() { return histogram(); }
 				@Override public boolean isActive() { return true; }
 
 				@Override public Timer newWallTimer() { return Metrics.newWallTimer(); }
@@ -251,6 +282,7 @@ public class Metrics {
 
 				@Override public Gauge newMaxGauge() { return maxGauge(); }
 				@Override public Gauge newMinGauge() { return minGauge(); }
+				@Override public Histogram newHistogram() { return histogram(); }
 				@Override public boolean isActive() { return true; }
 		}
 
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2012 - 2018 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.metrics;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentHistogramTest {
+
+    @Test
+    public void emptyHistogram() {
+        Histogram h = Metrics.histogram();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getMin());
+        assertEquals(0, h.getMax());
+        assertEquals(0d, h.getMean(), 0d);
+        assertEquals(0, h.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        Histogram h = Metrics.histogram(5);
+        for (long v = 1; v <= 64; v++) {
+            h.update(v);
+        }
+        assertEquals(64, h.getCount());
+        assertEquals(1, h.getMin());
+        assertEquals(64, h.getMax());
+        assertEquals(32, h.getValueAtPercentile(50));
+        assertEquals(64, h.getValueAtPercentile(100));
+        assertEquals(32.5d, h.getMean(), 0.0001d);
+    }
+
+    @Test
+    public void bucketsCoverEveryValue() {
+        ConcurrentHistogram h = new ConcurrentHistogram(5);
+        long[] values = {0, 1, 63, 64, 65, 1000, 123456789L, Long.MAX_VALUE >>> 1, Long.MAX_VALUE};
+        for (long v : values) {
+            int b = h.bucket(v);
+            assertTrue("bucket out of range for " + v, b >= 0 && b < (64 - 5) << 5);
+            assertTrue("upper bound below value " + v, h.upperBound(b) >= v);
+            if (b > 0)
+                assertTrue("previous bucket reaches value " + v, h.upperBound(b - 1) < v);
+        }
+    }
+
+    @Test
+    public void percentilesHaveBoundedRelativeError() {
+        Histogram h = Metrics.histogram(5);
+        Random random = new Random(0L);
+        long[] sorted = new long[100000];
+        for (int i = 0; i < sorted.length; i++) {
+            long v = (long) Math.exp(random.nextDouble() * 20); // spans many orders of magnitude
+            sorted[i] = v;
+            h.update(v);
+        }
+        Arrays.sort(sorted);
+        for (double p : new double[]{50, 90, 99, 99.9}) {
+            long exact = sorted[(int) Math.ceil(p / 100 * sorted.length) - 1];
+            long estimate = h.getValueAtPercentile(p);
+            assertTrue("p" + p + " below exact value", estimate >= exact);
+            assertTrue("p" + p + " estimate " + estimate + " too far from " + exact, estimate <= exact + exact / 32 + 1);
+        }
+    }
+
+    @Test
+    public void mergeAddsCounts() {
+        Histogram a = Metrics.histogram();
+        Histogram b = Metrics.histogram();
+        for (int i = 0; i < 100; i++) {
+            a.update(10);
+            b.update(1000000);
+        }
+        a.merge(b);
+        a.merge(Metrics.noOpHistogram());
+        assertEquals(200, a.getCount());
+        assertEquals(10, a.getMin());
+        assertEquals(1000000, a.getMax());
+        assertEquals(10, a.getValueAtPercentile(50));
+        assertEquals(1000000, a.getValueAtPercentile(99));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mergeRejectsDifferentPrecision() {
+        Metrics.histogram(5).merge(Metrics.histogram(7));
+    }
+
+    @Test
+    public void concurrentUpdatesAreNotLost() throws Exception {
+        final Histogram h = Metrics.histogram();
+        int threads = 8;
+        final int perThread = 50000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < perThread; i++) {
+                        h.update(offset * 1000 + i % 1000);
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        assertEquals(threads * perThread, h.getCount());
+        assertEquals(0, h.getMin());
+        assertEquals((threads - 1) * 1000 + 999, h.getMax());
+    }
+}